@@ -0,0 +1,54 @@
+package no.cantara.binarytree.benchmark;
+
+import no.cantara.binarytree.NodeFactory;
+import no.cantara.binarytree.array.ArrayNodeFactory;
+import no.cantara.binarytree.offheap.OffHeapNodeFactory;
+import no.cantara.binarytree.pojo.PojoNodeFactory;
+
+/**
+ * The node factories under benchmark.
+ */
+public enum FactoryType {
+
+    POJO {
+        @Override
+        NodeFactory create(boolean sizeAugmented) {
+            return new PojoNodeFactory(sizeAugmented);
+        }
+
+        @Override
+        int nodeCount(NodeFactory factory) {
+            return -1;
+        }
+    },
+    ARRAY {
+        @Override
+        NodeFactory create(boolean sizeAugmented) {
+            return new ArrayNodeFactory(sizeAugmented);
+        }
+
+        @Override
+        int nodeCount(NodeFactory factory) {
+            return ((ArrayNodeFactory) factory).nodeCount();
+        }
+    },
+    OFF_HEAP {
+        @Override
+        NodeFactory create(boolean sizeAugmented) {
+            return new OffHeapNodeFactory(sizeAugmented);
+        }
+
+        @Override
+        int nodeCount(NodeFactory factory) {
+            return ((OffHeapNodeFactory) factory).nodeCount();
+        }
+    };
+
+    abstract NodeFactory create(boolean sizeAugmented);
+
+    /**
+     * @param factory a factory created by {@link #create(boolean)} of this type
+     * @return the number of live nodes, or -1 if the factory leaves removed nodes to the garbage collector
+     */
+    abstract int nodeCount(NodeFactory factory);
+}
@@ -0,0 +1,110 @@
+package no.cantara.binarytree.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distributions of the keys that benchmark operations access. A distribution yields key indexes in
+ * <code>[0, size)</code>, which the benchmarks map to keys.
+ */
+public enum KeyDistribution {
+
+    /**
+     * Every index in ascending order, wrapping around.
+     */
+    SEQUENTIAL {
+        @Override
+        int[] indexes(int size, int count, long seed) {
+            int[] indexes = new int[count];
+            for (int i = 0; i < count; i++) {
+                indexes[i] = i % size;
+            }
+            return indexes;
+        }
+    },
+    /**
+     * Uniformly distributed indexes.
+     */
+    RANDOM {
+        @Override
+        int[] indexes(int size, int count, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] indexes = new int[count];
+            for (int i = 0; i < count; i++) {
+                indexes[i] = random.nextInt(size);
+            }
+            return indexes;
+        }
+    },
+    /**
+     * Zipfian distributed indexes with exponent 0.99, as in YCSB. The popular indexes are scattered over the whole range
+     * by hashing the rank, so that hot keys are not all neighbours in the tree.
+     */
+    ZIPFIAN {
+        private static final double THETA = 0.99;
+
+        @Override
+        int[] indexes(int size, int count, long seed) {
+            double zetaN = zeta(size);
+            double zeta2 = zeta(Math.min(size, 2));
+            double alpha = 1 / (1 - THETA);
+            double eta = (1 - Math.pow(2.0 / size, 1 - THETA)) / (1 - zeta2 / zetaN);
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] indexes = new int[count];
+            for (int i = 0; i < count; i++) {
+                double u = random.nextDouble();
+                double uz = u * zetaN;
+                long rank;
+                if (uz < 1) {
+                    rank = 0;
+                } else if (uz < 1 + Math.pow(0.5, THETA)) {
+                    rank = 1;
+                } else {
+                    rank = (long) (size * Math.pow(eta * u - eta + 1, alpha));
+                }
+                indexes[i] = (int) Math.floorMod(scramble(Math.min(rank, size - 1)), (long) size);
+            }
+            return indexes;
+        }
+
+        private static double zeta(int n) {
+            double sum = 0;
+            for (int i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, THETA);
+            }
+            return sum;
+        }
+
+        private static long scramble(long rank) {
+            // FNV-1a over the bytes of the rank
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < 8; i++) {
+                hash ^= (rank >>> (i * 8)) & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    };
+
+    /**
+     * Returns the given number of indexes in <code>[0, size)</code>.
+     */
+    abstract int[] indexes(int size, int count, long seed);
+
+    /**
+     * Returns a random permutation of <code>[0, size)</code>.
+     */
+    static int[] shuffledIndexes(int size, long seed) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = swap;
+        }
+        return indexes;
+    }
+}
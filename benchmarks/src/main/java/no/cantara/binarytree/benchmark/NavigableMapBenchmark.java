@@ -0,0 +1,214 @@
+package no.cantara.binarytree.benchmark;
+
+import no.cantara.binarytree.AbstractBinarySearchTree;
+import no.cantara.binarytree.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link java.util.NavigableMap} methods of {@link AbstractBinarySearchTree} on size augmented trees. The map holds
+ * <code>size</code> even keys, lookups use uniformly distributed keys of which half are missing.
+ * <p>
+ * Methods that remove entries put them back within the same invocation to keep the map size constant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Thread)
+public class NavigableMapBenchmark {
+
+    private static final int OPERATIONS = 1 << 16;
+
+    @Param({"AVL", "ITERATIVE"})
+    TreeType tree;
+
+    @Param({"POJO", "ARRAY", "OFF_HEAP"})
+    FactoryType factory;
+
+    @Param({"1000", "100000", "10000000"})
+    int size;
+
+    private AbstractBinarySearchTree map;
+    private int[] indexes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        map = (AbstractBinarySearchTree) tree.createFilled(factory.create(true), size);
+        indexes = KeyDistribution.RANDOM.indexes(2 * size, OPERATIONS, 7);
+    }
+
+    /**
+     * Returns a key in <code>[0, 2 * size)</code>, odd keys are missing.
+     */
+    private Long nextKey() {
+        int index = indexes[next];
+        next = (next + 1) & (OPERATIONS - 1);
+        return (long) index;
+    }
+
+    /**
+     * Returns an even key that is in the map.
+     */
+    private Long nextExistingKey() {
+        return nextKey() & ~1L;
+    }
+
+    @Benchmark
+    public Node get() {
+        return map.get(nextKey());
+    }
+
+    @Benchmark
+    public boolean containsKey() {
+        return map.containsKey(nextKey());
+    }
+
+    @Benchmark
+    public Node putAndRemove() {
+        Long key = nextKey() | 1L;
+        Node node = map.put(key, null);
+        map.remove(key);
+        return node;
+    }
+
+    @Benchmark
+    public Node removeAndPut() {
+        Long key = nextExistingKey();
+        map.remove(key);
+        return map.put(key, null);
+    }
+
+    @Benchmark
+    public Map.Entry<Long, Node> lowerEntry() {
+        return map.lowerEntry(nextKey());
+    }
+
+    @Benchmark
+    public Map.Entry<Long, Node> floorEntry() {
+        return map.floorEntry(nextKey());
+    }
+
+    @Benchmark
+    public Map.Entry<Long, Node> ceilingEntry() {
+        return map.ceilingEntry(nextKey());
+    }
+
+    @Benchmark
+    public Map.Entry<Long, Node> higherEntry() {
+        return map.higherEntry(nextKey());
+    }
+
+    @Benchmark
+    public Long lowerKey() {
+        return map.lowerKey(nextKey());
+    }
+
+    @Benchmark
+    public Long floorKey() {
+        return map.floorKey(nextKey());
+    }
+
+    @Benchmark
+    public Long ceilingKey() {
+        return map.ceilingKey(nextKey());
+    }
+
+    @Benchmark
+    public Long higherKey() {
+        return map.higherKey(nextKey());
+    }
+
+    @Benchmark
+    public Map.Entry<Long, Node> firstEntry() {
+        return map.firstEntry();
+    }
+
+    @Benchmark
+    public Map.Entry<Long, Node> lastEntry() {
+        return map.lastEntry();
+    }
+
+    @Benchmark
+    public Long firstKey() {
+        return map.firstKey();
+    }
+
+    @Benchmark
+    public Long lastKey() {
+        return map.lastKey();
+    }
+
+    @Benchmark
+    public Node pollFirstEntryAndPut() {
+        Map.Entry<Long, Node> entry = map.pollFirstEntry();
+        return map.put(entry.getKey(), null);
+    }
+
+    @Benchmark
+    public Node pollLastEntryAndPut() {
+        Map.Entry<Long, Node> entry = map.pollLastEntry();
+        return map.put(entry.getKey(), null);
+    }
+
+    @Benchmark
+    public int size() {
+        return map.size();
+    }
+
+    @Benchmark
+    public int subMapSize() {
+        Long from = nextKey();
+        return map.subMap(from, true, from + 200, false).size();
+    }
+
+    @Benchmark
+    public Map.Entry<Long, Node> headMapLastEntry() {
+        return map.headMap(nextKey(), false).lastEntry();
+    }
+
+    @Benchmark
+    public Map.Entry<Long, Node> tailMapFirstEntry() {
+        return map.tailMap(nextKey(), true).firstEntry();
+    }
+
+    @Benchmark
+    public Map.Entry<Long, Node> descendingMapCeilingEntry() {
+        return map.descendingMap().ceilingEntry(nextKey());
+    }
+
+    @Benchmark
+    public boolean navigableKeySetContains() {
+        return map.navigableKeySet().contains(nextKey());
+    }
+
+    @Benchmark
+    public Long descendingKeySetFirst() {
+        return map.descendingKeySet().first();
+    }
+
+    @Benchmark
+    public int rank() {
+        return map.rank(nextKey());
+    }
+
+    @Benchmark
+    public Node select() {
+        return map.select((int) (nextKey() >>> 1));
+    }
+}
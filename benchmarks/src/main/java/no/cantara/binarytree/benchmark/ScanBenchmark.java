@@ -0,0 +1,157 @@
+package no.cantara.binarytree.benchmark;
+
+import no.cantara.binarytree.AbstractBinarySearchTree;
+import no.cantara.binarytree.BreadthFirstTraversal;
+import no.cantara.binarytree.DepthFirstTraversalIterative;
+import no.cantara.binarytree.DepthFirstTraversalMorris;
+import no.cantara.binarytree.DepthFirstTraversalParallel;
+import no.cantara.binarytree.DepthFirstTraversalRecursive;
+import no.cantara.binarytree.Node;
+import no.cantara.binarytree.SteppingDepthFirstTraversalIterative;
+import no.cantara.binarytree.TraversalRange;
+import no.cantara.binarytree.Visitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full scans over a tree with every iterator, stream and traversal variant, plus an in-order range traversal over 1% of
+ * the keys. Scores are per scan, divide by <code>size</code> for the cost per node.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Thread)
+public class ScanBenchmark {
+
+    @Param({"AVL", "ITERATIVE"})
+    TreeType tree;
+
+    @Param({"POJO", "ARRAY", "OFF_HEAP"})
+    FactoryType factory;
+
+    @Param({"1000", "100000", "10000000"})
+    int size;
+
+    private AbstractBinarySearchTree map;
+    private TraversalRange range;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        map = (AbstractBinarySearchTree) tree.createFilled(factory.create(true), size);
+        long start = size; // keys are 0, 2, ..., 2 * (size - 1)
+        range = new TraversalRange(start, true, start + Math.max(2, size / 50), false);
+    }
+
+    @Benchmark
+    public long keyIterator() {
+        long sum = 0;
+        for (PrimitiveIterator.OfLong it = map.keyIterator(); it.hasNext(); ) {
+            sum += it.nextLong();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long descendingKeyIterator() {
+        long sum = 0;
+        for (PrimitiveIterator.OfLong it = map.descendingKeyIterator(); it.hasNext(); ) {
+            sum += it.nextLong();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long keySetIterator() {
+        long sum = 0;
+        for (Iterator<Long> it = map.keySet().iterator(); it.hasNext(); ) {
+            sum += it.next();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void entrySetIterator(Blackhole blackhole) {
+        for (Map.Entry<Long, Node> entry : map.entrySet()) {
+            blackhole.consume(entry);
+        }
+    }
+
+    @Benchmark
+    public long keysStream() {
+        return map.keys().sum();
+    }
+
+    @Benchmark
+    public long keysParallelStream() {
+        return map.keys().parallel().sum();
+    }
+
+    @Benchmark
+    public long subMapKeysStream() {
+        return map.subMap(range.startKey(), true, range.endKey(), false).keys().sum();
+    }
+
+    @Benchmark
+    public void iterativeInOrder(Blackhole blackhole) {
+        new DepthFirstTraversalIterative(map).traverseInOrder(node -> blackhole.consume(node.data()));
+    }
+
+    @Benchmark
+    public void iterativePreOrder(Blackhole blackhole) {
+        new DepthFirstTraversalIterative(map).traversePreOrder(node -> blackhole.consume(node.data()));
+    }
+
+    @Benchmark
+    public void iterativePostOrder(Blackhole blackhole) {
+        new DepthFirstTraversalIterative(map).traversePostOrder(node -> blackhole.consume(node.data()));
+    }
+
+    @Benchmark
+    public void iterativeRangeInOrder(Blackhole blackhole) {
+        new DepthFirstTraversalIterative(map).traverseInOrder(range, (ctx, node) -> blackhole.consume(node.data()));
+    }
+
+    @Benchmark
+    public void recursiveInOrder(Blackhole blackhole) {
+        new DepthFirstTraversalRecursive(map).traverseInOrder(node -> blackhole.consume(node.data()));
+    }
+
+    @Benchmark
+    public void steppingInOrder(Blackhole blackhole) {
+        new SteppingDepthFirstTraversalIterative(map).traverseInOrder(node -> blackhole.consume(node.data()));
+    }
+
+    @Benchmark
+    public void morrisInOrder(Blackhole blackhole) {
+        new DepthFirstTraversalMorris(map).traverseInOrder(node -> blackhole.consume(node.data()));
+    }
+
+    @Benchmark
+    public Long parallelInOrder() {
+        Visitor<Long> sum = (ctx, node) -> ctx.result(ctx.result() == null ? node.data() : ctx.result() + node.data());
+        return new DepthFirstTraversalParallel(map).traverseInOrder(TraversalRange.OPEN, sum, Long::sum).result();
+    }
+
+    @Benchmark
+    public void breadthFirst(Blackhole blackhole) {
+        new BreadthFirstTraversal(map).traverseLevelOrder(node -> blackhole.consume(node.data()));
+    }
+}
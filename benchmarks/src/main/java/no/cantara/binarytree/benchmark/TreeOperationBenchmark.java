@@ -0,0 +1,103 @@
+package no.cantara.binarytree.benchmark;
+
+import no.cantara.binarytree.BinarySearchTree;
+import no.cantara.binarytree.Node;
+import no.cantara.binarytree.NodeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search, insert and delete on every tree type and node factory. The tree holds <code>size</code> even keys, the key
+ * distribution decides which of them the operations access.
+ * <p>
+ * Inserts and deletes are measured in pairs to keep the tree size constant across invocations: {@link #insert} inserts
+ * an odd key next to the accessed key and deletes it again, {@link #delete} deletes the accessed key and inserts it
+ * again. Pooled factories must end every iteration with exactly <code>size</code> live nodes, a tree that does not
+ * release its removed nodes fails the trial instead of measuring a growing pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Thread)
+public class TreeOperationBenchmark {
+
+    private static final int OPERATIONS = 1 << 16;
+
+    @Param({"AVL", "RED_BLACK", "ITERATIVE", "RECURSIVE"})
+    TreeType tree;
+
+    @Param({"POJO", "ARRAY", "OFF_HEAP"})
+    FactoryType factory;
+
+    @Param({"SEQUENTIAL", "RANDOM", "ZIPFIAN"})
+    KeyDistribution distribution;
+
+    @Param({"1000", "100000", "10000000"})
+    int size;
+
+    private NodeFactory nodeFactory;
+    private BinarySearchTree bst;
+    private int[] indexes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        nodeFactory = factory.create(false);
+        bst = tree.createFilled(nodeFactory, size);
+        indexes = distribution.indexes(size, OPERATIONS, 7);
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkNodesReleased() {
+        int nodeCount = factory.nodeCount(nodeFactory);
+        if (nodeCount >= 0 && nodeCount != size) {
+            throw new IllegalStateException(tree + " tree leaks nodes: " + nodeCount + " live nodes for " + size + " keys");
+        }
+    }
+
+    private long nextKey() {
+        int index = indexes[next];
+        next = (next + 1) & (OPERATIONS - 1);
+        return 2L * index;
+    }
+
+    @Benchmark
+    public Node search() {
+        return bst.searchNode(nextKey());
+    }
+
+    @Benchmark
+    public Node searchMissing() {
+        return bst.searchNode(nextKey() + 1);
+    }
+
+    @Benchmark
+    public Node insert() {
+        long key = nextKey() + 1;
+        Node node = bst.insertNode(key);
+        bst.deleteNode(key);
+        return node;
+    }
+
+    @Benchmark
+    public Node delete() {
+        long key = nextKey();
+        bst.deleteNode(key);
+        return bst.insertNode(key);
+    }
+}
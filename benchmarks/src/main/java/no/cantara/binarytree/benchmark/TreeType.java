@@ -0,0 +1,53 @@
+package no.cantara.binarytree.benchmark;
+
+import no.cantara.binarytree.AvlTree;
+import no.cantara.binarytree.BinarySearchTree;
+import no.cantara.binarytree.BinarySearchTreeIterative;
+import no.cantara.binarytree.BinarySearchTreeRecursive;
+import no.cantara.binarytree.NodeFactory;
+import no.cantara.binarytree.RedBlackTree;
+
+/**
+ * The tree implementations under benchmark.
+ */
+public enum TreeType {
+
+    AVL {
+        @Override
+        BinarySearchTree create(NodeFactory factory) {
+            return new AvlTree(factory);
+        }
+    },
+    RED_BLACK {
+        @Override
+        BinarySearchTree create(NodeFactory factory) {
+            return new RedBlackTree(factory);
+        }
+    },
+    ITERATIVE {
+        @Override
+        BinarySearchTree create(NodeFactory factory) {
+            return new BinarySearchTreeIterative(factory);
+        }
+    },
+    RECURSIVE {
+        @Override
+        BinarySearchTree create(NodeFactory factory) {
+            return new BinarySearchTreeRecursive(factory);
+        }
+    };
+
+    abstract BinarySearchTree create(NodeFactory factory);
+
+    /**
+     * Creates a tree holding the even keys <code>0, 2, ..., 2 * (size - 1)</code>, inserted in random order so that the
+     * unbalanced trees get their expected logarithmic height. Odd keys are free for inserts.
+     */
+    BinarySearchTree createFilled(NodeFactory factory, int size) {
+        BinarySearchTree tree = create(factory);
+        for (int index : KeyDistribution.shuffledIndexes(size, 42)) {
+            tree.insertNode(2L * index);
+        }
+        return tree;
+    }
+}
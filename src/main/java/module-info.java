@@ -1,5 +1,9 @@
 
 module no.cantara.binarytree {
+    requires transitive jdk.jfr;
+
     exports no.cantara.binarytree;
     exports no.cantara.binarytree.pojo;
+    exports no.cantara.binarytree.offheap;
+    exports no.cantara.binarytree.array;
 }
\ No newline at end of file
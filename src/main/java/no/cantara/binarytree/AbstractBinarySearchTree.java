@@ -10,6 +10,10 @@ import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
 import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * Interface for various BST implementations.
@@ -21,9 +25,27 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
     protected final NodeFactory factory;
     protected final TraversalRange range;
     protected final boolean traversalDirection;
+    protected final boolean sizeAugmented;
+
+    /**
+     * The tree that owns the root this map was created from, <code>this</code> unless this is a view created by one of the
+     * navigable map or set methods. Range deletions through a view are applied to the backing tree.
+     */
+    private AbstractBinarySearchTree backingTree = this;
+
+    /**
+     * Receives operation metrics, <code>null</code> unless a listener is registered.
+     */
+    protected TreeMetricsListener metrics;
+
+    /**
+     * Rotations during the current operation, only counted while a listener is registered.
+     */
+    int rotations;
 
     protected AbstractBinarySearchTree(NodeFactory factory, TraversalRange range, boolean traversalDirection, Node root) {
         this.factory = factory;
+        this.sizeAugmented = factory.sizeAugmented();
         this.range = range;
         this.traversalDirection = traversalDirection;
         this.root = root;
@@ -31,6 +53,59 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
     public abstract AbstractBinarySearchTree subTree(TraversalRange subRange, boolean traversalDirection);
 
+    @Override
+    public boolean sizeAugmented() {
+        return sizeAugmented;
+    }
+
+    private AbstractBinarySearchTree view(TraversalRange subRange, boolean traversalDirection) {
+        AbstractBinarySearchTree view = subTree(subRange, traversalDirection);
+        view.backingTree = backingTree;
+        view.metrics = metrics;
+        return view;
+    }
+
+    /**
+     * Registers a listener for search, insert and delete metrics, replacing any previous one. Views created afterwards
+     * report to the same listener.
+     *
+     * @param listener the listener, or <code>null</code> to stop reporting
+     */
+    public void metricsListener(TreeMetricsListener listener) {
+        this.metrics = listener;
+    }
+
+    public TreeMetricsListener metricsListener() {
+        return metrics;
+    }
+
+    /**
+     * Reports the start of an operation to the registered listener, if any.
+     */
+    final void reportStart(TreeMetricsListener.Operation operation, long key) {
+        if (metrics != null) {
+            metrics.operationStarted(operation, key);
+        }
+    }
+
+    /**
+     * Reports a completed operation to the registered listener, which must not be <code>null</code>.
+     */
+    final void reportOperation(TreeMetricsListener.Operation operation, int comparisons, int pathLength, boolean successful) {
+        metrics.operation(operation, comparisons, pathLength, successful, rotations != 0);
+        rotations = 0;
+    }
+
+    /**
+     * Reports a rotation to the registered listener, if any.
+     */
+    final void reportRotation(boolean doubleRotation) {
+        if (metrics != null) {
+            rotations++;
+            metrics.rotation(doubleRotation);
+        }
+    }
+
     public TraversalRange range() {
         return range;
     }
@@ -44,112 +119,265 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
         return traversalDirection;
     }
 
+    /**
+     * Sentinel returned by the primitive <code>...AsLong</code> navigation methods when no matching key exists. Note
+     * that this is a valid key, so callers that store {@link Long#MIN_VALUE} must use the node returning variants.
+     */
+    public static final long NO_KEY = Long.MIN_VALUE;
+
     @Override
     public Entry<Long, Node> lowerEntry(Long key) {
-        TraversalRange subRange = range.subRange(null, false, key, false);
-        DepthFirstTraversal traversal = new DepthFirstTraversalIterative(this);
-        TraversalSummary<Node> summary = traversal.traverseReverseInOrder(subRange, (ctx, node) -> ctx.result(node)
-                .stopTraversal());
-        if (summary.result == null) {
-            return null;
-        }
-        return Map.entry(summary.result.data(), summary.result);
+        return entry(lowerNode(key));
     }
 
     @Override
     public Long lowerKey(Long key) {
-        Entry<Long, Node> entry = lowerEntry(key);
-        if (entry == null) {
+        Node node = lowerNode(key);
+        if (node == null) {
             return null;
         }
-        return entry.getKey();
+        return node.data();
+    }
+
+    /**
+     * Returns the node with the greatest key strictly less than the given key within this map, or <code>null</code>.
+     *
+     * @param key the key
+     * @return the node or <code>null</code> if there is no such key
+     */
+    public Node lowerNode(long key) {
+        return highestBelow(key, false);
+    }
+
+    /**
+     * Primitive variant of {@link #lowerKey(Long)}.
+     *
+     * @param key the key
+     * @return the greatest key strictly less than the given key, or {@link #NO_KEY} if there is no such key
+     */
+    public long lowerKeyAsLong(long key) {
+        return keyOf(lowerNode(key));
     }
 
     @Override
     public Entry<Long, Node> floorEntry(Long key) {
-        TraversalRange subRange = range.subRange(null, false, key, true);
-        DepthFirstTraversal traversal = new DepthFirstTraversalIterative(this);
-        TraversalSummary<Node> summary = traversal.traverseReverseInOrder(subRange, (ctx, node) -> ctx.result(node)
-                .stopTraversal());
-        if (summary.result == null) {
-            return null;
-        }
-        return Map.entry(summary.result.data(), summary.result);
+        return entry(floorNode(key));
     }
 
     @Override
     public Long floorKey(Long key) {
-        Entry<Long, Node> entry = floorEntry(key);
-        if (entry == null) {
+        Node node = floorNode(key);
+        if (node == null) {
             return null;
         }
-        return entry.getKey();
+        return node.data();
+    }
+
+    /**
+     * Returns the node with the greatest key less than or equal to the given key within this map, or
+     * <code>null</code>.
+     *
+     * @param key the key
+     * @return the node or <code>null</code> if there is no such key
+     */
+    public Node floorNode(long key) {
+        return highestBelow(key, true);
+    }
+
+    /**
+     * Primitive variant of {@link #floorKey(Long)}.
+     *
+     * @param key the key
+     * @return the greatest key less than or equal to the given key, or {@link #NO_KEY} if there is no such key
+     */
+    public long floorKeyAsLong(long key) {
+        return keyOf(floorNode(key));
     }
 
     @Override
     public Entry<Long, Node> ceilingEntry(Long key) {
-        TraversalRange subRange = range.subRange(key, true, null, false);
-        DepthFirstTraversal traversal = new DepthFirstTraversalIterative(this);
-        TraversalSummary<Node> summary = traversal.traverseInOrder(subRange, (ctx, node) -> ctx.result(node)
-                .stopTraversal());
-        if (summary.result == null) {
-            return null;
-        }
-        return Map.entry(summary.result.data(), summary.result);
+        return entry(ceilingNode(key));
     }
 
     @Override
     public Long ceilingKey(Long key) {
-        Entry<Long, Node> entry = ceilingEntry(key);
-        if (entry == null) {
+        Node node = ceilingNode(key);
+        if (node == null) {
             return null;
         }
-        return entry.getKey();
+        return node.data();
+    }
+
+    /**
+     * Returns the node with the least key greater than or equal to the given key within this map, or
+     * <code>null</code>.
+     *
+     * @param key the key
+     * @return the node or <code>null</code> if there is no such key
+     */
+    public Node ceilingNode(long key) {
+        return lowestAbove(key, true);
+    }
+
+    /**
+     * Primitive variant of {@link #ceilingKey(Long)}.
+     *
+     * @param key the key
+     * @return the least key greater than or equal to the given key, or {@link #NO_KEY} if there is no such key
+     */
+    public long ceilingKeyAsLong(long key) {
+        return keyOf(ceilingNode(key));
     }
 
     @Override
     public Entry<Long, Node> higherEntry(Long key) {
-        TraversalRange subRange = range.subRange(key, false, null, false);
-        DepthFirstTraversal traversal = new DepthFirstTraversalIterative(this);
-        TraversalSummary<Node> summary = traversal.traverseInOrder(subRange, (ctx, node) -> ctx.result(node)
-                .stopTraversal());
-        if (summary.result == null) {
-            return null;
-        }
-        return Map.entry(summary.result.data(), summary.result);
+        return entry(higherNode(key));
     }
 
     @Override
     public Long higherKey(Long key) {
-        Entry<Long, Node> entry = higherEntry(key);
-        if (entry == null) {
+        Node node = higherNode(key);
+        if (node == null) {
             return null;
         }
-        return entry.getKey();
+        return node.data();
+    }
+
+    /**
+     * Returns the node with the least key strictly greater than the given key within this map, or <code>null</code>.
+     *
+     * @param key the key
+     * @return the node or <code>null</code> if there is no such key
+     */
+    public Node higherNode(long key) {
+        return lowestAbove(key, false);
+    }
+
+    /**
+     * Primitive variant of {@link #higherKey(Long)}.
+     *
+     * @param key the key
+     * @return the least key strictly greater than the given key, or {@link #NO_KEY} if there is no such key
+     */
+    public long higherKeyAsLong(long key) {
+        return keyOf(higherNode(key));
     }
 
     @Override
     public Entry<Long, Node> firstEntry() {
-        TraversalRange subRange = range.subRange(null, false, null, false);
-        DepthFirstTraversal traversal = new DepthFirstTraversalIterative(this);
-        TraversalSummary<Node> summary = traversal.traverseInOrder(subRange, (ctx, node) -> ctx.result(node)
-                .stopTraversal());
-        if (summary.result == null) {
-            return null;
-        }
-        return Map.entry(summary.result.data(), summary.result);
+        return entry(firstNode());
     }
 
     @Override
     public Entry<Long, Node> lastEntry() {
-        TraversalRange subRange = range.subRange(null, false, null, false);
-        DepthFirstTraversal traversal = new DepthFirstTraversalIterative(this);
-        TraversalSummary<Node> summary = traversal.traverseReverseInOrder(subRange, (ctx, node) -> ctx.result(node)
-                .stopTraversal());
-        if (summary.result == null) {
+        return entry(lastNode());
+    }
+
+    /**
+     * Returns the node with the least key within this map, or <code>null</code> if the map is empty.
+     *
+     * @return the first node
+     */
+    public Node firstNode() {
+        return lowestAbove(Long.MIN_VALUE, true);
+    }
+
+    /**
+     * Returns the node with the greatest key within this map, or <code>null</code> if the map is empty.
+     *
+     * @return the last node
+     */
+    public Node lastNode() {
+        return highestBelow(Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Primitive variant of {@link #firstKey()}.
+     *
+     * @return the least key, or {@link #NO_KEY} if the map is empty
+     */
+    public long firstKeyAsLong() {
+        return keyOf(firstNode());
+    }
+
+    /**
+     * Primitive variant of {@link #lastKey()}.
+     *
+     * @return the greatest key, or {@link #NO_KEY} if the map is empty
+     */
+    public long lastKeyAsLong() {
+        return keyOf(lastNode());
+    }
+
+    /**
+     * Single root-to-leaf descent that keeps the best candidate seen so far. The search key is first clamped to the
+     * end of the range of this map, the candidate is then checked against the start of the range.
+     */
+    private Node highestBelow(long key, boolean inclusive) {
+        if (range.endKey != null) {
+            long endKey = range.endKey;
+            if (endKey < key || (endKey == key && !range.endKeyInclusive)) {
+                key = endKey;
+                inclusive = range.endKeyInclusive;
+            }
+        }
+        Node candidate = null;
+        Node node = root;
+        while (node != null) {
+            long data = node.data();
+            if (data < key || (inclusive && data == key)) {
+                candidate = node;
+                node = node.right();
+            } else {
+                node = node.left();
+            }
+        }
+        if (candidate == null || !range.shouldVisit(candidate)) {
             return null;
         }
-        return Map.entry(summary.result.data(), summary.result);
+        return candidate;
+    }
+
+    /**
+     * Mirror image of {@link #highestBelow(long, boolean)}.
+     */
+    private Node lowestAbove(long key, boolean inclusive) {
+        if (range.startKey != null) {
+            long startKey = range.startKey;
+            if (key < startKey || (key == startKey && !range.startKeyInclusive)) {
+                key = startKey;
+                inclusive = range.startKeyInclusive;
+            }
+        }
+        Node candidate = null;
+        Node node = root;
+        while (node != null) {
+            long data = node.data();
+            if (key < data || (inclusive && data == key)) {
+                candidate = node;
+                node = node.left();
+            } else {
+                node = node.right();
+            }
+        }
+        if (candidate == null || !range.shouldVisit(candidate)) {
+            return null;
+        }
+        return candidate;
+    }
+
+    private static Entry<Long, Node> entry(Node node) {
+        if (node == null) {
+            return null;
+        }
+        return Map.entry(node.data(), node);
+    }
+
+    private static long keyOf(Node node) {
+        if (node == null) {
+            return NO_KEY;
+        }
+        return node.data();
     }
 
     @Override
@@ -174,7 +402,7 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
     @Override
     public AbstractBinarySearchTree descendingMap() {
-        return subTree(range, !traversalDirection);
+        return view(range, !traversalDirection);
     }
 
     @Override
@@ -190,17 +418,17 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
     @Override
     public AbstractBinarySearchTree subMap(Long fromKey, boolean fromInclusive, Long toKey, boolean toInclusive) {
-        return subTree(new TraversalRange(fromKey, fromInclusive, toKey, toInclusive), traversalDirection);
+        return view(new TraversalRange(fromKey, fromInclusive, toKey, toInclusive), traversalDirection);
     }
 
     @Override
     public AbstractBinarySearchTree headMap(Long toKey, boolean inclusive) {
-        return subTree(new TraversalRange(null, false, toKey, inclusive), traversalDirection);
+        return view(new TraversalRange(null, false, toKey, inclusive), traversalDirection);
     }
 
     @Override
     public AbstractBinarySearchTree tailMap(Long fromKey, boolean inclusive) {
-        return subTree(new TraversalRange(fromKey, inclusive, null, false), traversalDirection);
+        return view(new TraversalRange(fromKey, inclusive, null, false), traversalDirection);
     }
 
     @Override
@@ -225,20 +453,20 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
     @Override
     public Long firstKey() {
-        Entry<Long, Node> entry = firstEntry();
-        if (entry == null) {
+        Node node = firstNode();
+        if (node == null) {
             return null;
         }
-        return entry.getKey();
+        return node.data();
     }
 
     @Override
     public Long lastKey() {
-        Entry<Long, Node> entry = lastEntry();
-        if (entry == null) {
+        Node node = lastNode();
+        if (node == null) {
             return null;
         }
-        return entry.getKey();
+        return node.data();
     }
 
     @Override
@@ -246,6 +474,46 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
         return new BSTKeySet();
     }
 
+    /**
+     * Returns an iterator over the keys of this map in traversal order without boxing them.
+     *
+     * @return a primitive key iterator
+     */
+    public PrimitiveIterator.OfLong keyIterator() {
+        return new NodeCursor(root, range, traversalDirection);
+    }
+
+    /**
+     * Returns an iterator over the keys of this map in reverse traversal order without boxing them.
+     *
+     * @return a primitive key iterator
+     */
+    public PrimitiveIterator.OfLong descendingKeyIterator() {
+        return new NodeCursor(root, range, !traversalDirection);
+    }
+
+    /**
+     * Returns a sequential stream of the keys of this map in traversal order.
+     *
+     * @return a stream of keys
+     */
+    public LongStream keys() {
+        return keyStream(traversalDirection);
+    }
+
+    /**
+     * Returns a sequential stream of the keys of this map in reverse traversal order.
+     *
+     * @return a stream of keys
+     */
+    public LongStream descendingKeys() {
+        return keyStream(!traversalDirection);
+    }
+
+    private LongStream keyStream(boolean ascending) {
+        return StreamSupport.longStream(new NodeSpliterator.Keys(root, range, ascending, sizeAugmented), false);
+    }
+
     @Override
     public Collection<Node> values() {
         DepthFirstTraversal traversal = new DepthFirstTraversalIterative(this);
@@ -276,8 +544,17 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
         return new BSTEntrySet();
     }
 
+    /**
+     * Number of keys in this map. Runs in O(log n) when the node factory is size augmented, otherwise all nodes within
+     * range are visited.
+     *
+     * @return the number of keys within range
+     */
     @Override
     public int size() {
+        if (sizeAugmented) {
+            return Math.max(0, countBelowEndKey() - countBelowStartKey());
+        }
         DepthFirstTraversal traversal = new DepthFirstTraversalIterative(this);
         MutableInt size = new MutableInt();
         traversal.traverseInOrder(range, (ctx, node) -> size.value++);
@@ -286,7 +563,77 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
     @Override
     public boolean isEmpty() {
-        return getRoot() == null;
+        if (range.startKey == null && range.endKey == null) {
+            return getRoot() == null;
+        }
+        return firstNode() == null;
+    }
+
+    /**
+     * Returns the number of keys in this map that are strictly less than the given key. Requires a size augmented node
+     * factory, runs in O(log n).
+     *
+     * @param key the key
+     * @return the rank of the key within this map
+     * @throws UnsupportedOperationException if the node factory is not size augmented
+     */
+    public int rank(long key) {
+        requireSizeAugmented();
+        int below = Math.min(BinarySearchTree.countBelow(root, key, false), countBelowEndKey());
+        return Math.max(0, below - countBelowStartKey());
+    }
+
+    /**
+     * Returns the node with the given zero-based index in ascending key order within this map, regardless of traversal
+     * direction. Requires a size augmented node factory, runs in O(log n).
+     *
+     * @param index the index
+     * @return the node at the given index
+     * @throws IndexOutOfBoundsException     if the index is negative or not less than {@link #size()}
+     * @throws UnsupportedOperationException if the node factory is not size augmented
+     */
+    public Node select(int index) {
+        requireSizeAugmented();
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+        }
+        Node node = BinarySearchTree.select(root, countBelowStartKey() + index);
+        if (node == null || !range.shouldVisit(node)) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+        }
+        return node;
+    }
+
+    private int countBelowStartKey() {
+        if (range.startKey == null) {
+            return 0;
+        }
+        return BinarySearchTree.countBelow(root, range.startKey, !range.startKeyInclusive);
+    }
+
+    private int countBelowEndKey() {
+        if (range.endKey == null) {
+            return BinarySearchTree.subtreeSize(root);
+        }
+        return BinarySearchTree.countBelow(root, range.endKey, range.endKeyInclusive);
+    }
+
+    /**
+     * Guards operations that restructure the whole tree and therefore cannot be applied to a sub map view.
+     *
+     * @param operation the name of the operation, used in the exception message
+     * @throws UnsupportedOperationException if this is a sub map view
+     */
+    protected void requireOpenRange(String operation) {
+        if (range.startKey != null || range.endKey != null) {
+            throw new UnsupportedOperationException(operation + " is not supported on a sub map view");
+        }
+    }
+
+    private void requireSizeAugmented() {
+        if (!sizeAugmented) {
+            throw new UnsupportedOperationException("Node factory is not size augmented");
+        }
     }
 
     @Override
@@ -294,6 +641,16 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
         return get(key) != null;
     }
 
+    /**
+     * Primitive variant of {@link #containsKey(Object)}.
+     *
+     * @param key the key
+     * @return whether this map contains the key
+     */
+    public boolean containsKey(long key) {
+        return getNode(key) != null;
+    }
+
     @Override
     public boolean containsValue(Object value) {
         Objects.requireNonNull(value);
@@ -317,11 +674,22 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
         } else {
             return null;
         }
-        Entry<Long, Node> found = ceilingEntry(theKey);
-        if (found == null || found.getKey() != theKey) {
+        return getNode(theKey);
+    }
+
+    /**
+     * Primitive variant of {@link #get(Object)}, a point lookup using {@link #searchNode(long)} that only returns nodes
+     * within the range of this map.
+     *
+     * @param key the key
+     * @return the node or <code>null</code> if this map does not contain the key
+     */
+    public Node getNode(long key) {
+        Node node = searchNode(key);
+        if (node == null || !range.shouldVisit(node)) {
             return null;
         }
-        return found.getValue();
+        return node;
     }
 
     @Override
@@ -343,9 +711,46 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
         }
     }
 
+    /**
+     * Removes all keys within the given range that are also within the range of this map. Whole subtrees inside the range
+     * are detached at once and the tree is rebalanced once, instead of deleting and rebalancing key by key. When called
+     * on a view, the keys are removed from the backing tree, and the view and its backing tree reflect the change. Other
+     * views keep the root they were created with.
+     *
+     * @param fromKey       the low end of the range
+     * @param fromInclusive whether the low end is removed
+     * @param toKey         the high end of the range
+     * @param toInclusive   whether the high end is removed
+     * @throws IllegalArgumentException      if fromKey is greater than toKey
+     * @throws UnsupportedOperationException if the tree implementation does not support range deletion
+     */
+    public void deleteRange(long fromKey, boolean fromInclusive, long toKey, boolean toInclusive) {
+        if (fromKey > toKey) {
+            throw new IllegalArgumentException("fromKey " + fromKey + " is after toKey " + toKey);
+        }
+        TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("deleteRange", this, 0);
+        backingTree.deleteRange(range.subRange(fromKey, fromInclusive, toKey, toInclusive));
+        root = backingTree.root;
+        event.commit();
+    }
+
+    /**
+     * Removes all keys within the given range from this tree, ignoring the range of this map. Subclasses that support
+     * range deletion override this.
+     *
+     * @param deletionRange the keys to remove
+     */
+    protected void deleteRange(TraversalRange deletionRange) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Removes all keys within the range of this map, see {@link #deleteRange(long, boolean, long, boolean)}.
+     */
     @Override
     public void clear() {
-        throw new UnsupportedOperationException();
+        backingTree.deleteRange(range);
+        root = backingTree.root;
     }
 
     public class BSTKeySet implements NavigableSet<Long> {
@@ -404,43 +809,17 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
         @Override
         public Iterator<Long> iterator() {
-            final SteppingDepthFirstTraversalIterative traversal = new SteppingDepthFirstTraversalIterative(AbstractBinarySearchTree.this);
-            if (traversalDirection) {
-                final SteppingTraversalContext<Object> ctx = traversal.traverseInOrder(new SteppingTraversalContext<>(AbstractBinarySearchTree.this.range, root));
-                return new Iterator<>() {
-                    @Override
-                    public boolean hasNext() {
-                        return ctx.hasNext;
-                    }
-
-                    @Override
-                    public Long next() {
-                        Node next = ctx.next;
-                        traversal.traverseInOrder(ctx); // pre-advance
-                        return next.data();
-                    }
-                };
-            } else {
-                final SteppingTraversalContext<Object> ctx = traversal.traverseReverseInOrder(new SteppingTraversalContext<>(AbstractBinarySearchTree.this.range, root));
-                return new Iterator<>() {
-                    @Override
-                    public boolean hasNext() {
-                        return ctx.hasNext;
-                    }
-
-                    @Override
-                    public Long next() {
-                        Node next = ctx.next;
-                        traversal.traverseReverseInOrder(ctx); // pre-advance
-                        return next.data();
-                    }
-                };
-            }
+            return new NodeCursor(root, range, traversalDirection);
+        }
+
+        @Override
+        public Spliterator.OfLong spliterator() {
+            return new NodeSpliterator.Keys(root, range, traversalDirection, sizeAugmented);
         }
 
         @Override
         public AbstractBinarySearchTree.BSTKeySet descendingSet() {
-            return subTree(TraversalRange.OPEN, !traversalDirection)
+            return view(TraversalRange.OPEN, !traversalDirection)
                     .keySet();
         }
 
@@ -452,19 +831,19 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
         @Override
         public AbstractBinarySearchTree.BSTKeySet subSet(Long fromElement, boolean fromInclusive, Long toElement, boolean toInclusive) {
-            return subTree(new TraversalRange(fromElement, fromInclusive, toElement, toInclusive), traversalDirection)
+            return view(new TraversalRange(fromElement, fromInclusive, toElement, toInclusive), traversalDirection)
                     .keySet();
         }
 
         @Override
         public AbstractBinarySearchTree.BSTKeySet headSet(Long toElement, boolean inclusive) {
-            return subTree(new TraversalRange(null, false, toElement, inclusive), traversalDirection)
+            return view(new TraversalRange(null, false, toElement, inclusive), traversalDirection)
                     .keySet();
         }
 
         @Override
         public AbstractBinarySearchTree.BSTKeySet tailSet(Long fromElement, boolean inclusive) {
-            return subTree(new TraversalRange(fromElement, inclusive, null, false), traversalDirection)
+            return view(new TraversalRange(fromElement, inclusive, null, false), traversalDirection)
                     .keySet();
         }
 
@@ -475,19 +854,19 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
         @Override
         public AbstractBinarySearchTree.BSTKeySet subSet(Long fromElement, Long toElement) {
-            return subTree(new TraversalRange(fromElement, true, toElement, false), traversalDirection)
+            return view(new TraversalRange(fromElement, true, toElement, false), traversalDirection)
                     .keySet();
         }
 
         @Override
         public AbstractBinarySearchTree.BSTKeySet headSet(Long toElement) {
-            return subTree(new TraversalRange(null, false, toElement, false), traversalDirection)
+            return view(new TraversalRange(null, false, toElement, false), traversalDirection)
                     .keySet();
         }
 
         @Override
         public AbstractBinarySearchTree.BSTKeySet tailSet(Long fromElement) {
-            return subTree(new TraversalRange(fromElement, true, null, false), traversalDirection)
+            return view(new TraversalRange(fromElement, true, null, false), traversalDirection)
                     .keySet();
         }
 
@@ -543,7 +922,7 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
         @Override
         public void clear() {
-            throw new UnsupportedOperationException();
+            AbstractBinarySearchTree.this.clear();
         }
     }
 
@@ -599,43 +978,29 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
         @Override
         public Iterator<Entry<Long, Node>> iterator() {
-            final SteppingDepthFirstTraversalIterative traversal = new SteppingDepthFirstTraversalIterative(AbstractBinarySearchTree.this);
-            if (traversalDirection) {
-                final SteppingTraversalContext<Object> ctx = traversal.traverseInOrder(new SteppingTraversalContext<>(AbstractBinarySearchTree.this.range, root));
-                return new Iterator<>() {
-                    @Override
-                    public boolean hasNext() {
-                        return ctx.hasNext;
-                    }
-
-                    @Override
-                    public Entry<Long, Node> next() {
-                        Node next = ctx.next;
-                        traversal.traverseInOrder(ctx); // pre-advance
-                        return Map.entry(next.data(), next);
-                    }
-                };
-            } else {
-                final SteppingTraversalContext<Object> ctx = traversal.traverseReverseInOrder(new SteppingTraversalContext<>(AbstractBinarySearchTree.this.range, root));
-                return new Iterator<>() {
-                    @Override
-                    public boolean hasNext() {
-                        return ctx.hasNext;
-                    }
-
-                    @Override
-                    public Entry<Long, Node> next() {
-                        Node next = ctx.next;
-                        traversal.traverseReverseInOrder(ctx); // pre-advance
-                        return Map.entry(next.data(), next);
-                    }
-                };
-            }
+            final NodeCursor cursor = new NodeCursor(root, range, traversalDirection);
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return cursor.hasNext();
+                }
+
+                @Override
+                public Entry<Long, Node> next() {
+                    Node node = cursor.nextNode();
+                    return Map.entry(node.data(), node);
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<Entry<Long, Node>> spliterator() {
+            return new NodeSpliterator.Entries(root, range, traversalDirection, sizeAugmented);
         }
 
         @Override
         public AbstractBinarySearchTree.BSTEntrySet descendingSet() {
-            return subTree(range, !traversalDirection).entrySet();
+            return view(range, !traversalDirection).entrySet();
         }
 
         @Override
@@ -645,17 +1010,17 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
         @Override
         public AbstractBinarySearchTree.BSTEntrySet subSet(Entry<Long, Node> fromElement, boolean fromInclusive, Entry<Long, Node> toElement, boolean toInclusive) {
-            return subTree(new TraversalRange(fromElement.getKey(), fromInclusive, toElement.getKey(), toInclusive), traversalDirection).entrySet();
+            return view(new TraversalRange(fromElement.getKey(), fromInclusive, toElement.getKey(), toInclusive), traversalDirection).entrySet();
         }
 
         @Override
         public AbstractBinarySearchTree.BSTEntrySet headSet(Entry<Long, Node> toElement, boolean inclusive) {
-            return subTree(new TraversalRange(null, false, toElement.getKey(), inclusive), traversalDirection).entrySet();
+            return view(new TraversalRange(null, false, toElement.getKey(), inclusive), traversalDirection).entrySet();
         }
 
         @Override
         public AbstractBinarySearchTree.BSTEntrySet tailSet(Entry<Long, Node> fromElement, boolean inclusive) {
-            return subTree(new TraversalRange(fromElement.getKey(), inclusive, null, false), traversalDirection).entrySet();
+            return view(new TraversalRange(fromElement.getKey(), inclusive, null, false), traversalDirection).entrySet();
         }
 
         @Override
@@ -665,17 +1030,17 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
         @Override
         public AbstractBinarySearchTree.BSTEntrySet subSet(Entry<Long, Node> fromElement, Entry<Long, Node> toElement) {
-            return subTree(new TraversalRange(fromElement.getKey(), true, toElement.getKey(), false), traversalDirection).entrySet();
+            return view(new TraversalRange(fromElement.getKey(), true, toElement.getKey(), false), traversalDirection).entrySet();
         }
 
         @Override
         public AbstractBinarySearchTree.BSTEntrySet headSet(Entry<Long, Node> toElement) {
-            return subTree(new TraversalRange(null, false, toElement.getKey(), false), traversalDirection).entrySet();
+            return view(new TraversalRange(null, false, toElement.getKey(), false), traversalDirection).entrySet();
         }
 
         @Override
         public AbstractBinarySearchTree.BSTEntrySet tailSet(Entry<Long, Node> fromElement) {
-            return subTree(new TraversalRange(fromElement.getKey(), true, null, false), traversalDirection).entrySet();
+            return view(new TraversalRange(fromElement.getKey(), true, null, false), traversalDirection).entrySet();
         }
 
         @Override
@@ -730,7 +1095,7 @@ public abstract class AbstractBinarySearchTree extends BaseBinaryTree implements
 
         @Override
         public void clear() {
-            throw new UnsupportedOperationException();
+            AbstractBinarySearchTree.this.clear();
         }
     }
 }
@@ -0,0 +1,154 @@
+package no.cantara.binarytree;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe {@link TreeMetricsListener} that sums up the metrics of all operations in {@link LongAdder}s, without
+ * locks. It can be shared by several trees and read while the trees are in use; the values read are not a consistent
+ * snapshot across counters.
+ */
+public final class AggregatingTreeMetricsListener implements TreeMetricsListener {
+
+    private final Counters[] counters = {new Counters(), new Counters(), new Counters()};
+    private final LongAdder singleRotations = new LongAdder();
+    private final LongAdder doubleRotations = new LongAdder();
+    private final LongAdder recolorCascades = new LongAdder();
+    private final LongAdder recoloredNodes = new LongAdder();
+    private final LongAccumulator maxRecolorCascade = new LongAccumulator(Math::max, 0);
+
+    @Override
+    public void operation(Operation operation, int comparisons, int pathLength, boolean successful, boolean rebalanced) {
+        Counters c = counters[operation.ordinal()];
+        c.operations.increment();
+        c.comparisons.add(comparisons);
+        c.pathLength.add(pathLength);
+        c.maxPathLength.accumulate(pathLength);
+        if (successful) {
+            c.successful.increment();
+        }
+        if (rebalanced) {
+            c.rebalanced.increment();
+        }
+    }
+
+    @Override
+    public void rotation(boolean doubleRotation) {
+        (doubleRotation ? doubleRotations : singleRotations).increment();
+    }
+
+    @Override
+    public void recolorCascade(int recoloredNodes) {
+        recolorCascades.increment();
+        this.recoloredNodes.add(recoloredNodes);
+        maxRecolorCascade.accumulate(recoloredNodes);
+    }
+
+    public long operations(Operation operation) {
+        return counters[operation.ordinal()].operations.sum();
+    }
+
+    /**
+     * Number of searches that found a node, inserts that added one and deletes that removed one.
+     */
+    public long successfulOperations(Operation operation) {
+        return counters[operation.ordinal()].successful.sum();
+    }
+
+    public long rebalancedOperations(Operation operation) {
+        return counters[operation.ordinal()].rebalanced.sum();
+    }
+
+    public long comparisons(Operation operation) {
+        return counters[operation.ordinal()].comparisons.sum();
+    }
+
+    public double averageComparisons(Operation operation) {
+        return average(counters[operation.ordinal()].comparisons, operation);
+    }
+
+    public double averagePathLength(Operation operation) {
+        return average(counters[operation.ordinal()].pathLength, operation);
+    }
+
+    /**
+     * Longest path seen for the operation, a sign of degenerate trees when much larger than the logarithm of the size.
+     */
+    public long maxPathLength(Operation operation) {
+        return counters[operation.ordinal()].maxPathLength.get();
+    }
+
+    public long singleRotations() {
+        return singleRotations.sum();
+    }
+
+    public long doubleRotations() {
+        return doubleRotations.sum();
+    }
+
+    public long recolorCascades() {
+        return recolorCascades.sum();
+    }
+
+    public long recoloredNodes() {
+        return recoloredNodes.sum();
+    }
+
+    public long maxRecolorCascade() {
+        return maxRecolorCascade.get();
+    }
+
+    /**
+     * Resets all counters. Operations reported concurrently may be partly counted before and partly after the reset.
+     */
+    public void reset() {
+        for (Counters c : counters) {
+            c.operations.reset();
+            c.successful.reset();
+            c.rebalanced.reset();
+            c.comparisons.reset();
+            c.pathLength.reset();
+            c.maxPathLength.reset();
+        }
+        singleRotations.reset();
+        doubleRotations.reset();
+        recolorCascades.reset();
+        recoloredNodes.reset();
+        maxRecolorCascade.reset();
+    }
+
+    private double average(LongAdder sum, Operation operation) {
+        long operations = operations(operation);
+        return operations == 0 ? 0 : (double) sum.sum() / operations;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("AggregatingTreeMetricsListener{");
+        for (Operation operation : Operation.values()) {
+            builder.append(operation).append("={operations=").append(operations(operation))
+                    .append(", successful=").append(successfulOperations(operation))
+                    .append(", rebalanced=").append(rebalancedOperations(operation))
+                    .append(", averageComparisons=").append(averageComparisons(operation))
+                    .append(", maxPathLength=").append(maxPathLength(operation))
+                    .append("}, ");
+        }
+        return builder
+                .append("singleRotations=").append(singleRotations())
+                .append(", doubleRotations=").append(doubleRotations())
+                .append(", recolorCascades=").append(recolorCascades())
+                .append(", recoloredNodes=").append(recoloredNodes())
+                .append(", maxRecolorCascade=").append(maxRecolorCascade())
+                .append('}')
+                .toString();
+    }
+
+    private static final class Counters {
+        final LongAdder operations = new LongAdder();
+        final LongAdder successful = new LongAdder();
+        final LongAdder rebalanced = new LongAdder();
+        final LongAdder comparisons = new LongAdder();
+        final LongAdder pathLength = new LongAdder();
+        final LongAccumulator maxPathLength = new LongAccumulator(Math::max, 0);
+    }
+}
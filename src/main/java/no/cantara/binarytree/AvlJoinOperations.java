@@ -0,0 +1,90 @@
+package no.cantara.binarytree;
+
+/**
+ * AVL join: descends the spine of the taller subtree to a node whose height is within one of the shorter subtree, links
+ * the pivot there and rebalances with single or double rotations on the way back up. Runs in O(|h(left) - h(right)|).
+ */
+final class AvlJoinOperations extends JoinBasedOperations {
+
+    AvlJoinOperations(NodeFactory factory) {
+        super(factory);
+    }
+
+    @Override
+    Node join(Node left, Node pivot, Node right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            return joinRight(left, pivot, right);
+        }
+        if (rightHeight > leftHeight + 1) {
+            return joinLeft(left, pivot, right);
+        }
+        return link(left, pivot, right);
+    }
+
+    @Override
+    Node asRoot(Node subtree) {
+        return subtree;
+    }
+
+    private Node joinRight(Node left, Node pivot, Node right) {
+        Node leftLeft = left.left();
+        Node leftRight = left.right();
+        if (height(leftRight) <= height(right) + 1) {
+            Node joined = link(leftRight, pivot, right);
+            if (height(joined) <= height(leftLeft) + 1) {
+                return link(leftLeft, left, joined);
+            }
+            return rotateLeft(link(leftLeft, left, rotateRight(joined)));
+        }
+        Node joined = joinRight(leftRight, pivot, right);
+        Node node = link(leftLeft, left, joined);
+        if (height(joined) <= height(leftLeft) + 1) {
+            return node;
+        }
+        return rotateLeft(node);
+    }
+
+    private Node joinLeft(Node left, Node pivot, Node right) {
+        Node rightLeft = right.left();
+        Node rightRight = right.right();
+        if (height(rightLeft) <= height(left) + 1) {
+            Node joined = link(left, pivot, rightLeft);
+            if (height(joined) <= height(rightRight) + 1) {
+                return link(joined, right, rightRight);
+            }
+            return rotateRight(link(rotateLeft(joined), right, rightRight));
+        }
+        Node joined = joinLeft(left, pivot, rightLeft);
+        Node node = link(joined, right, rightRight);
+        if (height(joined) <= height(rightRight) + 1) {
+            return node;
+        }
+        return rotateRight(node);
+    }
+
+    private Node rotateLeft(Node node) {
+        Node rightChild = node.right();
+        return link(link(node.left(), node, rightChild.left()), rightChild, rightChild.right());
+    }
+
+    private Node rotateRight(Node node) {
+        Node leftChild = node.left();
+        return link(leftChild.left(), leftChild, link(leftChild.right(), node, node.right()));
+    }
+
+    private Node link(Node left, Node node, Node right) {
+        node.left(left);
+        node.right(right);
+        AvlTree.updateHeight(node);
+        if (sizeAugmented) {
+            BinarySearchTree.updateSize(node);
+        }
+        return node;
+    }
+
+    private static int height(Node node) {
+        return node != null ? node.height() : -1;
+    }
+}
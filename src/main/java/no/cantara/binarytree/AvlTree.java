@@ -1,8 +1,9 @@
 package no.cantara.binarytree;
 
-import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.lang.Math.max;
+import static no.cantara.binarytree.IndexedNodeFactory.NULL_INDEX;
 
 /**
  * An AVL tree implementation with <code>int</code> keys.
@@ -26,9 +27,21 @@ public class AvlTree extends BinarySearchTreeIterative {
 
   @Override
   public Node insertNode(long key) {
-    InsertionContext ctx = new InsertionContext();
-    Node node = super.insertNode(key, ctx);
+    if (indexedFactory != null) {
+      reportStart(TreeMetricsListener.Operation.INSERT, key);
+      int index = insertIndex(key);
+      updateHeightsAndRebalanceIndexPath(key);
+      if (metrics != null) {
+        reportOperation(TreeMetricsListener.Operation.INSERT, indexPathLength - 1, indexPathLength, true);
+      }
+      return indexedFactory.node(index);
+    }
+    return insertNode(key, insertionContext);
+  }
 
+  @Override
+  Node insertNodeRecordingPath(long key, InsertionContext ctx) {
+    Node node = super.insertNodeRecordingPath(key, ctx);
     updateHeightsAndRebalancePath(ctx.affectedPath);
     return node;
   }
@@ -37,28 +50,19 @@ public class AvlTree extends BinarySearchTreeIterative {
     Node lastRebalanceResult = null;
     Node lastAffectedNode = null;
 
-    Iterator<BinaryTreePathElement> reverseAffectedPathIterator = affectedPath.descendingIterator();
-    BinaryTreePathElement next = null;
-    if (reverseAffectedPathIterator.hasNext()) {
-      next = reverseAffectedPathIterator.next();
-      updateHeight(next.node);
-      lastRebalanceResult = rebalance(next.node);
-      lastAffectedNode = next.node;
-    }
-    while (reverseAffectedPathIterator.hasNext()) {
-      BinaryTreePathElement child = next;
-      next = reverseAffectedPathIterator.next();
-      if (!child.node.equals(lastRebalanceResult)) {
+    for (int i = affectedPath.size() - 1; i >= 0; i--) {
+      Node node = affectedPath.node(i);
+      if (i < affectedPath.size() - 1 && !affectedPath.node(i + 1).equals(lastRebalanceResult)) {
         // rotate has happened - root of subtree changed
-        if (child.leftChildOfParent) {
-          next.node.left(lastRebalanceResult);
+        if (affectedPath.leftChildOfParent(i + 1)) {
+          node.left(lastRebalanceResult);
         } else {
-          next.node.right(lastRebalanceResult);
+          node.right(lastRebalanceResult);
         }
       }
-      updateHeight(next.node);
-      lastRebalanceResult = rebalance(next.node);
-      lastAffectedNode = next.node;
+      updateHeight(node);
+      lastRebalanceResult = rebalance(node);
+      lastAffectedNode = node;
     }
 
     if (root.equals(lastAffectedNode) && !root.equals(lastRebalanceResult)) {
@@ -68,23 +72,43 @@ public class AvlTree extends BinarySearchTreeIterative {
     return lastRebalanceResult;
   }
 
-  @Override
-  Node deleteNode(long key, DeletionContext ctx) {
-    Node node = super.deleteNode(key, ctx);
-
-    // Node is null if the tree doesn't contain the key
-    if (node == null) {
-      return null;
+  /**
+   * Index-based variant of {@link #updateHeightsAndRebalancePath(BinaryTreePath)} for the path left by
+   * {@link #insertIndex(long)}. Stops as soon as a subtree keeps its height, since no ancestor can change after that.
+   *
+   * @param key the inserted key, used to find on which side of its parent each node on the path is
+   */
+  private void updateHeightsAndRebalanceIndexPath(long key) {
+    IndexedNodeFactory f = indexedFactory;
+    for (int i = indexPathLength - 1; i >= 0; i--) {
+      int index = indexPath[i];
+      int oldHeight = f.height(index);
+      updateHeight(f, index);
+      int subtreeRoot = rebalance(f, index);
+      if (subtreeRoot != index) {
+        // rotate has happened - root of subtree changed
+        if (i == 0) {
+          root = f.node(subtreeRoot);
+        } else if (key < f.data(indexPath[i - 1])) {
+          f.left(indexPath[i - 1], subtreeRoot);
+        } else {
+          f.right(indexPath[i - 1], subtreeRoot);
+        }
+      } else if (f.height(index) == oldHeight && i < indexPathLength - 1) {
+        return;
+      }
     }
+  }
 
-    node.delete(); // allow node to delete any other internal state, e.g. relationships to other nodes that has nothing to do with this tree structure.
+  @Override
+  Node deleteNodeRecordingPath(long key, DeletionContext ctx) {
+    Node node = super.deleteNodeRecordingPath(key, ctx);
 
-    if (root == null) {
-      // the only node in tree was deleted
-      return node;
+    // Node is null if the tree doesn't contain the key, root is null if the only node in the tree was deleted
+    if (node != null && root != null) {
+      updateHeightsAndRebalancePath(ctx.affectedPath);
     }
-
-    return updateHeightsAndRebalancePath(ctx.affectedPath);
+    return node;
   }
 
   static void updateHeight(Node node) {
@@ -93,7 +117,7 @@ public class AvlTree extends BinarySearchTreeIterative {
     node.height(max(leftChildHeight, rightChildHeight) + 1);
   }
 
-  private static Node rebalance(Node node) {
+  private Node rebalance(Node node) {
     int balanceFactor = balanceFactor(node);
 
     // Left-heavy?
@@ -101,10 +125,12 @@ public class AvlTree extends BinarySearchTreeIterative {
       if (balanceFactor(node.left()) <= 0) {
         // Rotate right
         node = rotateRight(node);
+        reportRotation(false);
       } else {
         // Rotate left-right
         node.left(rotateLeft(node.left()));
         node = rotateRight(node);
+        reportRotation(true);
       }
     }
 
@@ -113,17 +139,19 @@ public class AvlTree extends BinarySearchTreeIterative {
       if (balanceFactor(node.right()) >= 0) {
         // Rotate left
         node = rotateLeft(node);
+        reportRotation(false);
       } else {
         // Rotate right-left
         node.right(rotateRight(node.right()));
         node = rotateLeft(node);
+        reportRotation(true);
       }
     }
 
     return node;
   }
 
-  private static Node rotateRight(Node node) {
+  private Node rotateRight(Node node) {
     Node leftChild = node.left();
 
     node.left(leftChild.right());
@@ -132,10 +160,15 @@ public class AvlTree extends BinarySearchTreeIterative {
     updateHeight(node);
     updateHeight(leftChild);
 
+    if (sizeAugmented) {
+      BinarySearchTree.updateSize(node);
+      BinarySearchTree.updateSize(leftChild);
+    }
+
     return leftChild;
   }
 
-  private static Node rotateLeft(Node node) {
+  private Node rotateLeft(Node node) {
     Node rightChild = node.right();
 
     node.right(rightChild.left());
@@ -144,9 +177,102 @@ public class AvlTree extends BinarySearchTreeIterative {
     updateHeight(node);
     updateHeight(rightChild);
 
+    if (sizeAugmented) {
+      BinarySearchTree.updateSize(node);
+      BinarySearchTree.updateSize(rightChild);
+    }
+
+    return rightChild;
+  }
+
+  private int rebalance(IndexedNodeFactory f, int index) {
+    int balanceFactor = balanceFactor(f, index);
+
+    // Left-heavy?
+    if (balanceFactor < -1) {
+      if (balanceFactor(f, f.left(index)) <= 0) {
+        // Rotate right
+        index = rotateRight(f, index);
+        reportRotation(false);
+      } else {
+        // Rotate left-right
+        f.left(index, rotateLeft(f, f.left(index)));
+        index = rotateRight(f, index);
+        reportRotation(true);
+      }
+    }
+
+    // Right-heavy?
+    if (balanceFactor > 1) {
+      if (balanceFactor(f, f.right(index)) >= 0) {
+        // Rotate left
+        index = rotateLeft(f, index);
+        reportRotation(false);
+      } else {
+        // Rotate right-left
+        f.right(index, rotateRight(f, f.right(index)));
+        index = rotateLeft(f, index);
+        reportRotation(true);
+      }
+    }
+
+    return index;
+  }
+
+  private int rotateRight(IndexedNodeFactory f, int index) {
+    int leftChild = f.left(index);
+
+    f.left(index, f.right(leftChild));
+    f.right(leftChild, index);
+
+    updateHeight(f, index);
+    updateHeight(f, leftChild);
+
+    if (sizeAugmented) {
+      updateSize(f, index);
+      updateSize(f, leftChild);
+    }
+
+    return leftChild;
+  }
+
+  private int rotateLeft(IndexedNodeFactory f, int index) {
+    int rightChild = f.right(index);
+
+    f.right(index, f.left(rightChild));
+    f.left(rightChild, index);
+
+    updateHeight(f, index);
+    updateHeight(f, rightChild);
+
+    if (sizeAugmented) {
+      updateSize(f, index);
+      updateSize(f, rightChild);
+    }
+
     return rightChild;
   }
 
+  private static void updateHeight(IndexedNodeFactory f, int index) {
+    f.height(index, max(height(f, f.left(index)), height(f, f.right(index))) + 1);
+  }
+
+  private static void updateSize(IndexedNodeFactory f, int index) {
+    f.size(index, size(f, f.left(index)) + size(f, f.right(index)) + 1);
+  }
+
+  private static int balanceFactor(IndexedNodeFactory f, int index) {
+    return height(f, f.right(index)) - height(f, f.left(index));
+  }
+
+  private static int height(IndexedNodeFactory f, int index) {
+    return index != NULL_INDEX ? f.height(index) : -1;
+  }
+
+  private static int size(IndexedNodeFactory f, int index) {
+    return index != NULL_INDEX ? f.size(index) : 0;
+  }
+
   private static int balanceFactor(Node node) {
     return height(node.right()) - height(node.left());
   }
@@ -155,6 +281,112 @@ public class AvlTree extends BinarySearchTreeIterative {
     return node != null ? node.height() : -1;
   }
 
+  // -- Split, join and set operations ---------------------------------------------------------------
+
+  @Override
+  AvlJoinOperations joinOperations() {
+    return new AvlJoinOperations(factory);
+  }
+
+  /**
+   * Splits this tree at the given key in O(log n). Keys less than the key stay in this tree, the key itself and all
+   * greater keys are moved to the returned tree.
+   *
+   * @param key the split key
+   * @return a new tree with all keys greater than or equal to the split key
+   */
+  public AvlTree split(long key) {
+    requireOpenRange("split");
+    JoinBasedOperations operations = joinOperations();
+    JoinBasedOperations.Split split = operations.split(root, key);
+    root = split.left();
+    Node right = split.found() != null ? operations.join(null, split.found(), split.right()) : split.right();
+    return new AvlTree(factory, TraversalRange.OPEN, true, right);
+  }
+
+  /**
+   * Joins two trees with a pivot key between them into one balanced tree in O(log n). Both trees are emptied, their
+   * nodes are moved to the returned tree.
+   *
+   * @param left  a tree with all keys less than the pivot
+   * @param pivot the pivot key
+   * @param right a tree with all keys greater than the pivot, using the same node factory as <code>left</code>
+   * @return a new tree with all keys of both trees and the pivot
+   * @throws IllegalArgumentException if the pivot does not separate the keys of the two trees, or the trees use
+   *                                  different node factories
+   */
+  public static AvlTree join(AvlTree left, long pivot, AvlTree right) {
+    left.requireJoinable(right);
+    if ((left.root != null && BinarySearchTree.maxValue(left.root).data() >= pivot)
+        || (right.root != null && BinarySearchTree.minValue(right.root).data() <= pivot)) {
+      throw new IllegalArgumentException("Pivot " + pivot + " does not separate the keys of the trees");
+    }
+    NodeFactory factory = left.factory;
+    Node root = new AvlJoinOperations(factory).join(left.root, factory.createNode(pivot), right.root);
+    left.root = null;
+    right.root = null;
+    return new AvlTree(factory, TraversalRange.OPEN, true, root);
+  }
+
+  /**
+   * Adds all keys of the other tree to this tree. The other tree is emptied and its nodes are reused. Runs in
+   * O(m log(n/m + 1)) for trees of sizes m &lt;= n, in parallel on the given pool if the node factory is
+   * {@link NodeFactory#threadSafe() thread-safe}.
+   *
+   * @param other a tree using the same node factory
+   * @param pool  the pool to run on
+   */
+  public void union(AvlTree other, ForkJoinPool pool) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("union", this, 0);
+    requireJoinable(other);
+    root = joinOperations().union(root, other.root, pool);
+    other.root = null;
+    event.commit();
+  }
+
+  /**
+   * Retains only the keys of this tree that are also in the other tree. The other tree is emptied. Runs in
+   * O(m log(n/m + 1)) for trees of sizes m &lt;= n, in parallel on the given pool if the node factory is
+   * {@link NodeFactory#threadSafe() thread-safe}.
+   *
+   * @param other a tree using the same node factory
+   * @param pool  the pool to run on
+   */
+  public void intersection(AvlTree other, ForkJoinPool pool) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("intersection", this, 0);
+    requireJoinable(other);
+    root = joinOperations().intersection(root, other.root, pool);
+    other.root = null;
+    event.commit();
+  }
+
+  /**
+   * Removes all keys of the other tree from this tree. The other tree is emptied. Runs in O(m log(n/m + 1)) for trees
+   * of sizes m &lt;= n, in parallel on the given pool if the node factory is
+   * {@link NodeFactory#threadSafe() thread-safe}.
+   *
+   * @param other a tree using the same node factory
+   * @param pool  the pool to run on
+   */
+  public void difference(AvlTree other, ForkJoinPool pool) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("difference", this, 0);
+    requireJoinable(other);
+    root = joinOperations().difference(root, other.root, pool);
+    other.root = null;
+    event.commit();
+  }
+
+  private void requireJoinable(AvlTree other) {
+    requireOpenRange("join");
+    other.requireOpenRange("join");
+    if (other == this) {
+      throw new IllegalArgumentException("Cannot combine a tree with itself");
+    }
+    if (other.factory != factory) {
+      throw new IllegalArgumentException("Trees must use the same node factory");
+    }
+  }
+
   @Override
   protected void appendNodeToString(Node node, StringBuilder builder) {
     builder
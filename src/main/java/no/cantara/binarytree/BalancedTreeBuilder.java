@@ -0,0 +1,190 @@
+package no.cantara.binarytree;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static java.lang.Math.max;
+
+/**
+ * Builds a perfectly balanced binary search tree bottom-up from keys in strictly increasing order in linear time. Every
+ * node gets a correct AVL height and, if the factory is size augmented, a correct subtree size. For red-black trees all
+ * nodes are black except the nodes on the incomplete bottom level, which are red, and parent pointers are set.
+ */
+final class BalancedTreeBuilder {
+
+    /**
+     * Key ranges up to this size are built by a single task.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private final NodeFactory factory;
+    private final boolean redBlack;
+    private final boolean sizeAugmented;
+
+    private int redDepth;
+    private boolean first;
+    private long previousKey;
+
+    BalancedTreeBuilder(NodeFactory factory, boolean redBlack) {
+        this.factory = factory;
+        this.redBlack = redBlack;
+        this.sizeAugmented = factory.sizeAugmented();
+    }
+
+    /**
+     * Builds a balanced tree from the given range of a sorted array.
+     *
+     * @param sortedKeys keys in strictly increasing order
+     * @param from       index of the first key, inclusive
+     * @param to         index of the last key, exclusive
+     * @return the root of the new tree, or <code>null</code> if the range is empty
+     */
+    Node build(long[] sortedKeys, int from, int to) {
+        requireIncreasing(sortedKeys, from, to);
+        redDepth = redDepth(to - from);
+        return build(sortedKeys, from, to, 0);
+    }
+
+    /**
+     * Builds a balanced tree from the given range of a sorted array, building left and right subtrees in parallel on the
+     * given pool. Builds on the calling thread if the node factory is not {@link NodeFactory#threadSafe() thread-safe}.
+     *
+     * @param sortedKeys keys in strictly increasing order
+     * @param from       index of the first key, inclusive
+     * @param to         index of the last key, exclusive
+     * @param pool       the pool to build on
+     * @return the root of the new tree, or <code>null</code> if the range is empty
+     */
+    Node build(long[] sortedKeys, int from, int to, ForkJoinPool pool) {
+        if (!factory.threadSafe() || to - from <= PARALLEL_THRESHOLD) {
+            return build(sortedKeys, from, to);
+        }
+        redDepth = redDepth(to - from);
+        return pool.invoke(new BuildTask(sortedKeys, from, to, 0));
+    }
+
+    private static void requireIncreasing(long[] sortedKeys, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            if (sortedKeys[i - 1] >= sortedKeys[i]) {
+                throw new IllegalArgumentException("Keys are not in strictly increasing order at index " + i);
+            }
+        }
+    }
+
+    /**
+     * Builds a balanced tree from the next <code>count</code> keys of the given iterator.
+     *
+     * @param sortedKeys keys in strictly increasing order
+     * @param count      the number of keys to consume
+     * @return the root of the new tree, or <code>null</code> if count is 0
+     */
+    Node build(PrimitiveIterator.OfLong sortedKeys, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count: " + count);
+        }
+        redDepth = redDepth(count);
+        first = true;
+        return build(sortedKeys, count, 0);
+    }
+
+    private Node build(long[] sortedKeys, int from, int to, int depth) {
+        int count = to - from;
+        if (count == 0) {
+            return null;
+        }
+        int mid = from + (count - 1) / 2;
+        Node left = build(sortedKeys, from, mid, depth + 1);
+        Node node = factory.createNode(sortedKeys[mid]);
+        Node right = build(sortedKeys, mid + 1, to, depth + 1);
+        return link(node, left, right, count, depth);
+    }
+
+    private Node build(PrimitiveIterator.OfLong sortedKeys, int count, int depth) {
+        if (count == 0) {
+            return null;
+        }
+        int leftCount = (count - 1) / 2;
+        Node left = build(sortedKeys, leftCount, depth + 1);
+        Node node = factory.createNode(nextKey(sortedKeys));
+        Node right = build(sortedKeys, count - 1 - leftCount, depth + 1);
+        return link(node, left, right, count, depth);
+    }
+
+    private long nextKey(PrimitiveIterator.OfLong sortedKeys) {
+        if (!sortedKeys.hasNext()) {
+            throw new NoSuchElementException("Fewer keys than the given count");
+        }
+        long key = sortedKeys.nextLong();
+        if (!first && previousKey >= key) {
+            throw new IllegalArgumentException("Keys are not in strictly increasing order: " + previousKey + " followed by " + key);
+        }
+        first = false;
+        previousKey = key;
+        return key;
+    }
+
+    private Node link(Node node, Node left, Node right, int count, int depth) {
+        node.left(left);
+        node.right(right);
+        node.height(max(left != null ? left.height() : -1, right != null ? right.height() : -1) + 1);
+        if (sizeAugmented) {
+            node.size(count);
+        }
+        if (redBlack) {
+            node.color(depth == redDepth ? Node.RED : Node.BLACK);
+            if (left != null) {
+                left.parent(node);
+            }
+            if (right != null) {
+                right.parent(node);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Builds the subtree for a key range, forking the left half and building the right half on the current thread. Every
+     * task checks the ordering of its own keys, so the whole input is validated without a separate sequential pass.
+     */
+    private final class BuildTask extends RecursiveTask<Node> {
+
+        private final long[] sortedKeys;
+        private final int from;
+        private final int to;
+        private final int depth;
+
+        private BuildTask(long[] sortedKeys, int from, int to, int depth) {
+            this.sortedKeys = sortedKeys;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Node compute() {
+            int count = to - from;
+            if (count <= PARALLEL_THRESHOLD) {
+                requireIncreasing(sortedKeys, from, to);
+                return build(sortedKeys, from, to, depth);
+            }
+            int mid = from + (count - 1) / 2;
+            requireIncreasing(sortedKeys, mid - 1, mid + 2);
+            BuildTask leftTask = new BuildTask(sortedKeys, from, mid, depth + 1);
+            leftTask.fork();
+            Node node = factory.createNode(sortedKeys[mid]);
+            Node right = new BuildTask(sortedKeys, mid + 1, to, depth + 1).compute();
+            Node left = leftTask.join();
+            return link(node, left, right, count, depth);
+        }
+    }
+
+    /**
+     * A tree built by splitting at the middle has all levels above depth floor(log2(n + 1)) complete, only the level at
+     * that depth can be incomplete. Coloring that level red gives every path the same number of black nodes.
+     */
+    private static int redDepth(int count) {
+        return 31 - Integer.numberOfLeadingZeros(count + 1);
+    }
+}
@@ -84,4 +84,80 @@ public interface BinarySearchTree extends BinaryTree {
         }
         return node;
     }
+
+    /**
+     * Returns the number of nodes in the subtree rooted at the given node. Requires a size augmented tree.
+     *
+     * @param node the subtree root, may be <code>null</code>
+     * @return the subtree size, 0 for <code>null</code>
+     */
+    static int subtreeSize(Node node) {
+        return node != null ? node.size() : 0;
+    }
+
+    /**
+     * Recomputes the subtree size of the given node from the sizes of its children.
+     *
+     * @param node the node to update
+     */
+    static void updateSize(Node node) {
+        node.size(subtreeSize(node.left()) + subtreeSize(node.right()) + 1);
+    }
+
+    /**
+     * Counts the keys in a size augmented tree that are less than (or equal to, if inclusive) the given key. Runs in
+     * O(height) without visiting the counted nodes.
+     *
+     * @param root      the root of a size augmented tree
+     * @param key       the key
+     * @param inclusive whether a node with the given key is counted
+     * @return the number of keys below the given key
+     */
+    static int countBelow(Node root, long key, boolean inclusive) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.data() < key || (inclusive && node.data() == key)) {
+                count += subtreeSize(node.left()) + 1;
+                node = node.right();
+            } else {
+                node = node.left();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the rank of the given key in a size augmented tree, i.e. the number of keys strictly less than the key.
+     *
+     * @param root the root of a size augmented tree
+     * @param key  the key
+     * @return the rank of the key
+     */
+    static int rank(Node root, long key) {
+        return countBelow(root, key, false);
+    }
+
+    /**
+     * Returns the node with the given zero-based index in key order in a size augmented tree.
+     *
+     * @param root  the root of a size augmented tree
+     * @param index the index
+     * @return the node at the index or <code>null</code> if index is negative or not less than the tree size
+     */
+    static Node select(Node root, int index) {
+        Node node = root;
+        while (node != null) {
+            int leftSize = subtreeSize(node.left());
+            if (index < leftSize) {
+                node = node.left();
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right();
+            }
+        }
+        return null;
+    }
 }
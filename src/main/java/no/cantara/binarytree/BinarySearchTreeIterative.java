@@ -1,5 +1,11 @@
 package no.cantara.binarytree;
 
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+
+import static no.cantara.binarytree.IndexedNodeFactory.NULL_INDEX;
+
 /**
  * An iterative binary search tree implementation with <code>int</code> keys.
  *
@@ -7,12 +13,30 @@ package no.cantara.binarytree;
  */
 public class BinarySearchTreeIterative extends AbstractBinarySearchTree {
 
+  /**
+   * Set when the factory supports index-based fast paths, see {@link IndexedNodeFactory}.
+   */
+  protected final IndexedNodeFactory indexedFactory;
+
+  /**
+   * Indices of the nodes on the path of the last index-based insertion, from the root and down.
+   */
+  int[] indexPath = new int[64];
+  int indexPathLength;
+
+  /**
+   * Contexts reused by inserts and deletes that are not given a context by the caller.
+   */
+  final InsertionContext insertionContext = new InsertionContext();
+  final DeletionContext deletionContext = new DeletionContext();
+
   public BinarySearchTreeIterative(NodeFactory factory) {
-    super(factory, TraversalRange.OPEN, true, null);
+    this(factory, TraversalRange.OPEN, true, null);
   }
 
   public BinarySearchTreeIterative(NodeFactory factory, TraversalRange range, boolean traversalDirection, Node root) {
     super(factory, range, traversalDirection, root);
+    this.indexedFactory = factory instanceof IndexedNodeFactory indexed ? indexed : null;
   }
 
   @Override
@@ -22,6 +46,12 @@ public class BinarySearchTreeIterative extends AbstractBinarySearchTree {
 
   @Override
   public Node searchNode(long key) {
+    if (metrics != null) {
+      return searchNodeWithMetrics(key);
+    }
+    if (indexedFactory != null) {
+      return indexedFactory.node(searchIndex(key));
+    }
     Node node = root;
     while (node != null) {
       if (key == node.data()) {
@@ -36,12 +66,145 @@ public class BinarySearchTreeIterative extends AbstractBinarySearchTree {
     return null;
   }
 
+  private Node searchNodeWithMetrics(long key) {
+    metrics.operationStarted(TreeMetricsListener.Operation.SEARCH, key);
+    int comparisons = 0;
+    Node node = root;
+    while (node != null) {
+      comparisons++;
+      if (key == node.data()) {
+        break;
+      }
+      node = key < node.data() ? node.left() : node.right();
+    }
+    reportOperation(TreeMetricsListener.Operation.SEARCH, comparisons, comparisons, node != null);
+    return node;
+  }
+
+  /**
+   * Index-based variant of {@link #searchNode(long)} that does not materialize any nodes. Requires an
+   * {@link IndexedNodeFactory}.
+   *
+   * @param key the search key
+   * @return the index of the node or {@link IndexedNodeFactory#NULL_INDEX} if no node with the given key exists
+   */
+  int searchIndex(long key) {
+    IndexedNodeFactory f = indexedFactory;
+    int index = f.indexOf(root);
+    while (index != NULL_INDEX) {
+      long data = f.data(index);
+      if (key == data) {
+        return index;
+      }
+      index = key < data ? f.left(index) : f.right(index);
+    }
+    return NULL_INDEX;
+  }
+
   @Override
   public Node insertNode(long key) {
-    return insertNode(key, new InsertionContext());
+    if (indexedFactory != null) {
+      reportStart(TreeMetricsListener.Operation.INSERT, key);
+      int index = insertIndex(key);
+      if (metrics != null) {
+        reportOperation(TreeMetricsListener.Operation.INSERT, indexPathLength - 1, indexPathLength, true);
+      }
+      return indexedFactory.node(index);
+    }
+    return insertNode(key, insertionContext);
   }
 
+  /**
+   * Inserts a node with the given key, leaving the new node and the path from the root to it in the given context. The
+   * context is cleared first, so a caller can pass the same context to every insert to avoid allocating one each time.
+   *
+   * @param key the key
+   * @param ctx the context
+   * @return the new node
+   * @throws IllegalArgumentException if the tree already contains the key
+   */
   public Node insertNode(long key, InsertionContext ctx) {
+    reportStart(TreeMetricsListener.Operation.INSERT, key);
+    ctx.clear();
+    Node node = insertNodeRecordingPath(key, ctx);
+    if (metrics != null) {
+      reportInsert(ctx);
+    }
+    return node;
+  }
+
+  /**
+   * Reports an insertion that left the path from the root to the new node in the given context.
+   */
+  final void reportInsert(InsertionContext ctx) {
+    reportOperation(TreeMetricsListener.Operation.INSERT, ctx.comparisons, ctx.affectedPath.size(), true);
+  }
+
+  /**
+   * Index-based variant of {@link #insertNode(long, InsertionContext)} that does not materialize any nodes. The path
+   * from the root to the new node is left in {@link #indexPath}. Requires an {@link IndexedNodeFactory}.
+   *
+   * @param key the key of the node to be inserted
+   * @return the index of the inserted node
+   */
+  int insertIndex(long key) {
+    IndexedNodeFactory f = indexedFactory;
+    indexPathLength = 0;
+    int index = f.indexOf(root);
+
+    if (index == NULL_INDEX) {
+      int newIndex = f.allocate(key);
+      root = f.node(newIndex);
+      pushIndex(newIndex);
+      return newIndex;
+    }
+
+    int newIndex;
+    while (true) {
+      pushIndex(index);
+      long data = f.data(index);
+      if (key < data) {
+        int left = f.left(index);
+        if (left == NULL_INDEX) {
+          newIndex = f.allocate(key);
+          f.left(index, newIndex);
+          break;
+        }
+        index = left;
+      } else if (key > data) {
+        int right = f.right(index);
+        if (right == NULL_INDEX) {
+          newIndex = f.allocate(key);
+          f.right(index, newIndex);
+          break;
+        }
+        index = right;
+      } else {
+        throw new IllegalArgumentException("BST already contains a node with key " + key);
+      }
+    }
+
+    if (sizeAugmented) {
+      for (int i = 0; i < indexPathLength; i++) {
+        f.size(indexPath[i], f.size(indexPath[i]) + 1);
+      }
+    }
+    pushIndex(newIndex);
+    return newIndex;
+  }
+
+  private void pushIndex(int index) {
+    if (indexPathLength == indexPath.length) {
+      indexPath = Arrays.copyOf(indexPath, indexPathLength * 2);
+    }
+    indexPath[indexPathLength++] = index;
+  }
+
+  /**
+   * Inserts a node and records the path from the root to the new node in the context. Balancing subclasses override
+   * this to rebalance along the path.
+   */
+  Node insertNodeRecordingPath(long key, InsertionContext ctx) {
     Node newNode = factory.createNode(key);
     ctx.insertedNode(newNode);
 
@@ -64,7 +227,7 @@ public class BinarySearchTreeIterative extends AbstractBinarySearchTree {
           // Left sub-tree does not exist --> insert new node as left child
           node.left(newNode);
           ctx.affectedPath.add(true, newNode);
-          return newNode;
+          break;
         }
       } else if (key > node.data()) {
         if (node.right() != null) {
@@ -75,23 +238,117 @@ public class BinarySearchTreeIterative extends AbstractBinarySearchTree {
           // Right sub-tree does not exist --> insert new node as right child
           node.right(newNode);
           ctx.affectedPath.add(false, newNode);
-          return newNode;
+          break;
         }
       } else {
         throw new IllegalArgumentException("BST already contains a node with key " + key);
       }
     }
+    ctx.comparisons = ctx.affectedPath.size() - 1;
+
+    if (sizeAugmented) {
+      updateSizes(ctx.affectedPath);
+    }
+    return newNode;
+  }
+
+  /**
+   * Builds a perfectly balanced tree from keys in strictly increasing order in linear time, instead of inserting them
+   * one by one. Node heights are set, so the result is also a valid AVL tree.
+   *
+   * @param sortedKeys keys in strictly increasing order
+   * @throws IllegalStateException    if the tree is not empty
+   * @throws IllegalArgumentException if the keys are not in strictly increasing order
+   */
+  public void bulkLoad(long[] sortedKeys) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("bulkLoad", this, sortedKeys.length);
+    requireEmpty();
+    root = new BalancedTreeBuilder(factory, false).build(sortedKeys, 0, sortedKeys.length);
+    event.commit();
+  }
+
+  /**
+   * Builds a perfectly balanced tree from the next <code>count</code> keys of the given iterator in linear time.
+   *
+   * @param sortedKeys keys in strictly increasing order
+   * @param count      the number of keys to consume from the iterator
+   * @throws IllegalStateException    if the tree is not empty
+   * @throws IllegalArgumentException if the keys are not in strictly increasing order
+   */
+  public void bulkLoad(PrimitiveIterator.OfLong sortedKeys, int count) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("bulkLoad", this, count);
+    requireEmpty();
+    root = new BalancedTreeBuilder(factory, false).build(sortedKeys, count);
+    event.commit();
+  }
+
+  /**
+   * Like {@link #bulkLoad(long[])}, but builds left and right subtrees in parallel on the given pool. The factory must be
+   * {@link NodeFactory#threadSafe() thread-safe} for the build to run in parallel, otherwise it runs on the calling
+   * thread.
+   *
+   * @param sortedKeys keys in strictly increasing order
+   * @param pool       the pool to build on
+   * @throws IllegalStateException    if the tree is not empty
+   * @throws IllegalArgumentException if the keys are not in strictly increasing order
+   */
+  public void bulkLoad(long[] sortedKeys, ForkJoinPool pool) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("parallelBulkLoad", this, sortedKeys.length);
+    requireEmpty();
+    root = new BalancedTreeBuilder(factory, false).build(sortedKeys, 0, sortedKeys.length, pool);
+    event.commit();
+  }
+
+  /**
+   * Returns the split and join primitives matching the balancing scheme of this tree.
+   */
+  JoinBasedOperations joinOperations() {
+    return new UnbalancedJoinOperations(factory);
+  }
+
+  @Override
+  protected void deleteRange(TraversalRange deletionRange) {
+    root = joinOperations().deleteRange(root, deletionRange);
+  }
+
+  private void requireEmpty() {
+    if (root != null) {
+      throw new IllegalStateException("Bulk load requires an empty tree");
+    }
   }
 
   @Override
   @SuppressWarnings("squid:S2259") // parent won't be null as it's used only if node != root
   public Node deleteNode(long key) {
-    DeletionContext ctx = new DeletionContext();
-    deleteNode(key, ctx);
+    return deleteNode(key, deletionContext);
+  }
+
+  /**
+   * Deletes the node with the given key, leaving the deleted node and the path to the nodes whose subtree changed in
+   * the given context. The context is cleared first, so a caller can pass the same context to every delete to avoid
+   * allocating one each time.
+   *
+   * @param key the key
+   * @param ctx the context
+   * @return the deleted node, or <code>null</code> if the tree does not contain the key
+   */
+  public Node deleteNode(long key, DeletionContext ctx) {
+    reportStart(TreeMetricsListener.Operation.DELETE, key);
+    ctx.clear();
+    deleteNodeRecordingPath(key, ctx);
+    if (metrics != null) {
+      reportOperation(TreeMetricsListener.Operation.DELETE, ctx.comparisons, ctx.affectedPath.size(), ctx.deletedNode != null);
+    }
     return ctx.deletedNode;
   }
 
-  Node deleteNode(long key, DeletionContext ctx) {
+  /**
+   * Deletes a node and records the path to the nodes whose subtree changed in the context. Balancing subclasses
+   * override this to rebalance along the path.
+   *
+   * @return the deleted node, or <code>null</code> if the tree does not contain the key
+   */
+  Node deleteNodeRecordingPath(long key, DeletionContext ctx) {
     Node node = root;
     Node parent = null;
 
@@ -110,6 +367,8 @@ public class BinarySearchTreeIterative extends AbstractBinarySearchTree {
       }
     }
 
+    ctx.comparisons = node != null ? ctx.affectedPath.size() + 1 : ctx.affectedPath.size();
+
     // Node not found?
     if (node == null) {
       return null;
@@ -131,9 +390,27 @@ public class BinarySearchTreeIterative extends AbstractBinarySearchTree {
       }
     }
 
+    if (sizeAugmented) {
+      updateSizes(ctx.affectedPath);
+    }
+
+    node.delete(); // allow node to delete any other internal state, e.g. relationships to other nodes that has nothing to do with this tree structure.
+
     return node;
   }
 
+  /**
+   * Recomputes subtree sizes bottom-up along the given path. The path must be ordered from the root and down, so that
+   * the children of every node on the path have correct sizes when the node itself is updated.
+   *
+   * @param path the path of nodes whose subtree has changed
+   */
+  static void updateSizes(BinaryTreePath path) {
+    for (int i = path.size() - 1; i >= 0; i--) {
+      BinarySearchTree.updateSize(path.node(i));
+    }
+  }
+
   private void deleteNodeWithZeroOrOneChild(long key, Node node, Node parent) {
     Node singleChild = node.left() != null ? node.left() : node.right();
 
@@ -150,23 +427,20 @@ public class BinarySearchTreeIterative extends AbstractBinarySearchTree {
     // TODO determine whether it's best to use successor or predecessor which depends on which will keep the tree most balanced
 
     // Find minimum node of right subtree ("inorder successor" of current node)
-    BinaryTreePath pathToSuccessor = new BinaryTreePath();
+    int successorIndex = ctx.affectedPath.size();
+    ctx.affectedPath.add(nodeIsLeftChildOfParent, null); // the successor moves up to take the place of the deleted node
     Node inOrderSuccessor = node.right();
     Node inOrderSuccessorParent = node;
     boolean inOrderSuccessorParentIsLeftChildOfParent = false;
     while (inOrderSuccessor.left() != null) {
       inOrderSuccessorParent = inOrderSuccessor;
       inOrderSuccessor = inOrderSuccessor.left();
-      pathToSuccessor.add(inOrderSuccessorParentIsLeftChildOfParent, inOrderSuccessorParent);
+      ctx.affectedPath.add(inOrderSuccessorParentIsLeftChildOfParent, inOrderSuccessorParent);
       inOrderSuccessorParentIsLeftChildOfParent = true;
     }
     ctx.parentOfSuccessorNode(inOrderSuccessorParent);
     ctx.successorNode(inOrderSuccessor);
-
-    ctx.affectedPath.add(nodeIsLeftChildOfParent, inOrderSuccessor); // moved up to take the place of the deleted node
-    for (BinaryTreePathElement pathElement : pathToSuccessor) {
-      ctx.affectedPath.add(pathElement.leftChildOfParent, pathElement.node);
-    }
+    ctx.affectedPath.set(successorIndex, nodeIsLeftChildOfParent, inOrderSuccessor);
 
     // Replace node with inorder successor
 
@@ -9,13 +9,41 @@ public class BinarySearchTreeRecursive extends BaseBinaryTree implements BinaryS
 
   private final NodeFactory factory;
 
+  /**
+   * Receives operation metrics, <code>null</code> unless a listener is registered.
+   */
+  private TreeMetricsListener metrics;
+
+  // Contexts reused by every insert and delete, and by the nested delete of an in-order successor
+  private final InsertionContext insertionContext = new InsertionContext();
+  private final DeletionContext deletionContext = new DeletionContext();
+  private final DeletionContext successorDeletionContext = new DeletionContext();
+
   public BinarySearchTreeRecursive(NodeFactory factory) {
     this.factory = factory;
   }
 
+  /**
+   * Registers a listener for search, insert and delete metrics, replacing any previous one. The tree never rotates, so
+   * operations are never reported as rebalanced.
+   *
+   * @param listener the listener, or <code>null</code> to stop reporting
+   */
+  public void metricsListener(TreeMetricsListener listener) {
+    this.metrics = listener;
+  }
+
+  public TreeMetricsListener metricsListener() {
+    return metrics;
+  }
+
   @Override
   public Node searchNode(long key) {
-    return searchNode(key, root);
+    if (metrics == null) {
+      return searchNode(key, root);
+    }
+    metrics.operationStarted(TreeMetricsListener.Operation.SEARCH, key);
+    return searchNodeWithMetrics(key, root, 0);
   }
 
   private Node searchNode(long key, Node node) {
@@ -32,14 +60,42 @@ public class BinarySearchTreeRecursive extends BaseBinaryTree implements BinaryS
     }
   }
 
+  /**
+   * Same as {@link #searchNode(long, Node)}, but counts the compared nodes on the way down and reports them when the
+   * search ends.
+   */
+  private Node searchNodeWithMetrics(long key, Node node, int comparisons) {
+    if (node == null) {
+      metrics.operation(TreeMetricsListener.Operation.SEARCH, comparisons, comparisons, false, false);
+      return null;
+    }
+
+    comparisons++;
+    if (key == node.data()) {
+      metrics.operation(TreeMetricsListener.Operation.SEARCH, comparisons, comparisons, true, false);
+      return node;
+    } else if (key < node.data()) {
+      return searchNodeWithMetrics(key, node.left(), comparisons);
+    } else {
+      return searchNodeWithMetrics(key, node.right(), comparisons);
+    }
+  }
+
   @Override
   public Node insertNode(long key) {
+    if (metrics != null) {
+      metrics.operationStarted(TreeMetricsListener.Operation.INSERT, key);
+    }
+    InsertionContext ctx = insertionContext.clear();
     if (root == null) {
       root = factory.createNode(key);
-      return root;
+      ctx.insertedNode(root);
+    } else {
+      insertNode(key, root, ctx);
+    }
+    if (metrics != null) {
+      metrics.operation(TreeMetricsListener.Operation.INSERT, ctx.comparisons, ctx.comparisons + 1, true, false);
     }
-    InsertionContext ctx = new InsertionContext();
-    insertNode(key, root, ctx);
     return ctx.insertedNode;
   }
 
@@ -48,10 +104,12 @@ public class BinarySearchTreeRecursive extends BaseBinaryTree implements BinaryS
     if (node == null) {
       node = factory.createNode(key);
       ctx.insertedNode(node);
+      return node;
     }
 
     // Otherwise, traverse the tree to the left or right depending on the key
-    else if (key < node.data()) {
+    ctx.comparisons++;
+    if (key < node.data()) {
       node.left(insertNode(key, node.left(), ctx));
     } else if (key > node.data()) {
       node.right(insertNode(key, node.right(), ctx));
@@ -64,8 +122,23 @@ public class BinarySearchTreeRecursive extends BaseBinaryTree implements BinaryS
 
   @Override
   public Node deleteNode(long key) {
-    DeletionContext ctx = new DeletionContext();
+    if (metrics != null) {
+      metrics.operationStarted(TreeMetricsListener.Operation.DELETE, key);
+    }
+    DeletionContext ctx = deletionContext.clear();
+    successorDeletionContext.clear();
     root = deleteNode(key, root, null, true, ctx);
+    // Free the node that was unlinked, the in-order successor if the deleted key moved into it. This is done after the
+    // recursion, since subclasses still read the unlinked node on the way up.
+    Node unlinked = successorDeletionContext.deletedNode != null ? successorDeletionContext.deletedNode : ctx.deletedNode;
+    if (unlinked != null) {
+      unlinked.delete();
+    }
+    if (metrics != null) {
+      // The unlinked node is the deleted node itself, or the in-order successor found by the nested delete
+      int pathLength = ctx.deletedNode != null ? ctx.comparisons - 1 + successorDeletionContext.comparisons : ctx.comparisons;
+      metrics.operation(TreeMetricsListener.Operation.DELETE, ctx.comparisons, pathLength, ctx.deletedNode != null, false);
+    }
     return ctx.deletedNode;
   }
 
@@ -76,6 +149,7 @@ public class BinarySearchTreeRecursive extends BaseBinaryTree implements BinaryS
     }
 
     // Traverse the tree to the left or right depending on the key
+    ctx.comparisons++;
     if (key < node.data()) {
       node.left(deleteNode(key, node.left(), node, true, ctx));
     } else if (key > node.data()) {
@@ -117,7 +191,7 @@ public class BinarySearchTreeRecursive extends BaseBinaryTree implements BinaryS
     node.copyNonNavigableStateFrom(inOrderSuccessor);
 
     // Delete inorder successor recursively
-    node.right(deleteNode(inOrderSuccessor.data(), node.right(), node, !inOrderSuccessor.equals(node.right()), new DeletionContext()));
+    node.right(deleteNode(inOrderSuccessor.data(), node.right(), node, !inOrderSuccessor.equals(node.right()), successorDeletionContext.clear()));
   }
 
   private Node findMinimum(Node node) {
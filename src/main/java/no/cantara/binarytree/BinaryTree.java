@@ -13,4 +13,13 @@ public interface BinaryTree {
    * @return the root node
    */
   Node getRoot();
+
+  /**
+   * Whether the nodes of this tree carry an up to date subtree size, see {@link NodeFactory#sizeAugmented()}.
+   *
+   * @return true if {@link Node#size()} can be used on the nodes of this tree
+   */
+  default boolean sizeAugmented() {
+    return false;
+  }
 }
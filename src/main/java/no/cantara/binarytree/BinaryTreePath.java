@@ -1,21 +1,117 @@
 package no.cantara.binarytree;
 
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.NoSuchElementException;
 
+/**
+ * Path of nodes from the root down, with the side of its parent each node is on. Backed by a node array and a bitset
+ * that grow to the deepest path seen and are kept when the path is cleared, so a path that is reused for every
+ * operation of a tree stops allocating once it has reached the tree height.
+ */
 public class BinaryTreePath implements Iterable<BinaryTreePathElement> {
-    final Deque<BinaryTreePathElement> path = new LinkedList<>();
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private Node[] nodes;
+    private long[] leftChildOfParent;
+    private int size;
 
     void add(boolean leftChildOfParent, Node node) {
-        path.addLast(new BinaryTreePathElement(leftChildOfParent, node));
+        if (nodes == null) {
+            nodes = new Node[INITIAL_CAPACITY];
+            this.leftChildOfParent = new long[INITIAL_CAPACITY / 64 + 1];
+        } else if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            this.leftChildOfParent = Arrays.copyOf(this.leftChildOfParent, size * 2 / 64 + 1);
+        }
+        set(size++, leftChildOfParent, node);
+    }
+
+    /**
+     * Replaces the element at the given position.
+     */
+    void set(int index, boolean leftChildOfParent, Node node) {
+        nodes[index] = node;
+        if (leftChildOfParent) {
+            this.leftChildOfParent[index >>> 6] |= 1L << index;
+        } else {
+            this.leftChildOfParent[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Removes all elements, keeping the allocated capacity.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(nodes, 0, size, null);
+            size = 0;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the node at the given position, 0 being the topmost node.
+     */
+    public Node node(int index) {
+        checkIndex(index);
+        return nodes[index];
     }
 
+    /**
+     * Returns whether the node at the given position is the left child of its parent. Undefined for the root.
+     */
+    public boolean leftChildOfParent(int index) {
+        checkIndex(index);
+        return (leftChildOfParent[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for path of size " + size);
+        }
+    }
+
+    /**
+     * Iterates from the root down. Allocates an element per node, use {@link #node(int)} and
+     * {@link #leftChildOfParent(int)} to walk the path without allocations.
+     */
     public Iterator<BinaryTreePathElement> iterator() {
-        return path.iterator();
+        return new PathIterator(false);
     }
 
+    /**
+     * Iterates from the deepest node up, see {@link #iterator()}.
+     */
     public Iterator<BinaryTreePathElement> descendingIterator() {
-        return path.descendingIterator();
+        return new PathIterator(true);
+    }
+
+    private final class PathIterator implements Iterator<BinaryTreePathElement> {
+
+        private final boolean descending;
+        private int remaining = size;
+
+        private PathIterator(boolean descending) {
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public BinaryTreePathElement next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            int index = descending ? --remaining : size - remaining--;
+            return new BinaryTreePathElement(leftChildOfParent(index), node(index));
+        }
     }
 }
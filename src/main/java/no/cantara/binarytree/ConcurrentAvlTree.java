@@ -0,0 +1,832 @@
+package no.cantara.binarytree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Concurrent AVL tree with optimistic hand-over-hand validation after Bronson, Casper, Chafi and Olukotun, "A Practical
+ * Concurrent Binary Search Tree" (PPoPP 2010). Every node carries a version that a rotation changes when it moves keys
+ * out of the subtree of the node. Searches take no locks: they read the version of a node before they read its child
+ * link and validate it after they have read the version of the child, and go back to the parent if a rotation got in
+ * between. Writers lock only the nodes they change, the parent of the node being linked or unlinked and the two or
+ * three nodes of a rotation, and repair heights and balance bottom-up after their change, so the tree is a valid AVL
+ * tree whenever no operation is in progress.
+ * <p>
+ * Deleting a key whose node has two children keeps the node as a routing node without key, which is unlinked as soon
+ * as it has less than two children. The heights and rotations are the same as in {@link AvlTree}, with routing nodes
+ * counted as nodes. Nodes are created by the tree itself and their {@link Node} setters throw
+ * {@link UnsupportedOperationException}. Traversals see routing nodes, use {@link #presentNodes(TraversalRange)} or
+ * {@link #traverseInOrder(TraversalRange, Visitor)} to visit only the keys. Such a scan is weakly consistent.
+ */
+public final class ConcurrentAvlTree implements BinarySearchTree {
+
+    private static final long UNLINKED = 1L;
+    private static final long SHRINKING = 2L;
+    private static final long SHRINK_COUNT_INCREMENT = 4L;
+
+    private static final int SPIN_COUNT = 100;
+
+    private static final int UNLINK_REQUIRED = -1;
+    private static final int REBALANCE_REQUIRED = -2;
+    private static final int NOTHING_REQUIRED = -3;
+
+    /**
+     * Returned by the recursive search and update steps when the caller has to validate its own node and retry.
+     */
+    private static final VersionedNode RETRY = new VersionedNode(0, 0, false, null);
+
+    /**
+     * Holds the root as its right child, so the root is changed like any other child link.
+     */
+    private final VersionedNode rootHolder = new VersionedNode(0, 0, false, null);
+
+    @Override
+    public Node getRoot() {
+        return rootHolder.right;
+    }
+
+    @Override
+    public Node searchNode(long key) {
+        while (true) {
+            VersionedNode right = rootHolder.right;
+            if (right == null) {
+                return null;
+            }
+            if (key == right.key) {
+                return right.present ? right : null;
+            }
+            long version = right.version;
+            if (isShrinkingOrUnlinked(version)) {
+                waitUntilShrinkCompleted(right, version);
+            } else if (right == rootHolder.right) {
+                VersionedNode result = attemptSearch(key, right, version);
+                if (result != RETRY) {
+                    return result;
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts a node with the given key, or turns the routing node with the key back into a node with key.
+     *
+     * @param key the key of the node to be inserted
+     * @return the inserted node
+     * @throws IllegalArgumentException if the tree already contains the key
+     */
+    @Override
+    public Node insertNode(long key) {
+        return update(key, true);
+    }
+
+    /**
+     * Deletes the key, unlinking its node if it has less than two children and keeping it as a routing node otherwise.
+     *
+     * @param key the key of the node to be deleted
+     * @return the node of the key or <code>null</code> if no node with the given key exists
+     */
+    @Override
+    public Node deleteNode(long key) {
+        return update(key, false);
+    }
+
+    /**
+     * Runs an in-order traversal that visits the keys within the given range, see {@link #presentNodes(TraversalRange)}.
+     *
+     * @param range   the traversal range
+     * @param visitor the visitor
+     * @return the traversal summary
+     */
+    public <R> TraversalSummary<R> traverseInOrder(TraversalRange range, Visitor<R> visitor) {
+        return new DepthFirstTraversalIterative(this).traverseInOrder(presentNodes(range), visitor);
+    }
+
+    /**
+     * Returns a range for depth-first traversals of this tree that visits the nodes with keys within the given range and
+     * skips routing nodes.
+     *
+     * @param range the range of keys to visit
+     * @return the range to traverse this tree with
+     */
+    public static TraversalRange presentNodes(TraversalRange range) {
+        return new PresentRange(range);
+    }
+
+    private VersionedNode attemptSearch(long key, VersionedNode node, long nodeVersion) {
+        boolean left = key < node.key;
+        while (true) {
+            VersionedNode child = left ? node.left : node.right;
+            if (node.version != nodeVersion) {
+                return RETRY;
+            }
+            if (child == null) {
+                return null;
+            }
+            if (key == child.key) {
+                return child.present ? child : null;
+            }
+            long childVersion = child.version;
+            if (isShrinkingOrUnlinked(childVersion)) {
+                waitUntilShrinkCompleted(child, childVersion);
+                if (node.version != nodeVersion) {
+                    return RETRY;
+                }
+            } else if (child != (left ? node.left : node.right)) {
+                if (node.version != nodeVersion) {
+                    return RETRY;
+                }
+            } else {
+                if (node.version != nodeVersion) {
+                    return RETRY;
+                }
+                VersionedNode result = attemptSearch(key, child, childVersion);
+                if (result != RETRY) {
+                    return result;
+                }
+            }
+        }
+    }
+
+    private Node update(long key, boolean insert) {
+        while (true) {
+            VersionedNode right = rootHolder.right;
+            if (right == null) {
+                if (!insert) {
+                    return null;
+                }
+                synchronized (rootHolder) {
+                    if (rootHolder.right == null) {
+                        VersionedNode node = new VersionedNode(key, 1, true, rootHolder);
+                        rootHolder.right = node;
+                        rootHolder.height = 2;
+                        return node;
+                    }
+                }
+            } else {
+                long version = right.version;
+                if (isShrinkingOrUnlinked(version)) {
+                    waitUntilShrinkCompleted(right, version);
+                } else if (right == rootHolder.right) {
+                    VersionedNode result = attemptUpdate(key, insert, rootHolder, right, version);
+                    if (result != RETRY) {
+                        return result;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Descends from the node to the key like {@link #attemptSearch(long, VersionedNode, long)} and changes the tree
+     * under the locks of the nodes involved, after validating the version of the node once more.
+     */
+    private VersionedNode attemptUpdate(long key, boolean insert, VersionedNode parent, VersionedNode node, long nodeVersion) {
+        if (key == node.key) {
+            return attemptNodeUpdate(insert, parent, node);
+        }
+        boolean left = key < node.key;
+        while (true) {
+            VersionedNode child = left ? node.left : node.right;
+            if (node.version != nodeVersion) {
+                return RETRY;
+            }
+            if (child == null) {
+                if (!insert) {
+                    return null;
+                }
+                VersionedNode inserted = null;
+                VersionedNode damaged = null;
+                synchronized (node) {
+                    if (node.version != nodeVersion) {
+                        return RETRY;
+                    }
+                    if ((left ? node.left : node.right) == null) {
+                        inserted = new VersionedNode(key, 1, true, node);
+                        if (left) {
+                            node.left = inserted;
+                        } else {
+                            node.right = inserted;
+                        }
+                        damaged = fixHeight(node);
+                    }
+                }
+                if (inserted != null) {
+                    fixHeightAndRebalance(damaged);
+                    return inserted;
+                }
+                // lost a race with a concurrent insert, retry from this node
+            } else {
+                long childVersion = child.version;
+                if (isShrinkingOrUnlinked(childVersion)) {
+                    waitUntilShrinkCompleted(child, childVersion);
+                } else if (child == (left ? node.left : node.right)) {
+                    if (node.version != nodeVersion) {
+                        return RETRY;
+                    }
+                    VersionedNode result = attemptUpdate(key, insert, node, child, childVersion);
+                    if (result != RETRY) {
+                        return result;
+                    }
+                }
+            }
+        }
+    }
+
+    private VersionedNode attemptNodeUpdate(boolean insert, VersionedNode parent, VersionedNode node) {
+        if (!insert && !node.present) {
+            return null;
+        }
+        if (!insert && (node.left == null || node.right == null)) {
+            VersionedNode damaged;
+            synchronized (parent) {
+                if (isUnlinked(parent.version) || node.parent != parent) {
+                    return RETRY;
+                }
+                synchronized (node) {
+                    if (!node.present) {
+                        return null;
+                    }
+                    if (!attemptUnlink(parent, node)) {
+                        return RETRY;
+                    }
+                }
+                damaged = fixHeight(parent);
+            }
+            fixHeightAndRebalance(damaged);
+            return node;
+        }
+        synchronized (node) {
+            if (isUnlinked(node.version)) {
+                return RETRY;
+            }
+            if (insert) {
+                if (node.present) {
+                    throw new IllegalArgumentException("BST already contains a node with key " + node.key);
+                }
+                node.present = true;
+                return node;
+            }
+            if (!node.present) {
+                return null;
+            }
+            if (node.left == null || node.right == null) {
+                // a child was unlinked in the meantime, unlink the node instead
+                return RETRY;
+            }
+            node.present = false;
+            return node;
+        }
+    }
+
+    /**
+     * Replaces the node by its only child or removes it if it has none, both must be locked.
+     */
+    private static boolean attemptUnlink(VersionedNode parent, VersionedNode node) {
+        VersionedNode parentLeft = parent.left;
+        VersionedNode parentRight = parent.right;
+        if (parentLeft != node && parentRight != node) {
+            return false;
+        }
+        VersionedNode left = node.left;
+        VersionedNode right = node.right;
+        if (left != null && right != null) {
+            return false;
+        }
+        VersionedNode splice = left != null ? left : right;
+        if (parentLeft == node) {
+            parent.left = splice;
+        } else {
+            parent.right = splice;
+        }
+        if (splice != null) {
+            splice.parent = parent;
+        }
+        node.version = UNLINKED;
+        node.present = false;
+        return true;
+    }
+
+    /**
+     * Returns what the node needs, read without locks and therefore only a hint: a new height, or one of
+     * {@link #UNLINK_REQUIRED}, {@link #REBALANCE_REQUIRED} and {@link #NOTHING_REQUIRED}.
+     */
+    private static int nodeCondition(VersionedNode node) {
+        VersionedNode left = node.left;
+        VersionedNode right = node.right;
+        if ((left == null || right == null) && !node.present) {
+            return UNLINK_REQUIRED;
+        }
+        int height = node.height;
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        int newHeight = 1 + Math.max(leftHeight, rightHeight);
+        int balance = leftHeight - rightHeight;
+        if (balance < -1 || balance > 1) {
+            return REBALANCE_REQUIRED;
+        }
+        return height != newHeight ? newHeight : NOTHING_REQUIRED;
+    }
+
+    /**
+     * Repairs the nodes from the given one up to the root, locking one node, or a parent and a node, at a time.
+     */
+    private void fixHeightAndRebalance(VersionedNode node) {
+        Deque<VersionedNode> deferred = null;
+        while (true) {
+            int condition = node != null && node.parent != null && !isUnlinked(node.version) ? nodeCondition(node) : NOTHING_REQUIRED;
+            if (condition == NOTHING_REQUIRED) {
+                if (deferred == null || deferred.isEmpty()) {
+                    return;
+                }
+                node = deferred.pop();
+            } else if (condition != UNLINK_REQUIRED && condition != REBALANCE_REQUIRED) {
+                synchronized (node) {
+                    node = fixHeight(node);
+                }
+            } else {
+                VersionedNode parent = node.parent;
+                synchronized (parent) {
+                    if (!isUnlinked(parent.version) && node.parent == parent) {
+                        synchronized (node) {
+                            VersionedNode damaged = rebalance(parent, node);
+                            if (damaged != null && damaged != parent && damaged != parent.parent) {
+                                // the repair below may stop before it reaches the changed subtree, come back to it
+                                if (deferred == null) {
+                                    deferred = new ArrayDeque<>();
+                                }
+                                if (deferred.peek() != parent) {
+                                    deferred.push(parent);
+                                }
+                                if (damaged != node) {
+                                    deferred.push(node);
+                                }
+                            }
+                            node = damaged;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Fixes the height of the locked node if that is all it needs.
+     *
+     * @return the node to repair next, or <code>null</code> if no repair is needed
+     */
+    private static VersionedNode fixHeight(VersionedNode node) {
+        int condition = nodeCondition(node);
+        switch (condition) {
+            case REBALANCE_REQUIRED:
+            case UNLINK_REQUIRED:
+                return node;
+            case NOTHING_REQUIRED:
+                return null;
+            default:
+                node.height = condition;
+                return node.parent;
+        }
+    }
+
+    /**
+     * Unlinks, rotates or fixes the height of the node, the parent and the node must be locked.
+     *
+     * @return the node to repair next, or <code>null</code> if no repair is needed
+     */
+    private static VersionedNode rebalance(VersionedNode parent, VersionedNode node) {
+        VersionedNode left = node.left;
+        VersionedNode right = node.right;
+        if ((left == null || right == null) && !node.present) {
+            if (attemptUnlink(parent, node)) {
+                return fixHeight(parent);
+            }
+            return node;
+        }
+        int height = node.height;
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        int newHeight = 1 + Math.max(leftHeight, rightHeight);
+        int balance = leftHeight - rightHeight;
+        if (balance > 1) {
+            return rebalanceToRight(parent, node, left, rightHeight);
+        } else if (balance < -1) {
+            return rebalanceToLeft(parent, node, right, leftHeight);
+        } else if (newHeight != height) {
+            node.height = newHeight;
+            return fixHeight(parent);
+        }
+        return null;
+    }
+
+    private static VersionedNode rebalanceToRight(VersionedNode parent, VersionedNode node, VersionedNode left, int rightHeight) {
+        synchronized (left) {
+            if (left.height - rightHeight <= 1) {
+                return node;
+            }
+            VersionedNode leftRight = left.right;
+            int leftLeftHeight = height(left.left);
+            int leftRightHeight = height(leftRight);
+            if (leftLeftHeight >= leftRightHeight) {
+                return rotateRight(parent, node, left, rightHeight, leftLeftHeight, leftRight, leftRightHeight);
+            }
+            synchronized (leftRight) {
+                leftRightHeight = leftRight.height;
+                if (leftLeftHeight >= leftRightHeight) {
+                    return rotateRight(parent, node, left, rightHeight, leftLeftHeight, leftRight, leftRightHeight);
+                }
+                int leftRightLeftHeight = height(leftRight.left);
+                int balance = leftLeftHeight - leftRightLeftHeight;
+                if (balance >= -1 && balance <= 1) {
+                    return rotateRightOverLeft(parent, node, left, rightHeight, leftLeftHeight, leftRight, leftRightLeftHeight);
+                }
+            }
+            // the left child is out of balance itself, rotate it first and the node later
+            return rebalanceToLeft(node, left, leftRight, leftLeftHeight);
+        }
+    }
+
+    private static VersionedNode rebalanceToLeft(VersionedNode parent, VersionedNode node, VersionedNode right, int leftHeight) {
+        synchronized (right) {
+            if (leftHeight - right.height >= -1) {
+                return node;
+            }
+            VersionedNode rightLeft = right.left;
+            int rightLeftHeight = height(rightLeft);
+            int rightRightHeight = height(right.right);
+            if (rightRightHeight >= rightLeftHeight) {
+                return rotateLeft(parent, node, leftHeight, right, rightLeft, rightLeftHeight, rightRightHeight);
+            }
+            synchronized (rightLeft) {
+                rightLeftHeight = rightLeft.height;
+                if (rightRightHeight >= rightLeftHeight) {
+                    return rotateLeft(parent, node, leftHeight, right, rightLeft, rightLeftHeight, rightRightHeight);
+                }
+                int rightLeftRightHeight = height(rightLeft.right);
+                int balance = rightRightHeight - rightLeftRightHeight;
+                if (balance >= -1 && balance <= 1) {
+                    return rotateLeftOverRight(parent, node, leftHeight, right, rightLeft, rightRightHeight, rightLeftRightHeight);
+                }
+            }
+            return rebalanceToRight(node, right, rightLeft, rightRightHeight);
+        }
+    }
+
+    private static VersionedNode rotateRight(VersionedNode parent, VersionedNode node, VersionedNode left, int rightHeight,
+                                             int leftLeftHeight, VersionedNode leftRight, int leftRightHeight) {
+        long version = node.version;
+        VersionedNode parentLeft = parent.left;
+        node.version = version | SHRINKING;
+
+        node.left = leftRight;
+        if (leftRight != null) {
+            leftRight.parent = node;
+        }
+        left.right = node;
+        node.parent = left;
+        if (parentLeft == node) {
+            parent.left = left;
+        } else {
+            parent.right = left;
+        }
+        left.parent = parent;
+
+        int newHeight = 1 + Math.max(leftRightHeight, rightHeight);
+        node.height = newHeight;
+        left.height = 1 + Math.max(leftLeftHeight, newHeight);
+        node.version = version + SHRINK_COUNT_INCREMENT;
+
+        int nodeBalance = leftRightHeight - rightHeight;
+        if (nodeBalance < -1 || nodeBalance > 1) {
+            return node;
+        }
+        if ((leftRight == null || rightHeight == 0) && !node.present) {
+            return node;
+        }
+        int leftBalance = leftLeftHeight - newHeight;
+        if (leftBalance < -1 || leftBalance > 1) {
+            return left;
+        }
+        if (leftLeftHeight == 0 && !left.present) {
+            return left;
+        }
+        return fixHeight(parent);
+    }
+
+    private static VersionedNode rotateLeft(VersionedNode parent, VersionedNode node, int leftHeight, VersionedNode right,
+                                            VersionedNode rightLeft, int rightLeftHeight, int rightRightHeight) {
+        long version = node.version;
+        VersionedNode parentLeft = parent.left;
+        node.version = version | SHRINKING;
+
+        node.right = rightLeft;
+        if (rightLeft != null) {
+            rightLeft.parent = node;
+        }
+        right.left = node;
+        node.parent = right;
+        if (parentLeft == node) {
+            parent.left = right;
+        } else {
+            parent.right = right;
+        }
+        right.parent = parent;
+
+        int newHeight = 1 + Math.max(leftHeight, rightLeftHeight);
+        node.height = newHeight;
+        right.height = 1 + Math.max(newHeight, rightRightHeight);
+        node.version = version + SHRINK_COUNT_INCREMENT;
+
+        int nodeBalance = rightLeftHeight - leftHeight;
+        if (nodeBalance < -1 || nodeBalance > 1) {
+            return node;
+        }
+        if ((rightLeft == null || leftHeight == 0) && !node.present) {
+            return node;
+        }
+        int rightBalance = rightRightHeight - newHeight;
+        if (rightBalance < -1 || rightBalance > 1) {
+            return right;
+        }
+        if (rightRightHeight == 0 && !right.present) {
+            return right;
+        }
+        return fixHeight(parent);
+    }
+
+    private static VersionedNode rotateRightOverLeft(VersionedNode parent, VersionedNode node, VersionedNode left, int rightHeight,
+                                                     int leftLeftHeight, VersionedNode leftRight, int leftRightLeftHeight) {
+        long version = node.version;
+        long leftVersion = left.version;
+        VersionedNode parentLeft = parent.left;
+        VersionedNode leftRightLeft = leftRight.left;
+        VersionedNode leftRightRight = leftRight.right;
+        int leftRightRightHeight = height(leftRightRight);
+        node.version = version | SHRINKING;
+        left.version = leftVersion | SHRINKING;
+
+        node.left = leftRightRight;
+        if (leftRightRight != null) {
+            leftRightRight.parent = node;
+        }
+        left.right = leftRightLeft;
+        if (leftRightLeft != null) {
+            leftRightLeft.parent = left;
+        }
+        leftRight.left = left;
+        left.parent = leftRight;
+        leftRight.right = node;
+        node.parent = leftRight;
+        if (parentLeft == node) {
+            parent.left = leftRight;
+        } else {
+            parent.right = leftRight;
+        }
+        leftRight.parent = parent;
+
+        int newHeight = 1 + Math.max(leftRightRightHeight, rightHeight);
+        node.height = newHeight;
+        int newLeftHeight = 1 + Math.max(leftLeftHeight, leftRightLeftHeight);
+        left.height = newLeftHeight;
+        leftRight.height = 1 + Math.max(newLeftHeight, newHeight);
+        node.version = version + SHRINK_COUNT_INCREMENT;
+        left.version = leftVersion + SHRINK_COUNT_INCREMENT;
+        if ((leftLeftHeight == 0 || leftRightLeftHeight == 0) && !left.present && attemptUnlink(leftRight, left)) {
+            // the routing node lost a child, unlink it while its new parent is locked
+            newLeftHeight = Math.max(leftLeftHeight, leftRightLeftHeight);
+            leftRight.height = 1 + Math.max(newLeftHeight, newHeight);
+        }
+
+        int nodeBalance = leftRightRightHeight - rightHeight;
+        if (nodeBalance < -1 || nodeBalance > 1) {
+            return node;
+        }
+        if ((leftRightRight == null || rightHeight == 0) && !node.present) {
+            return node;
+        }
+        int leftRightBalance = newLeftHeight - newHeight;
+        if (leftRightBalance < -1 || leftRightBalance > 1) {
+            return leftRight;
+        }
+        return fixHeight(parent);
+    }
+
+    private static VersionedNode rotateLeftOverRight(VersionedNode parent, VersionedNode node, int leftHeight, VersionedNode right,
+                                                     VersionedNode rightLeft, int rightRightHeight, int rightLeftRightHeight) {
+        long version = node.version;
+        long rightVersion = right.version;
+        VersionedNode parentLeft = parent.left;
+        VersionedNode rightLeftLeft = rightLeft.left;
+        VersionedNode rightLeftRight = rightLeft.right;
+        int rightLeftLeftHeight = height(rightLeftLeft);
+        node.version = version | SHRINKING;
+        right.version = rightVersion | SHRINKING;
+
+        node.right = rightLeftLeft;
+        if (rightLeftLeft != null) {
+            rightLeftLeft.parent = node;
+        }
+        right.left = rightLeftRight;
+        if (rightLeftRight != null) {
+            rightLeftRight.parent = right;
+        }
+        rightLeft.right = right;
+        right.parent = rightLeft;
+        rightLeft.left = node;
+        node.parent = rightLeft;
+        if (parentLeft == node) {
+            parent.left = rightLeft;
+        } else {
+            parent.right = rightLeft;
+        }
+        rightLeft.parent = parent;
+
+        int newHeight = 1 + Math.max(leftHeight, rightLeftLeftHeight);
+        node.height = newHeight;
+        int newRightHeight = 1 + Math.max(rightLeftRightHeight, rightRightHeight);
+        right.height = newRightHeight;
+        rightLeft.height = 1 + Math.max(newHeight, newRightHeight);
+        node.version = version + SHRINK_COUNT_INCREMENT;
+        right.version = rightVersion + SHRINK_COUNT_INCREMENT;
+        if ((rightRightHeight == 0 || rightLeftRightHeight == 0) && !right.present && attemptUnlink(rightLeft, right)) {
+            // the routing node lost a child, unlink it while its new parent is locked
+            newRightHeight = Math.max(rightLeftRightHeight, rightRightHeight);
+            rightLeft.height = 1 + Math.max(newHeight, newRightHeight);
+        }
+
+        int nodeBalance = rightLeftLeftHeight - leftHeight;
+        if (nodeBalance < -1 || nodeBalance > 1) {
+            return node;
+        }
+        if ((rightLeftLeft == null || leftHeight == 0) && !node.present) {
+            return node;
+        }
+        int rightLeftBalance = newRightHeight - newHeight;
+        if (rightLeftBalance < -1 || rightLeftBalance > 1) {
+            return rightLeft;
+        }
+        return fixHeight(parent);
+    }
+
+    private static boolean isShrinkingOrUnlinked(long version) {
+        return (version & (SHRINKING | UNLINKED)) != 0;
+    }
+
+    private static boolean isUnlinked(long version) {
+        return version == UNLINKED;
+    }
+
+    /**
+     * Spins while the node is being rotated, then waits for the lock the rotating thread holds.
+     */
+    private static void waitUntilShrinkCompleted(VersionedNode node, long version) {
+        if ((version & SHRINKING) == 0) {
+            return;
+        }
+        for (int i = 0; i < SPIN_COUNT; i++) {
+            if (node.version != version) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        synchronized (node) {
+            // the rotation is complete once the lock is released
+        }
+    }
+
+    /**
+     * Height counting a leaf as 1 and a missing node as 0, one more than {@link Node#height()}.
+     */
+    private static int height(VersionedNode node) {
+        return node != null ? node.height : 0;
+    }
+
+    static final class VersionedNode implements Node {
+
+        private final long key;
+        private volatile int height;
+        private volatile boolean present;
+        private volatile long version;
+        private volatile VersionedNode parent;
+        private volatile VersionedNode left;
+        private volatile VersionedNode right;
+
+        private VersionedNode(long key, int height, boolean present, VersionedNode parent) {
+            this.key = key;
+            this.height = height;
+            this.present = present;
+            this.parent = parent;
+        }
+
+        /**
+         * Whether the node holds its key, <code>false</code> for routing nodes.
+         */
+        boolean isPresent() {
+            return present;
+        }
+
+        @Override
+        public long data() {
+            return key;
+        }
+
+        @Override
+        public Node left() {
+            return left;
+        }
+
+        @Override
+        public Node right() {
+            return right;
+        }
+
+        /**
+         * Returns the parent node, <code>null</code> for the root.
+         */
+        @Override
+        public Node parent() {
+            VersionedNode parent = this.parent;
+            // the root holder is the only node without parent
+            return parent != null && parent.parent != null ? parent : null;
+        }
+
+        @Override
+        public int height() {
+            return height - 1;
+        }
+
+        @Override
+        public boolean color() {
+            return BLACK;
+        }
+
+        @Override
+        public Node data(long data) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Node left(Node left) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Node right(Node right) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Node parent(Node parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Node height(int height) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Node color(boolean color) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isNil() {
+            return false;
+        }
+
+        @Override
+        public void delete() {
+            // no action needed, unlinked nodes may still be read by concurrent searches until garbage collected
+        }
+
+        @Override
+        public void copyNonNavigableStateFrom(Node source) {
+            // nothing to do, the node has no additional state
+        }
+
+        @Override
+        public String getText() {
+            return (present ? Long.toString(key) : "(" + key + ")") + ":" + height();
+        }
+
+        @Override
+        public String toString() {
+            return getText();
+        }
+    }
+
+    /**
+     * Visits nodes within range that hold their key.
+     */
+    private static final class PresentRange extends TraversalRange {
+
+        PresentRange(TraversalRange range) {
+            super(range.startKey, range.startKeyInclusive, range.endKey, range.endKeyInclusive);
+        }
+
+        @Override
+        public boolean shouldVisit(Node node) {
+            return super.shouldVisit(node) && ((VersionedNode) node).isPresent();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package no.cantara.binarytree;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Thread-safe facade over a binary search tree, typically an {@link AvlTree} or a {@link RedBlackTree}, for workloads
+ * with many readers and few writers. Writes take the write lock of a {@link StampedLock}. Reads first descend the tree
+ * without any lock and only take the read lock when a write has started or completed in the meantime, so readers do
+ * not block or contend with each other while the tree is not written.
+ * <p>
+ * An optimistic descent may see the tree in the middle of a rotation. It therefore gives up after
+ * {@value #MAX_OPTIMISTIC_DEPTH} levels, ignores exceptions thrown by inconsistent nodes and reads the key of the result
+ * node before the read is validated. Unbalanced trees deeper than that limit are always read under the read lock.
+ * <p>
+ * Lock-free reads descend the tree themselves, so they are not reported to the metrics listener of the tree. Nodes
+ * returned by reads belong to the tree and can be changed by later writes, read their key right away or use the
+ * methods that return keys and entries.
+ *
+ * @param <T> the type of the tree
+ */
+public final class ConcurrentBinarySearchTree<T extends BinarySearchTree> {
+
+    /**
+     * Deepest level an optimistic descent visits, well above the height of any balanced tree with an int size.
+     */
+    static final int MAX_OPTIMISTIC_DEPTH = 128;
+
+    private enum Navigation {
+        EXACT, FLOOR, CEILING, LOWER, HIGHER
+    }
+
+    private final T tree;
+    private final StampedLock lock = new StampedLock();
+    private final LongAdder optimisticReadFailures = new LongAdder();
+
+    /**
+     * @param tree the tree, which must not be accessed other than through this facade afterwards
+     */
+    public ConcurrentBinarySearchTree(T tree) {
+        this.tree = tree;
+    }
+
+    public Node searchNode(long key) {
+        return read(key, Navigation.EXACT, Function.identity());
+    }
+
+    public boolean containsKey(long key) {
+        return read(key, Navigation.EXACT, node -> node != null);
+    }
+
+    public Long floorKey(long key) {
+        return read(key, Navigation.FLOOR, ConcurrentBinarySearchTree::keyOf);
+    }
+
+    public Long ceilingKey(long key) {
+        return read(key, Navigation.CEILING, ConcurrentBinarySearchTree::keyOf);
+    }
+
+    public Long lowerKey(long key) {
+        return read(key, Navigation.LOWER, ConcurrentBinarySearchTree::keyOf);
+    }
+
+    public Long higherKey(long key) {
+        return read(key, Navigation.HIGHER, ConcurrentBinarySearchTree::keyOf);
+    }
+
+    public Map.Entry<Long, Node> floorEntry(long key) {
+        return read(key, Navigation.FLOOR, ConcurrentBinarySearchTree::entryOf);
+    }
+
+    public Map.Entry<Long, Node> ceilingEntry(long key) {
+        return read(key, Navigation.CEILING, ConcurrentBinarySearchTree::entryOf);
+    }
+
+    public Map.Entry<Long, Node> lowerEntry(long key) {
+        return read(key, Navigation.LOWER, ConcurrentBinarySearchTree::entryOf);
+    }
+
+    public Map.Entry<Long, Node> higherEntry(long key) {
+        return read(key, Navigation.HIGHER, ConcurrentBinarySearchTree::entryOf);
+    }
+
+    public Node insertNode(long key) {
+        long stamp = lock.writeLock();
+        try {
+            return tree.insertNode(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Node deleteNode(long key) {
+        long stamp = lock.writeLock();
+        try {
+            return tree.deleteNode(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Runs a read-only operation on the tree under the read lock, e.g. a traversal or a range query.
+     *
+     * @param operation the operation, must not modify the tree
+     * @return the result of the operation
+     */
+    public <R> R withReadLock(Function<? super T, R> operation) {
+        long stamp = lock.readLock();
+        try {
+            return operation.apply(tree);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs any operation on the tree under the write lock, e.g. a bulk load or a range deletion.
+     *
+     * @param operation the operation
+     * @return the result of the operation
+     */
+    public <R> R withWriteLock(Function<? super T, R> operation) {
+        long stamp = lock.writeLock();
+        try {
+            return operation.apply(tree);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns how often an optimistic read failed and the read was repeated under the read lock.
+     */
+    public long optimisticReadFailures() {
+        return optimisticReadFailures.sum();
+    }
+
+    /**
+     * Finds a node optimistically and maps it, before validation, to a result that does not change with the tree. Falls
+     * back to the read lock if the read was not valid.
+     */
+    private <R> R read(long key, Navigation navigation, Function<Node, R> result) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R value = result.apply(descend(tree.getRoot(), key, navigation, MAX_OPTIMISTIC_DEPTH));
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp) && e != DepthExceeded.INSTANCE) {
+                    throw e;
+                }
+            }
+            optimisticReadFailures.increment();
+        }
+        stamp = lock.readLock();
+        try {
+            return result.apply(descend(tree.getRoot(), key, navigation, Integer.MAX_VALUE));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static Node descend(Node root, long key, Navigation navigation, int maxDepth) {
+        Node node = root;
+        Node candidate = null;
+        for (int depth = 0; node != null; depth++) {
+            if (depth == maxDepth) {
+                throw DepthExceeded.INSTANCE;
+            }
+            long data = node.data();
+            if (data == key && navigation != Navigation.LOWER && navigation != Navigation.HIGHER) {
+                return node;
+            }
+            if (key < data || (key == data && navigation == Navigation.LOWER)) {
+                if (key < data && (navigation == Navigation.CEILING || navigation == Navigation.HIGHER)) {
+                    candidate = node;
+                }
+                node = node.left();
+            } else {
+                if (key > data && (navigation == Navigation.FLOOR || navigation == Navigation.LOWER)) {
+                    candidate = node;
+                }
+                node = node.right();
+            }
+        }
+        return navigation == Navigation.EXACT ? null : candidate;
+    }
+
+    private static Long keyOf(Node node) {
+        return node != null ? node.data() : null;
+    }
+
+    private static Map.Entry<Long, Node> entryOf(Node node) {
+        return node != null ? Map.entry(node.data(), node) : null;
+    }
+
+    /**
+     * Thrown by optimistic descents that go deeper than {@link #MAX_OPTIMISTIC_DEPTH}, without a stack trace.
+     */
+    private static final class DepthExceeded extends RuntimeException {
+
+        static final DepthExceeded INSTANCE = new DepthExceeded();
+
+        private DepthExceeded() {
+            super(null, null, false, false);
+        }
+    }
+}
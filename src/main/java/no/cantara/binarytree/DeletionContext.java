@@ -1,10 +1,15 @@
 package no.cantara.binarytree;
 
+/**
+ * Result and affected path of a delete. A context can be reused for any number of deletes, each delete clears it
+ * first, so that deletes do not allocate once its path has grown to the tree height.
+ */
 public class DeletionContext {
 
     Node deletedNode;
     Node successorNode;
     Node parentOfSuccessorNode;
+    int comparisons;
 
     final BinaryTreePath affectedPath = new BinaryTreePath();
 
@@ -35,7 +40,26 @@ public class DeletionContext {
         return this;
     }
 
+    /**
+     * Returns the number of nodes whose key was compared with the deleted key while searching the node to delete.
+     */
+    public int comparisons() {
+        return comparisons;
+    }
+
     public BinaryTreePath affectedPath() {
         return affectedPath;
     }
+
+    /**
+     * Resets the context for the next delete.
+     */
+    public DeletionContext clear() {
+        deletedNode = null;
+        successorNode = null;
+        parentOfSuccessorNode = null;
+        comparisons = 0;
+        affectedPath.clear();
+        return this;
+    }
 }
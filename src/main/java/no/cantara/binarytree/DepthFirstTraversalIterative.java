@@ -11,9 +11,19 @@ import java.util.Deque;
 public final class DepthFirstTraversalIterative implements DepthFirstTraversal {
 
   private final BinaryTree tree;
+  private final boolean collectStatistics;
 
   public DepthFirstTraversalIterative(BinaryTree tree) {
+    this(tree, false);
+  }
+
+  /**
+   * @param tree              the tree
+   * @param collectStatistics whether range traversals return {@link TraversalStatistics} in their summary
+   */
+  public DepthFirstTraversalIterative(BinaryTree tree, boolean collectStatistics) {
     this.tree = tree;
+    this.collectStatistics = collectStatistics;
   }
 
   @Override
@@ -38,8 +48,8 @@ public final class DepthFirstTraversalIterative implements DepthFirstTraversal {
 
   @Override
   public <R> TraversalSummary<R> traversePreOrder(TraversalRange range, Visitor<R> visitor) {
-    TraversalContext<R> ctx = traversePreOrder(new TraversalContext<>(range), visitor);
-    return new TraversalSummary<>(ctx.result);
+    TraversalContext<R> ctx = traversePreOrder(new TraversalContext<R>(range, collectStatistics).beginEvent(), visitor);
+    return ctx.summary(getClass());
   }
 
   <R> TraversalContext<R> traversePreOrder(TraversalContext<R> ctx, Visitor<R> visitor) {
@@ -52,6 +62,7 @@ public final class DepthFirstTraversalIterative implements DepthFirstTraversal {
     // https://www.happycoders.eu/java/queue-deque-stack-ultimate-guide/#Why_you_should_not_use_Stack
     Deque<Node> stack = new ArrayDeque<>();
     stack.push(node);
+    ctx.stackDepth(1);
 
     while (!stack.isEmpty()) {
       node = stack.poll();
@@ -71,14 +82,15 @@ public final class DepthFirstTraversalIterative implements DepthFirstTraversal {
           stack.push(node.left());
         }
       }
+      ctx.stackDepth(stack.size());
     }
     return ctx;
   }
 
   @Override
   public <R> TraversalSummary<R> traversePostOrder(TraversalRange range, Visitor<R> visitor) {
-    TraversalContext<R> ctx = traversePostOrder(new TraversalContext<>(range), visitor);
-    return new TraversalSummary<>(ctx.result);
+    TraversalContext<R> ctx = traversePostOrder(new TraversalContext<R>(range, collectStatistics).beginEvent(), visitor);
+    return ctx.summary(getClass());
   }
 
   <R> TraversalContext<R> traversePostOrder(TraversalContext<R> ctx, Visitor<R> visitor) {
@@ -92,6 +104,7 @@ public final class DepthFirstTraversalIterative implements DepthFirstTraversal {
     while (!stack.isEmpty() || node != null) {
       if (node != null) {
         stack.push(node);
+        ctx.stackDepth(stack.size());
         if (ctx.shouldTraverseLeft(node)) {
           node = node.left();
         } else {
@@ -117,8 +130,8 @@ public final class DepthFirstTraversalIterative implements DepthFirstTraversal {
 
   @Override
   public <R> TraversalSummary<R> traverseInOrder(TraversalRange range, Visitor<R> visitor) {
-    TraversalContext<R> ctx = traverseInOrder(new TraversalContext<>(range), visitor);
-    return new TraversalSummary<>(ctx.result);
+    TraversalContext<R> ctx = traverseInOrder(new TraversalContext<R>(range, collectStatistics).beginEvent(), visitor);
+    return ctx.summary(getClass());
   }
 
   <R> TraversalContext<R> traverseInOrder(TraversalContext<R> ctx, Visitor<R> visitor) {
@@ -131,6 +144,7 @@ public final class DepthFirstTraversalIterative implements DepthFirstTraversal {
     while (!stack.isEmpty() || node != null) {
       if (node != null) {
         stack.push(node);
+        ctx.stackDepth(stack.size());
         if (ctx.shouldTraverseLeft(node)) {
           node = node.left();
         } else {
@@ -156,8 +170,8 @@ public final class DepthFirstTraversalIterative implements DepthFirstTraversal {
 
   @Override
   public <R> TraversalSummary<R> traverseReverseInOrder(TraversalRange range, Visitor<R> visitor) {
-    TraversalContext<R> ctx = traverseReverseInOrder(new TraversalContext<>(range), visitor);
-    return new TraversalSummary<>(ctx.result);
+    TraversalContext<R> ctx = traverseReverseInOrder(new TraversalContext<R>(range, collectStatistics).beginEvent(), visitor);
+    return ctx.summary(getClass());
   }
 
   <R> TraversalContext<R> traverseReverseInOrder(TraversalContext<R> ctx, Visitor<R> visitor) {
@@ -170,6 +184,7 @@ public final class DepthFirstTraversalIterative implements DepthFirstTraversal {
     while (!stack.isEmpty() || node != null) {
       if (node != null) {
         stack.push(node);
+        ctx.stackDepth(stack.size());
         if (ctx.shouldTraverseRight(node)) {
           node = node.right();
         } else {
@@ -0,0 +1,173 @@
+package no.cantara.binarytree;
+
+/**
+ * Depth-first (DFS) traversal that visits nodes in-order or reverse in-order with O(1) extra space, following Morris,
+ * "Traversing binary trees simply and cheaply". Instead of a stack, the traversal temporarily links the in-order
+ * predecessor of a node to the node itself (its successor in reverse in-order) to find the way back up, and removes each
+ * link on the second pass over it. Every node is reached at most three times.
+ * <p>
+ * When a traversal ends early, because the visitor stops it, the range excludes the remaining nodes or the visitor throws
+ * an exception, the links that are still in place are removed by searching the current node's key from the root. Ranges
+ * and early stops therefore require a binary search tree. Only child links are modified, parent links, heights and
+ * sizes are left alone.
+ * <p>
+ * The tree is modified while it is traversed, so it must not be read or written by other threads at the same time.
+ * Pre-order and post-order traversals are delegated to {@link DepthFirstTraversalIterative}.
+ */
+public final class DepthFirstTraversalMorris implements DepthFirstTraversal {
+
+  private final BinaryTree tree;
+  private final boolean collectStatistics;
+
+  public DepthFirstTraversalMorris(BinaryTree tree) {
+    this(tree, false);
+  }
+
+  /**
+   * @param tree              the tree
+   * @param collectStatistics whether range traversals return {@link TraversalStatistics} in their summary
+   */
+  public DepthFirstTraversalMorris(BinaryTree tree, boolean collectStatistics) {
+    this.tree = tree;
+    this.collectStatistics = collectStatistics;
+  }
+
+  @Override
+  public void traversePreOrder(NodeVisitor visitor) {
+    new DepthFirstTraversalIterative(tree).traversePreOrder(visitor);
+  }
+
+  @Override
+  public void traversePostOrder(NodeVisitor visitor) {
+    new DepthFirstTraversalIterative(tree).traversePostOrder(visitor);
+  }
+
+  @Override
+  public void traverseInOrder(NodeVisitor visitor) {
+    traverseInOrder(TraversalRange.OPEN, (ctx, node) -> visitor.visit(node));
+  }
+
+  @Override
+  public void traverseReverseInOrder(NodeVisitor visitor) {
+    traverseReverseInOrder(TraversalRange.OPEN, (ctx, node) -> visitor.visit(node));
+  }
+
+  @Override
+  public <R> TraversalSummary<R> traversePreOrder(TraversalRange range, Visitor<R> visitor) {
+    return new DepthFirstTraversalIterative(tree, collectStatistics).traversePreOrder(range, visitor);
+  }
+
+  @Override
+  public <R> TraversalSummary<R> traversePostOrder(TraversalRange range, Visitor<R> visitor) {
+    return new DepthFirstTraversalIterative(tree, collectStatistics).traversePostOrder(range, visitor);
+  }
+
+  @Override
+  public <R> TraversalSummary<R> traverseInOrder(TraversalRange range, Visitor<R> visitor) {
+    TraversalContext<R> ctx = traverse(new TraversalContext<R>(range, collectStatistics).beginEvent(), visitor, false);
+    return ctx.summary(getClass());
+  }
+
+  @Override
+  public <R> TraversalSummary<R> traverseReverseInOrder(TraversalRange range, Visitor<R> visitor) {
+    TraversalContext<R> ctx = traverse(new TraversalContext<R>(range, collectStatistics).beginEvent(), visitor, true);
+    return ctx.summary(getClass());
+  }
+
+  /**
+   * Morris traversal. "First" is the side that is visited before a node, left for in-order and right for reverse
+   * in-order, "second" is the other side. Links back up are stored in the second child of the last node of the first
+   * subtree of a node.
+   */
+  <R> TraversalContext<R> traverse(TraversalContext<R> ctx, Visitor<R> visitor, boolean reverse) {
+    Node root = tree.getRoot();
+    Node node = root;
+    try {
+      while (node != null) {
+        Node first = shouldTraverseFirst(ctx, node, reverse) ? first(node, reverse) : null;
+        if (first != null) {
+          Node predecessor = first;
+          Node next;
+          while ((next = second(predecessor, reverse)) != null && !next.equals(node)) {
+            predecessor = next;
+          }
+          if (next == null) {
+            // first time at this node: link back and descend
+            second(predecessor, node, reverse);
+            ctx.push();
+            node = first;
+            continue;
+          }
+          // back from the first subtree
+          second(predecessor, null, reverse);
+          ctx.pop();
+        }
+        if (ctx.shouldVisit(node)) {
+          visitor.visit(ctx, node);
+          if (ctx.stop) {
+            return ctx;
+          }
+        }
+        if (!shouldTraverseSecond(ctx, node, reverse)) {
+          // all remaining nodes, including the ancestors we linked back to, are outside the range
+          return ctx;
+        }
+        node = second(node, reverse);
+      }
+      return ctx;
+    } finally {
+      if (node != null) {
+        unlinkAncestors(root, node, reverse);
+      }
+    }
+  }
+
+  /**
+   * Removes the links back to the ancestors of the given node whose first subtree contains the node. These are all
+   * links still in place when a traversal ends at the node.
+   */
+  private static void unlinkAncestors(Node root, Node target, boolean reverse) {
+    long key = target.data();
+    Node node = root;
+    while (node != null && node.data() != key) {
+      if (reverse ? key > node.data() : key < node.data()) {
+        Node first = first(node, reverse);
+        Node predecessor = first;
+        Node next;
+        while ((next = second(predecessor, reverse)) != null && !next.equals(node)) {
+          predecessor = next;
+        }
+        if (next != null) {
+          second(predecessor, null, reverse);
+        }
+        node = first;
+      } else {
+        node = second(node, reverse);
+      }
+    }
+  }
+
+  private static boolean shouldTraverseFirst(RangeTraversalDecision decision, Node node, boolean reverse) {
+    return reverse ? decision.shouldTraverseRight(node) : decision.shouldTraverseLeft(node);
+  }
+
+  private static boolean shouldTraverseSecond(RangeTraversalDecision decision, Node node, boolean reverse) {
+    return reverse ? decision.shouldTraverseLeft(node) : decision.shouldTraverseRight(node);
+  }
+
+  private static Node first(Node node, boolean reverse) {
+    return reverse ? node.right() : node.left();
+  }
+
+  private static Node second(Node node, boolean reverse) {
+    return reverse ? node.left() : node.right();
+  }
+
+  private static void second(Node node, Node child, boolean reverse) {
+    if (reverse) {
+      node.left(child);
+    } else {
+      node.right(child);
+    }
+  }
+}
@@ -0,0 +1,336 @@
+package no.cantara.binarytree;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Parallel depth-first (DFS) traversal on a binary tree. Subtrees are fanned out to a {@link ForkJoinPool} down to a
+ * maximum fork depth, below that each subtree is traversed sequentially by {@link DepthFirstTraversalIterative}. The
+ * traversal range prunes subtrees the same way as in the sequential traversals.
+ * <p>
+ * Every task visits its nodes with its own {@link TraversalContext}, the results of the tasks are combined with a
+ * reducer in traversal order. The reducer therefore only needs to be associative, but the visitor is called from several
+ * threads at once and must not share unsynchronized state. Calling {@link TraversalContext#stopTraversal()} in one task
+ * stops all tasks of the same traversal. Nodes that are being visited by other tasks at that time are still visited, and
+ * their results are still combined.
+ * <p>
+ * The tree must not be modified during a traversal.
+ */
+public final class DepthFirstTraversalParallel implements DepthFirstTraversal {
+
+  private enum Order {
+    PRE_ORDER, POST_ORDER, IN_ORDER, REVERSE_IN_ORDER
+  }
+
+  private final BinaryTree tree;
+  private final ForkJoinPool pool;
+  private final int maxForkDepth;
+  private final int minForkSize;
+  private final boolean collectStatistics;
+
+  /**
+   * Creates a traversal on the common pool that forks deep enough to create about four tasks per worker thread.
+   *
+   * @param tree the tree
+   */
+  public DepthFirstTraversalParallel(BinaryTree tree) {
+    this(tree, ForkJoinPool.commonPool(), defaultForkDepth(ForkJoinPool.commonPool()), 0);
+  }
+
+  /**
+   * Creates a traversal.
+   *
+   * @param tree         the tree
+   * @param pool         the pool that runs the tasks
+   * @param maxForkDepth the depth of the deepest nodes whose subtrees are still split into separate tasks, 0 traverses
+   *                     the whole tree in one task
+   * @param minForkSize  the smallest subtree that is split into separate tasks, requires a size augmented tree unless it
+   *                     is 0
+   * @throws IllegalArgumentException if a fork limit is negative, or minForkSize is set on a tree that is not size
+   *                                  augmented
+   */
+  public DepthFirstTraversalParallel(BinaryTree tree, ForkJoinPool pool, int maxForkDepth, int minForkSize) {
+    this(tree, pool, maxForkDepth, minForkSize, false);
+  }
+
+  /**
+   * Creates a traversal.
+   *
+   * @param tree              the tree
+   * @param pool              the pool that runs the tasks
+   * @param maxForkDepth      the depth of the deepest nodes whose subtrees are still split into separate tasks, 0
+   *                          traverses the whole tree in one task
+   * @param minForkSize       the smallest subtree that is split into separate tasks, requires a size augmented tree
+   *                          unless it is 0
+   * @param collectStatistics whether range traversals return {@link TraversalStatistics} in their summary, the stack
+   *                          depth counts the forked ancestors of a task plus the stack of the task
+   * @throws IllegalArgumentException if a fork limit is negative, or minForkSize is set on a tree that is not size
+   *                                  augmented
+   */
+  public DepthFirstTraversalParallel(BinaryTree tree, ForkJoinPool pool, int maxForkDepth, int minForkSize, boolean collectStatistics) {
+    if (maxForkDepth < 0) {
+      throw new IllegalArgumentException("maxForkDepth must not be negative: " + maxForkDepth);
+    }
+    if (minForkSize < 0) {
+      throw new IllegalArgumentException("minForkSize must not be negative: " + minForkSize);
+    }
+    if (minForkSize > 0 && !tree.sizeAugmented()) {
+      throw new IllegalArgumentException("minForkSize requires a size augmented tree: " + minForkSize);
+    }
+    this.tree = tree;
+    this.pool = pool;
+    this.maxForkDepth = maxForkDepth;
+    this.minForkSize = minForkSize;
+    this.collectStatistics = collectStatistics;
+  }
+
+  private static int defaultForkDepth(ForkJoinPool pool) {
+    return 32 - Integer.numberOfLeadingZeros(pool.getParallelism()) + 2;
+  }
+
+  @Override
+  public void traversePreOrder(NodeVisitor visitor) {
+    traversePreOrder(TraversalRange.OPEN, (ctx, node) -> visitor.visit(node));
+  }
+
+  @Override
+  public void traversePostOrder(NodeVisitor visitor) {
+    traversePostOrder(TraversalRange.OPEN, (ctx, node) -> visitor.visit(node));
+  }
+
+  @Override
+  public void traverseInOrder(NodeVisitor visitor) {
+    traverseInOrder(TraversalRange.OPEN, (ctx, node) -> visitor.visit(node));
+  }
+
+  @Override
+  public void traverseReverseInOrder(NodeVisitor visitor) {
+    traverseReverseInOrder(TraversalRange.OPEN, (ctx, node) -> visitor.visit(node));
+  }
+
+  /**
+   * Traverses the tree in pre-order. The summary holds the first non-null task result in traversal order.
+   */
+  @Override
+  public <R> TraversalSummary<R> traversePreOrder(TraversalRange range, Visitor<R> visitor) {
+    return traversePreOrder(range, visitor, DepthFirstTraversalParallel::firstNonNull);
+  }
+
+  /**
+   * Traverses the tree in post-order. The summary holds the first non-null task result in traversal order.
+   */
+  @Override
+  public <R> TraversalSummary<R> traversePostOrder(TraversalRange range, Visitor<R> visitor) {
+    return traversePostOrder(range, visitor, DepthFirstTraversalParallel::firstNonNull);
+  }
+
+  /**
+   * Traverses the tree in-order. The summary holds the first non-null task result in traversal order.
+   */
+  @Override
+  public <R> TraversalSummary<R> traverseInOrder(TraversalRange range, Visitor<R> visitor) {
+    return traverseInOrder(range, visitor, DepthFirstTraversalParallel::firstNonNull);
+  }
+
+  /**
+   * Traverses the tree reverse in-order. The summary holds the first non-null task result in traversal order.
+   */
+  @Override
+  public <R> TraversalSummary<R> traverseReverseInOrder(TraversalRange range, Visitor<R> visitor) {
+    return traverseReverseInOrder(range, visitor, DepthFirstTraversalParallel::firstNonNull);
+  }
+
+  /**
+   * Traverses the tree in pre-order and combines the non-null results of all tasks with the given reducer.
+   *
+   * @param range   the traversal range
+   * @param visitor the visitor, called concurrently
+   * @param reducer an associative function that combines two results, the first argument comes first in traversal order
+   */
+  public <R> TraversalSummary<R> traversePreOrder(TraversalRange range, Visitor<R> visitor, BinaryOperator<R> reducer) {
+    return traverse(Order.PRE_ORDER, range, visitor, reducer);
+  }
+
+  /**
+   * Traverses the tree in post-order and combines the non-null results of all tasks with the given reducer.
+   *
+   * @param range   the traversal range
+   * @param visitor the visitor, called concurrently
+   * @param reducer an associative function that combines two results, the first argument comes first in traversal order
+   */
+  public <R> TraversalSummary<R> traversePostOrder(TraversalRange range, Visitor<R> visitor, BinaryOperator<R> reducer) {
+    return traverse(Order.POST_ORDER, range, visitor, reducer);
+  }
+
+  /**
+   * Traverses the tree in-order and combines the non-null results of all tasks with the given reducer.
+   *
+   * @param range   the traversal range
+   * @param visitor the visitor, called concurrently
+   * @param reducer an associative function that combines two results, the first argument comes first in traversal order
+   */
+  public <R> TraversalSummary<R> traverseInOrder(TraversalRange range, Visitor<R> visitor, BinaryOperator<R> reducer) {
+    return traverse(Order.IN_ORDER, range, visitor, reducer);
+  }
+
+  /**
+   * Traverses the tree reverse in-order and combines the non-null results of all tasks with the given reducer.
+   *
+   * @param range   the traversal range
+   * @param visitor the visitor, called concurrently
+   * @param reducer an associative function that combines two results, the first argument comes first in traversal order
+   */
+  public <R> TraversalSummary<R> traverseReverseInOrder(TraversalRange range, Visitor<R> visitor, BinaryOperator<R> reducer) {
+    return traverse(Order.REVERSE_IN_ORDER, range, visitor, reducer);
+  }
+
+  private <R> TraversalSummary<R> traverse(Order order, TraversalRange range, Visitor<R> visitor, BinaryOperator<R> reducer) {
+    TraversalContext<R> ctx = new TraversalContext<R>(range, collectStatistics).beginEvent();
+    Node root = tree.getRoot();
+    if (root != null) {
+      Traversal<R> traversal = new Traversal<>(order, range, visitor, reducer, ctx.statistics);
+      ctx.result(pool.invoke(traversal.new SubtreeTask(root, 0)));
+    }
+    return ctx.summary(getClass());
+  }
+
+  private static <R> R firstNonNull(R first, R second) {
+    return first != null ? first : second;
+  }
+
+  /**
+   * State shared by all tasks of one traversal. Wraps the visitor so that a stop requested through any task context is
+   * seen by all other tasks before their next visit.
+   */
+  private final class Traversal<R> implements Visitor<R> {
+
+    private final Order order;
+    private final TraversalRange range;
+    private final Visitor<R> visitor;
+    private final BinaryOperator<R> reducer;
+    private final TraversalStatistics statistics;
+    private volatile boolean stopped;
+
+    private Traversal(Order order, TraversalRange range, Visitor<R> visitor, BinaryOperator<R> reducer, TraversalStatistics statistics) {
+      this.order = order;
+      this.range = range;
+      this.visitor = visitor;
+      this.reducer = reducer;
+      this.statistics = statistics;
+    }
+
+    @Override
+    public void visit(TraversalContext<R> ctx, Node node) {
+      if (stopped) {
+        ctx.stopTraversal();
+        return;
+      }
+      visitor.visit(ctx, node);
+      if (ctx.stop) {
+        stopped = true;
+      }
+    }
+
+    private R traverseSequentially(Node node, int depth) {
+      DepthFirstTraversalIterative traversal = new DepthFirstTraversalIterative(() -> node);
+      TraversalContext<R> ctx = new TraversalContext<>(range, collectStatistics);
+      switch (order) {
+        case PRE_ORDER -> traversal.traversePreOrder(ctx, this);
+        case POST_ORDER -> traversal.traversePostOrder(ctx, this);
+        case IN_ORDER -> traversal.traverseInOrder(ctx, this);
+        case REVERSE_IN_ORDER -> traversal.traverseReverseInOrder(ctx, this);
+      }
+      addStatistics(ctx, depth);
+      return ctx.result;
+    }
+
+    private R visitSingle(TraversalContext<R> ctx, Node node) {
+      if (!ctx.shouldVisit(node)) {
+        return null;
+      }
+      visit(ctx, node);
+      return ctx.result;
+    }
+
+    private void addStatistics(TraversalContext<R> ctx, int depth) {
+      if (statistics != null) {
+        synchronized (statistics) {
+          statistics.add(ctx.statistics, depth);
+        }
+      }
+    }
+
+    private R combine(R first, R second) {
+      if (first == null) {
+        return second;
+      }
+      if (second == null) {
+        return first;
+      }
+      return reducer.apply(first, second);
+    }
+
+    private final class SubtreeTask extends RecursiveTask<R> {
+
+      private final Node node;
+      private final int depth;
+
+      private SubtreeTask(Node node, int depth) {
+        this.node = node;
+        this.depth = depth;
+      }
+
+      @Override
+      protected R compute() {
+        if (stopped) {
+          return null;
+        }
+        if (depth >= maxForkDepth || (minForkSize > 0 && node.size() < minForkSize)) {
+          return traverseSequentially(node, depth);
+        }
+        TraversalContext<R> ctx = new TraversalContext<>(range, collectStatistics);
+        ctx.stackDepth(1);
+        Node left = ctx.shouldTraverseLeft(node) ? node.left() : null;
+        Node right = ctx.shouldTraverseRight(node) ? node.right() : null;
+        boolean reverse = order == Order.REVERSE_IN_ORDER;
+        Node first = reverse ? right : left;
+        Node second = reverse ? left : right;
+
+        R nodeResult = null;
+        if (order == Order.PRE_ORDER) {
+          nodeResult = visitSingle(ctx, node);
+          addStatistics(ctx, depth);
+          if (stopped) {
+            return nodeResult;
+          }
+        }
+        SubtreeTask secondTask = null;
+        if (second != null) {
+          secondTask = new SubtreeTask(second, depth + 1);
+          secondTask.fork();
+        }
+        R firstResult = first != null ? new SubtreeTask(first, depth + 1).compute() : null;
+        R secondResult = null;
+        if (order == Order.POST_ORDER) {
+          // both subtrees must be visited before the node, only the in-order variants overlap it with the second task
+          secondResult = secondTask != null ? secondTask.join() : null;
+          nodeResult = visitSingle(ctx, node);
+          addStatistics(ctx, depth);
+        } else {
+          if (order != Order.PRE_ORDER) {
+            nodeResult = visitSingle(ctx, node);
+            addStatistics(ctx, depth);
+          }
+          secondResult = secondTask != null ? secondTask.join() : null;
+        }
+
+        return switch (order) {
+          case PRE_ORDER -> combine(combine(nodeResult, firstResult), secondResult);
+          case POST_ORDER -> combine(combine(firstResult, secondResult), nodeResult);
+          case IN_ORDER, REVERSE_IN_ORDER -> combine(combine(firstResult, nodeResult), secondResult);
+        };
+      }
+    }
+  }
+}
@@ -8,9 +8,19 @@ package no.cantara.binarytree;
 public final class DepthFirstTraversalRecursive implements DepthFirstTraversal {
 
     private final BinaryTree tree;
+    private final boolean collectStatistics;
 
     public DepthFirstTraversalRecursive(BinaryTree tree) {
+        this(tree, false);
+    }
+
+    /**
+     * @param tree              the tree
+     * @param collectStatistics whether range traversals return {@link TraversalStatistics} in their summary
+     */
+    public DepthFirstTraversalRecursive(BinaryTree tree, boolean collectStatistics) {
         this.tree = tree;
+        this.collectStatistics = collectStatistics;
     }
 
     @Override
@@ -78,8 +88,10 @@ public final class DepthFirstTraversalRecursive implements DepthFirstTraversal {
 
     @Override
     public <R> TraversalSummary<R> traversePreOrder(TraversalRange range, Visitor<R> visitor) {
-        TraversalContext<R> ctx = traversePreOrder(tree.getRoot(), new TraversalContext<>(range), visitor);
-        return new TraversalSummary<>(ctx.result);
+        TraversalContext<R> ctx = new TraversalContext<R>(range, collectStatistics).beginEvent();
+        ctx.push();
+        traversePreOrder(tree.getRoot(), ctx, visitor);
+        return ctx.summary(getClass());
     }
 
     public static <R> TraversalContext<R> traversePreOrder(Node node, TraversalContext<R> ctx, Visitor<R> visitor) {
@@ -93,21 +105,27 @@ public final class DepthFirstTraversalRecursive implements DepthFirstTraversal {
             }
         }
         if (ctx.shouldTraverseLeft(node)) {
+            ctx.push();
             traversePreOrder(node.left(), ctx, visitor);
+            ctx.pop();
             if (ctx.stop) {
                 return ctx;
             }
         }
         if (ctx.shouldTraverseRight(node)) {
+            ctx.push();
             traversePreOrder(node.right(), ctx, visitor);
+            ctx.pop();
         }
         return ctx;
     }
 
     @Override
     public <R> TraversalSummary<R> traversePostOrder(TraversalRange range, Visitor<R> visitor) {
-        TraversalContext<R> ctx = traversePostOrder(tree.getRoot(), new TraversalContext<>(range), visitor);
-        return new TraversalSummary<>(ctx.result);
+        TraversalContext<R> ctx = new TraversalContext<R>(range, collectStatistics).beginEvent();
+        ctx.push();
+        traversePostOrder(tree.getRoot(), ctx, visitor);
+        return ctx.summary(getClass());
     }
 
     public static <R> TraversalContext<R> traversePostOrder(Node node, TraversalContext<R> ctx, Visitor<R> visitor) {
@@ -115,13 +133,17 @@ public final class DepthFirstTraversalRecursive implements DepthFirstTraversal {
             return ctx;
         }
         if (ctx.shouldTraverseLeft(node)) {
+            ctx.push();
             traversePostOrder(node.left(), ctx, visitor);
+            ctx.pop();
             if (ctx.stop) {
                 return ctx;
             }
         }
         if (ctx.shouldTraverseRight(node)) {
+            ctx.push();
             traversePostOrder(node.right(), ctx, visitor);
+            ctx.pop();
             if (ctx.stop) {
                 return ctx;
             }
@@ -134,8 +156,10 @@ public final class DepthFirstTraversalRecursive implements DepthFirstTraversal {
 
     @Override
     public <R> TraversalSummary<R> traverseInOrder(TraversalRange range, Visitor<R> visitor) {
-        TraversalContext<R> ctx = traverseInOrder(tree.getRoot(), new TraversalContext<>(range), visitor);
-        return new TraversalSummary<>(ctx.result);
+        TraversalContext<R> ctx = new TraversalContext<R>(range, collectStatistics).beginEvent();
+        ctx.push();
+        traverseInOrder(tree.getRoot(), ctx, visitor);
+        return ctx.summary(getClass());
     }
 
     public static <R> TraversalContext<R> traverseInOrder(Node node, TraversalContext<R> ctx, Visitor<R> visitor) {
@@ -143,7 +167,9 @@ public final class DepthFirstTraversalRecursive implements DepthFirstTraversal {
             return ctx;
         }
         if (ctx.shouldTraverseLeft(node)) {
+            ctx.push();
             traverseInOrder(node.left(), ctx, visitor);
+            ctx.pop();
             if (ctx.stop) {
                 return ctx;
             }
@@ -155,15 +181,19 @@ public final class DepthFirstTraversalRecursive implements DepthFirstTraversal {
             }
         }
         if (ctx.shouldTraverseRight(node)) {
+            ctx.push();
             traverseInOrder(node.right(), ctx, visitor);
+            ctx.pop();
         }
         return ctx;
     }
 
     @Override
     public <R> TraversalSummary<R> traverseReverseInOrder(TraversalRange range, Visitor<R> visitor) {
-        TraversalContext<R> ctx = traverseReverseInOrder(tree.getRoot(), new TraversalContext<>(range), visitor);
-        return new TraversalSummary<>(ctx.result);
+        TraversalContext<R> ctx = new TraversalContext<R>(range, collectStatistics).beginEvent();
+        ctx.push();
+        traverseReverseInOrder(tree.getRoot(), ctx, visitor);
+        return ctx.summary(getClass());
     }
 
     public static <R> TraversalContext<R> traverseReverseInOrder(Node node, TraversalContext<R> ctx, Visitor<R> visitor) {
@@ -171,7 +201,9 @@ public final class DepthFirstTraversalRecursive implements DepthFirstTraversal {
             return ctx;
         }
         if (ctx.shouldTraverseRight(node)) {
+            ctx.push();
             traverseReverseInOrder(node.right(), ctx, visitor);
+            ctx.pop();
             if (ctx.stop) {
                 return ctx;
             }
@@ -183,7 +215,9 @@ public final class DepthFirstTraversalRecursive implements DepthFirstTraversal {
             }
         }
         if (ctx.shouldTraverseLeft(node)) {
+            ctx.push();
             traverseReverseInOrder(node.left(), ctx, visitor);
+            ctx.pop();
         }
         return ctx;
     }
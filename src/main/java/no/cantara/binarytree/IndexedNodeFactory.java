@@ -0,0 +1,52 @@
+package no.cantara.binarytree;
+
+/**
+ * A node factory that stores nodes in slots addressed by an <code>int</code> index and exposes the navigable node state
+ * by index. Tree implementations use this to run their hot paths on raw indices without materializing {@link Node}
+ * objects, only the nodes returned to the caller are materialized through {@link #node(int)}.
+ */
+public interface IndexedNodeFactory extends NodeFactory {
+
+    /**
+     * Index used to represent a <code>null</code> pointer.
+     */
+    int NULL_INDEX = -1;
+
+    /**
+     * @param node a node created by this factory, or <code>null</code>
+     * @return the index of the node or {@link #NULL_INDEX} if node is <code>null</code>
+     */
+    int indexOf(Node node);
+
+    /**
+     * @param index a node index, or {@link #NULL_INDEX}
+     * @return a node view of the given index or <code>null</code> if index is {@link #NULL_INDEX}
+     */
+    Node node(int index);
+
+    /**
+     * Same as {@link #createNode(long)}, but returns the index of the new node instead of the node.
+     *
+     * @param data the data of the new node
+     * @return the index of the new node
+     */
+    int allocate(long data);
+
+    long data(int index);
+
+    int left(int index);
+
+    void left(int index, int left);
+
+    int right(int index);
+
+    void right(int index, int right);
+
+    int height(int index);
+
+    void height(int index, int height);
+
+    int size(int index);
+
+    void size(int index, int size);
+}
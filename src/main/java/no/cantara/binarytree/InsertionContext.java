@@ -1,8 +1,13 @@
 package no.cantara.binarytree;
 
+/**
+ * Result and affected path of an insert. A context can be reused for any number of inserts, each insert clears it
+ * first, so that inserts do not allocate once its path has grown to the tree height.
+ */
 public class InsertionContext {
 
     Node insertedNode;
+    int comparisons;
 
     final BinaryTreePath affectedPath = new BinaryTreePath();
 
@@ -15,7 +20,24 @@ public class InsertionContext {
         return this;
     }
 
+    /**
+     * Returns the number of nodes whose key was compared with the inserted key while searching the insert position.
+     */
+    public int comparisons() {
+        return comparisons;
+    }
+
     public BinaryTreePath affectedPath() {
         return affectedPath;
     }
+
+    /**
+     * Resets the context for the next insert.
+     */
+    public InsertionContext clear() {
+        insertedNode = null;
+        comparisons = 0;
+        affectedPath.clear();
+        return this;
+    }
 }
@@ -0,0 +1,68 @@
+package no.cantara.binarytree;
+
+/**
+ * {@link TreeMetricsListener} that records every search, insert and delete that takes longer than the threshold as a
+ * {@link TreeOperationEvent}, so that latency outliers show up in a continuous flight recording. While no recording
+ * has the event enabled, each operation costs one event allocation that the JIT usually eliminates.
+ * <p>
+ * A listener records the type of the tree it was created for, but can be shared by trees of the same type and by
+ * several threads, as events are kept per thread.
+ */
+public final class JfrTreeMetricsListener implements TreeMetricsListener {
+
+    private final Class<?> treeType;
+    private final ThreadLocal<TreeOperationEvent> current = new ThreadLocal<>();
+
+    /**
+     * @param tree the tree whose type is recorded in the events
+     */
+    public JfrTreeMetricsListener(BinaryTree tree) {
+        this.treeType = tree.getClass();
+    }
+
+    @Override
+    public void operationStarted(Operation operation, long key) {
+        TreeOperationEvent event = new TreeOperationEvent();
+        if (!event.isEnabled()) {
+            current.remove();
+            return;
+        }
+        event.operation = operation.name();
+        event.treeType = treeType;
+        event.key = key;
+        event.begin();
+        current.set(event);
+    }
+
+    @Override
+    public void rotation(boolean doubleRotation) {
+        TreeOperationEvent event = current.get();
+        if (event != null) {
+            event.rotations++;
+        }
+    }
+
+    @Override
+    public void recolorCascade(int recoloredNodes) {
+        TreeOperationEvent event = current.get();
+        if (event != null) {
+            event.recoloredNodes += recoloredNodes;
+        }
+    }
+
+    @Override
+    public void operation(Operation operation, int comparisons, int pathLength, boolean successful, boolean rebalanced) {
+        TreeOperationEvent event = current.get();
+        if (event == null) {
+            return;
+        }
+        current.remove();
+        event.end();
+        if (event.shouldCommit()) {
+            event.comparisons = comparisons;
+            event.pathLength = pathLength;
+            event.successful = successful;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package no.cantara.binarytree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Split and set operations built on a single balancing primitive, <code>join(left, pivot, right)</code>, following
+ * Blelloch, Ferizovic and Sun, "Just Join for Parallel Ordered Sets". Subclasses implement join for a specific balancing
+ * scheme, everything else is shared.
+ * <p>
+ * All operations work destructively on subtrees: nodes are relinked instead of copied, and the input subtrees must not
+ * be used afterwards. Nodes that drop out of a result, e.g. duplicates in a union, are deleted when the factory is an
+ * {@link IndexedNodeFactory} so that their slots are reused.
+ */
+abstract class JoinBasedOperations {
+
+    /**
+     * Result of splitting a subtree at a key.
+     *
+     * @param left  the subtree with all keys less than the split key
+     * @param found the node with the split key, or <code>null</code> if there is none
+     * @param right the subtree with all keys greater than the split key
+     */
+    record Split(Node left, Node found, Node right) {
+    }
+
+    private enum SetOperation {
+        UNION, INTERSECTION, DIFFERENCE
+    }
+
+    protected final NodeFactory factory;
+    protected final boolean sizeAugmented;
+    private final boolean deleteDroppedNodes;
+
+    protected JoinBasedOperations(NodeFactory factory) {
+        this.factory = factory;
+        this.sizeAugmented = factory.sizeAugmented();
+        this.deleteDroppedNodes = factory instanceof IndexedNodeFactory;
+    }
+
+    /**
+     * Joins two subtrees with a pivot node between them into one balanced subtree. All keys in <code>left</code> must be
+     * less than the key of <code>pivot</code>, which must be less than all keys in <code>right</code>.
+     *
+     * @param left  a valid subtree, may be <code>null</code>
+     * @param pivot a node that is not part of any tree, its links are overwritten
+     * @param right a valid subtree, may be <code>null</code>
+     * @return the root of the joined subtree
+     */
+    abstract Node join(Node left, Node pivot, Node right);
+
+    /**
+     * Turns a subtree of a larger tree into the root of a stand-alone tree.
+     *
+     * @param subtree the subtree, may be <code>null</code>
+     * @return the same subtree
+     */
+    abstract Node asRoot(Node subtree);
+
+    Split split(Node node, long key) {
+        if (node == null) {
+            return new Split(null, null, null);
+        }
+        Node left = node.left();
+        Node right = node.right();
+        if (key == node.data()) {
+            return new Split(asRoot(left), node, asRoot(right));
+        }
+        if (key < node.data()) {
+            Split split = split(left, key);
+            return new Split(split.left, split.found, join(split.right, node, right));
+        }
+        Split split = split(right, key);
+        return new Split(join(left, node, split.left), split.found, split.right);
+    }
+
+    /**
+     * Removes the node with the highest key from a non-empty subtree.
+     *
+     * @return the remaining subtree as <code>left</code> and the removed node as <code>found</code>
+     */
+    Split splitLast(Node node) {
+        Node right = node.right();
+        if (right == null) {
+            return new Split(asRoot(node.left()), node, null);
+        }
+        Split split = splitLast(right);
+        return new Split(join(node.left(), node, split.left), split.found, null);
+    }
+
+    /**
+     * Joins two subtrees without a pivot, all keys in <code>left</code> must be less than all keys in <code>right</code>.
+     */
+    Node join2(Node left, Node right) {
+        if (left == null) {
+            return asRoot(right);
+        }
+        Split split = splitLast(left);
+        return join(split.left, split.found, right);
+    }
+
+    /**
+     * Removes all keys within the given range from a subtree by splitting off the part inside the range and joining the
+     * remaining parts. Costs two splits and one join, plus deleting the removed nodes for pooled factories.
+     *
+     * @return the root of the remaining subtree
+     */
+    Node deleteRange(Node node, TraversalRange range) {
+        Node left = null;
+        Node middle = node;
+        Node right = null;
+        if (range.startKey != null) {
+            Split split = split(middle, range.startKey);
+            left = split.left;
+            middle = split.right;
+            if (split.found != null && !contains(range, range.startKey)) {
+                left = join(left, split.found, null);
+            } else {
+                deleteNode(split.found);
+            }
+        }
+        if (range.endKey != null) {
+            Split split = split(middle, range.endKey);
+            middle = split.left;
+            right = split.right;
+            if (split.found != null && !contains(range, range.endKey)) {
+                right = join(null, split.found, right);
+            } else {
+                deleteNode(split.found);
+            }
+        }
+        deleteSubtree(middle);
+        return join2(left, right);
+    }
+
+    private static boolean contains(TraversalRange range, long key) {
+        return (range.startKey == null || key > range.startKey || (key == range.startKey && range.startKeyInclusive))
+                && (range.endKey == null || key < range.endKey || (key == range.endKey && range.endKeyInclusive));
+    }
+
+    Node union(Node a, Node b, ForkJoinPool pool) {
+        return apply(SetOperation.UNION, a, b, pool);
+    }
+
+    Node intersection(Node a, Node b, ForkJoinPool pool) {
+        return apply(SetOperation.INTERSECTION, a, b, pool);
+    }
+
+    Node difference(Node a, Node b, ForkJoinPool pool) {
+        return apply(SetOperation.DIFFERENCE, a, b, pool);
+    }
+
+    private Node apply(SetOperation operation, Node a, Node b, ForkJoinPool pool) {
+        if (factory.threadSafe()) {
+            return pool.invoke(new SetOperationTask(operation, a, b));
+        }
+        return apply(operation, a, b, false);
+    }
+
+    /**
+     * Splits <code>a</code> at the root key of <code>b</code> and recurses on the matching halves, forking one of them
+     * while the pool has few queued tasks.
+     */
+    private Node apply(SetOperation operation, Node a, Node b, boolean parallel) {
+        if (a == null || b == null) {
+            return switch (operation) {
+                case UNION -> asRoot(a != null ? a : b);
+                case INTERSECTION -> {
+                    deleteSubtree(a);
+                    deleteSubtree(b);
+                    yield null;
+                }
+                case DIFFERENCE -> {
+                    deleteSubtree(b);
+                    yield asRoot(a);
+                }
+            };
+        }
+        Node bLeft = b.left();
+        Node bRight = b.right();
+        Split split = split(a, b.data());
+
+        Node left;
+        Node right;
+        if (parallel && ForkJoinTask.getSurplusQueuedTaskCount() < 3) {
+            SetOperationTask leftTask = new SetOperationTask(operation, split.left, bLeft);
+            leftTask.fork();
+            right = apply(operation, split.right, bRight, true);
+            left = leftTask.join();
+        } else {
+            left = apply(operation, split.left, bLeft, parallel);
+            right = apply(operation, split.right, bRight, parallel);
+        }
+
+        switch (operation) {
+            case UNION:
+                deleteNode(split.found);
+                return join(left, b, right);
+            case INTERSECTION:
+                if (split.found != null) {
+                    deleteNode(split.found);
+                    return join(left, b, right);
+                }
+                deleteNode(b);
+                return join2(left, right);
+            default:
+                deleteNode(split.found);
+                deleteNode(b);
+                return join2(left, right);
+        }
+    }
+
+    private void deleteNode(Node node) {
+        if (deleteDroppedNodes && node != null) {
+            node.delete();
+        }
+    }
+
+    private void deleteSubtree(Node node) {
+        if (!deleteDroppedNodes || node == null) {
+            return;
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            node = stack.pop();
+            if (node.left() != null) {
+                stack.push(node.left());
+            }
+            if (node.right() != null) {
+                stack.push(node.right());
+            }
+            node.delete();
+        }
+    }
+
+    private final class SetOperationTask extends RecursiveTask<Node> {
+
+        private final SetOperation operation;
+        private final Node a;
+        private final Node b;
+
+        private SetOperationTask(SetOperation operation, Node a, Node b) {
+            this.operation = operation;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected Node compute() {
+            return apply(operation, a, b, true);
+        }
+    }
+}
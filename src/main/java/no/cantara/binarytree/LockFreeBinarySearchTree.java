@@ -0,0 +1,433 @@
+package no.cantara.binarytree;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free external binary search tree after Natarajan and Mittal, "Fast Concurrent Lock-Free Binary Search Trees"
+ * (PPoPP 2014). Keys are stored in the leaves, internal nodes only route: keys smaller than the key of an internal node
+ * are in its left subtree, all other keys in its right subtree. Inserts and deletes change the tree with a single
+ * compare-and-set on a child edge. A delete first flags the edge to the leaf it removes and tags the edge to its
+ * sibling, so no other thread can change either edge, and then swings the edge above the parent of the leaf to the
+ * sibling. Threads that run into a flagged or tagged edge help to complete the pending delete before they retry.
+ * <p>
+ * {@link #searchNode(long)} never retries or helps and is therefore wait-free. Nodes are created by the tree itself,
+ * the edges are not expressible through the {@link Node} setters, which all throw
+ * {@link UnsupportedOperationException}. The tree is never rebalanced, sequential or sorted insertion orders degrade it
+ * to a list.
+ * <p>
+ * Depth-first traversals see the routing nodes and three sentinel leaves with keys beyond any <code>long</code>, use
+ * {@link #leaves(TraversalRange)} to visit only the keys, or {@link #traverseInOrder(TraversalRange, Visitor)}. Such a
+ * scan is weakly consistent: it sees every key that is in the tree for the whole scan and none that is absent for the
+ * whole scan. Do not use {@link DepthFirstTraversalMorris}, which modifies the tree.
+ */
+public final class LockFreeBinarySearchTree implements BinarySearchTree {
+
+    private static final VarHandle LEFT;
+    private static final VarHandle RIGHT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            LEFT = lookup.findVarHandle(LockFreeNode.class, "left", Edge.class);
+            RIGHT = lookup.findVarHandle(LockFreeNode.class, "right", Edge.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Ranks of keys beyond all <code>long</code> keys, ordered after them and after each other.
+     */
+    private static final int INFINITY_0 = 1;
+    private static final int INFINITY_1 = 2;
+    private static final int INFINITY_2 = 3;
+
+    private final LockFreeNode root;
+    private final LockFreeNode sentinel;
+
+    public LockFreeBinarySearchTree() {
+        sentinel = LockFreeNode.internal(0, INFINITY_1, LockFreeNode.leaf(0, INFINITY_0), LockFreeNode.leaf(0, INFINITY_1));
+        root = LockFreeNode.internal(0, INFINITY_2, sentinel, LockFreeNode.leaf(0, INFINITY_2));
+    }
+
+    /**
+     * Returns the topmost sentinel node. All keys are in the left subtree of its left child.
+     */
+    @Override
+    public Node getRoot() {
+        return root;
+    }
+
+    @Override
+    public Node searchNode(long key) {
+        LockFreeNode node = sentinel.left.node;
+        while (!node.leaf) {
+            node = (node.lessThan(key) ? node.right : node.left).node;
+        }
+        return node.hasKey(key) ? node : null;
+    }
+
+    /**
+     * Inserts a leaf with the given key.
+     *
+     * @param key the key of the node to be inserted
+     * @return the inserted node
+     * @throws IllegalArgumentException if the tree already contains the key
+     */
+    @Override
+    public Node insertNode(long key) {
+        SeekRecord record = new SeekRecord();
+        LockFreeNode inserted = LockFreeNode.leaf(key, 0);
+        while (true) {
+            seek(key, record);
+            LockFreeNode leaf = record.leaf;
+            if (leaf.hasKey(key)) {
+                throw new IllegalArgumentException("BST already contains a node with key " + key);
+            }
+            LockFreeNode parent = record.parent;
+            VarHandle child = parent.lessThan(key) ? RIGHT : LEFT;
+            LockFreeNode internal = leaf.lessThan(key)
+                    ? LockFreeNode.internal(key, 0, leaf, inserted)
+                    : LockFreeNode.internal(leaf.key, leaf.rank, inserted, leaf);
+            if (child.compareAndSet(parent, leaf.clean, internal.clean)) {
+                return inserted;
+            }
+            Edge edge = (Edge) child.getVolatile(parent);
+            if (edge.node == leaf && (edge.flagged || edge.tagged)) {
+                cleanup(key, record);
+            }
+        }
+    }
+
+    /**
+     * Deletes the leaf with the given key.
+     *
+     * @param key the key of the node to be deleted
+     * @return the deleted node or <code>null</code> if no node with the given key exists
+     */
+    @Override
+    public Node deleteNode(long key) {
+        SeekRecord record = new SeekRecord();
+        LockFreeNode flagged = null;
+        while (true) {
+            seek(key, record);
+            LockFreeNode parent = record.parent;
+            VarHandle child = parent.lessThan(key) ? RIGHT : LEFT;
+            if (flagged == null) {
+                // injection, flag the edge to the leaf
+                LockFreeNode leaf = record.leaf;
+                if (!leaf.hasKey(key)) {
+                    return null;
+                }
+                if (child.compareAndSet(parent, leaf.clean, new Edge(leaf, true, false))) {
+                    flagged = leaf;
+                    if (cleanup(key, record)) {
+                        return leaf;
+                    }
+                } else {
+                    Edge edge = (Edge) child.getVolatile(parent);
+                    if (edge.node == leaf && (edge.flagged || edge.tagged)) {
+                        cleanup(key, record);
+                    }
+                }
+            } else if (record.leaf != flagged || cleanup(key, record)) {
+                // the leaf was removed, by this thread or by a helping thread
+                return flagged;
+            }
+        }
+    }
+
+    /**
+     * Runs an in-order traversal that visits the keys within the given range, see {@link #leaves(TraversalRange)}.
+     *
+     * @param range   the traversal range
+     * @param visitor the visitor
+     * @return the traversal summary
+     */
+    public <R> TraversalSummary<R> traverseInOrder(TraversalRange range, Visitor<R> visitor) {
+        return new DepthFirstTraversalIterative(this).traverseInOrder(leaves(range), visitor);
+    }
+
+    /**
+     * Returns a range for depth-first traversals of this tree that visits the leaves with keys within the given range,
+     * skipping routing nodes and sentinels, and prunes subtrees by the routing rule of this tree.
+     *
+     * @param range the range of keys to visit
+     * @return the range to traverse this tree with
+     */
+    public static TraversalRange leaves(TraversalRange range) {
+        return new LeafRange(range);
+    }
+
+    /**
+     * Finds the leaf the search for the given key ends at, its parent, and the deepest edge on the path that is not
+     * tagged, from the ancestor to the successor node. A pending delete of a leaf below the successor is completed by
+     * swinging this edge.
+     */
+    private void seek(long key, SeekRecord record) {
+        record.ancestor = root;
+        record.successor = sentinel;
+        record.parent = sentinel;
+        Edge parentEdge = sentinel.left;
+        record.leaf = parentEdge.node;
+        Edge currentEdge = record.leaf.left;
+        while (currentEdge != null) {
+            if (!parentEdge.tagged) {
+                record.ancestor = record.parent;
+                record.successor = record.leaf;
+            }
+            record.parent = record.leaf;
+            record.leaf = currentEdge.node;
+            parentEdge = currentEdge;
+            currentEdge = record.leaf.lessThan(key) ? record.leaf.right : record.leaf.left;
+        }
+    }
+
+    /**
+     * Removes the flagged leaf below the parent in the seek record together with the parent, by tagging the edge to the
+     * sibling of the leaf and swinging the edge from the ancestor to the sibling.
+     *
+     * @return whether this thread removed the leaf
+     */
+    private boolean cleanup(long key, SeekRecord record) {
+        LockFreeNode ancestor = record.ancestor;
+        LockFreeNode parent = record.parent;
+        VarHandle successorEdge = ancestor.lessThan(key) ? RIGHT : LEFT;
+        VarHandle childEdge = parent.lessThan(key) ? RIGHT : LEFT;
+        VarHandle siblingEdge = childEdge == LEFT ? RIGHT : LEFT;
+        if (!((Edge) childEdge.getVolatile(parent)).flagged) {
+            // the leaf on the search path is not the one being deleted, its sibling is
+            siblingEdge = childEdge;
+        }
+        Edge sibling = tag(siblingEdge, parent);
+        Edge replacement = sibling.flagged ? new Edge(sibling.node, true, false) : sibling.node.clean;
+        return successorEdge.compareAndSet(ancestor, record.successor.clean, replacement);
+    }
+
+    private static Edge tag(VarHandle edge, LockFreeNode parent) {
+        while (true) {
+            Edge current = (Edge) edge.getVolatile(parent);
+            if (current.tagged) {
+                return current;
+            }
+            Edge tagged = new Edge(current.node, current.flagged, true);
+            if (edge.compareAndSet(parent, current, tagged)) {
+                return tagged;
+            }
+        }
+    }
+
+    private static final class SeekRecord {
+        LockFreeNode ancestor;
+        LockFreeNode successor;
+        LockFreeNode parent;
+        LockFreeNode leaf;
+    }
+
+    /**
+     * Child edge of an internal node. Edges that are neither flagged nor tagged are always the
+     * {@link LockFreeNode#clean} edge of their node, so they can be compared by identity.
+     */
+    private static final class Edge {
+        final LockFreeNode node;
+        final boolean flagged;
+        final boolean tagged;
+
+        Edge(LockFreeNode node, boolean flagged, boolean tagged) {
+            this.node = node;
+            this.flagged = flagged;
+            this.tagged = tagged;
+        }
+    }
+
+    static final class LockFreeNode implements Node {
+
+        private final long key;
+        private final int rank;
+        private final boolean leaf;
+        private final Edge clean;
+        private volatile Edge left;
+        private volatile Edge right;
+
+        private LockFreeNode(long key, int rank, boolean leaf) {
+            this.key = key;
+            this.rank = rank;
+            this.leaf = leaf;
+            this.clean = new Edge(this, false, false);
+        }
+
+        static LockFreeNode leaf(long key, int rank) {
+            return new LockFreeNode(key, rank, true);
+        }
+
+        static LockFreeNode internal(long key, int rank, LockFreeNode left, LockFreeNode right) {
+            LockFreeNode node = new LockFreeNode(key, rank, false);
+            node.left = left.clean;
+            node.right = right.clean;
+            return node;
+        }
+
+        /**
+         * Whether the key of this node is less than or equal to the given key, i.e. the key is routed to the right.
+         */
+        boolean lessThan(long key) {
+            return rank == 0 && this.key <= key;
+        }
+
+        boolean hasKey(long key) {
+            return rank == 0 && this.key == key;
+        }
+
+        boolean isLeaf() {
+            return leaf;
+        }
+
+        boolean isSentinel() {
+            return rank != 0;
+        }
+
+        /**
+         * Returns the key, or <code>Long.MAX_VALUE</code> for sentinels.
+         */
+        @Override
+        public long data() {
+            return rank == 0 ? key : Long.MAX_VALUE;
+        }
+
+        @Override
+        public Node left() {
+            Edge edge = left;
+            return edge != null ? edge.node : null;
+        }
+
+        @Override
+        public Node right() {
+            Edge edge = right;
+            return edge != null ? edge.node : null;
+        }
+
+        @Override
+        public Node parent() {
+            return null;
+        }
+
+        @Override
+        public int height() {
+            return 0;
+        }
+
+        @Override
+        public boolean color() {
+            return BLACK;
+        }
+
+        @Override
+        public Node data(long data) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Node left(Node left) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Node right(Node right) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Node parent(Node parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Node height(int height) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Node color(boolean color) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isNil() {
+            return false;
+        }
+
+        @Override
+        public void delete() {
+            // no action needed, removed nodes may still be read by concurrent operations until garbage collected
+        }
+
+        @Override
+        public void copyNonNavigableStateFrom(Node source) {
+            // nothing to do, the node has no additional state
+        }
+
+        @Override
+        public String getText() {
+            return rank == 0 ? Long.toString(key) : "inf" + (rank - 1);
+        }
+
+        @Override
+        public String toString() {
+            return getText();
+        }
+    }
+
+    /**
+     * Visits leaves within range. The left subtree of a routing node holds the keys less than its key, the right
+     * subtree the keys greater than or equal to it.
+     */
+    private static final class LeafRange extends TraversalRange {
+
+        private final long lowerBound;
+        private final long upperBound;
+        private final boolean empty;
+
+        LeafRange(TraversalRange range) {
+            super(range.startKey, range.startKeyInclusive, range.endKey, range.endKeyInclusive);
+            boolean empty = false;
+            long lowerBound = Long.MIN_VALUE;
+            if (range.startKey != null) {
+                lowerBound = range.startKey;
+                if (!range.startKeyInclusive) {
+                    empty = lowerBound == Long.MAX_VALUE;
+                    lowerBound++;
+                }
+            }
+            long upperBound = Long.MAX_VALUE;
+            if (range.endKey != null) {
+                upperBound = range.endKey;
+                if (!range.endKeyInclusive) {
+                    empty |= upperBound == Long.MIN_VALUE;
+                    upperBound--;
+                }
+            }
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.empty = empty || lowerBound > upperBound;
+        }
+
+        @Override
+        public boolean shouldTraverseLeft(Node node) {
+            LockFreeNode routing = (LockFreeNode) node;
+            return !empty && (routing.isSentinel() || lowerBound < routing.key);
+        }
+
+        @Override
+        public boolean shouldTraverseRight(Node node) {
+            LockFreeNode routing = (LockFreeNode) node;
+            return !empty && !routing.isSentinel() && routing.key <= upperBound;
+        }
+
+        @Override
+        public boolean shouldVisit(Node node) {
+            LockFreeNode leaf = (LockFreeNode) node;
+            return !empty && leaf.isLeaf() && !leaf.isSentinel() && lowerBound <= leaf.key && leaf.key <= upperBound;
+        }
+    }
+}
@@ -34,14 +34,37 @@ public interface Node extends TreePrinter.PrintableNode {
 
   Node color(boolean color);
 
+  /**
+   * Number of nodes in the subtree rooted at this node, including the node itself. Only maintained by the tree
+   * implementations when the node factory is size augmented, see {@link NodeFactory#sizeAugmented()}.
+   *
+   * @return the subtree size
+   * @throws UnsupportedOperationException if this node implementation does not support subtree sizes
+   */
+  default int size() {
+    throw new UnsupportedOperationException("Subtree size is not supported by " + getClass().getName());
+  }
+
+  /**
+   * Sets the number of nodes in the subtree rooted at this node, including the node itself.
+   *
+   * @param size the subtree size
+   * @return this node
+   * @throws UnsupportedOperationException if this node implementation does not support subtree sizes
+   */
+  default Node size(int size) {
+    throw new UnsupportedOperationException("Subtree size is not supported by " + getClass().getName());
+  }
+
   boolean isNil();
 
   /**
    * Called by delete operations to allow removal any additional internal state and/or to remove the node from its environment
    *
-   * NOTE: This is currently only used by the iterative binary search tree variants, specifically AVLTree. The reason is that
-   * the recursive variants currently re-use nodes to hold state from another node instead of deleting the node, this is not compatible with use of this delete method.
-   * In other words, if you require internal node state that relies on this method being called, then use the AVLTree data-structure only.
+   * NOTE: This is called on the node that is physically unlinked from the tree, which is the in-order successor when the
+   * deleted node has two children and the successor's state is moved into it. {@link PersistentAvlTree} never calls it,
+   * since removed nodes may still be part of snapshots. After this method has been called only data() may be read from
+   * the node.
    */
   void delete();
 
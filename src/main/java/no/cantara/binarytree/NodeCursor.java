@@ -0,0 +1,91 @@
+package no.cantara.binarytree;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * In-order cursor over the nodes of a tree within a traversal range, ascending or descending. The cursor keeps the
+ * ancestors it still has to visit in a plain array, so trees without parent pointers can be iterated without a
+ * traversal context or per-step allocation. The cursor starts with a single descent to the first node in range instead
+ * of walking past the nodes before it.
+ */
+final class NodeCursor implements PrimitiveIterator.OfLong {
+
+    private final TraversalRange range;
+    private final boolean ascending;
+    private Node[] stack = new Node[64];
+    private int size;
+
+    NodeCursor(Node root, TraversalRange range, boolean ascending) {
+        this.range = range;
+        this.ascending = ascending;
+        Node node = root;
+        while (node != null) {
+            if (ascending) {
+                if (atOrAboveStart(node)) {
+                    push(node);
+                    node = range.shouldTraverseLeft(node) ? node.left() : null;
+                } else {
+                    node = node.right();
+                }
+            } else {
+                if (atOrBelowEnd(node)) {
+                    push(node);
+                    node = range.shouldTraverseRight(node) ? node.right() : null;
+                } else {
+                    node = node.left();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return size > 0 && range.shouldVisit(stack[size - 1]);
+    }
+
+    /**
+     * Returns the next node and steps to its in-order successor (or predecessor, when descending).
+     *
+     * @return the next node
+     * @throws NoSuchElementException if there are no more nodes within the range
+     */
+    Node nextNode() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Node node = stack[--size];
+        stack[size] = null;
+        if (ascending) {
+            for (Node child = node.right(); child != null; child = child.left()) {
+                push(child);
+            }
+        } else {
+            for (Node child = node.left(); child != null; child = child.right()) {
+                push(child);
+            }
+        }
+        return node;
+    }
+
+    @Override
+    public long nextLong() {
+        return nextNode().data();
+    }
+
+    private void push(Node node) {
+        if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
+        }
+        stack[size++] = node;
+    }
+
+    private boolean atOrAboveStart(Node node) {
+        return range.startKey == null || node.data() > range.startKey || (range.startKeyInclusive && node.data() == range.startKey);
+    }
+
+    private boolean atOrBelowEnd(Node node) {
+        return range.endKey == null || node.data() < range.endKey || (range.endKeyInclusive && node.data() == range.endKey);
+    }
+}
@@ -8,6 +8,28 @@ public interface NodeFactory {
 
     Node nilNode();
 
+    /**
+     * Whether nodes created by this factory carry a subtree size (see {@link Node#size()}) that should be kept up to
+     * date by the tree implementations. Size augmented trees support O(log n) size, rank and select operations at the
+     * cost of maintaining the size on every insert, delete and rotation.
+     *
+     * @return true if the tree implementations should maintain subtree sizes
+     */
+    default boolean sizeAugmented() {
+        return false;
+    }
+
+    /**
+     * Whether nodes may be created by several threads concurrently, and nodes created by different threads may be
+     * linked together afterwards. Parallel bulk loading falls back to a single thread for factories that are not
+     * thread-safe.
+     *
+     * @return true if {@link #createNode(long)} is thread-safe
+     */
+    default boolean threadSafe() {
+        return false;
+    }
+
     static NodeFactory defaultFactory() {
         return new PojoNodeFactory();
     }
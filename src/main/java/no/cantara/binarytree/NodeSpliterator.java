@@ -0,0 +1,203 @@
+package no.cantara.binarytree;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Spliterator over the nodes of a tree within a traversal range. A spliterator that has not started iterating splits at
+ * the highest node strictly inside its range: the keys on one side of that node go to the new spliterator, the node and
+ * the keys on the other side stay. Each part remembers the subtree that contains its whole range, so later splits start
+ * their descent there.
+ * <p>
+ * Size augmented trees report exact sizes, counted in O(log n) per split. Other trees report an unknown size that is
+ * halved on every split.
+ */
+abstract class NodeSpliterator {
+
+    private static final int ORDERED_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL;
+
+    private final boolean sizeAugmented;
+    private final boolean ascending;
+    private Node top; // subtree containing all keys within range
+    private TraversalRange range;
+    private long estimate;
+    private NodeCursor cursor;
+
+    NodeSpliterator(Node root, TraversalRange range, boolean ascending, boolean sizeAugmented) {
+        this.sizeAugmented = sizeAugmented;
+        this.ascending = ascending;
+        this.top = root;
+        this.range = range;
+        this.estimate = sizeAugmented ? countKeys() : Long.MAX_VALUE;
+    }
+
+    abstract NodeSpliterator create(Node top, TraversalRange range);
+
+    /**
+     * Moves the part of the range that comes first in iteration order into a new spliterator.
+     *
+     * @return the new spliterator, or <code>null</code> if this one cannot be split
+     */
+    NodeSpliterator splitPrefix() {
+        if (cursor != null) {
+            return null;
+        }
+        Node node = top;
+        Node boundaryNode = null; // a node equal to the inclusive range bound, passed on the way down
+        while (node != null) {
+            if (ascending ? !strictlyAboveStart(node) : !atOrAboveStart(node)) {
+                if (ascending && atOrAboveStart(node)) {
+                    boundaryNode = node;
+                }
+                node = node.right();
+            } else if (ascending ? !atOrBelowEnd(node) : !strictlyBelowEnd(node)) {
+                if (!ascending && atOrBelowEnd(node)) {
+                    boundaryNode = node;
+                }
+                node = node.left();
+            } else {
+                break;
+            }
+        }
+        if (node == null) {
+            return null;
+        }
+        // The prefix holds the keys between the range bound and the split node. They are all in the subtree on the near
+        // side of the split node, except the bound itself if it was passed on the way down.
+        Node prefixTop = boundaryNode != null ? boundaryNode : ascending ? node.left() : node.right();
+        if (prefixTop == null) {
+            return null;
+        }
+        long key = node.data();
+        NodeSpliterator prefix;
+        if (ascending) {
+            prefix = create(prefixTop, range.subRange(null, false, key, false));
+            range = range.subRange(key, true, null, false);
+        } else {
+            prefix = create(prefixTop, range.subRange(key, false, null, false));
+            range = range.subRange(null, false, key, true);
+        }
+        top = node;
+        if (sizeAugmented) {
+            estimate = countKeys();
+        } else {
+            estimate >>>= 1;
+            prefix.estimate = estimate;
+        }
+        return prefix;
+    }
+
+    Node nextNode() {
+        if (cursor == null) {
+            cursor = new NodeCursor(top, range, ascending);
+        }
+        return cursor.hasNext() ? cursor.nextNode() : null;
+    }
+
+    public long estimateSize() {
+        return estimate;
+    }
+
+    public int characteristics() {
+        return ORDERED_CHARACTERISTICS | (sizeAugmented ? Spliterator.SIZED | Spliterator.SUBSIZED : 0);
+    }
+
+    boolean ascending() {
+        return ascending;
+    }
+
+    boolean sizeAugmented() {
+        return sizeAugmented;
+    }
+
+    private long countKeys() {
+        int below = range.endKey == null
+                ? BinarySearchTree.subtreeSize(top)
+                : BinarySearchTree.countBelow(top, range.endKey, range.endKeyInclusive);
+        int belowStart = range.startKey == null ? 0 : BinarySearchTree.countBelow(top, range.startKey, !range.startKeyInclusive);
+        return Math.max(0, below - belowStart);
+    }
+
+    private boolean atOrAboveStart(Node node) {
+        return range.startKey == null || node.data() > range.startKey || (range.startKeyInclusive && node.data() == range.startKey);
+    }
+
+    private boolean strictlyAboveStart(Node node) {
+        return range.startKey == null || node.data() > range.startKey;
+    }
+
+    private boolean atOrBelowEnd(Node node) {
+        return range.endKey == null || node.data() < range.endKey || (range.endKeyInclusive && node.data() == range.endKey);
+    }
+
+    private boolean strictlyBelowEnd(Node node) {
+        return range.endKey == null || node.data() < range.endKey;
+    }
+
+    static final class Keys extends NodeSpliterator implements Spliterator.OfLong {
+
+        Keys(Node root, TraversalRange range, boolean ascending, boolean sizeAugmented) {
+            super(root, range, ascending, sizeAugmented);
+        }
+
+        @Override
+        Keys create(Node top, TraversalRange range) {
+            return new Keys(top, range, ascending(), sizeAugmented());
+        }
+
+        @Override
+        public Keys trySplit() {
+            return (Keys) splitPrefix();
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return ascending() ? null : Comparator.reverseOrder();
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            Node node = nextNode();
+            if (node == null) {
+                return false;
+            }
+            action.accept(node.data());
+            return true;
+        }
+    }
+
+    static final class Entries extends NodeSpliterator implements Spliterator<Map.Entry<Long, Node>> {
+
+        Entries(Node root, TraversalRange range, boolean ascending, boolean sizeAugmented) {
+            super(root, range, ascending, sizeAugmented);
+        }
+
+        @Override
+        Entries create(Node top, TraversalRange range) {
+            return new Entries(top, range, ascending(), sizeAugmented());
+        }
+
+        @Override
+        public Entries trySplit() {
+            return (Entries) splitPrefix();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<Long, Node>> action) {
+            Node node = nextNode();
+            if (node == null) {
+                return false;
+            }
+            action.accept(Map.entry(node.data(), node));
+            return true;
+        }
+
+        @Override
+        public Comparator<? super Map.Entry<Long, Node>> getComparator() {
+            return ascending() ? Map.Entry.comparingByKey() : Map.Entry.<Long, Node>comparingByKey().reversed();
+        }
+    }
+}
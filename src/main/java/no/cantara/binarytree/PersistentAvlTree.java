@@ -0,0 +1,224 @@
+package no.cantara.binarytree;
+
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.Math.max;
+
+/**
+ * Persistent AVL tree. Nodes are never modified once they are reachable from a root: inserts and deletes copy the nodes
+ * on the search path, and the nodes rotated along it, into a new root that shares all other nodes with the previous
+ * one. A {@link #snapshot()} is therefore taken in O(1) and can be traversed and searched without locks while the tree
+ * keeps being written, and it stays unchanged for as long as it is referenced.
+ * <p>
+ * Writes must be done by a single thread at a time, reads and snapshots are safe from any thread. Nodes removed from
+ * the tree may still be shared with snapshots and are left to the garbage collector, so node factories that recycle
+ * their slots ({@link IndexedNodeFactory}) are not supported.
+ */
+public final class PersistentAvlTree implements BinarySearchTree {
+
+    private final NodeFactory factory;
+    private final boolean sizeAugmented;
+    private volatile Node root;
+
+    // Context reused by every insert, only touched by the writer
+    private final InsertionContext insertionContext = new InsertionContext();
+
+    public PersistentAvlTree(NodeFactory factory) {
+        this(factory, null);
+    }
+
+    private PersistentAvlTree(NodeFactory factory, Node root) {
+        if (factory instanceof IndexedNodeFactory) {
+            throw new IllegalArgumentException("Node factories that reuse deleted nodes cannot be shared by snapshots: "
+                    + factory.getClass().getSimpleName());
+        }
+        this.factory = factory;
+        this.sizeAugmented = factory.sizeAugmented();
+        this.root = root;
+    }
+
+    @Override
+    public Node getRoot() {
+        return root;
+    }
+
+    @Override
+    public boolean sizeAugmented() {
+        return sizeAugmented;
+    }
+
+    /**
+     * Returns a tree with the current content of this tree. Later writes to this tree are not seen by the snapshot and
+     * writes to the snapshot are not seen by this tree.
+     *
+     * @return the snapshot
+     */
+    public PersistentAvlTree snapshot() {
+        return new PersistentAvlTree(factory, root);
+    }
+
+    @Override
+    public Node searchNode(long key) {
+        Node node = root;
+        while (node != null) {
+            if (key == node.data()) {
+                return node;
+            }
+            node = key < node.data() ? node.left() : node.right();
+        }
+        return null;
+    }
+
+    /**
+     * Inserts a node with the given key, copying the O(log n) nodes on its path.
+     *
+     * @param key the key of the node to be inserted
+     * @return the inserted node
+     * @throws IllegalArgumentException if the tree already contains the key
+     */
+    @Override
+    public Node insertNode(long key) {
+        InsertionContext ctx = insertionContext.clear();
+        root = insert(root, key, ctx);
+        Node inserted = ctx.insertedNode;
+        ctx.clear();
+        return inserted;
+    }
+
+    /**
+     * Deletes the node with the given key, copying the O(log n) nodes on its path. The deleted node itself is not
+     * modified, it is still part of older snapshots.
+     *
+     * @param key the key of the node to be deleted
+     * @return the deleted node or <code>null</code> if no node with the given key exists
+     */
+    @Override
+    public Node deleteNode(long key) {
+        Node node = searchNode(key);
+        if (node != null) {
+            root = delete(root, key);
+        }
+        return node;
+    }
+
+    /**
+     * Builds a perfectly balanced tree from the given keys in linear time.
+     *
+     * @param sortedKeys keys in strictly increasing order
+     * @throws IllegalStateException    if the tree is not empty
+     * @throws IllegalArgumentException if the keys are not in strictly increasing order
+     */
+    public void bulkLoad(long[] sortedKeys) {
+        if (root != null) {
+            throw new IllegalStateException("Bulk load requires an empty tree");
+        }
+        root = new BalancedTreeBuilder(factory, false).build(sortedKeys, 0, sortedKeys.length);
+    }
+
+    /**
+     * Returns a sequential stream of the keys in ascending order, reading the root at the time of the call.
+     *
+     * @return a stream of keys
+     */
+    public LongStream keys() {
+        return StreamSupport.longStream(new NodeSpliterator.Keys(root, TraversalRange.OPEN, true, sizeAugmented), false);
+    }
+
+    /**
+     * Number of keys in the tree, in O(1) when the node factory is size augmented, otherwise all nodes are visited.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        Node node = root;
+        if (node == null) {
+            return 0;
+        }
+        return sizeAugmented ? node.size() : (int) keys().count();
+    }
+
+    private Node insert(Node node, long key, InsertionContext ctx) {
+        if (node == null) {
+            Node created = factory.createNode(key).height(0);
+            ctx.insertedNode(created);
+            return sizeAugmented ? created.size(1) : created;
+        }
+        if (key < node.data()) {
+            return balance(node, insert(node.left(), key, ctx), node.right());
+        }
+        if (key > node.data()) {
+            return balance(node, node.left(), insert(node.right(), key, ctx));
+        }
+        throw new IllegalArgumentException("BST already contains a node with key " + key);
+    }
+
+    private Node delete(Node node, long key) {
+        if (key < node.data()) {
+            return balance(node, delete(node.left(), key), node.right());
+        }
+        if (key > node.data()) {
+            return balance(node, node.left(), delete(node.right(), key));
+        }
+        if (node.left() == null) {
+            return node.right();
+        }
+        if (node.right() == null) {
+            return node.left();
+        }
+        Node successor = BinarySearchTree.minValue(node.right());
+        return balance(successor, node.left(), deleteMin(node.right()));
+    }
+
+    private Node deleteMin(Node node) {
+        if (node.left() == null) {
+            return node.right();
+        }
+        return balance(node, deleteMin(node.left()), node.right());
+    }
+
+    /**
+     * Returns a copy of the template with the given children, rotated if the children differ in height by two.
+     */
+    private Node balance(Node template, Node left, Node right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            if (height(left.left()) >= height(left.right())) {
+                return copy(left, left.left(), copy(template, left.right(), right));
+            }
+            Node pivot = left.right();
+            return copy(pivot, copy(left, left.left(), pivot.left()), copy(template, pivot.right(), right));
+        }
+        if (rightHeight > leftHeight + 1) {
+            if (height(right.right()) >= height(right.left())) {
+                return copy(right, copy(template, left, right.left()), right.right());
+            }
+            Node pivot = right.left();
+            return copy(pivot, copy(template, left, pivot.left()), copy(right, pivot.right(), right.right()));
+        }
+        return copy(template, left, right);
+    }
+
+    private Node copy(Node template, Node left, Node right) {
+        Node node = factory.createNode(template.data());
+        node.copyNonNavigableStateFrom(template);
+        node.left(left).right(right).height(max(height(left), height(right)) + 1);
+        if (sizeAugmented) {
+            node.size(size(left) + size(right) + 1);
+        }
+        if (template == insertionContext.insertedNode) {
+            // the new leaf became the pivot of a double rotation, the copy is the node in the new tree
+            insertionContext.insertedNode = node;
+        }
+        return node;
+    }
+
+    private static int height(Node node) {
+        return node != null ? node.height() : -1;
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size() : 0;
+    }
+}
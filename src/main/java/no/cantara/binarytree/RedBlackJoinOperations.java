@@ -0,0 +1,117 @@
+package no.cantara.binarytree;
+
+import static no.cantara.binarytree.RedBlackTree.BLACK;
+import static no.cantara.binarytree.RedBlackTree.RED;
+
+/**
+ * Red-black join: both subtrees get a black root, then the pivot is linked as a red node next to the first black node
+ * on the spine of the subtree with the larger black height that matches the black height of the other subtree. A
+ * resulting red-red violation is fixed by a single rotation at the black grandparent on the way back up.
+ * <p>
+ * Nodes do not store their black height, it is counted along the leftmost path when a join starts. This adds a
+ * logarithmic factor to split compared to the AVL variant, where heights are stored in the nodes.
+ */
+final class RedBlackJoinOperations extends JoinBasedOperations {
+
+    RedBlackJoinOperations(NodeFactory factory) {
+        super(factory);
+    }
+
+    @Override
+    Node join(Node left, Node pivot, Node right) {
+        left = asRoot(left);
+        right = asRoot(right);
+        int leftBlackHeight = blackHeight(left);
+        int rightBlackHeight = blackHeight(right);
+        if (leftBlackHeight > rightBlackHeight) {
+            return asRoot(joinRight(left, leftBlackHeight, pivot, right, rightBlackHeight));
+        }
+        if (rightBlackHeight > leftBlackHeight) {
+            return asRoot(joinLeft(left, leftBlackHeight, pivot, right, rightBlackHeight));
+        }
+        return asRoot(link(left, pivot, right, RED));
+    }
+
+    @Override
+    Node asRoot(Node subtree) {
+        if (subtree != null) {
+            subtree.parent(null);
+            subtree.color(BLACK);
+        }
+        return subtree;
+    }
+
+    private Node joinRight(Node node, int blackHeight, Node pivot, Node right, int rightBlackHeight) {
+        if (isBlack(node) && blackHeight == rightBlackHeight) {
+            return link(node, pivot, right, RED);
+        }
+        int childBlackHeight = isBlack(node) ? blackHeight - 1 : blackHeight;
+        Node joined = joinRight(node.right(), childBlackHeight, pivot, right, rightBlackHeight);
+        link(node.left(), node, joined, node.color());
+        if (isBlack(node) && isRed(joined) && isRed(joined.right())) {
+            joined.right().color(BLACK);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node joinLeft(Node left, int leftBlackHeight, Node pivot, Node node, int blackHeight) {
+        if (isBlack(node) && blackHeight == leftBlackHeight) {
+            return link(left, pivot, node, RED);
+        }
+        int childBlackHeight = isBlack(node) ? blackHeight - 1 : blackHeight;
+        Node joined = joinLeft(left, leftBlackHeight, pivot, node.left(), childBlackHeight);
+        link(joined, node, node.right(), node.color());
+        if (isBlack(node) && isRed(joined) && isRed(joined.left())) {
+            joined.left().color(BLACK);
+            return rotateRight(node);
+        }
+        return node;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node rightChild = node.right();
+        link(node.left(), node, rightChild.left(), node.color());
+        return link(node, rightChild, rightChild.right(), rightChild.color());
+    }
+
+    private Node rotateRight(Node node) {
+        Node leftChild = node.left();
+        link(leftChild.right(), node, node.right(), node.color());
+        return link(leftChild.left(), leftChild, node, leftChild.color());
+    }
+
+    private Node link(Node left, Node node, Node right, boolean color) {
+        node.left(left);
+        node.right(right);
+        node.color(color);
+        if (left != null) {
+            left.parent(node);
+        }
+        if (right != null) {
+            right.parent(node);
+        }
+        if (sizeAugmented) {
+            BinarySearchTree.updateSize(node);
+        }
+        return node;
+    }
+
+    private static int blackHeight(Node node) {
+        int blackHeight = 0;
+        for (; node != null; node = node.left()) {
+            if (node.color() == BLACK) {
+                blackHeight++;
+            }
+        }
+        return blackHeight;
+    }
+
+    private static boolean isBlack(Node node) {
+        return node == null || node.color() == BLACK;
+    }
+
+    private static boolean isRed(Node node) {
+        return node != null && node.color() == RED;
+    }
+}
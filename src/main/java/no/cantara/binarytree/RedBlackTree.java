@@ -1,5 +1,8 @@
 package no.cantara.binarytree;
 
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * A red-black tree implementation with <code>int</code> keys.
  *
@@ -11,13 +14,56 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
   static final boolean BLACK = true;
 
   private final NodeFactory factory;
+  private final boolean sizeAugmented;
+
+  /**
+   * Receives operation metrics, <code>null</code> unless a listener is registered.
+   */
+  private TreeMetricsListener metrics;
+
+  // Rotations and color changes during the current operation, only counted while a listener is registered
+  private int rotations;
+  private int recolors;
 
   public RedBlackTree(NodeFactory factory) {
+    this(factory, null);
+  }
+
+  /**
+   * Creates a red-black tree around an existing, valid red-black tree, e.g. one reopened from a persistent node factory.
+   *
+   * @param factory the node factory
+   * @param root the root of the existing tree, or <code>null</code> for an empty tree
+   */
+  public RedBlackTree(NodeFactory factory, Node root) {
     this.factory = factory;
+    this.sizeAugmented = factory.sizeAugmented();
+    this.root = root;
+  }
+
+  @Override
+  public boolean sizeAugmented() {
+    return sizeAugmented;
+  }
+
+  /**
+   * Registers a listener for search, insert and delete metrics, replacing any previous one.
+   *
+   * @param listener the listener, or <code>null</code> to stop reporting
+   */
+  public void metricsListener(TreeMetricsListener listener) {
+    this.metrics = listener;
+  }
+
+  public TreeMetricsListener metricsListener() {
+    return metrics;
   }
 
   @Override
   public Node searchNode(long key) {
+    if (metrics != null) {
+      return searchNodeWithMetrics(key);
+    }
     Node node = root;
     while (node != null) {
       if (key == node.data()) {
@@ -32,10 +78,28 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
     return null;
   }
 
+  private Node searchNodeWithMetrics(long key) {
+    metrics.operationStarted(TreeMetricsListener.Operation.SEARCH, key);
+    int comparisons = 0;
+    Node node = root;
+    while (node != null) {
+      comparisons++;
+      if (key == node.data()) {
+        break;
+      }
+      node = key < node.data() ? node.left() : node.right();
+    }
+    reportOperation(TreeMetricsListener.Operation.SEARCH, comparisons, comparisons, node != null);
+    return node;
+  }
+
   // -- Insertion ----------------------------------------------------------------------------------
 
   @Override
   public Node insertNode(long key) {
+    if (metrics != null) {
+      metrics.operationStarted(TreeMetricsListener.Operation.INSERT, key);
+    }
     Node node = root;
     Node parent = null;
 
@@ -63,8 +127,16 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
     }
     newNode.parent(parent);
 
+    if (sizeAugmented) {
+      updateSizesUpToRoot(parent);
+    }
+    int pathLength = metrics != null ? depth(newNode) : 0;
+
     fixRedBlackPropertiesAfterInsert(newNode);
 
+    if (metrics != null) {
+      reportOperation(TreeMetricsListener.Operation.INSERT, pathLength - 1, pathLength, true);
+    }
     return newNode;
   }
 
@@ -95,6 +167,7 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
       // As this method is only called on red nodes (either on newly inserted ones - or -
       // recursively on red grandparents), all we have to do is to recolor the root black.
       parent.color(BLACK);
+      countRecolors(1);
       return;
     }
 
@@ -106,6 +179,7 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
       parent.color(BLACK);
       grandparent.color(RED);
       uncle.color(BLACK);
+      countRecolors(3);
 
       // Call recursively for grandparent, which is now red.
       // It might be root or have a red parent, in which case we need to fix more...
@@ -121,7 +195,8 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
     // Parent is left child of grandparent
     else if (parent.equals(grandparent.left())) {
       // Case 4a: Uncle is black and node is left->right "inner child" of its grandparent
-      if (node.equals(parent.right())) {
+      boolean innerChild = node.equals(parent.right());
+      if (innerChild) {
         rotateLeft(parent);
 
         // Let "parent" point to the new root node of the rotated sub-tree.
@@ -131,16 +206,19 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
 
       // Case 5a: Uncle is black and node is left->left "outer child" of its grandparent
       rotateRight(grandparent);
+      countRotation(innerChild);
 
       // Recolor original parent and grandparent
       parent.color(BLACK);
       grandparent.color(RED);
+      countRecolors(2);
     }
 
     // Parent is right child of grandparent
     else {
       // Case 4b: Uncle is black and node is right->left "inner child" of its grandparent
-      if (node.equals(parent.left())) {
+      boolean innerChild = node.equals(parent.left());
+      if (innerChild) {
         rotateRight(parent);
 
         // Let "parent" point to the new root node of the rotated sub-tree.
@@ -150,10 +228,12 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
 
       // Case 5b: Uncle is black and node is right->right "outer child" of its grandparent
       rotateLeft(grandparent);
+      countRotation(innerChild);
 
       // Recolor original parent and grandparent
       parent.color(BLACK);
       grandparent.color(RED);
+      countRecolors(2);
     }
   }
 
@@ -168,15 +248,187 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
     }
   }
 
+  /**
+   * Builds a perfectly balanced tree from keys in strictly increasing order in linear time, instead of inserting them
+   * one by one. Colors and parent pointers are set to form a valid red-black tree.
+   *
+   * @param sortedKeys keys in strictly increasing order
+   * @throws IllegalStateException    if the tree is not empty
+   * @throws IllegalArgumentException if the keys are not in strictly increasing order
+   */
+  public void bulkLoad(long[] sortedKeys) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("bulkLoad", this, sortedKeys.length);
+    requireEmpty();
+    root = new BalancedTreeBuilder(factory, true).build(sortedKeys, 0, sortedKeys.length);
+    event.commit();
+  }
+
+  /**
+   * Builds a perfectly balanced tree from the next <code>count</code> keys of the given iterator in linear time.
+   *
+   * @param sortedKeys keys in strictly increasing order
+   * @param count      the number of keys to consume from the iterator
+   * @throws IllegalStateException    if the tree is not empty
+   * @throws IllegalArgumentException if the keys are not in strictly increasing order
+   */
+  public void bulkLoad(PrimitiveIterator.OfLong sortedKeys, int count) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("bulkLoad", this, count);
+    requireEmpty();
+    root = new BalancedTreeBuilder(factory, true).build(sortedKeys, count);
+    event.commit();
+  }
+
+  /**
+   * Like {@link #bulkLoad(long[])}, but builds left and right subtrees in parallel on the given pool. The factory must be
+   * {@link NodeFactory#threadSafe() thread-safe} for the build to run in parallel, otherwise it runs on the calling
+   * thread.
+   *
+   * @param sortedKeys keys in strictly increasing order
+   * @param pool       the pool to build on
+   * @throws IllegalStateException    if the tree is not empty
+   * @throws IllegalArgumentException if the keys are not in strictly increasing order
+   */
+  public void bulkLoad(long[] sortedKeys, ForkJoinPool pool) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("parallelBulkLoad", this, sortedKeys.length);
+    requireEmpty();
+    root = new BalancedTreeBuilder(factory, true).build(sortedKeys, 0, sortedKeys.length, pool);
+    event.commit();
+  }
+
+  private void requireEmpty() {
+    if (root != null) {
+      throw new IllegalStateException("Bulk load requires an empty tree");
+    }
+  }
+
+  // -- Split, join and set operations ---------------------------------------------------------------
+
+  /**
+   * Splits this tree at the given key in O(log<sup>2</sup> n), as black heights are recounted for every join. Keys less
+   * than the key stay in this tree, the key itself and all greater keys are moved to the returned tree.
+   *
+   * @param key the split key
+   * @return a new tree with all keys greater than or equal to the split key
+   */
+  public RedBlackTree split(long key) {
+    RedBlackJoinOperations operations = new RedBlackJoinOperations(factory);
+    JoinBasedOperations.Split split = operations.split(root, key);
+    root = split.left();
+    Node right = split.found() != null ? operations.join(null, split.found(), split.right()) : split.right();
+    return new RedBlackTree(factory, right);
+  }
+
+  /**
+   * Joins two trees with a pivot key between them into one balanced tree in O(log n). Both trees are emptied, their
+   * nodes are moved to the returned tree.
+   *
+   * @param left  a tree with all keys less than the pivot
+   * @param pivot the pivot key
+   * @param right a tree with all keys greater than the pivot, using the same node factory as <code>left</code>
+   * @return a new tree with all keys of both trees and the pivot
+   * @throws IllegalArgumentException if the pivot does not separate the keys of the two trees, or the trees use
+   *                                  different node factories
+   */
+  public static RedBlackTree join(RedBlackTree left, long pivot, RedBlackTree right) {
+    left.requireJoinable(right);
+    if ((left.root != null && BinarySearchTree.maxValue(left.root).data() >= pivot)
+        || (right.root != null && BinarySearchTree.minValue(right.root).data() <= pivot)) {
+      throw new IllegalArgumentException("Pivot " + pivot + " does not separate the keys of the trees");
+    }
+    NodeFactory factory = left.factory;
+    Node root = new RedBlackJoinOperations(factory).join(left.root, factory.createNode(pivot), right.root);
+    left.root = null;
+    right.root = null;
+    return new RedBlackTree(factory, root);
+  }
+
+  /**
+   * Adds all keys of the other tree to this tree. The other tree is emptied and its nodes are reused. Runs in
+   * parallel on the given pool if the node factory is {@link NodeFactory#threadSafe() thread-safe}.
+   *
+   * @param other a tree using the same node factory
+   * @param pool  the pool to run on
+   */
+  public void union(RedBlackTree other, ForkJoinPool pool) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("union", this, 0);
+    requireJoinable(other);
+    root = new RedBlackJoinOperations(factory).union(root, other.root, pool);
+    other.root = null;
+    event.commit();
+  }
+
+  /**
+   * Retains only the keys of this tree that are also in the other tree. The other tree is emptied. Runs in
+   * parallel on the given pool if the node factory is {@link NodeFactory#threadSafe() thread-safe}.
+   *
+   * @param other a tree using the same node factory
+   * @param pool  the pool to run on
+   */
+  public void intersection(RedBlackTree other, ForkJoinPool pool) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("intersection", this, 0);
+    requireJoinable(other);
+    root = new RedBlackJoinOperations(factory).intersection(root, other.root, pool);
+    other.root = null;
+    event.commit();
+  }
+
+  /**
+   * Removes all keys of the other tree from this tree. The other tree is emptied. Runs in parallel on the given
+   * pool if the node factory is {@link NodeFactory#threadSafe() thread-safe}.
+   *
+   * @param other a tree using the same node factory
+   * @param pool  the pool to run on
+   */
+  public void difference(RedBlackTree other, ForkJoinPool pool) {
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("difference", this, 0);
+    requireJoinable(other);
+    root = new RedBlackJoinOperations(factory).difference(root, other.root, pool);
+    other.root = null;
+    event.commit();
+  }
+
+  /**
+   * Removes all keys within the given range. Whole subtrees inside the range are detached at once and the tree is
+   * rebalanced once, instead of deleting and rebalancing key by key.
+   *
+   * @param fromKey       the low end of the range
+   * @param fromInclusive whether the low end is removed
+   * @param toKey         the high end of the range
+   * @param toInclusive   whether the high end is removed
+   * @throws IllegalArgumentException if fromKey is greater than toKey
+   */
+  public void deleteRange(long fromKey, boolean fromInclusive, long toKey, boolean toInclusive) {
+    if (fromKey > toKey) {
+      throw new IllegalArgumentException("fromKey " + fromKey + " is after toKey " + toKey);
+    }
+    TreeBulkOperationEvent event = TreeBulkOperationEvent.begin("deleteRange", this, 0);
+    root = new RedBlackJoinOperations(factory).deleteRange(root, new TraversalRange(fromKey, fromInclusive, toKey, toInclusive));
+    event.commit();
+  }
+
+  private void requireJoinable(RedBlackTree other) {
+    if (other == this) {
+      throw new IllegalArgumentException("Cannot combine a tree with itself");
+    }
+    if (other.factory != factory) {
+      throw new IllegalArgumentException("Trees must use the same node factory");
+    }
+  }
+
   // -- Deletion -----------------------------------------------------------------------------------
 
   @SuppressWarnings("squid:S2259") // SonarCloud issues an incorrect potential NPE warning
   @Override
   public Node deleteNode(long key) {
+    if (metrics != null) {
+      metrics.operationStarted(TreeMetricsListener.Operation.DELETE, key);
+    }
     Node node = root;
+    int comparisons = 0;
 
     // Find the node to be deleted
     while (node != null && node.data() != key) {
+      comparisons++;
       // Traverse the tree to the left or right depending on the key
       if (key < node.data()) {
         node = node.left();
@@ -187,8 +439,12 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
 
     // Node not found?
     if (node == null) {
+      if (metrics != null) {
+        reportOperation(TreeMetricsListener.Operation.DELETE, comparisons, comparisons, false);
+      }
       return null;
     }
+    comparisons++; // the node with the key
 
     // At this point, "node" is the node to be deleted
 
@@ -196,11 +452,13 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
     // properties after deleting a node.
     Node movedUpNode;
     boolean deletedNodeColor;
+    Node removedNode;
 
     // Node has zero or one child
     if (node.left() == null || node.right() == null) {
       movedUpNode = deleteNodeWithZeroOrOneChild(node);
       deletedNodeColor = node.color();
+      removedNode = node;
     }
 
     // Node has two children
@@ -210,11 +468,19 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
 
       // Copy inorder successor's data to current node (keep its color!)
       node.data(inOrderSuccessor.data());
+      node.copyNonNavigableStateFrom(inOrderSuccessor);
 
       // Delete inorder successor just as we would delete a node with 0 or 1 child
       movedUpNode = deleteNodeWithZeroOrOneChild(inOrderSuccessor);
       deletedNodeColor = inOrderSuccessor.color();
+      removedNode = inOrderSuccessor;
+    }
+
+    if (sizeAugmented) {
+      // The removed node still references its former parent
+      updateSizesUpToRoot(removedNode.parent());
     }
+    int pathLength = metrics != null ? depth(removedNode.parent()) : 0;
 
     if (deletedNodeColor == BLACK) {
       fixRedBlackPropertiesAfterDelete(movedUpNode);
@@ -222,9 +488,15 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
       // Remove the temporary NIL node
       if (movedUpNode.isNil()) {
         replaceParentsChild(movedUpNode.parent(), movedUpNode, null);
+        movedUpNode.delete();
       }
     }
 
+    removedNode.delete(); // allow node to delete any other internal state, only the unlinked node is deleted
+
+    if (metrics != null) {
+      reportOperation(TreeMetricsListener.Operation.DELETE, comparisons, pathLength, true);
+    }
     return node;
   }
 
@@ -278,10 +550,12 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
     // Cases 3+4: Black sibling with two black children
     if (isBlack(sibling.left()) && isBlack(sibling.right())) {
       sibling.color(RED);
+      countRecolors(1);
 
       // Case 3: Black sibling with two black children + red parent
       if (node.parent().color() == RED) {
         node.parent().color(BLACK);
+        countRecolors(1);
       }
 
       // Case 4: Black sibling with two black children + black parent
@@ -300,6 +574,7 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
     // Recolor...
     sibling.color(BLACK);
     node.parent().color(RED);
+    countRecolors(2);
 
     // ... and rotate
     if (node.equals(node.parent().left())) {
@@ -307,19 +582,21 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
     } else {
       rotateRight(node.parent());
     }
+    countRotation(false);
   }
 
   private void handleBlackSiblingWithAtLeastOneRedChild(Node node, Node sibling) {
     boolean nodeIsLeftChild = node.equals(node.parent().left());
+    boolean outerNephewIsBlack = nodeIsLeftChild ? isBlack(sibling.right()) : isBlack(sibling.left());
 
     // Case 5: Black sibling with at least one red child + "outer nephew" is black
     // --> Recolor sibling and its child, and rotate around sibling
-    if (nodeIsLeftChild && isBlack(sibling.right())) {
+    if (nodeIsLeftChild && outerNephewIsBlack) {
       sibling.left().color(BLACK);
       sibling.color(RED);
       rotateRight(sibling);
       sibling = node.parent().right();
-    } else if (!nodeIsLeftChild && isBlack(sibling.left())) {
+    } else if (!nodeIsLeftChild && outerNephewIsBlack) {
       sibling.right().color(BLACK);
       sibling.color(RED);
       rotateLeft(sibling);
@@ -339,6 +616,8 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
       sibling.left().color(BLACK);
       rotateRight(node.parent());
     }
+    countRecolors(outerNephewIsBlack ? 5 : 3);
+    countRotation(outerNephewIsBlack);
   }
 
   private Node getSibling(Node node) {
@@ -370,6 +649,11 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
     leftChild.right(node);
     node.parent(leftChild);
 
+    if (sizeAugmented) {
+      BinarySearchTree.updateSize(node);
+      BinarySearchTree.updateSize(leftChild);
+    }
+
     replaceParentsChild(parent, node, leftChild);
   }
 
@@ -385,6 +669,11 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
     rightChild.left(node);
     node.parent(rightChild);
 
+    if (sizeAugmented) {
+      BinarySearchTree.updateSize(node);
+      BinarySearchTree.updateSize(rightChild);
+    }
+
     replaceParentsChild(parent, node, rightChild);
   }
 
@@ -404,6 +693,51 @@ public class RedBlackTree extends BaseBinaryTree implements BinarySearchTree {
     }
   }
 
+  // -- Metrics ------------------------------------------------------------------------------------
+
+  private void countRotation(boolean doubleRotation) {
+    if (metrics != null) {
+      rotations++;
+      metrics.rotation(doubleRotation);
+    }
+  }
+
+  private void countRecolors(int count) {
+    if (metrics != null) {
+      recolors += count;
+    }
+  }
+
+  /**
+   * Reports a completed operation to the registered listener, which must not be <code>null</code>.
+   */
+  private void reportOperation(TreeMetricsListener.Operation operation, int comparisons, int pathLength, boolean successful) {
+    if (recolors != 0) {
+      metrics.recolorCascade(recolors);
+    }
+    metrics.operation(operation, comparisons, pathLength, successful, rotations != 0 || recolors != 0);
+    rotations = 0;
+    recolors = 0;
+  }
+
+  /**
+   * Returns the number of nodes from the root down to the given node, following parent links.
+   */
+  private static int depth(Node node) {
+    int depth = 0;
+    for (; node != null; node = node.parent()) {
+      depth++;
+    }
+    return depth;
+  }
+
+  private void updateSizesUpToRoot(Node node) {
+    while (node != null) {
+      BinarySearchTree.updateSize(node);
+      node = node.parent();
+    }
+  }
+
   // -- For toString() -----------------------------------------------------------------------------
 
   @Override
@@ -0,0 +1,884 @@
+package no.cantara.binarytree;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe navigable map that partitions the key space into contiguous ranges, each held by its own {@link AvlTree}
+ * behind its own read-write lock. Point operations lock only the shard of their key, so writers to different shards
+ * run in parallel. Navigation, iteration and range views walk the shards in key order and lock one shard at a time.
+ * They are weakly consistent: they see every key that is in the map for the whole operation and none that is absent
+ * for the whole operation, but not a single point-in-time state of all shards.
+ * <p>
+ * A shard that grows beyond the maximum shard size is split at its median key when an insert finds it full.
+ * {@link #rebalance()} additionally splits shards that received much more than their share of operations since the
+ * last call and merges neighbouring shards that received little, and is meant to be called periodically.
+ * <p>
+ * As with {@link AbstractBinarySearchTree}, the values of the map are the nodes themselves: {@link #put(Long, Node)}
+ * inserts the key and ignores the value. Views returned by the range methods share the shards with this map.
+ */
+public final class ShardedTreeMap extends AbstractMap<Long, Node> implements NavigableMap<Long, Node> {
+
+    /**
+     * Number of entries an iterator copies from a shard under its lock at a time.
+     */
+    static final int ITERATOR_BATCH_SIZE = 256;
+
+    private final Shards shards;
+    private final TraversalRange range;
+    private final boolean ascending;
+
+    /**
+     * Creates a map with the key space split at the given keys, so <code>n</code> keys give <code>n + 1</code> shards.
+     *
+     * @param factory      a {@link NodeFactory#threadSafe() thread-safe} node factory shared by all shards
+     * @param splitKeys    the lowest key of every shard but the first, in strictly increasing order
+     * @param maxShardSize the number of keys above which a shard is split
+     * @throws IllegalArgumentException if the factory is not thread-safe, the split keys are not strictly increasing or
+     *                                  the maximum shard size is less than 2
+     */
+    public ShardedTreeMap(NodeFactory factory, long[] splitKeys, int maxShardSize) {
+        this(new Shards(factory, splitKeys, maxShardSize), TraversalRange.OPEN, true);
+    }
+
+    /**
+     * Creates a map with the whole <code>long</code> key space split into shards of equal width.
+     *
+     * @param factory      a {@link NodeFactory#threadSafe() thread-safe} node factory shared by all shards
+     * @param shards       the initial number of shards
+     * @param maxShardSize the number of keys above which a shard is split
+     */
+    public ShardedTreeMap(NodeFactory factory, int shards, int maxShardSize) {
+        this(factory, equalWidthSplitKeys(shards), maxShardSize);
+    }
+
+    private ShardedTreeMap(Shards shards, TraversalRange range, boolean ascending) {
+        this.shards = shards;
+        this.range = range;
+        this.ascending = ascending;
+    }
+
+    private static long[] equalWidthSplitKeys(int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("At least one shard is required: " + shards);
+        }
+        long width = Long.divideUnsigned(-1L, shards);
+        long[] splitKeys = new long[shards - 1];
+        for (int i = 1; i < shards; i++) {
+            splitKeys[i - 1] = Long.MIN_VALUE + i * width;
+        }
+        return splitKeys;
+    }
+
+    /**
+     * Returns the key ranges of the current shards in key order, with inclusive start and exclusive end keys.
+     *
+     * @return the shard ranges
+     */
+    public List<TraversalRange> partitions() {
+        return Arrays.stream(shards.layout).map(shard -> shard.range).toList();
+    }
+
+    /**
+     * Splits shards that received more than twice the average number of operations since the last call and merges
+     * neighbouring shards that both received less than half of it. Only shards with at least a quarter of the maximum
+     * shard size are split, and only shards that fit into half of the maximum shard size together are merged. Applies
+     * to the whole map when called on a view.
+     */
+    public void rebalance() {
+        shards.rebalance();
+    }
+
+    /**
+     * Inserts a node with the given key into its shard.
+     *
+     * @param key the key
+     * @return the inserted node
+     * @throws IllegalArgumentException if the map already contains the key, or the key is outside the range of this map
+     */
+    public Node insertNode(long key) {
+        requireInRange(key);
+        Shard shard = shards.lock(key, true);
+        Node node;
+        boolean full;
+        try {
+            node = shard.tree.insertNode(key);
+            shard.size++;
+            shard.operations.increment();
+            full = shard.size > shards.maxShardSize;
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        if (full) {
+            shards.split(shard);
+        }
+        return node;
+    }
+
+    /**
+     * Deletes the node with the given key from its shard.
+     *
+     * @param key the key
+     * @return the deleted node or <code>null</code> if this map does not contain the key
+     */
+    public Node deleteNode(long key) {
+        if (!inRange(key)) {
+            return null;
+        }
+        Shard shard = shards.lock(key, true);
+        try {
+            shard.operations.increment();
+            Node node = shard.tree.deleteNode(key);
+            if (node != null) {
+                shard.size--;
+            }
+            return node;
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Primitive variant of {@link #get(Object)}.
+     *
+     * @param key the key
+     * @return the node or <code>null</code> if this map does not contain the key
+     */
+    public Node getNode(long key) {
+        if (!inRange(key)) {
+            return null;
+        }
+        Shard shard = shards.lock(key, false);
+        try {
+            shard.operations.increment();
+            return shard.tree.searchNode(key);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Primitive variant of {@link #containsKey(Object)}.
+     *
+     * @param key the key
+     * @return whether this map contains the key
+     */
+    public boolean containsKey(long key) {
+        return getNode(key) != null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Node get(Object key) {
+        if (key instanceof Number number) {
+            return getNode(number.longValue());
+        }
+        return null;
+    }
+
+    @Override
+    public Node put(Long key, Node value) {
+        return insertNode(key);
+    }
+
+    @Override
+    public Node remove(Object key) {
+        if (key instanceof Number number) {
+            return deleteNode(number.longValue());
+        }
+        return null;
+    }
+
+    /**
+     * Removes all keys within the range of this map, one shard at a time.
+     */
+    @Override
+    public void clear() {
+        Long key = range.startKey;
+        while (true) {
+            Shard shard = shards.lock(key != null ? key : Long.MIN_VALUE, true);
+            try {
+                TraversalRange deletion = range.subRange(shard.range);
+                int removed = shard.tree.subMap(deletion.startKey, deletion.startKeyInclusive, deletion.endKey, deletion.endKeyInclusive).size();
+                if (removed == shard.size) {
+                    shard.tree.clear();
+                } else if (removed > 0) {
+                    shard.tree.deleteRange(deletion.startKey != null ? deletion.startKey : Long.MIN_VALUE, deletion.startKeyInclusive,
+                            deletion.endKey != null ? deletion.endKey : Long.MAX_VALUE, deletion.endKeyInclusive);
+                }
+                shard.size -= removed;
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+            key = shard.range.endKey;
+            if (key == null || endsBefore(range, key)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Number of keys within the range of this map, counted shard by shard.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        Long key = range.startKey;
+        while (true) {
+            Shard shard = shards.lock(key != null ? key : Long.MIN_VALUE, false);
+            try {
+                if (range == TraversalRange.OPEN) {
+                    size += shard.size;
+                } else {
+                    TraversalRange overlap = range.subRange(shard.range);
+                    size += shard.tree.subMap(overlap.startKey, overlap.startKeyInclusive, overlap.endKey, overlap.endKeyInclusive).size();
+                }
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+            key = shard.range.endKey;
+            if (key == null || endsBefore(range, key)) {
+                return size;
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return firstEntry() == null;
+    }
+
+    @Override
+    public Entry<Long, Node> lowerEntry(Long key) {
+        return ascending ? below(key, false) : above(key, false);
+    }
+
+    @Override
+    public Long lowerKey(Long key) {
+        return keyOf(lowerEntry(key));
+    }
+
+    @Override
+    public Entry<Long, Node> floorEntry(Long key) {
+        return ascending ? below(key, true) : above(key, true);
+    }
+
+    @Override
+    public Long floorKey(Long key) {
+        return keyOf(floorEntry(key));
+    }
+
+    @Override
+    public Entry<Long, Node> ceilingEntry(Long key) {
+        return ascending ? above(key, true) : below(key, true);
+    }
+
+    @Override
+    public Long ceilingKey(Long key) {
+        return keyOf(ceilingEntry(key));
+    }
+
+    @Override
+    public Entry<Long, Node> higherEntry(Long key) {
+        return ascending ? above(key, false) : below(key, false);
+    }
+
+    @Override
+    public Long higherKey(Long key) {
+        return keyOf(higherEntry(key));
+    }
+
+    @Override
+    public Entry<Long, Node> firstEntry() {
+        return ascending ? above(Long.MIN_VALUE, true) : below(Long.MAX_VALUE, true);
+    }
+
+    @Override
+    public Entry<Long, Node> lastEntry() {
+        return ascending ? below(Long.MAX_VALUE, true) : above(Long.MIN_VALUE, true);
+    }
+
+    @Override
+    public Long firstKey() {
+        return key(firstEntry());
+    }
+
+    @Override
+    public Long lastKey() {
+        return key(lastEntry());
+    }
+
+    @Override
+    public Entry<Long, Node> pollFirstEntry() {
+        return poll(true);
+    }
+
+    @Override
+    public Entry<Long, Node> pollLastEntry() {
+        return poll(false);
+    }
+
+    private Entry<Long, Node> poll(boolean first) {
+        while (true) {
+            Entry<Long, Node> entry = first ? firstEntry() : lastEntry();
+            if (entry == null || deleteNode(entry.getKey()) != null) {
+                return entry;
+            }
+        }
+    }
+
+    @Override
+    public ShardedTreeMap descendingMap() {
+        return new ShardedTreeMap(shards, range, !ascending);
+    }
+
+    @Override
+    public NavigableSet<Long> navigableKeySet() {
+        return new KeySet(this);
+    }
+
+    @Override
+    public NavigableSet<Long> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<Long> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public ShardedTreeMap subMap(Long fromKey, boolean fromInclusive, Long toKey, boolean toInclusive) {
+        if (Long.compare(fromKey, toKey) * (ascending ? 1 : -1) > 0) {
+            throw new IllegalArgumentException("fromKey " + fromKey + " is after toKey " + toKey);
+        }
+        return ascending
+                ? view(fromKey, fromInclusive, toKey, toInclusive)
+                : view(toKey, toInclusive, fromKey, fromInclusive);
+    }
+
+    @Override
+    public ShardedTreeMap headMap(Long toKey, boolean inclusive) {
+        return ascending ? view(null, true, toKey, inclusive) : view(toKey, inclusive, null, true);
+    }
+
+    @Override
+    public ShardedTreeMap tailMap(Long fromKey, boolean inclusive) {
+        return ascending ? view(fromKey, inclusive, null, true) : view(null, true, fromKey, inclusive);
+    }
+
+    @Override
+    public SortedMap<Long, Node> subMap(Long fromKey, Long toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<Long, Node> headMap(Long toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<Long, Node> tailMap(Long fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    private ShardedTreeMap view(Long startKey, boolean startKeyInclusive, Long endKey, boolean endKeyInclusive) {
+        return new ShardedTreeMap(shards, range.subRange(startKey, startKeyInclusive, endKey, endKeyInclusive), ascending);
+    }
+
+    @Override
+    public Comparator<? super Long> comparator() {
+        return ascending ? (Comparator<Long>) Long::compareTo : Comparator.<Long>reverseOrder();
+    }
+
+    @Override
+    public Set<Entry<Long, Node>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Long, Node>> iterator() {
+                return new EntryIterator(ascending);
+            }
+
+            @Override
+            public int size() {
+                return ShardedTreeMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                ShardedTreeMap.this.clear();
+            }
+        };
+    }
+
+    private Entry<Long, Node> above(long key, boolean inclusive) {
+        List<Entry<Long, Node>> entries = collect(key, inclusive, true, 1);
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    private Entry<Long, Node> below(long key, boolean inclusive) {
+        List<Entry<Long, Node>> entries = collect(key, inclusive, false, 1);
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    /**
+     * Collects up to <code>limit</code> entries within the range of this map that follow the given key in ascending or
+     * descending key order, moving on to the neighbouring shard while the current one has no more of them.
+     */
+    private List<Entry<Long, Node>> collect(long key, boolean inclusive, boolean up, int limit) {
+        TraversalRange remaining = up ? range.subRange(key, inclusive, null, true) : range.subRange(null, true, key, inclusive);
+        List<Entry<Long, Node>> entries = new ArrayList<>(Math.min(limit, 16));
+        Long position = up ? remaining.startKey : remaining.endKey;
+        long locate = position != null ? position : (up ? Long.MIN_VALUE : Long.MAX_VALUE);
+        while (true) {
+            Shard shard = shards.lock(locate, false);
+            try {
+                NodeCursor cursor = new NodeCursor(shard.tree.getRoot(), remaining, up);
+                while (cursor.hasNext()) {
+                    Node node = cursor.nextNode();
+                    entries.add(Map.entry(node.data(), node));
+                    if (entries.size() == limit) {
+                        return entries;
+                    }
+                }
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+            if (up) {
+                Long next = shard.range.endKey;
+                if (next == null || endsBefore(remaining, next)) {
+                    return entries;
+                }
+                locate = next;
+            } else {
+                Long previous = shard.range.startKey;
+                // a shard starting at Long.MIN_VALUE has no keys before it, and previous - 1 would wrap around
+                if (previous == null || previous == Long.MIN_VALUE
+                        || (remaining.startKey != null && remaining.startKey >= previous)) {
+                    return entries;
+                }
+                locate = previous - 1;
+            }
+        }
+    }
+
+    private boolean inRange(long key) {
+        if (range.startKey != null && (key < range.startKey || (key == range.startKey && !range.startKeyInclusive))) {
+            return false;
+        }
+        return range.endKey == null || key < range.endKey || (key == range.endKey && range.endKeyInclusive);
+    }
+
+    /**
+     * Whether the given range has no keys greater than or equal to the given key.
+     */
+    private static boolean endsBefore(TraversalRange range, long key) {
+        return range.endKey != null && (range.endKey < key || (range.endKey == key && !range.endKeyInclusive));
+    }
+
+    private void requireInRange(long key) {
+        if (!inRange(key)) {
+            throw new IllegalArgumentException("Key " + key + " is outside the range " + range + " of this map");
+        }
+    }
+
+    private static Long keyOf(Entry<Long, Node> entry) {
+        return entry != null ? entry.getKey() : null;
+    }
+
+    private static Long key(Entry<Long, Node> entry) {
+        if (entry == null) {
+            throw new NoSuchElementException();
+        }
+        return entry.getKey();
+    }
+
+    /**
+     * Iterates in batches of {@link #ITERATOR_BATCH_SIZE} entries, each copied from the shards under their read locks.
+     */
+    private final class EntryIterator implements Iterator<Entry<Long, Node>> {
+
+        private final boolean up;
+        private Iterator<Entry<Long, Node>> batch;
+        private Entry<Long, Node> lastInBatch;
+        private Entry<Long, Node> lastReturned;
+        private boolean exhausted;
+
+        private EntryIterator(boolean up) {
+            this.up = up;
+            fetch(up ? Long.MIN_VALUE : Long.MAX_VALUE, true);
+        }
+
+        private void fetch(long key, boolean inclusive) {
+            List<Entry<Long, Node>> entries = collect(key, inclusive, up, ITERATOR_BATCH_SIZE);
+            exhausted = entries.size() < ITERATOR_BATCH_SIZE;
+            lastInBatch = entries.isEmpty() ? null : entries.get(entries.size() - 1);
+            batch = entries.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!batch.hasNext() && !exhausted) {
+                fetch(lastInBatch.getKey(), false);
+            }
+            return batch.hasNext();
+        }
+
+        @Override
+        public Entry<Long, Node> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = batch.next();
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            deleteNode(lastReturned.getKey());
+            lastReturned = null;
+        }
+    }
+
+    private static final class KeySet extends AbstractSet<Long> implements NavigableSet<Long> {
+
+        private final ShardedTreeMap map;
+
+        private KeySet(ShardedTreeMap map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<Long> iterator() {
+            Iterator<Entry<Long, Node>> entries = map.entrySet().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public Long next() {
+                    return entries.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    entries.remove();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<Long> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return map.remove(o) != null;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public Long lower(Long key) {
+            return map.lowerKey(key);
+        }
+
+        @Override
+        public Long floor(Long key) {
+            return map.floorKey(key);
+        }
+
+        @Override
+        public Long ceiling(Long key) {
+            return map.ceilingKey(key);
+        }
+
+        @Override
+        public Long higher(Long key) {
+            return map.higherKey(key);
+        }
+
+        @Override
+        public Long pollFirst() {
+            return keyOf(map.pollFirstEntry());
+        }
+
+        @Override
+        public Long pollLast() {
+            return keyOf(map.pollLastEntry());
+        }
+
+        @Override
+        public NavigableSet<Long> descendingSet() {
+            return map.descendingKeySet();
+        }
+
+        @Override
+        public NavigableSet<Long> subSet(Long fromElement, boolean fromInclusive, Long toElement, boolean toInclusive) {
+            return map.subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<Long> headSet(Long toElement, boolean inclusive) {
+            return map.headMap(toElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<Long> tailSet(Long fromElement, boolean inclusive) {
+            return map.tailMap(fromElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public SortedSet<Long> subSet(Long fromElement, Long toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<Long> headSet(Long toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<Long> tailSet(Long fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        @Override
+        public Comparator<? super Long> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public Long first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public Long last() {
+            return map.lastKey();
+        }
+    }
+
+    /**
+     * A key range with its tree. The range has an inclusive start key and an exclusive end key, <code>null</code> for
+     * the open ends of the first and the last shard. A shard is retired when it is split or merged, operations that
+     * locked a retired shard look the key up again.
+     */
+    private static final class Shard {
+
+        final TraversalRange range;
+        final AvlTree tree;
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final LongAdder operations = new LongAdder();
+        volatile int size;
+        boolean retired;
+
+        Shard(Long startKey, Long endKey, AvlTree tree, int size) {
+            this.range = new TraversalRange(startKey, true, endKey, false);
+            this.tree = tree;
+            this.size = size;
+        }
+    }
+
+    /**
+     * The shards of a map and its views, replaced as a whole when shards are split or merged.
+     */
+    private static final class Shards {
+
+        private final NodeFactory factory;
+        private final int maxShardSize;
+        private final ReentrantLock rebalanceLock = new ReentrantLock();
+        private volatile Shard[] layout;
+
+        Shards(NodeFactory factory, long[] splitKeys, int maxShardSize) {
+            if (!factory.threadSafe()) {
+                throw new IllegalArgumentException("Shards are written concurrently, the node factory must be thread-safe");
+            }
+            if (maxShardSize < 2) {
+                throw new IllegalArgumentException("Maximum shard size must be at least 2: " + maxShardSize);
+            }
+            for (int i = 1; i < splitKeys.length; i++) {
+                if (splitKeys[i - 1] >= splitKeys[i]) {
+                    throw new IllegalArgumentException("Split keys are not in strictly increasing order at index " + i);
+                }
+            }
+            this.factory = factory;
+            this.maxShardSize = maxShardSize;
+            Shard[] layout = new Shard[splitKeys.length + 1];
+            for (int i = 0; i < layout.length; i++) {
+                Long startKey = i > 0 ? splitKeys[i - 1] : null;
+                Long endKey = i < splitKeys.length ? splitKeys[i] : null;
+                layout[i] = new Shard(startKey, endKey, new AvlTree(factory), 0);
+            }
+            this.layout = layout;
+        }
+
+        /**
+         * Locks the shard of the given key with its read or write lock, looking it up again if it was retired.
+         */
+        Shard lock(long key, boolean write) {
+            while (true) {
+                Shard[] layout = this.layout;
+                Shard shard = layout[indexOf(layout, key)];
+                Lock lock = write ? shard.lock.writeLock() : shard.lock.readLock();
+                lock.lock();
+                if (!shard.retired) {
+                    return shard;
+                }
+                lock.unlock();
+            }
+        }
+
+        private static int indexOf(Shard[] layout, long key) {
+            int low = 1;
+            int high = layout.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (layout[mid].range.startKey <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low - 1;
+        }
+
+        void rebalance() {
+            rebalanceLock.lock();
+            try {
+                Map<Shard, Long> operations = new IdentityHashMap<>();
+                long total = 0;
+                for (Shard shard : layout) {
+                    long count = shard.operations.sumThenReset();
+                    operations.put(shard, count);
+                    total += count;
+                }
+                double average = (double) total / layout.length;
+
+                for (int i = 0; i + 1 < layout.length; ) {
+                    Shard left = layout[i];
+                    Shard right = layout[i + 1];
+                    long leftOperations = operations.getOrDefault(left, 0L);
+                    long rightOperations = operations.getOrDefault(right, 0L);
+                    if (leftOperations < average / 2 && rightOperations < average / 2
+                            && left.size + right.size <= maxShardSize / 2) {
+                        operations.put(merge(i), leftOperations + rightOperations);
+                    } else {
+                        i++;
+                    }
+                }
+                for (Shard shard : layout) {
+                    if (operations.getOrDefault(shard, 0L) > 2 * average && shard.size >= Math.max(2, maxShardSize / 4)) {
+                        split(shard);
+                    }
+                }
+            } finally {
+                rebalanceLock.unlock();
+            }
+        }
+
+        /**
+         * Splits the shard at its median key, unless it was retired in the meantime.
+         */
+        void split(Shard shard) {
+            rebalanceLock.lock();
+            try {
+                shard.lock.writeLock().lock();
+                try {
+                    if (shard.retired || shard.size < 2) {
+                        return;
+                    }
+                    int lowerSize = shard.size / 2;
+                    long median = factory.sizeAugmented()
+                            ? shard.tree.select(lowerSize).data()
+                            : shard.tree.keys().skip(lowerSize).findFirst().orElseThrow();
+                    AvlTree upper = shard.tree.split(median);
+                    replace(shard, 1,
+                            new Shard(shard.range.startKey, median, shard.tree, lowerSize),
+                            new Shard(median, shard.range.endKey, upper, shard.size - lowerSize));
+                    shard.retired = true;
+                } finally {
+                    shard.lock.writeLock().unlock();
+                }
+            } finally {
+                rebalanceLock.unlock();
+            }
+        }
+
+        /**
+         * Merges the shard at the given index with its right neighbour, must be called under the rebalance lock.
+         */
+        private Shard merge(int index) {
+            Shard left = layout[index];
+            Shard right = layout[index + 1];
+            left.lock.writeLock().lock();
+            right.lock.writeLock().lock();
+            try {
+                left.tree.union(right.tree, ForkJoinPool.commonPool());
+                Shard merged = new Shard(left.range.startKey, right.range.endKey, left.tree, left.size + right.size);
+                replace(left, 2, merged);
+                left.retired = true;
+                right.retired = true;
+                return merged;
+            } finally {
+                right.lock.writeLock().unlock();
+                left.lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Publishes a layout in which <code>count</code> shards starting with the given one are replaced.
+         */
+        private void replace(Shard first, int count, Shard... replacements) {
+            Shard[] current = layout;
+            int index = Arrays.asList(current).indexOf(first);
+            List<Shard> next = new ArrayList<>(current.length + replacements.length - count);
+            next.addAll(Arrays.asList(current).subList(0, index));
+            Collections.addAll(next, replacements);
+            next.addAll(Arrays.asList(current).subList(index + count, current.length));
+            layout = next.toArray(new Shard[0]);
+        }
+    }
+}
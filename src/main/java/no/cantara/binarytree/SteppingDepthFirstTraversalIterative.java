@@ -10,9 +10,19 @@ import java.util.Deque;
 public final class SteppingDepthFirstTraversalIterative implements DepthFirstTraversal {
 
   private final BinaryTree tree;
+  private final boolean collectStatistics;
 
   public SteppingDepthFirstTraversalIterative(BinaryTree tree) {
+    this(tree, false);
+  }
+
+  /**
+   * @param tree              the tree
+   * @param collectStatistics whether range traversals return {@link TraversalStatistics} in their summary
+   */
+  public SteppingDepthFirstTraversalIterative(BinaryTree tree, boolean collectStatistics) {
     this.tree = tree;
+    this.collectStatistics = collectStatistics;
   }
 
   @Override
@@ -37,12 +47,12 @@ public final class SteppingDepthFirstTraversalIterative implements DepthFirstTra
 
   @Override
   public <R> TraversalSummary<R> traversePreOrder(TraversalRange range, Visitor<R> visitor) {
-    SteppingTraversalContext<R> ctx = traversePreOrder(new SteppingTraversalContext<>(range, tree.getRoot()));
+    SteppingTraversalContext<R> ctx = traversePreOrder(new SteppingTraversalContext<R>(range, tree.getRoot(), collectStatistics).beginEvent());
     while(ctx.hasNext) {
       visitor.visit(ctx, ctx.next);
       traversePreOrder(ctx);
     }
-    return new TraversalSummary<>(ctx.result);
+    return ctx.summary(getClass());
   }
 
   <R> SteppingTraversalContext<R> traversePreOrder(TraversalContext<R> _ctx) {
@@ -55,6 +65,7 @@ public final class SteppingDepthFirstTraversalIterative implements DepthFirstTra
         return ctx;
       }
       stack.push(node);
+      ctx.stackDepth(1);
       ctx.initialized = true;
     }
 
@@ -75,6 +86,7 @@ public final class SteppingDepthFirstTraversalIterative implements DepthFirstTra
           stack.push(ctx.node.left());
         }
       }
+      ctx.stackDepth(stack.size());
       if (ctx.hasNext) {
         return ctx; // can be continued by calling this method with ctx
       }
@@ -86,12 +98,12 @@ public final class SteppingDepthFirstTraversalIterative implements DepthFirstTra
 
   @Override
   public <R> TraversalSummary<R> traversePostOrder(TraversalRange range, Visitor<R> visitor) {
-    SteppingTraversalContext<R> ctx = traversePostOrder(new SteppingTraversalContext<>(range, tree.getRoot()));
+    SteppingTraversalContext<R> ctx = traversePostOrder(new SteppingTraversalContext<R>(range, tree.getRoot(), collectStatistics).beginEvent());
     while(ctx.hasNext) {
       visitor.visit(ctx, ctx.next);
       traversePostOrder(ctx);
     }
-    return new TraversalSummary<>(ctx.result);
+    return ctx.summary(getClass());
   }
 
   <R> SteppingTraversalContext<R> traversePostOrder(TraversalContext<R> _ctx) {
@@ -101,6 +113,7 @@ public final class SteppingDepthFirstTraversalIterative implements DepthFirstTra
     while (!stack.isEmpty() || ctx.node != null) {
       if (ctx.node != null) {
         stack.push(ctx.node);
+        ctx.stackDepth(stack.size());
         if (ctx.shouldTraverseLeft(ctx.node)) {
           ctx.node = ctx.node.left();
         } else {
@@ -130,12 +143,12 @@ public final class SteppingDepthFirstTraversalIterative implements DepthFirstTra
 
   @Override
   public <R> TraversalSummary<R> traverseInOrder(TraversalRange range, Visitor<R> visitor) {
-    SteppingTraversalContext<R> ctx = traverseInOrder(new SteppingTraversalContext<>(range, tree.getRoot()));
+    SteppingTraversalContext<R> ctx = traverseInOrder(new SteppingTraversalContext<R>(range, tree.getRoot(), collectStatistics).beginEvent());
     while(ctx.hasNext) {
       visitor.visit(ctx, ctx.next);
       traverseInOrder(ctx);
     }
-    return new TraversalSummary<>(ctx.result);
+    return ctx.summary(getClass());
   }
 
   <R> SteppingTraversalContext<R> traverseInOrder(TraversalContext<R> _ctx) {
@@ -145,6 +158,7 @@ public final class SteppingDepthFirstTraversalIterative implements DepthFirstTra
     while (!stack.isEmpty() || ctx.node != null) {
       if (ctx.node != null) {
         stack.push(ctx.node);
+        ctx.stackDepth(stack.size());
         if (ctx.shouldTraverseLeft(ctx.node)) {
           ctx.node = ctx.node.left();
         } else {
@@ -174,12 +188,12 @@ public final class SteppingDepthFirstTraversalIterative implements DepthFirstTra
 
   @Override
   public <R> TraversalSummary<R> traverseReverseInOrder(TraversalRange range, Visitor<R> visitor) {
-    SteppingTraversalContext<R> ctx = traverseReverseInOrder(new SteppingTraversalContext<>(range, tree.getRoot()));
+    SteppingTraversalContext<R> ctx = traverseReverseInOrder(new SteppingTraversalContext<R>(range, tree.getRoot(), collectStatistics).beginEvent());
     while(ctx.hasNext) {
       visitor.visit(ctx, ctx.next);
       traverseReverseInOrder(ctx);
     }
-    return new TraversalSummary<>(ctx.result);
+    return ctx.summary(getClass());
   }
 
   <R> SteppingTraversalContext<R> traverseReverseInOrder(TraversalContext<R> _ctx) {
@@ -189,6 +203,7 @@ public final class SteppingDepthFirstTraversalIterative implements DepthFirstTra
     while (!stack.isEmpty() || ctx.node != null) {
       if (ctx.node != null) {
         stack.push(ctx.node);
+        ctx.stackDepth(stack.size());
         if (ctx.shouldTraverseRight(ctx.node)) {
           ctx.node = ctx.node.right();
         } else {
@@ -13,7 +13,17 @@ public class SteppingTraversalContext<R> extends TraversalContext<R> {
     boolean initialized;
 
     public SteppingTraversalContext(TraversalRange range, Node root) {
-        super(range);
+        this(range, root, false);
+    }
+
+    public SteppingTraversalContext(TraversalRange range, Node root, boolean collectStatistics) {
+        super(range, collectStatistics);
         this.node = root;
     }
+
+    @Override
+    SteppingTraversalContext<R> beginEvent() {
+        super.beginEvent();
+        return this;
+    }
 }
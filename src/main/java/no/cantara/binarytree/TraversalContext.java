@@ -3,11 +3,18 @@ package no.cantara.binarytree;
 public class TraversalContext<R> implements RangeTraversalDecision {
 
     final TraversalRange range;
+    final TraversalStatistics statistics;
+    private TraversalEvent event;
     boolean stop = false;
     R result;
 
     public TraversalContext(TraversalRange range) {
+        this(range, false);
+    }
+
+    public TraversalContext(TraversalRange range, boolean collectStatistics) {
         this.range = range;
+        this.statistics = collectStatistics ? new TraversalStatistics() : null;
     }
 
     public TraversalRange range() {
@@ -28,18 +35,91 @@ public class TraversalContext<R> implements RangeTraversalDecision {
         return this;
     }
 
+    /**
+     * Returns the statistics collected so far.
+     *
+     * @return the statistics or <code>null</code> if the traversal does not collect statistics
+     */
+    public TraversalStatistics statistics() {
+        return statistics;
+    }
+
     @Override
     public boolean shouldTraverseLeft(Node node) {
-        return range.shouldTraverseLeft(node);
+        boolean traverse = range.shouldTraverseLeft(node);
+        if (statistics != null && !traverse && node.left() != null) {
+            statistics.prunedLeft++;
+        }
+        return traverse;
     }
 
     @Override
     public boolean shouldTraverseRight(Node node) {
-        return range.shouldTraverseRight(node);
+        boolean traverse = range.shouldTraverseRight(node);
+        if (statistics != null && !traverse && node.right() != null) {
+            statistics.prunedRight++;
+        }
+        return traverse;
     }
 
     @Override
     public boolean shouldVisit(Node node) {
-        return range.shouldVisit(node);
+        boolean visit = range.shouldVisit(node);
+        if (statistics != null) {
+            statistics.nodesTouched++;
+            if (visit) {
+                statistics.nodesVisited++;
+            }
+        }
+        return visit;
+    }
+
+    void stackDepth(int depth) {
+        if (statistics != null) {
+            statistics.stackDepth(depth);
+        }
+    }
+
+    void push() {
+        if (statistics != null) {
+            statistics.push();
+        }
+    }
+
+    void pop() {
+        if (statistics != null) {
+            statistics.pop();
+        }
+    }
+
+    /**
+     * Starts timing a {@link TraversalEvent}. Called by the traversals on the context whose summary they return, not on
+     * contexts of parts of a traversal.
+     */
+    TraversalContext<R> beginEvent() {
+        event = TraversalEvent.begin(range);
+        return this;
+    }
+
+    /**
+     * Ends the traversal and records a {@link TraversalEvent} if one was begun and the traversal took longer than the
+     * threshold.
+     *
+     * @param traversalType the class of the traversal
+     */
+    TraversalSummary<R> summary(Class<?> traversalType) {
+        if (statistics != null) {
+            statistics.stop();
+        }
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.traversalType = traversalType;
+                event.stopped = stop;
+                event.nodesVisited = statistics != null ? statistics.nodesVisited() : -1;
+                event.commit();
+            }
+        }
+        return new TraversalSummary<>(result, statistics);
     }
 }
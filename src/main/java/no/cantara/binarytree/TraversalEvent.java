@@ -0,0 +1,51 @@
+package no.cantara.binarytree;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for a depth-first range traversal that took longer than the threshold, including the time
+ * spent in the visitor. The default threshold of 10 ms can be changed per recording, see {@link TreeOperationEvent}.
+ */
+@Name(TraversalEvent.NAME)
+@Label("Tree Traversal")
+@Description("A depth-first range traversal that took longer than the threshold")
+@Category({"Binary Tree"})
+@Threshold("10 ms")
+@StackTrace(false)
+public final class TraversalEvent extends Event {
+
+    public static final String NAME = "no.cantara.binarytree.Traversal";
+
+    @Label("Traversal Type")
+    Class<?> traversalType;
+
+    @Label("Range")
+    String range;
+
+    @Label("Stopped")
+    @Description("Whether the visitor stopped the traversal")
+    boolean stopped;
+
+    @Label("Nodes Visited")
+    @Description("Nodes passed to the visitor, -1 unless the traversal collects statistics")
+    long nodesVisited;
+
+    /**
+     * Starts timing a traversal. The traversal commits the returned event from its summary, traversals that throw are
+     * not recorded.
+     */
+    static TraversalEvent begin(TraversalRange range) {
+        TraversalEvent event = new TraversalEvent();
+        if (event.isEnabled()) {
+            event.range = range.toString();
+            event.begin();
+        }
+        return event;
+    }
+}
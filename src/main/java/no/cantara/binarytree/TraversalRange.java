@@ -131,6 +131,16 @@ public class TraversalRange implements RangeTraversalDecision {
         return delegate.shouldVisit(node);
     }
 
+    /**
+     * Returns the range in interval notation, e.g. <code>[5, 13)</code>, with <code>-inf</code> and <code>+inf</code> for
+     * open ends.
+     */
+    @Override
+    public String toString() {
+        return (startKey == null ? "(-inf" : (startKeyInclusive ? "[" : "(") + startKey) + ", "
+                + (endKey == null ? "+inf)" : endKey + (endKeyInclusive ? "]" : ")"));
+    }
+
     private class OpenRange implements RangeTraversalDecision {
 
         @Override
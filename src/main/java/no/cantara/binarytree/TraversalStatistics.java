@@ -0,0 +1,107 @@
+package no.cantara.binarytree;
+
+import java.time.Duration;
+
+/**
+ * Statistics collected by a depth-first traversal when enabled on the traversal, see e.g.
+ * {@link DepthFirstTraversalIterative#DepthFirstTraversalIterative(BinaryTree, boolean)}.
+ */
+public final class TraversalStatistics {
+
+    private final long startNanos;
+    private long elapsedNanos;
+    long nodesTouched;
+    long nodesVisited;
+    long prunedLeft;
+    long prunedRight;
+    int maxStackDepth;
+    private int stackDepth;
+
+    TraversalStatistics() {
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Number of nodes that the traversal reached and checked against the range.
+     */
+    public long nodesTouched() {
+        return nodesTouched;
+    }
+
+    /**
+     * Number of nodes passed to the visitor.
+     */
+    public long nodesVisited() {
+        return nodesVisited;
+    }
+
+    /**
+     * Number of left subtrees that were skipped because all their keys are outside the range.
+     */
+    public long prunedLeft() {
+        return prunedLeft;
+    }
+
+    /**
+     * Number of right subtrees that were skipped because all their keys are outside the range.
+     */
+    public long prunedRight() {
+        return prunedRight;
+    }
+
+    /**
+     * Largest number of pending nodes held at once: the size of the explicit stack for iterative traversals, the
+     * recursion depth for recursive traversals and the number of temporary links for Morris traversals.
+     */
+    public int maxStackDepth() {
+        return maxStackDepth;
+    }
+
+    /**
+     * Wall-clock time of the traversal, including the time spent in the visitor.
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    void stackDepth(int depth) {
+        if (depth > maxStackDepth) {
+            maxStackDepth = depth;
+        }
+    }
+
+    void push() {
+        stackDepth(++stackDepth);
+    }
+
+    void pop() {
+        stackDepth--;
+    }
+
+    /**
+     * Adds the counts of a part of the same traversal that ran below the given number of pending nodes.
+     */
+    void add(TraversalStatistics part, int baseStackDepth) {
+        nodesTouched += part.nodesTouched;
+        nodesVisited += part.nodesVisited;
+        prunedLeft += part.prunedLeft;
+        prunedRight += part.prunedRight;
+        stackDepth(baseStackDepth + part.maxStackDepth);
+    }
+
+    void stop() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "TraversalStatistics{" +
+                "nodesTouched=" + nodesTouched +
+                ", nodesVisited=" + nodesVisited +
+                ", prunedLeft=" + prunedLeft +
+                ", prunedRight=" + prunedRight +
+                ", maxStackDepth=" + maxStackDepth +
+                ", elapsed=" + elapsed() +
+                '}';
+    }
+}
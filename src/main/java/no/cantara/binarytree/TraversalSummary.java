@@ -3,10 +3,27 @@ package no.cantara.binarytree;
 public class TraversalSummary<R> {
 
     final R result;
-
-    // TODO add traversal statistics
+    final TraversalStatistics statistics;
 
     public TraversalSummary(R result) {
+        this(result, null);
+    }
+
+    public TraversalSummary(R result, TraversalStatistics statistics) {
         this.result = result;
+        this.statistics = statistics;
+    }
+
+    public R result() {
+        return result;
+    }
+
+    /**
+     * Returns the statistics of the traversal.
+     *
+     * @return the statistics or <code>null</code> if the traversal was not created to collect statistics
+     */
+    public TraversalStatistics statistics() {
+        return statistics;
     }
 }
@@ -0,0 +1,50 @@
+package no.cantara.binarytree;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for a bulk load, range deletion or set operation that took longer than the threshold. The
+ * trees emit it on every such operation while a recording has it enabled, no listener is required. The default
+ * threshold of 10 ms can be changed per recording, see {@link TreeOperationEvent}.
+ */
+@Name(TreeBulkOperationEvent.NAME)
+@Label("Tree Bulk Operation")
+@Description("A bulk load, range deletion or set operation on a binary search tree that took longer than the threshold")
+@Category({"Binary Tree"})
+@Threshold("10 ms")
+@StackTrace(false)
+public final class TreeBulkOperationEvent extends Event {
+
+    public static final String NAME = "no.cantara.binarytree.TreeBulkOperation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Tree Type")
+    Class<?> treeType;
+
+    @Label("Input Keys")
+    @Description("Keys passed to a bulk load, 0 for operations on ranges or other trees")
+    long inputKeys;
+
+    /**
+     * Starts timing an operation. The caller commits the returned event when the operation completes, operations that
+     * throw are not recorded.
+     */
+    static TreeBulkOperationEvent begin(String operation, BinaryTree tree, long inputKeys) {
+        TreeBulkOperationEvent event = new TreeBulkOperationEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.treeType = tree.getClass();
+            event.inputKeys = inputKeys;
+            event.begin();
+        }
+        return event;
+    }
+}
@@ -0,0 +1,59 @@
+package no.cantara.binarytree;
+
+/**
+ * Receives metrics about single search, insert and delete operations of a tree, e.g. to export them to a metrics
+ * system. A listener is registered with <code>metricsListener(...)</code> on {@link BinarySearchTreeIterative},
+ * {@link AvlTree}, {@link RedBlackTree} and {@link BinarySearchTreeRecursive}. Without a listener, the trees only pay a
+ * null check per operation.
+ * <p>
+ * Callbacks run on the thread that performs the operation. Every operation starts with a call to
+ * {@link #operationStarted}, rotations and recolorings are reported while the tree rebalances, followed by one call to
+ * {@link #operation} when the operation is complete. Operations that throw, e.g.
+ * inserts of existing keys, are not reported. See {@link AggregatingTreeMetricsListener} for a listener that can be
+ * shared by several trees and threads, and {@link JfrTreeMetricsListener} for one that records slow operations with
+ * the flight recorder.
+ */
+public interface TreeMetricsListener {
+
+    enum Operation {
+        SEARCH, INSERT, DELETE
+    }
+
+    /**
+     * Called before the tree starts an operation, e.g. to time it.
+     *
+     * @param operation the operation
+     * @param key       the key to search, insert or delete
+     */
+    default void operationStarted(Operation operation, long key) {
+    }
+
+    /**
+     * Called once per completed operation.
+     *
+     * @param operation   the operation
+     * @param comparisons the number of nodes whose key was compared with the key of the operation on the way down
+     * @param pathLength  the number of nodes from the root down to the node that was inserted or to the parent of the
+     *                    node that was unlinked by a delete (the in-order successor when the deleted node had two
+     *                    children), or on the search path of a search
+     * @param successful  whether the search found a node, the insert added a node or the delete removed a node
+     * @param rebalanced  whether the tree rotated or recolored nodes during the operation
+     */
+    void operation(Operation operation, int comparisons, int pathLength, boolean successful, boolean rebalanced);
+
+    /**
+     * Called for every rotation during rebalancing.
+     *
+     * @param doubleRotation whether it was a double (left-right or right-left) rotation
+     */
+    default void rotation(boolean doubleRotation) {
+    }
+
+    /**
+     * Called once per red-black insert or delete that recolored nodes.
+     *
+     * @param recoloredNodes the number of color changes, including those propagated up the tree
+     */
+    default void recolorCascade(int recoloredNodes) {
+    }
+}
@@ -0,0 +1,52 @@
+package no.cantara.binarytree;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for a single search, insert or delete that took longer than the threshold, emitted by
+ * {@link JfrTreeMetricsListener}. The default threshold of 1 ms can be changed per recording, e.g. with
+ * <code>-XX:StartFlightRecording:no.cantara.binarytree.TreeOperation#threshold=100us</code> or
+ * <code>recording.enable(TreeOperationEvent.NAME).withThreshold(...)</code>.
+ */
+@Name(TreeOperationEvent.NAME)
+@Label("Tree Operation")
+@Description("A search, insert or delete on a binary search tree that took longer than the threshold")
+@Category({"Binary Tree"})
+@Threshold("1 ms")
+@StackTrace(false)
+public final class TreeOperationEvent extends Event {
+
+    public static final String NAME = "no.cantara.binarytree.TreeOperation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Tree Type")
+    Class<?> treeType;
+
+    @Label("Key")
+    long key;
+
+    @Label("Comparisons")
+    @Description("Keys compared on the way down")
+    int comparisons;
+
+    @Label("Path Length")
+    @Description("Nodes on the path from the root to the inserted node or to the parent of the unlinked node")
+    int pathLength;
+
+    @Label("Rotations")
+    int rotations;
+
+    @Label("Recolored Nodes")
+    int recoloredNodes;
+
+    @Label("Successful")
+    boolean successful;
+}
@@ -0,0 +1,104 @@
+package no.cantara.binarytree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Join-based operations for plain binary search trees without balancing information. Join just links the pivot above
+ * both subtrees. Split and join without pivot are iterative, since an unbalanced tree can be too deep for recursion.
+ */
+final class UnbalancedJoinOperations extends JoinBasedOperations {
+
+    UnbalancedJoinOperations(NodeFactory factory) {
+        super(factory);
+    }
+
+    @Override
+    Node join(Node left, Node pivot, Node right) {
+        pivot.left(left);
+        pivot.right(right);
+        if (sizeAugmented) {
+            BinarySearchTree.updateSize(pivot);
+        }
+        return pivot;
+    }
+
+    @Override
+    Node asRoot(Node subtree) {
+        return subtree;
+    }
+
+    /**
+     * Top-down split: nodes less than the key are chained along the right spine of the left result, greater nodes along
+     * the left spine of the right result.
+     */
+    @Override
+    Split split(Node node, long key) {
+        List<Node> leftSpine = new ArrayList<>();
+        List<Node> rightSpine = new ArrayList<>();
+        Node found = null;
+        Node leftRest = null;
+        Node rightRest = null;
+        while (node != null) {
+            if (key == node.data()) {
+                found = node;
+                leftRest = node.left();
+                rightRest = node.right();
+                break;
+            }
+            if (node.data() < key) {
+                leftSpine.add(node);
+                node = node.right();
+            } else {
+                rightSpine.add(node);
+                node = node.left();
+            }
+        }
+        Node left = leftRest;
+        for (int i = leftSpine.size() - 1; i >= 0; i--) {
+            Node spineNode = leftSpine.get(i);
+            spineNode.right(left);
+            if (sizeAugmented) {
+                BinarySearchTree.updateSize(spineNode);
+            }
+            left = spineNode;
+        }
+        Node right = rightRest;
+        for (int i = rightSpine.size() - 1; i >= 0; i--) {
+            Node spineNode = rightSpine.get(i);
+            spineNode.left(right);
+            if (sizeAugmented) {
+                BinarySearchTree.updateSize(spineNode);
+            }
+            right = spineNode;
+        }
+        return new Split(left, found, right);
+    }
+
+    /**
+     * Hangs the right subtree below the highest node of the left subtree.
+     */
+    @Override
+    Node join2(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        List<Node> spine = new ArrayList<>();
+        Node node = left;
+        while (node.right() != null) {
+            spine.add(node);
+            node = node.right();
+        }
+        node.right(right);
+        if (sizeAugmented) {
+            BinarySearchTree.updateSize(node);
+            for (int i = spine.size() - 1; i >= 0; i--) {
+                BinarySearchTree.updateSize(spine.get(i));
+            }
+        }
+        return left;
+    }
+}
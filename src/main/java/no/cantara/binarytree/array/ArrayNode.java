@@ -0,0 +1,135 @@
+package no.cantara.binarytree.array;
+
+import no.cantara.binarytree.Node;
+
+import static no.cantara.binarytree.array.ArrayNodeFactory.COLOR_FLAG;
+import static no.cantara.binarytree.array.ArrayNodeFactory.NIL_FLAG;
+
+/**
+ * Flyweight view of a node stored in an {@link ArrayNodeFactory}. Instances are created on demand and carry no state
+ * besides the node index, two views of the same index are equal.
+ */
+final class ArrayNode implements Node {
+
+  private final ArrayNodeFactory factory;
+  final int index;
+
+  ArrayNode(ArrayNodeFactory factory, int index) {
+    this.factory = factory;
+    this.index = index;
+  }
+
+  @Override
+  public long data() {
+    return factory.data(index);
+  }
+
+  @Override
+  public Node data(long data) {
+    factory.data(index, data);
+    return this;
+  }
+
+  @Override
+  public Node left() {
+    return factory.node(factory.left(index));
+  }
+
+  @Override
+  public Node left(Node left) {
+    factory.left(index, factory.indexOf(left));
+    return this;
+  }
+
+  @Override
+  public Node right() {
+    return factory.node(factory.right(index));
+  }
+
+  @Override
+  public Node right(Node right) {
+    factory.right(index, factory.indexOf(right));
+    return this;
+  }
+
+  @Override
+  public Node parent() {
+    return factory.node(factory.parent(index));
+  }
+
+  @Override
+  public Node parent(Node parent) {
+    factory.parent(index, factory.indexOf(parent));
+    return this;
+  }
+
+  @Override
+  public int height() {
+    return factory.height(index);
+  }
+
+  @Override
+  public Node height(int height) {
+    factory.height(index, height);
+    return this;
+  }
+
+  @Override
+  public boolean color() {
+    return (factory.flags(index) & COLOR_FLAG) != 0;
+  }
+
+  @Override
+  public Node color(boolean color) {
+    byte flags = factory.flags(index);
+    factory.flags(index, (byte) (color ? flags | COLOR_FLAG : flags & ~COLOR_FLAG));
+    return this;
+  }
+
+  @Override
+  public int size() {
+    return factory.size(index);
+  }
+
+  @Override
+  public Node size(int size) {
+    factory.size(index, size);
+    return this;
+  }
+
+  @Override
+  public boolean isNil() {
+    return (factory.flags(index) & NIL_FLAG) != 0;
+  }
+
+  @Override
+  public void delete() {
+    factory.free(index);
+  }
+
+  @Override
+  public void copyNonNavigableStateFrom(Node source) {
+    // nothing to do, the pool holds navigable state only
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ArrayNode other)) {
+      return false;
+    }
+    return index == other.index && factory == other.factory;
+  }
+
+  @Override
+  public int hashCode() {
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    return "ArrayNode{index=" + index + ", data=" + data() + '}';
+  }
+}
@@ -0,0 +1,261 @@
+package no.cantara.binarytree.array;
+
+import no.cantara.binarytree.IndexedNodeFactory;
+import no.cantara.binarytree.Node;
+import no.cantara.binarytree.NodeFactory;
+
+import java.util.Arrays;
+
+/**
+ * On-heap node factory that keeps all nodes in parallel primitive arrays (struct-of-arrays) instead of one object per
+ * node. Child and parent pointers are <code>int</code> indices into the arrays, and the nodes handed out are lightweight
+ * flyweight views of an index. Deleted nodes return their index to a free list.
+ * <p>
+ * The arrays grow in fixed-size chunks, so growing the pool never copies existing nodes. Heights are stored in a
+ * <code>short</code> per node, which is more than enough for AVL trees of any size that can be indexed by an
+ * <code>int</code> and holds the same initial height as the other factories. Subtree sizes are only stored when the
+ * factory is size augmented. A factory instance is not thread-safe, use one factory per tree.
+ */
+public class ArrayNodeFactory implements IndexedNodeFactory {
+
+    public static final int DEFAULT_NODES_PER_CHUNK = 1 << 14;
+
+    static final byte COLOR_FLAG = 1;
+    static final byte NIL_FLAG = 2;
+    static final byte FREE_FLAG = 4;
+
+    private static final short INITIAL_HEIGHT = -1000; // same sentinel as the pojo and off-heap implementations
+
+    private final boolean sizeAugmented;
+    private final int chunkShift;
+    private final int chunkMask;
+
+    private long[][] data = new long[0][];
+    private int[][] left = new int[0][];
+    private int[][] right = new int[0][];
+    private int[][] parent = new int[0][];
+    private short[][] height = new short[0][];
+    private byte[][] flags = new byte[0][];
+    private int[][] size = new int[0][];
+
+    private int nodesAllocated; // nodes in use or on the free list
+    private int freeListHead = NULL_INDEX;
+    private int nodeCount; // nodes in use
+
+    public ArrayNodeFactory() {
+        this(false);
+    }
+
+    public ArrayNodeFactory(boolean sizeAugmented) {
+        this(sizeAugmented, DEFAULT_NODES_PER_CHUNK);
+    }
+
+    /**
+     * @param sizeAugmented whether subtree sizes are maintained, see {@link NodeFactory#sizeAugmented()}
+     * @param nodesPerChunk number of nodes in every array chunk, must be a power of two
+     */
+    public ArrayNodeFactory(boolean sizeAugmented, int nodesPerChunk) {
+        if (nodesPerChunk <= 0 || Integer.bitCount(nodesPerChunk) != 1) {
+            throw new IllegalArgumentException("nodesPerChunk must be a power of two: " + nodesPerChunk);
+        }
+        this.sizeAugmented = sizeAugmented;
+        this.chunkShift = Integer.numberOfTrailingZeros(nodesPerChunk);
+        this.chunkMask = nodesPerChunk - 1;
+    }
+
+    @Override
+    public Node createNode(long data) {
+        return new ArrayNode(this, allocate(data));
+    }
+
+    @Override
+    public Node nilNode() {
+        int index = allocateIndex();
+        init(index, 0, (byte) (NIL_FLAG | COLOR_FLAG), 0); // nil nodes are black
+        return new ArrayNode(this, index);
+    }
+
+    @Override
+    public boolean sizeAugmented() {
+        return sizeAugmented;
+    }
+
+    @Override
+    public int allocate(long data) {
+        int index = allocateIndex();
+        init(index, data, (byte) 0, 1);
+        return index;
+    }
+
+    @Override
+    public Node node(int index) {
+        if (index == NULL_INDEX) {
+            return null;
+        }
+        return new ArrayNode(this, index);
+    }
+
+    @Override
+    public int indexOf(Node node) {
+        return node != null ? ((ArrayNode) node).index : NULL_INDEX;
+    }
+
+    /**
+     * @return the number of live nodes, i.e. nodes that have been created and not yet deleted
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the number of nodes the currently allocated chunks can hold
+     */
+    public int capacity() {
+        return data.length << chunkShift;
+    }
+
+    private int allocateIndex() {
+        int index;
+        if (freeListHead != NULL_INDEX) {
+            index = freeListHead;
+            freeListHead = left(index); // free nodes are linked through the left pointer
+        } else {
+            if (nodesAllocated == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Node pool is full");
+            }
+            index = nodesAllocated++;
+            ensureChunk(index >>> chunkShift);
+        }
+        nodeCount++;
+        return index;
+    }
+
+    void free(int index) {
+        byte f = flags(index);
+        if ((f & FREE_FLAG) != 0) {
+            throw new IllegalStateException("Node " + index + " has already been deleted");
+        }
+        // data is kept so that a deleted node can still report its key to the caller of deleteNode
+        flags(index, (byte) (f | FREE_FLAG));
+        left(index, freeListHead);
+        freeListHead = index;
+        nodeCount--;
+    }
+
+    private void init(int index, long data, byte flags, int size) {
+        int chunk = index >>> chunkShift;
+        int offset = index & chunkMask;
+        this.data[chunk][offset] = data;
+        this.left[chunk][offset] = NULL_INDEX;
+        this.right[chunk][offset] = NULL_INDEX;
+        this.parent[chunk][offset] = NULL_INDEX;
+        this.height[chunk][offset] = INITIAL_HEIGHT;
+        this.flags[chunk][offset] = flags;
+        if (sizeAugmented) {
+            this.size[chunk][offset] = size;
+        }
+    }
+
+    private void ensureChunk(int chunk) {
+        if (chunk < data.length) {
+            return;
+        }
+        int chunks = chunk + 1;
+        int nodesPerChunk = chunkMask + 1;
+        int first = data.length;
+        data = Arrays.copyOf(data, chunks);
+        left = Arrays.copyOf(left, chunks);
+        right = Arrays.copyOf(right, chunks);
+        parent = Arrays.copyOf(parent, chunks);
+        height = Arrays.copyOf(height, chunks);
+        flags = Arrays.copyOf(flags, chunks);
+        if (sizeAugmented) {
+            size = Arrays.copyOf(size, chunks);
+        }
+        for (int i = first; i < chunks; i++) {
+            data[i] = new long[nodesPerChunk];
+            left[i] = new int[nodesPerChunk];
+            right[i] = new int[nodesPerChunk];
+            parent[i] = new int[nodesPerChunk];
+            height[i] = new short[nodesPerChunk];
+            flags[i] = new byte[nodesPerChunk];
+            if (sizeAugmented) {
+                size[i] = new int[nodesPerChunk];
+            }
+        }
+    }
+
+    @Override
+    public long data(int index) {
+        return data[index >>> chunkShift][index & chunkMask];
+    }
+
+    void data(int index, long data) {
+        this.data[index >>> chunkShift][index & chunkMask] = data;
+    }
+
+    @Override
+    public int left(int index) {
+        return left[index >>> chunkShift][index & chunkMask];
+    }
+
+    @Override
+    public void left(int index, int left) {
+        this.left[index >>> chunkShift][index & chunkMask] = left;
+    }
+
+    @Override
+    public int right(int index) {
+        return right[index >>> chunkShift][index & chunkMask];
+    }
+
+    @Override
+    public void right(int index, int right) {
+        this.right[index >>> chunkShift][index & chunkMask] = right;
+    }
+
+    int parent(int index) {
+        return parent[index >>> chunkShift][index & chunkMask];
+    }
+
+    void parent(int index, int parent) {
+        this.parent[index >>> chunkShift][index & chunkMask] = parent;
+    }
+
+    @Override
+    public int height(int index) {
+        return height[index >>> chunkShift][index & chunkMask];
+    }
+
+    @Override
+    public void height(int index, int height) {
+        if (height < Short.MIN_VALUE || height > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Height " + height + " does not fit in a short");
+        }
+        this.height[index >>> chunkShift][index & chunkMask] = (short) height;
+    }
+
+    @Override
+    public int size(int index) {
+        if (!sizeAugmented) {
+            throw new UnsupportedOperationException("Node factory is not size augmented");
+        }
+        return size[index >>> chunkShift][index & chunkMask];
+    }
+
+    @Override
+    public void size(int index, int size) {
+        if (!sizeAugmented) {
+            throw new UnsupportedOperationException("Node factory is not size augmented");
+        }
+        this.size[index >>> chunkShift][index & chunkMask] = size;
+    }
+
+    byte flags(int index) {
+        return flags[index >>> chunkShift][index & chunkMask];
+    }
+
+    void flags(int index, byte flags) {
+        this.flags[index >>> chunkShift][index & chunkMask] = flags;
+    }
+}
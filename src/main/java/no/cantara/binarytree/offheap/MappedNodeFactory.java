@@ -0,0 +1,302 @@
+package no.cantara.binarytree.offheap;
+
+import no.cantara.binarytree.BinaryTree;
+import no.cantara.binarytree.Node;
+import no.cantara.binarytree.NodeFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistent node factory that keeps its node slots in a memory-mapped file, so that a tree can be reopened after a
+ * process restart without rebuilding it. The file starts with a small header holding the root index, the free-list
+ * head and the node count, followed by the slot chunks of an {@link OffHeapNodeFactory}.
+ * <p>
+ * Trees do not notify the factory when their root changes, so the root must be handed to the factory before the header
+ * is written, typically through {@link #force(BinaryTree)}. The file uses the native byte order of the machine that
+ * created it.
+ * <p>
+ * Every {@link #force()} and {@link #close()} is a durability point. Rotations and deletions update the mapped slots in
+ * place, and the operating system may write those pages back at any time, so the header records whether the slots have
+ * been modified since the last durability point: the first slot write after it sets a dirty marker and forces the
+ * header before the slot is touched, and the next durability point clears the marker after forcing the slots. A
+ * process that crashes while no write is pending reopens the state of its last durability point. A file whose dirty
+ * marker is set is considered unrecoverable, opening it fails instead of returning a corrupt tree. Nothing written
+ * after the last durability point survives a crash, so force after every batch of writes that must not be lost.
+ * <pre>
+ * try (MappedNodeFactory factory = MappedNodeFactory.open(path, false, MappedNodeFactory.DEFAULT_SLOTS_PER_CHUNK)) {
+ *     AvlTree tree = new AvlTree(factory, TraversalRange.OPEN, true, factory.root());
+ *     tree.insertNode(42);
+ *     factory.force(tree);
+ * }
+ * </pre>
+ */
+public class MappedNodeFactory extends OffHeapNodeFactory implements Closeable {
+
+    static final int MAGIC = 0x42545245; // "BTRE"
+    static final int VERSION = 1;
+
+    // Header layout, all offsets in bytes
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int SLOT_SIZE_OFFSET = 8;
+    static final int SLOTS_PER_CHUNK_OFFSET = 12;
+    static final int SIZE_AUGMENTED_OFFSET = 16;
+    static final int ROOT_OFFSET = 20;
+    static final int FREE_LIST_HEAD_OFFSET = 24;
+    static final int NODE_COUNT_OFFSET = 28;
+    static final int SLOTS_ALLOCATED_OFFSET = 32;
+    static final int DIRTY_OFFSET = 36;
+    static final int HEADER_SIZE = 64;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> mappedChunks = new ArrayList<>();
+    private int rootIndex = NULL_INDEX;
+
+    private MappedNodeFactory(FileChannel channel, MappedByteBuffer header, boolean sizeAugmented, int slotsPerChunk) {
+        super(sizeAugmented, slotsPerChunk);
+        this.channel = channel;
+        this.header = header;
+    }
+
+    /**
+     * Opens an existing node file, using the slot layout stored in its header.
+     *
+     * @param file the node file
+     * @return the factory
+     * @throws IllegalStateException if the file is not a node file written by this class, or was modified after its
+     *                               last force
+     */
+    public static MappedNodeFactory open(Path file) {
+        if (!Files.exists(file)) {
+            throw new IllegalArgumentException("Node file does not exist: " + file);
+        }
+        FileChannel channel = openChannel(file);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalStateException("Not a node file: " + file);
+            }
+            MappedByteBuffer header = mapHeader(channel);
+            validateHeader(file, header);
+            return reopen(file, channel, header);
+        } catch (IOException e) {
+            closeQuietly(channel, e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            closeQuietly(channel, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the given node file, creating it when it does not exist, is empty, or its creation was interrupted before
+     * the header was complete.
+     *
+     * @param file          the node file
+     * @param sizeAugmented whether subtree sizes are maintained, see {@link NodeFactory#sizeAugmented()}
+     * @param slotsPerChunk number of node slots in every mapped chunk, must be a power of two
+     * @return the factory
+     * @throws IllegalStateException if an existing file was created with a different slot layout, or was modified
+     *                               after its last force
+     */
+    public static MappedNodeFactory open(Path file, boolean sizeAugmented, int slotsPerChunk) {
+        FileChannel channel = openChannel(file);
+        try {
+            if (isUninitialized(channel)) {
+                MappedByteBuffer header = mapHeader(channel);
+                MappedNodeFactory factory = new MappedNodeFactory(channel, header, sizeAugmented, slotsPerChunk);
+                header.putInt(VERSION_OFFSET, VERSION);
+                header.putInt(SLOT_SIZE_OFFSET, SLOT_SIZE);
+                header.putInt(SLOTS_PER_CHUNK_OFFSET, slotsPerChunk);
+                header.put(SIZE_AUGMENTED_OFFSET, (byte) (sizeAugmented ? 1 : 0));
+                factory.writeHeader();
+                header.force();
+                // the magic number is written last, so a file whose creation was interrupted is recognised as such
+                header.putInt(MAGIC_OFFSET, MAGIC);
+                header.force();
+                factory.clean = true;
+                return factory;
+            }
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalStateException("Not a node file: " + file);
+            }
+            MappedByteBuffer header = mapHeader(channel);
+            validateHeader(file, header);
+            if (header.getInt(SLOTS_PER_CHUNK_OFFSET) != slotsPerChunk || (header.get(SIZE_AUGMENTED_OFFSET) != 0) != sizeAugmented) {
+                throw new IllegalStateException("Node file " + file + " was created with slotsPerChunk="
+                        + header.getInt(SLOTS_PER_CHUNK_OFFSET) + " and sizeAugmented=" + (header.get(SIZE_AUGMENTED_OFFSET) != 0));
+            }
+            return reopen(file, channel, header);
+        } catch (IOException e) {
+            closeQuietly(channel, e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            closeQuietly(channel, e);
+            throw e;
+        }
+    }
+
+    private static MappedNodeFactory reopen(Path file, FileChannel channel, MappedByteBuffer header) {
+        if (header.get(DIRTY_OFFSET) != 0) {
+            throw new IllegalStateException("Node file was modified after its last force and cannot be recovered: " + file);
+        }
+        MappedNodeFactory factory = new MappedNodeFactory(channel, header, header.get(SIZE_AUGMENTED_OFFSET) != 0, header.getInt(SLOTS_PER_CHUNK_OFFSET));
+        factory.rootIndex = header.getInt(ROOT_OFFSET);
+        factory.freeListHead = header.getInt(FREE_LIST_HEAD_OFFSET);
+        factory.nodeCount = header.getInt(NODE_COUNT_OFFSET);
+        factory.slotsAllocated = header.getInt(SLOTS_ALLOCATED_OFFSET);
+        if (factory.slotsAllocated > 0) {
+            factory.ensureChunk((factory.slotsAllocated - 1) >>> Integer.numberOfTrailingZeros(header.getInt(SLOTS_PER_CHUNK_OFFSET)));
+        }
+        factory.clean = true;
+        return factory;
+    }
+
+    private static void validateHeader(Path file, ByteBuffer header) {
+        if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IllegalStateException("Not a node file, or written with a different byte order: " + file);
+        }
+        if (header.getInt(VERSION_OFFSET) != VERSION || header.getInt(SLOT_SIZE_OFFSET) != SLOT_SIZE) {
+            throw new IllegalStateException("Unsupported node file version " + header.getInt(VERSION_OFFSET) + ": " + file);
+        }
+    }
+
+    /**
+     * A file is uninitialized when it is empty, or when it only holds a header whose magic number was never written
+     * because the process stopped while creating it.
+     */
+    private static boolean isUninitialized(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return true;
+        }
+        if (size != HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.nativeOrder());
+        while (magic.hasRemaining() && channel.read(magic, MAGIC_OFFSET + magic.position()) >= 0) {
+            // read the whole magic number
+        }
+        return !magic.hasRemaining() && magic.getInt(0) == 0;
+    }
+
+    private static FileChannel openChannel(Path file) {
+        try {
+            return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MappedByteBuffer mapHeader(FileChannel channel) {
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(ByteOrder.nativeOrder());
+            return header;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel, Exception cause) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    @Override
+    protected ByteBuffer allocateChunk(int chunkIndex, int capacity) {
+        try {
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (long) chunkIndex * capacity, capacity);
+            mappedChunks.add(chunk);
+            return chunk;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the root node stored in the header, or <code>null</code> if the tree is empty
+     */
+    public Node root() {
+        return node(rootIndex);
+    }
+
+    /**
+     * Sets the root node to store in the header on the next {@link #force()}.
+     *
+     * @param root the root node of the tree, may be <code>null</code>
+     * @return this factory
+     */
+    public MappedNodeFactory root(Node root) {
+        this.rootIndex = indexOf(root);
+        return this;
+    }
+
+    /**
+     * Stores the root of the given tree in the header and forces all changes to the file.
+     *
+     * @param tree a tree built with this factory
+     */
+    public void force(BinaryTree tree) {
+        root(tree.getRoot());
+        force();
+    }
+
+    /**
+     * Writes the header and forces all changes to the node slots and the header to the file. The file reopens in this
+     * state after a crash that happens before the next slot write, see the class documentation.
+     */
+    public void force() {
+        for (MappedByteBuffer chunk : mappedChunks) {
+            chunk.force();
+        }
+        writeHeader();
+        header.force();
+        // the marker is only cleared once the slots and the header describing them are on disk
+        header.put(DIRTY_OFFSET, (byte) 0);
+        header.force();
+        clean = true;
+    }
+
+    @Override
+    void markDirty() {
+        super.markDirty();
+        header.put(DIRTY_OFFSET, (byte) 1);
+        header.force();
+    }
+
+    private void writeHeader() {
+        header.putInt(ROOT_OFFSET, rootIndex);
+        header.putInt(FREE_LIST_HEAD_OFFSET, freeListHead);
+        header.putInt(NODE_COUNT_OFFSET, nodeCount);
+        header.putInt(SLOTS_ALLOCATED_OFFSET, slotsAllocated);
+    }
+
+    /**
+     * Forces all changes to the file and closes it. The root must have been handed to the factory before closing, see
+     * {@link #root(Node)}.
+     */
+    @Override
+    public void close() {
+        force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
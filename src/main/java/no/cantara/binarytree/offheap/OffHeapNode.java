@@ -0,0 +1,142 @@
+package no.cantara.binarytree.offheap;
+
+import no.cantara.binarytree.Node;
+
+import static no.cantara.binarytree.offheap.OffHeapNodeFactory.COLOR_FLAG;
+import static no.cantara.binarytree.offheap.OffHeapNodeFactory.DATA_OFFSET;
+import static no.cantara.binarytree.offheap.OffHeapNodeFactory.FLAGS_OFFSET;
+import static no.cantara.binarytree.offheap.OffHeapNodeFactory.HEIGHT_OFFSET;
+import static no.cantara.binarytree.offheap.OffHeapNodeFactory.LEFT_OFFSET;
+import static no.cantara.binarytree.offheap.OffHeapNodeFactory.NIL_FLAG;
+import static no.cantara.binarytree.offheap.OffHeapNodeFactory.PARENT_OFFSET;
+import static no.cantara.binarytree.offheap.OffHeapNodeFactory.RIGHT_OFFSET;
+import static no.cantara.binarytree.offheap.OffHeapNodeFactory.SIZE_OFFSET;
+
+/**
+ * Flyweight view of a node stored in an {@link OffHeapNodeFactory} slot. Instances are created on demand and carry no
+ * state besides the slot index, two views of the same slot are equal.
+ */
+final class OffHeapNode implements Node {
+
+  private final OffHeapNodeFactory factory;
+  final int index;
+
+  OffHeapNode(OffHeapNodeFactory factory, int index) {
+    this.factory = factory;
+    this.index = index;
+  }
+
+  @Override
+  public long data() {
+    return factory.getLong(index, DATA_OFFSET);
+  }
+
+  @Override
+  public Node data(long data) {
+    factory.putLong(index, DATA_OFFSET, data);
+    return this;
+  }
+
+  @Override
+  public Node left() {
+    return factory.node(factory.getInt(index, LEFT_OFFSET));
+  }
+
+  @Override
+  public Node left(Node left) {
+    factory.putInt(index, LEFT_OFFSET, factory.indexOf(left));
+    return this;
+  }
+
+  @Override
+  public Node right() {
+    return factory.node(factory.getInt(index, RIGHT_OFFSET));
+  }
+
+  @Override
+  public Node right(Node right) {
+    factory.putInt(index, RIGHT_OFFSET, factory.indexOf(right));
+    return this;
+  }
+
+  @Override
+  public Node parent() {
+    return factory.node(factory.getInt(index, PARENT_OFFSET));
+  }
+
+  @Override
+  public Node parent(Node parent) {
+    factory.putInt(index, PARENT_OFFSET, factory.indexOf(parent));
+    return this;
+  }
+
+  @Override
+  public int height() {
+    return factory.getInt(index, HEIGHT_OFFSET);
+  }
+
+  @Override
+  public Node height(int height) {
+    factory.putInt(index, HEIGHT_OFFSET, height);
+    return this;
+  }
+
+  @Override
+  public boolean color() {
+    return (factory.getByte(index, FLAGS_OFFSET) & COLOR_FLAG) != 0;
+  }
+
+  @Override
+  public Node color(boolean color) {
+    byte flags = factory.getByte(index, FLAGS_OFFSET);
+    factory.putByte(index, FLAGS_OFFSET, (byte) (color ? flags | COLOR_FLAG : flags & ~COLOR_FLAG));
+    return this;
+  }
+
+  @Override
+  public int size() {
+    return factory.getInt(index, SIZE_OFFSET);
+  }
+
+  @Override
+  public Node size(int size) {
+    factory.putInt(index, SIZE_OFFSET, size);
+    return this;
+  }
+
+  @Override
+  public boolean isNil() {
+    return (factory.getByte(index, FLAGS_OFFSET) & NIL_FLAG) != 0;
+  }
+
+  @Override
+  public void delete() {
+    factory.freeSlot(index);
+  }
+
+  @Override
+  public void copyNonNavigableStateFrom(Node source) {
+    // nothing to do, a slot holds navigable state only
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof OffHeapNode other)) {
+      return false;
+    }
+    return index == other.index && factory == other.factory;
+  }
+
+  @Override
+  public int hashCode() {
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    return "OffHeapNode{index=" + index + ", data=" + data() + '}';
+  }
+}
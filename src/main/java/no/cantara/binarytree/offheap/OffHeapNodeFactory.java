@@ -0,0 +1,290 @@
+package no.cantara.binarytree.offheap;
+
+import no.cantara.binarytree.IndexedNodeFactory;
+import no.cantara.binarytree.Node;
+import no.cantara.binarytree.NodeFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Node factory that stores all node state in fixed-size slots of native memory outside the Java heap. Child and parent
+ * pointers are stored as <code>int</code> slot indices, and the nodes handed out are lightweight flyweight views of a
+ * slot. Deleted nodes return their slot to a free list so that it can be reused by later insertions.
+ * <p>
+ * The arena consists of direct {@link ByteBuffer} chunks that are allocated on demand, so the arena never has to be
+ * copied when it grows. A factory instance is not thread-safe, use one factory per tree.
+ */
+public class OffHeapNodeFactory implements IndexedNodeFactory {
+
+    public static final int DEFAULT_SLOTS_PER_CHUNK = 1 << 16;
+
+    // Slot layout, all offsets in bytes
+    static final int DATA_OFFSET = 0;
+    static final int LEFT_OFFSET = 8;
+    static final int RIGHT_OFFSET = 12;
+    static final int PARENT_OFFSET = 16;
+    static final int HEIGHT_OFFSET = 20;
+    static final int SIZE_OFFSET = 24;
+    static final int FLAGS_OFFSET = 28;
+    static final int SLOT_SIZE = 32;
+
+    static final byte COLOR_FLAG = 1;
+    static final byte NIL_FLAG = 2;
+    static final byte FREE_FLAG = 4;
+
+    private static final int INITIAL_HEIGHT = -1000; // same sentinel as the pojo implementation
+
+    private final boolean sizeAugmented;
+    private final int chunkShift;
+    private final int chunkMask;
+
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    int slotsAllocated; // slots in use or on the free list
+    int freeListHead = NULL_INDEX;
+    int nodeCount; // slots in use
+    boolean clean; // slots unchanged since a subclass last persisted them, the next slot write calls markDirty()
+
+    public OffHeapNodeFactory() {
+        this(false);
+    }
+
+    public OffHeapNodeFactory(boolean sizeAugmented) {
+        this(sizeAugmented, DEFAULT_SLOTS_PER_CHUNK);
+    }
+
+    /**
+     * @param sizeAugmented whether subtree sizes are maintained, see {@link NodeFactory#sizeAugmented()}
+     * @param slotsPerChunk number of node slots in every native memory chunk, must be a power of two
+     */
+    public OffHeapNodeFactory(boolean sizeAugmented, int slotsPerChunk) {
+        if (slotsPerChunk <= 0 || Integer.bitCount(slotsPerChunk) != 1 || slotsPerChunk > Integer.MAX_VALUE / SLOT_SIZE) {
+            throw new IllegalArgumentException("slotsPerChunk must be a power of two and fit in a single buffer: " + slotsPerChunk);
+        }
+        this.sizeAugmented = sizeAugmented;
+        this.chunkShift = Integer.numberOfTrailingZeros(slotsPerChunk);
+        this.chunkMask = slotsPerChunk - 1;
+    }
+
+    @Override
+    public Node createNode(long data) {
+        return new OffHeapNode(this, allocate(data));
+    }
+
+    @Override
+    public int allocate(long data) {
+        int index = allocateSlot();
+        initSlot(index, data, (byte) 0, 1);
+        return index;
+    }
+
+    @Override
+    public Node nilNode() {
+        int index = allocateSlot();
+        initSlot(index, 0, (byte) (NIL_FLAG | COLOR_FLAG), 0); // nil nodes are black
+        return new OffHeapNode(this, index);
+    }
+
+    @Override
+    public boolean sizeAugmented() {
+        return sizeAugmented;
+    }
+
+    /**
+     * Returns a flyweight view of the node stored in the given slot.
+     *
+     * @param index the slot index
+     * @return the node or <code>null</code> if index is {@link #NULL_INDEX}
+     */
+    @Override
+    public Node node(int index) {
+        if (index == NULL_INDEX) {
+            return null;
+        }
+        return new OffHeapNode(this, index);
+    }
+
+    /**
+     * @return the number of live nodes, i.e. nodes that have been created and not yet deleted
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the number of bytes of native memory currently reserved by this factory
+     */
+    public long reservedBytes() {
+        return (long) chunks.length * slotBytesPerChunk();
+    }
+
+    private int slotBytesPerChunk() {
+        return (chunkMask + 1) * SLOT_SIZE;
+    }
+
+    /**
+     * Allocates the native memory backing the chunk with the given index. Override to change where node slots are
+     * stored.
+     *
+     * @param chunkIndex the index of the chunk to allocate
+     * @param capacity   the chunk capacity in bytes
+     * @return a buffer of at least the given capacity
+     */
+    protected ByteBuffer allocateChunk(int chunkIndex, int capacity) {
+        return ByteBuffer.allocateDirect(capacity);
+    }
+
+    int allocateSlot() {
+        int index;
+        if (freeListHead != NULL_INDEX) {
+            index = freeListHead;
+            freeListHead = getInt(index, LEFT_OFFSET); // free slots are linked through the left pointer
+        } else {
+            if (slotsAllocated == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Off-heap arena is full");
+            }
+            index = slotsAllocated++;
+            ensureChunk(index >>> chunkShift);
+        }
+        nodeCount++;
+        return index;
+    }
+
+    void freeSlot(int index) {
+        byte flags = getByte(index, FLAGS_OFFSET);
+        if ((flags & FREE_FLAG) != 0) {
+            throw new IllegalStateException("Node in slot " + index + " has already been deleted");
+        }
+        // data is kept so that a deleted node can still report its key to the caller of deleteNode
+        putByte(index, FLAGS_OFFSET, (byte) (flags | FREE_FLAG));
+        putInt(index, LEFT_OFFSET, freeListHead);
+        freeListHead = index;
+        nodeCount--;
+    }
+
+    /**
+     * Called before the first slot write after a subclass has set {@link #clean}. Subclasses override this to record
+     * that their persisted copy of the slots is about to become stale.
+     */
+    void markDirty() {
+        clean = false;
+    }
+
+    private void initSlot(int index, long data, byte flags, int size) {
+        if (clean) {
+            markDirty();
+        }
+        ByteBuffer chunk = chunk(index);
+        int offset = offset(index);
+        chunk.putLong(offset + DATA_OFFSET, data);
+        chunk.putInt(offset + LEFT_OFFSET, NULL_INDEX);
+        chunk.putInt(offset + RIGHT_OFFSET, NULL_INDEX);
+        chunk.putInt(offset + PARENT_OFFSET, NULL_INDEX);
+        chunk.putInt(offset + HEIGHT_OFFSET, INITIAL_HEIGHT);
+        chunk.putInt(offset + SIZE_OFFSET, size);
+        chunk.put(offset + FLAGS_OFFSET, flags);
+    }
+
+    void ensureChunk(int chunkIndex) {
+        if (chunkIndex < chunks.length) {
+            return;
+        }
+        ByteBuffer[] newChunks = Arrays.copyOf(chunks, chunkIndex + 1);
+        for (int i = chunks.length; i < newChunks.length; i++) {
+            newChunks[i] = allocateChunk(i, slotBytesPerChunk()).order(ByteOrder.nativeOrder());
+        }
+        chunks = newChunks;
+    }
+
+    private ByteBuffer chunk(int index) {
+        return chunks[index >>> chunkShift];
+    }
+
+    private int offset(int index) {
+        return (index & chunkMask) * SLOT_SIZE;
+    }
+
+    long getLong(int index, int field) {
+        return chunk(index).getLong(offset(index) + field);
+    }
+
+    void putLong(int index, int field, long value) {
+        if (clean) {
+            markDirty();
+        }
+        chunk(index).putLong(offset(index) + field, value);
+    }
+
+    int getInt(int index, int field) {
+        return chunk(index).getInt(offset(index) + field);
+    }
+
+    void putInt(int index, int field, int value) {
+        if (clean) {
+            markDirty();
+        }
+        chunk(index).putInt(offset(index) + field, value);
+    }
+
+    byte getByte(int index, int field) {
+        return chunk(index).get(offset(index) + field);
+    }
+
+    void putByte(int index, int field, byte value) {
+        if (clean) {
+            markDirty();
+        }
+        chunk(index).put(offset(index) + field, value);
+    }
+
+    @Override
+    public int indexOf(Node node) {
+        return node != null ? ((OffHeapNode) node).index : NULL_INDEX;
+    }
+
+    @Override
+    public long data(int index) {
+        return getLong(index, DATA_OFFSET);
+    }
+
+    @Override
+    public int left(int index) {
+        return getInt(index, LEFT_OFFSET);
+    }
+
+    @Override
+    public void left(int index, int left) {
+        putInt(index, LEFT_OFFSET, left);
+    }
+
+    @Override
+    public int right(int index) {
+        return getInt(index, RIGHT_OFFSET);
+    }
+
+    @Override
+    public void right(int index, int right) {
+        putInt(index, RIGHT_OFFSET, right);
+    }
+
+    @Override
+    public int height(int index) {
+        return getInt(index, HEIGHT_OFFSET);
+    }
+
+    @Override
+    public void height(int index, int height) {
+        putInt(index, HEIGHT_OFFSET, height);
+    }
+
+    @Override
+    public int size(int index) {
+        return getInt(index, SIZE_OFFSET);
+    }
+
+    @Override
+    public void size(int index, int size) {
+        putInt(index, SIZE_OFFSET, size);
+    }
+}
@@ -19,6 +19,7 @@ class PojoNode implements Node {
 
   private int height = -1000; // used in AVL tree, defaults to a value that will not be seen in real use to easily identify whether it has been updated.
   private boolean color; // used in red-black tree
+  private int size = 1; // used in size augmented trees, a new node is the only node in its own subtree
 
   /**
    * Constructs a new node with the given data.
@@ -95,6 +96,17 @@ class PojoNode implements Node {
     return this;
   }
 
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public PojoNode size(int size) {
+    this.size = size;
+    return this;
+  }
+
   @Override
   public boolean isNil() {
     return false;
@@ -5,7 +5,24 @@ import no.cantara.binarytree.NodeFactory;
 
 public class PojoNodeFactory implements NodeFactory {
 
+    private final boolean sizeAugmented;
+
     public PojoNodeFactory() {
+        this(false);
+    }
+
+    public PojoNodeFactory(boolean sizeAugmented) {
+        this.sizeAugmented = sizeAugmented;
+    }
+
+    @Override
+    public boolean sizeAugmented() {
+        return sizeAugmented;
+    }
+
+    @Override
+    public boolean threadSafe() {
+        return true;
     }
 
     @Override
@@ -22,6 +39,7 @@ public class PojoNodeFactory implements NodeFactory {
         private PojoNilNode() {
             super(0);
             this.color(Node.BLACK);
+            this.size(0);
         }
 
         @Override
@@ -0,0 +1,11 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.array.ArrayNodeFactory;
+
+class AvlTreeArrayTest extends AvlTreeTest {
+
+    @Override
+    protected BinarySearchTree createBST() {
+        return new AvlTree(new ArrayNodeFactory(false, 64));
+    }
+}
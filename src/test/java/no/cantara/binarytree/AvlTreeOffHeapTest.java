@@ -0,0 +1,11 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.offheap.OffHeapNodeFactory;
+
+class AvlTreeOffHeapTest extends AvlTreeTest {
+
+    @Override
+    protected BinarySearchTree createBST() {
+        return new AvlTree(new OffHeapNodeFactory(false, 64));
+    }
+}
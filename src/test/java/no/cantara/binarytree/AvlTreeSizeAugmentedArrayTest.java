@@ -0,0 +1,11 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.array.ArrayNodeFactory;
+
+class AvlTreeSizeAugmentedArrayTest extends AvlTreeSizeAugmentedTest {
+
+    @Override
+    protected BinarySearchTree createBST() {
+        return new AvlTree(new ArrayNodeFactory(true, 64));
+    }
+}
@@ -0,0 +1,111 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.pojo.PojoNodeFactory;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static no.cantara.binarytree.BinaryTreeAssert.assertThatTree;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvlTreeSizeAugmentedTest extends BinarySearchTreeTest {
+
+    @Override
+    protected BinarySearchTree createBST() {
+        return new AvlTree(new PojoNodeFactory(true));
+    }
+
+    @Override
+    protected void assertSpecificTreeInvariants(BinarySearchTree tree) {
+        assertThatTree(tree).hasSubtreeSizesSetCorrectly();
+    }
+
+    @RepeatedTest(20)
+    void sizeRankAndSelectMatchSortedKeys() {
+        List<Long> keysOrdered = createSparseOrderedSequenceOfKeys();
+        AvlTree tree = (AvlTree) createBST();
+        insertKeysInRandomOrder(tree, keysOrdered);
+
+        assertEquals(keysOrdered.size(), tree.size());
+        for (int i = 0; i < keysOrdered.size(); i++) {
+            long key = keysOrdered.get(i);
+            assertEquals(i, tree.rank(key));
+            assertEquals(i + 1, tree.rank(key + 1));
+            assertEquals(key, tree.select(i).data());
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.select(keysOrdered.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.select(-1));
+    }
+
+    @RepeatedTest(20)
+    void subMapSizeRankAndSelectRespectRange() {
+        List<Long> keysOrdered = createSparseOrderedSequenceOfKeys();
+        AvlTree tree = (AvlTree) createBST();
+        insertKeysInRandomOrder(tree, keysOrdered);
+        TreeSet<Long> expected = new TreeSet<>(keysOrdered);
+
+        long max = keysOrdered.get(keysOrdered.size() - 1) + 2;
+        for (int i = 0; i < 20; i++) {
+            long from = ThreadLocalRandom.current().nextLong(-1, max);
+            long to = ThreadLocalRandom.current().nextLong(from, max + 1);
+            boolean fromInclusive = ThreadLocalRandom.current().nextBoolean();
+            boolean toInclusive = ThreadLocalRandom.current().nextBoolean();
+
+            AbstractBinarySearchTree subMap = tree.subMap(from, fromInclusive, to, toInclusive);
+            NavigableSet<Long> expectedSubSet = expected.subSet(from, fromInclusive, to, toInclusive);
+            assertEquals(expectedSubSet.size(), subMap.size());
+            assertEquals(expectedSubSet.isEmpty(), subMap.isEmpty());
+            assertEquals(expectedSubSet.size(), subMap.keySet().size());
+            assertEquals(expectedSubSet.size(), subMap.keys().spliterator().getExactSizeIfKnown());
+            assertEquals(expectedSubSet.size(), subMap.descendingKeys().count());
+            assertEquals(expectedSubSet.size(), sumOfSplitSizes(subMap.keySet().spliterator()));
+
+            int index = 0;
+            for (Long key : expectedSubSet) {
+                assertEquals(index, subMap.rank(key));
+                assertEquals(key, subMap.select(index).data());
+                index++;
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> subMap.select(expectedSubSet.size()));
+        }
+    }
+
+    @Test
+    void rankAndSelectRequireSizeAugmentedFactory() {
+        AvlTree tree = new AvlTree(NodeFactory.defaultFactory());
+        tree.insertNode(1);
+        assertThrows(UnsupportedOperationException.class, () -> tree.rank(1));
+        assertThrows(UnsupportedOperationException.class, () -> tree.select(0));
+        assertEquals(1, tree.size());
+        assertTrue(tree.headMap(1L).isEmpty());
+    }
+
+    private List<Long> createSparseOrderedSequenceOfKeys() {
+        return createOrderedSequenceOfKeys().stream().map(key -> key * 3).toList();
+    }
+
+    /**
+     * Splits recursively and checks that every part reports the exact number of keys it yields.
+     */
+    private static long sumOfSplitSizes(Spliterator.OfLong spliterator) {
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        long size = spliterator.getExactSizeIfKnown();
+        Spliterator.OfLong prefix = spliterator.trySplit();
+        if (prefix == null) {
+            long[] count = new long[1];
+            spliterator.forEachRemaining((long key) -> count[0]++);
+            assertEquals(size, count[0]);
+            return size;
+        }
+        long sum = sumOfSplitSizes(prefix) + sumOfSplitSizes(spliterator);
+        assertEquals(size, sum);
+        return sum;
+    }
+}
@@ -6,11 +6,13 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
 import java.util.TreeSet;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
 
 import static no.cantara.binarytree.BinaryTreeAssert.assertThatTree;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class AvlTreeTest extends BinarySearchTreeTest {
@@ -22,42 +24,9 @@ class AvlTreeTest extends BinarySearchTreeTest {
 
     @Override
     protected void assertSpecificTreeInvariants(BinarySearchTree tree) {
-        validateAVLInvariant(tree.getRoot());
+        assertThatTree(tree).isAvlBalanced();
     }
 
-    private void validateAVLInvariant(Node node) {
-        if (node == null) return;
-
-        int leftHeight = node.left() != null ? node.left().height() : -1;
-        int rightHeight = node.right() != null ? node.right().height() : -1;
-
-        validateHeight(node, leftHeight, rightHeight);
-        validateBalanceFactor(node, leftHeight, rightHeight);
-
-        // Validate AVL invariant for children (recursion)
-        validateAVLInvariant(node.left());
-        validateAVLInvariant(node.right());
-    }
-
-    private void validateHeight(Node node, int leftHeight, int rightHeight) {
-        int expectedHeight = 1 + Math.max(leftHeight, rightHeight);
-        if (node.height() != expectedHeight) {
-            throw new AssertionError(
-                    "Height of node %d is %d (expected: %d)"
-                            .formatted(node.data(), node.height(), expectedHeight));
-        }
-    }
-
-    private void validateBalanceFactor(Node node, int leftHeight, int rightHeight) {
-        int bf = rightHeight - leftHeight;
-        if (bf < -1 || bf > 1) {
-            throw new AssertionError(
-                    "Balance factor (bf) of node %d is %d (expected: -1 <= bf <= 1)"
-                            .formatted(node.data(), bf));
-        }
-    }
-
-
     @Test
     void deleteSpecificComplexTestThatIsEasyToReasonInDetailAbout() {
         SimpleBinaryTree tree = new SimpleBinaryTree(NodeFactory.defaultFactory());
@@ -250,4 +219,24 @@ class AvlTreeTest extends BinarySearchTreeTest {
 
         assertEquals(List.of(5L, 4L), tree.subMap(2L, 6L).descendingMap().subMap(4L, 10L).keySet().stream().toList());
     }
+
+    @Test
+    void spliteratorSplitsAtSubtreeBoundaries() {
+        AvlTree tree = new AvlTree(NodeFactory.defaultFactory());
+        for (long key = 0; key < 1000; key++) {
+            tree.insertNode(key);
+        }
+
+        Spliterator.OfLong suffix = tree.keySet().spliterator();
+        Spliterator.OfLong prefix = suffix.trySplit();
+        assertThat(prefix, Matchers.notNullValue());
+        List<Long> keys = new ArrayList<>();
+        prefix.forEachRemaining((LongConsumer) keys::add);
+        int prefixSize = keys.size();
+        suffix.forEachRemaining((LongConsumer) keys::add);
+        assertEquals(LongStream.range(0, 1000).boxed().toList(), keys);
+        assertThat(prefixSize, Matchers.greaterThan(250));
+        assertThat(prefixSize, Matchers.lessThan(750));
+        assertThat(suffix.trySplit(), Matchers.nullValue());
+    }
 }
@@ -0,0 +1,18 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.array.ArrayNodeFactory;
+
+import static no.cantara.binarytree.BinaryTreeAssert.assertThatTree;
+
+class BinarySearchTreeIterativeArrayTest extends BinarySearchTreeTest {
+
+  @Override
+  protected BinarySearchTree createBST() {
+    return new BinarySearchTreeIterative(new ArrayNodeFactory(true, 64));
+  }
+
+  @Override
+  protected void assertSpecificTreeInvariants(BinarySearchTree tree) {
+    assertThatTree(tree).hasSubtreeSizesSetCorrectly();
+  }
+}
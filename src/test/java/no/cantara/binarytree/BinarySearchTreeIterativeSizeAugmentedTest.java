@@ -0,0 +1,18 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.pojo.PojoNodeFactory;
+
+import static no.cantara.binarytree.BinaryTreeAssert.assertThatTree;
+
+class BinarySearchTreeIterativeSizeAugmentedTest extends BinarySearchTreeTest {
+
+  @Override
+  protected BinarySearchTree createBST() {
+    return new BinarySearchTreeIterative(new PojoNodeFactory(true));
+  }
+
+  @Override
+  protected void assertSpecificTreeInvariants(BinarySearchTree tree) {
+    assertThatTree(tree).hasSubtreeSizesSetCorrectly();
+  }
+}
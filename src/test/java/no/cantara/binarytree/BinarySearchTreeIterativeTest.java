@@ -1,11 +1,17 @@
 package no.cantara.binarytree;
 
+import no.cantara.binarytree.pojo.PojoNodeFactory;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static no.cantara.binarytree.BinaryTreeAssert.assertThatTree;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class BinarySearchTreeIterativeTest extends BinarySearchTreeTest {
 
@@ -15,6 +21,44 @@ class BinarySearchTreeIterativeTest extends BinarySearchTreeTest {
   }
 
 
+  @Test
+  void deleteRangeHandlesDegenerateTrees() {
+    BinarySearchTreeIterative tree = new BinarySearchTreeIterative(new PojoNodeFactory(true));
+    for (long key = 0; key < 10_000; key++) {
+      tree.insertNode(key);
+    }
+
+    tree.deleteRange(1_000, true, 9_000, false);
+
+    assertThat(tree.size(), is(2_000));
+    assertThat(tree.containsKey(999L), is(true));
+    assertThat(tree.containsKey(1_000L), is(false));
+    assertThat(tree.containsKey(8_999L), is(false));
+    assertThat(tree.containsKey(9_000L), is(true));
+    assertThat(tree.rank(9_000L), is(1_000));
+  }
+
+  @Test
+  void iteratorsHandleDegenerateTrees() {
+    BinarySearchTreeIterative tree = new BinarySearchTreeIterative(NodeFactory.defaultFactory());
+    for (long key = 10_000; key > 0; key--) {
+      tree.insertNode(key);
+    }
+
+    Iterator<Long> keys = tree.keySet().iterator();
+    for (long key = 1; key <= 10_000; key++) {
+      assertThat(keys.next(), is(key));
+    }
+    assertThat(keys.hasNext(), is(false));
+    assertThrows(NoSuchElementException.class, keys::next);
+
+    Iterator<Long> descendingKeys = tree.tailMap(5_000L, false).descendingKeySet().iterator();
+    for (long key = 10_000; key > 5_000; key--) {
+      assertThat(descendingKeys.next(), is(key));
+    }
+    assertThat(descendingKeys.hasNext(), is(false));
+  }
+
   @Test
   void deleteSpecificComplexTestThatIsEasyToReasonInDetailAbout() {
     SimpleBinaryTree tree = new SimpleBinaryTree(NodeFactory.defaultFactory());
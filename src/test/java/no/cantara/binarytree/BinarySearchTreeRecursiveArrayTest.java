@@ -0,0 +1,11 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.array.ArrayNodeFactory;
+
+class BinarySearchTreeRecursiveArrayTest extends BinarySearchTreeTest {
+
+  @Override
+  protected BinarySearchTree createBST() {
+    return new BinarySearchTreeRecursive(new ArrayNodeFactory(false, 64));
+  }
+}
@@ -1,11 +1,16 @@
 package no.cantara.binarytree;
 
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PrimitiveIterator;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.LongStream;
 
@@ -14,6 +19,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 abstract class BinarySearchTreeTest {
 
@@ -128,6 +134,542 @@ abstract class BinarySearchTreeTest {
     assertSpecificTreeInvariants(tree);
   }
 
+  @RepeatedTest(20)
+  void bulkLoadShouldCreateAValidBSTThatSupportsFurtherUpdates() {
+    List<Long> keysOrdered = createOrderedSequenceOfKeys();
+
+    var tree = createBST();
+    assumeTrue(bulkLoad(tree, keysOrdered, ThreadLocalRandom.current().nextBoolean()), "Tree does not support bulk load");
+
+    assertThatTree(tree)
+        .isValid()
+        .hasKeysInGivenOrder(keysOrdered);
+
+    assertSpecificTreeInvariants(tree);
+
+    Long highestKey = keysOrdered.get(keysOrdered.size() - 1);
+    tree.insertNode(highestKey + 1);
+    tree.deleteNode(keysOrdered.get(0));
+    List<Long> keysRemaining = new ArrayList<>(keysOrdered.subList(1, keysOrdered.size()));
+    keysRemaining.add(highestKey + 1);
+
+    assertThatTree(tree)
+        .isValid()
+        .hasKeysInGivenOrder(keysRemaining);
+
+    assertSpecificTreeInvariants(tree);
+  }
+
+  @RepeatedTest(10)
+  void bulkLoadShouldRejectUnorderedKeysAndNonEmptyTrees() {
+    var tree = createBST();
+    assumeTrue(bulkLoad(tree, List.of(), false), "Tree does not support bulk load");
+    assertThat(tree.getRoot(), is(nullValue()));
+
+    List<Long> duplicateKeys = List.of(1L, 2L, 2L, 3L);
+    assertThrows(IllegalArgumentException.class, () -> bulkLoad(tree, duplicateKeys, false));
+    assertThrows(IllegalArgumentException.class, () -> bulkLoad(tree, duplicateKeys, true));
+    assertThat(tree.getRoot(), is(nullValue()));
+
+    tree.insertNode(1);
+    assertThrows(IllegalStateException.class, () -> bulkLoad(tree, List.of(2L), false));
+  }
+
+  @Test
+  void parallelBulkLoadShouldCreateAValidBSTWithKeysInOrder() {
+    List<Long> keysOrdered = LongStream.range(0, 5 * BalancedTreeBuilder.PARALLEL_THRESHOLD + 7).map(i -> 3 * i).boxed().toList();
+    long[] keys = keysOrdered.stream().mapToLong(Long::longValue).toArray();
+
+    var tree = createBST();
+    assumeTrue(parallelBulkLoad(tree, keys), "Tree does not support bulk load");
+
+    assertThatTree(tree)
+        .isValid()
+        .hasKeysInGivenOrder(keysOrdered);
+
+    assertSpecificTreeInvariants(tree);
+
+    long[] unorderedKeys = keys.clone();
+    unorderedKeys[3 * BalancedTreeBuilder.PARALLEL_THRESHOLD] = unorderedKeys[3 * BalancedTreeBuilder.PARALLEL_THRESHOLD - 1];
+    var otherTree = createBST();
+    assertThrows(IllegalArgumentException.class, () -> parallelBulkLoad(otherTree, unorderedKeys));
+  }
+
+  @RepeatedTest(20)
+  void splitAndJoinShouldKeepTheTreesValid() {
+    List<Long> keysOrdered = createOrderedSequenceOfKeys();
+
+    var tree = createBST();
+    assumeTrue(supportsJoin(tree), "Tree does not support split and join");
+    insertKeysInRandomOrder(tree, keysOrdered);
+
+    long splitKey = ThreadLocalRandom.current().nextLong(-1, keysOrdered.size() + 1);
+    var right = split(tree, splitKey);
+
+    List<Long> keysLeft = keysOrdered.stream().filter(key -> key < splitKey).toList();
+    List<Long> keysRight = keysOrdered.stream().filter(key -> key >= splitKey).toList();
+    assertThatTree(tree).isValid().hasKeysInGivenOrder(keysLeft);
+    assertSpecificTreeInvariants(tree);
+    assertThatTree(right).isValid().hasKeysInGivenOrder(keysRight);
+    assertSpecificTreeInvariants(right);
+
+    if (!keysRight.isEmpty()) {
+      right.deleteNode(keysRight.get(0));
+      var joined = join(tree, keysRight.get(0), right);
+      assertThatTree(joined).isValid().hasKeysInGivenOrder(keysOrdered);
+      assertSpecificTreeInvariants(joined);
+      assertThat(tree.getRoot(), is(nullValue()));
+      assertThat(right.getRoot(), is(nullValue()));
+
+      var otherTree = split(joined, Long.MIN_VALUE);
+      assertThrows(IllegalArgumentException.class, () -> join(otherTree, keysOrdered.get(0), joined));
+    }
+  }
+
+  @RepeatedTest(20)
+  void setOperationsShouldMatchTreeSet() {
+    for (String operation : List.of("union", "intersection", "difference")) {
+      var tree = createBST();
+      assumeTrue(supportsJoin(tree), "Tree does not support set operations");
+      var other = split(tree, Long.MIN_VALUE); // empty tree sharing the node factory
+
+      TreeSet<Long> expected = createRandomKeys();
+      TreeSet<Long> otherKeys = createRandomKeys();
+      insertKeysInRandomOrder(tree, new ArrayList<>(expected));
+      insertKeysInRandomOrder(other, new ArrayList<>(otherKeys));
+
+      switch (operation) {
+        case "union" -> expected.addAll(otherKeys);
+        case "intersection" -> expected.retainAll(otherKeys);
+        default -> expected.removeAll(otherKeys);
+      }
+      combine(operation, tree, other);
+
+      assertThatTree(tree).isValid().hasKeysInGivenOrder(new ArrayList<>(expected));
+      assertSpecificTreeInvariants(tree);
+      assertThat(other.getRoot(), is(nullValue()));
+    }
+  }
+
+  @RepeatedTest(20)
+  void deleteRangeShouldRemoveExactlyTheKeysInRange() {
+    List<Long> keysOrdered = createOrderedSequenceOfKeys();
+
+    var tree = createBST();
+    assumeTrue(tree instanceof AbstractBinarySearchTree || tree instanceof RedBlackTree, "Tree does not support range deletion");
+    insertKeysInRandomOrder(tree, keysOrdered);
+
+    TreeSet<Long> expected = new TreeSet<>(keysOrdered);
+    SubRange range = randomSubRange(expected);
+    if (tree instanceof AbstractBinarySearchTree map) {
+      map.deleteRange(range.from(), range.fromInclusive(), range.to(), range.toInclusive());
+    } else {
+      ((RedBlackTree) tree).deleteRange(range.from(), range.fromInclusive(), range.to(), range.toInclusive());
+    }
+
+    range.of(expected).clear();
+    assertThatTree(tree).isValid().hasKeysInGivenOrder(new ArrayList<>(expected));
+    assertSpecificTreeInvariants(tree);
+  }
+
+  @Test
+  void deleteRangeShouldRejectAFromKeyAfterTheToKey() {
+    List<Long> keysOrdered = createOrderedSequenceOfKeys();
+
+    var tree = createBST();
+    assumeTrue(tree instanceof AbstractBinarySearchTree || tree instanceof RedBlackTree, "Tree does not support range deletion");
+    insertKeysInRandomOrder(tree, keysOrdered);
+
+    long toKey = keysOrdered.size() / 2;
+    if (tree instanceof AbstractBinarySearchTree map) {
+      assertThrows(IllegalArgumentException.class, () -> map.deleteRange(toKey + 1, true, toKey, true));
+      assertThrows(IllegalArgumentException.class, () -> map.descendingMap().deleteRange(toKey + 1, false, toKey, false));
+    } else {
+      assertThrows(IllegalArgumentException.class, () -> ((RedBlackTree) tree).deleteRange(toKey + 1, true, toKey, true));
+    }
+    assertThatTree(tree).isValid().hasKeysInGivenOrder(keysOrdered);
+  }
+
+  @RepeatedTest(20)
+  void navigationShouldMatchTreeSetWithinSubMapBounds() {
+    TreeSet<Long> expected = new TreeSet<>();
+    AbstractBinarySearchTree map = createNavigableMapWithEvenKeys(expected);
+
+    for (int i = 0; i < 20; i++) {
+      SubRange range = randomSubRange(expected);
+      AbstractBinarySearchTree subMap = range.of(map);
+      NavigableSet<Long> expectedSubSet = range.of(expected);
+
+      assertThat(subMap.firstKey(), is(expectedSubSet.isEmpty() ? null : expectedSubSet.first()));
+      assertThat(subMap.lastKey(), is(expectedSubSet.isEmpty() ? null : expectedSubSet.last()));
+      for (long key = range.from() - 2; key <= range.to() + 2; key++) {
+        assertThat(subMap.lowerKey(key), is(expectedSubSet.lower(key)));
+        assertThat(subMap.floorKey(key), is(expectedSubSet.floor(key)));
+        assertThat(subMap.ceilingKey(key), is(expectedSubSet.ceiling(key)));
+        assertThat(subMap.higherKey(key), is(expectedSubSet.higher(key)));
+        assertThat(subMap.lowerKeyAsLong(key), is(orNoKey(expectedSubSet.lower(key))));
+        assertThat(subMap.floorKeyAsLong(key), is(orNoKey(expectedSubSet.floor(key))));
+        assertThat(subMap.ceilingKeyAsLong(key), is(orNoKey(expectedSubSet.ceiling(key))));
+        assertThat(subMap.higherKeyAsLong(key), is(orNoKey(expectedSubSet.higher(key))));
+      }
+    }
+  }
+
+  @RepeatedTest(20)
+  void pointLookupsShouldRespectSubMapBounds() {
+    TreeSet<Long> expected = new TreeSet<>();
+    AbstractBinarySearchTree map = createNavigableMapWithEvenKeys(expected);
+
+    SubRange range = randomSubRange(expected);
+    AbstractBinarySearchTree subMap = range.of(map);
+    NavigableSet<Long> expectedSubSet = range.of(expected);
+    for (long key = -2; key <= expected.last() + 3; key++) {
+      boolean contained = expectedSubSet.contains(key);
+      assertThat(subMap.containsKey(key), is(contained));
+      assertThat(subMap.containsKey(Long.valueOf(key)), is(contained));
+      assertThat(subMap.get(key) == null ? null : subMap.get(key).data(), is(contained ? key : null));
+      assertThat(subMap.getNode(key) == null ? null : subMap.getNode(key).data(), is(contained ? key : null));
+      assertThat(map.containsKey(key), is(expected.contains(key)));
+    }
+  }
+
+  @RepeatedTest(20)
+  void iteratorsShouldMatchTreeSetWithinSubMapBounds() {
+    TreeSet<Long> expected = new TreeSet<>();
+    AbstractBinarySearchTree map = createNavigableMapWithEvenKeys(expected);
+
+    for (int i = 0; i < 20; i++) {
+      SubRange range = randomSubRange(expected);
+      AbstractBinarySearchTree subMap = range.of(map);
+      NavigableSet<Long> expectedSubSet = range.of(expected);
+
+      List<Long> ascendingKeys = new ArrayList<>();
+      subMap.keySet().iterator().forEachRemaining(ascendingKeys::add);
+      assertThat(ascendingKeys, is(new ArrayList<>(expectedSubSet)));
+
+      List<Long> descendingKeys = new ArrayList<>();
+      subMap.descendingMap().entrySet().iterator().forEachRemaining(entry -> {
+        assertThat(entry.getValue().data(), is(entry.getKey()));
+        descendingKeys.add(entry.getKey());
+      });
+      assertThat(descendingKeys, is(new ArrayList<>(expectedSubSet.descendingSet())));
+
+      long[] expectedKeys = expectedSubSet.stream().mapToLong(Long::longValue).toArray();
+      long[] expectedDescendingKeys = expectedSubSet.descendingSet().stream().mapToLong(Long::longValue).toArray();
+      assertThat(subMap.keys().toArray(), is(expectedKeys));
+      assertThat(subMap.descendingKeys().toArray(), is(expectedDescendingKeys));
+      assertThat(subMap.descendingMap().keys().toArray(), is(expectedDescendingKeys));
+      assertThat(subMap.descendingMap().descendingKeys().toArray(), is(expectedKeys));
+
+      PrimitiveIterator.OfLong keyIterator = subMap.descendingMap().keyIterator();
+      for (long key : expectedDescendingKeys) {
+        assertThat(keyIterator.nextLong(), is(key));
+      }
+      assertThat(keyIterator.hasNext(), is(false));
+      PrimitiveIterator.OfLong descendingKeyIterator = subMap.descendingKeyIterator();
+      for (long key : expectedDescendingKeys) {
+        assertThat(descendingKeyIterator.nextLong(), is(key));
+      }
+      assertThat(descendingKeyIterator.hasNext(), is(false));
+    }
+  }
+
+  @RepeatedTest(20)
+  void parallelStreamsShouldMatchTreeSetWithinSubMapBounds() {
+    TreeSet<Long> expected = new TreeSet<>();
+    AbstractBinarySearchTree map = createNavigableMapWithEvenKeys(expected);
+
+    for (int i = 0; i < 20; i++) {
+      SubRange range = randomSubRange(expected);
+      AbstractBinarySearchTree subMap = range.of(map);
+      NavigableSet<Long> expectedSubSet = range.of(expected);
+
+      long[] expectedKeys = expectedSubSet.stream().mapToLong(Long::longValue).toArray();
+      long[] expectedDescendingKeys = expectedSubSet.descendingSet().stream().mapToLong(Long::longValue).toArray();
+      assertThat(subMap.keys().parallel().toArray(), is(expectedKeys));
+      assertThat(subMap.descendingKeys().parallel().toArray(), is(expectedDescendingKeys));
+      assertThat(subMap.keySet().parallelStream().toList(), is(new ArrayList<>(expectedSubSet)));
+      assertThat(subMap.descendingMap().entrySet().parallelStream().map(Map.Entry::getKey).toList(),
+          is(new ArrayList<>(expectedSubSet.descendingSet())));
+      assertThat(subMap.keys().parallel().sum(), is(expectedSubSet.stream().mapToLong(Long::longValue).sum()));
+    }
+  }
+
+  @RepeatedTest(20)
+  void clearOnViewsShouldRemoveTheKeysFromTheBackingTree() {
+    List<Long> keysOrdered = createOrderedSequenceOfKeys();
+
+    var tree = createBST();
+    assumeTrue(tree instanceof AbstractBinarySearchTree, "Tree is not a navigable map");
+    AbstractBinarySearchTree map = (AbstractBinarySearchTree) tree;
+    insertKeysInRandomOrder(tree, keysOrdered);
+
+    TreeSet<Long> expected = new TreeSet<>(keysOrdered);
+    long headKey = ThreadLocalRandom.current().nextLong(0, keysOrdered.size() + 1);
+    map.headMap(headKey).clear();
+    expected.headSet(headKey).clear();
+    assertThatTree(tree).isValid().hasKeysInGivenOrder(new ArrayList<>(expected));
+
+    long tailKey = ThreadLocalRandom.current().nextLong(headKey, keysOrdered.size() + 1);
+    map.tailMap(tailKey, false).descendingMap().keySet().clear();
+    expected.tailSet(tailKey, false).clear();
+    assertThatTree(tree).isValid().hasKeysInGivenOrder(new ArrayList<>(expected));
+    assertSpecificTreeInvariants(tree);
+    assertThat(map.tailMap(tailKey, false).isEmpty(), is(true));
+
+    map.entrySet().clear();
+    assertThat(tree.getRoot(), is(nullValue()));
+  }
+
+  @RepeatedTest(20)
+  void metricsListenerShouldCountOperationsComparisonsAndRebalancing() {
+    List<Long> keysOrdered = createOrderedSequenceOfKeys();
+
+    var tree = createBST();
+    AggregatingTreeMetricsListener metrics = new AggregatingTreeMetricsListener();
+    assumeTrue(metricsListener(tree, metrics), "Tree does not report metrics");
+
+    for (Long key : keysOrdered) {
+      tree.insertNode(key); // ascending keys force rebalancing trees to rebalance
+    }
+    tree.searchNode(-1);
+    for (Long key : keysOrdered) {
+      tree.searchNode(key);
+    }
+    for (int i = 0; i < keysOrdered.size(); i += 2) {
+      tree.deleteNode(keysOrdered.get(i));
+    }
+    tree.deleteNode(-1);
+
+    int size = keysOrdered.size();
+    assertThat(metrics.operations(TreeMetricsListener.Operation.INSERT), is((long) size));
+    assertThat(metrics.successfulOperations(TreeMetricsListener.Operation.INSERT), is((long) size));
+    assertThat(metrics.operations(TreeMetricsListener.Operation.SEARCH), is(size + 1L));
+    assertThat(metrics.successfulOperations(TreeMetricsListener.Operation.SEARCH), is((long) size));
+    assertThat(metrics.operations(TreeMetricsListener.Operation.DELETE), is((size + 1) / 2 + 1L));
+    assertThat(metrics.successfulOperations(TreeMetricsListener.Operation.DELETE), is((size + 1) / 2L));
+    assertThat(metrics.maxPathLength(TreeMetricsListener.Operation.INSERT) <= size, is(true));
+
+    boolean rebalancing = tree instanceof AvlTree || tree instanceof RedBlackTree;
+    assertThat(metrics.singleRotations() + metrics.doubleRotations() > 0, is(rebalancing && size > 2));
+    // red-black trees also count recoloring as rebalancing, which already happens with two keys
+    boolean recoloring = tree instanceof RedBlackTree && size > 1;
+    assertThat(metrics.rebalancedOperations(TreeMetricsListener.Operation.INSERT) > 0, is(rebalancing && size > 2 || recoloring));
+    assertThat(metrics.recolorCascades() > 0, is(recoloring));
+    assertThat(metrics.rebalancedOperations(TreeMetricsListener.Operation.SEARCH), is(0L));
+  }
+
+  @Test
+  void metricsListenerShouldReportComparisonsAndPathLengthsOnAFixedTree() {
+    var tree = createBST();
+    List<String> operations = new ArrayList<>();
+    assumeTrue(metricsListener(tree, (operation, comparisons, pathLength, successful, rebalanced) ->
+        operations.add(operation + " " + comparisons + " " + pathLength + " " + successful)), "Tree does not report metrics");
+
+    // Inserted in this order, the keys form a perfect tree without rotations in every tree variant:
+    //       4
+    //     2   6
+    //    1 3 5 7
+    for (long key : new long[]{4, 2, 6, 1, 3, 5, 7}) {
+      tree.insertNode(key);
+    }
+    tree.searchNode(4);
+    tree.searchNode(3);
+    tree.searchNode(8);
+    tree.deleteNode(2); // two children, unlinks the in-order successor 3 below 2
+    tree.deleteNode(9);
+    tree.deleteNode(4); // two children, unlinks the in-order successor 5 below 6
+    tree.deleteNode(1); // leaf below 3
+
+    assertThat(operations, is(List.of(
+        "INSERT 0 1 true",
+        "INSERT 1 2 true",
+        "INSERT 1 2 true",
+        "INSERT 2 3 true",
+        "INSERT 2 3 true",
+        "INSERT 2 3 true",
+        "INSERT 2 3 true",
+        "SEARCH 1 1 true",
+        "SEARCH 3 3 true",
+        "SEARCH 3 3 false",
+        "DELETE 2 2 true",
+        "DELETE 3 3 false",
+        "DELETE 1 2 true",
+        "DELETE 3 2 true")));
+  }
+
+  @RepeatedTest(20)
+  void reusedContextsShouldLeaveAValidBST() {
+    List<Long> keysOrdered = createOrderedSequenceOfKeys();
+
+    var tree = createBST();
+    assumeTrue(tree instanceof BinarySearchTreeIterative, "Tree does not accept caller-owned contexts");
+    BinarySearchTreeIterative iterativeTree = (BinarySearchTreeIterative) tree;
+    InsertionContext insertionContext = new InsertionContext();
+    DeletionContext deletionContext = new DeletionContext();
+
+    // ascending keys make paths as long as the tree in unbalanced trees
+    for (Long key : keysOrdered) {
+      Node node = iterativeTree.insertNode(key, insertionContext);
+      assertThat(insertionContext.insertedNode(), is(node));
+      assertThat(insertionContext.affectedPath().node(insertionContext.affectedPath().size() - 1), is(node));
+    }
+    TreeSet<Long> expected = new TreeSet<>(keysOrdered);
+    for (Long key : shuffle(keysOrdered).subList(0, keysOrdered.size() / 2)) {
+      Node deleted = iterativeTree.deleteNode(key, deletionContext);
+      assertThat(deleted, is(deletionContext.deletedNode()));
+      expected.remove(key);
+    }
+    assertThat(iterativeTree.deleteNode(-1, deletionContext), is(nullValue()));
+    assertThat(deletionContext.deletedNode(), is(nullValue()));
+
+    assertThatTree(tree).isValid().hasKeysInGivenOrder(new ArrayList<>(expected));
+    assertSpecificTreeInvariants(tree);
+  }
+
+  private static boolean metricsListener(BinarySearchTree tree, TreeMetricsListener listener) {
+    if (tree instanceof AbstractBinarySearchTree abstractTree) {
+      abstractTree.metricsListener(listener);
+      return true;
+    }
+    if (tree instanceof RedBlackTree redBlackTree) {
+      redBlackTree.metricsListener(listener);
+      return true;
+    }
+    if (tree instanceof BinarySearchTreeRecursive recursiveTree) {
+      recursiveTree.metricsListener(listener);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Bounds of a sub-map, applied the same way to a tree and to the {@link TreeSet} it is compared with.
+   */
+  private record SubRange(long from, boolean fromInclusive, long to, boolean toInclusive) {
+
+    AbstractBinarySearchTree of(AbstractBinarySearchTree map) {
+      return map.subMap(from, fromInclusive, to, toInclusive);
+    }
+
+    NavigableSet<Long> of(TreeSet<Long> keys) {
+      return keys.subSet(from, fromInclusive, to, toInclusive);
+    }
+  }
+
+  /**
+   * Picks a random sub-range whose bounds may fall between the given keys, on them or outside of them on both sides.
+   */
+  private static SubRange randomSubRange(TreeSet<Long> keys) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long max = keys.last() + 3;
+    long from = random.nextLong(-2, max);
+    long to = random.nextLong(from, max + 1);
+    return new SubRange(from, random.nextBoolean(), to, random.nextBoolean());
+  }
+
+  /**
+   * Creates a tree holding the even keys of {@link #createOrderedSequenceOfKeys()}, so that sub-range bounds also fall
+   * between keys, and adds the keys to expected.
+   */
+  private AbstractBinarySearchTree createNavigableMapWithEvenKeys(TreeSet<Long> expected) {
+    var tree = createBST();
+    assumeTrue(tree instanceof AbstractBinarySearchTree, "Tree is not a navigable map");
+    for (Long key : shuffle(createOrderedSequenceOfKeys())) {
+      tree.insertNode(key * 2);
+      expected.add(key * 2);
+    }
+    return (AbstractBinarySearchTree) tree;
+  }
+
+  private static long orNoKey(Long key) {
+    return key != null ? key : AbstractBinarySearchTree.NO_KEY;
+  }
+
+  private static TreeSet<Long> createRandomKeys() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int bound = random.nextInt(1, TEST_TREE_MAX_SIZE);
+    int count = random.nextInt(0, bound);
+    TreeSet<Long> keys = new TreeSet<>();
+    for (int i = 0; i < count; i++) {
+      keys.add(random.nextLong(bound));
+    }
+    return keys;
+  }
+
+  private static boolean supportsJoin(BinarySearchTree tree) {
+    return tree instanceof AvlTree || tree instanceof RedBlackTree;
+  }
+
+  private static BinarySearchTree split(BinarySearchTree tree, long key) {
+    if (tree instanceof AvlTree avlTree) {
+      return avlTree.split(key);
+    }
+    return ((RedBlackTree) tree).split(key);
+  }
+
+  private static BinarySearchTree join(BinarySearchTree left, long pivot, BinarySearchTree right) {
+    if (left instanceof AvlTree avlTree) {
+      return AvlTree.join(avlTree, pivot, (AvlTree) right);
+    }
+    return RedBlackTree.join((RedBlackTree) left, pivot, (RedBlackTree) right);
+  }
+
+  private static void combine(String operation, BinarySearchTree tree, BinarySearchTree other) {
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    if (tree instanceof AvlTree avlTree) {
+      switch (operation) {
+        case "union" -> avlTree.union((AvlTree) other, pool);
+        case "intersection" -> avlTree.intersection((AvlTree) other, pool);
+        default -> avlTree.difference((AvlTree) other, pool);
+      }
+    } else {
+      RedBlackTree redBlackTree = (RedBlackTree) tree;
+      switch (operation) {
+        case "union" -> redBlackTree.union((RedBlackTree) other, pool);
+        case "intersection" -> redBlackTree.intersection((RedBlackTree) other, pool);
+        default -> redBlackTree.difference((RedBlackTree) other, pool);
+      }
+    }
+  }
+
+  private static boolean parallelBulkLoad(BinarySearchTree tree, long[] keys) {
+    if (tree instanceof BinarySearchTreeIterative iterativeTree) {
+      iterativeTree.bulkLoad(keys, ForkJoinPool.commonPool());
+      return true;
+    }
+    if (tree instanceof RedBlackTree redBlackTree) {
+      redBlackTree.bulkLoad(keys, ForkJoinPool.commonPool());
+      return true;
+    }
+    return false;
+  }
+
+  private static boolean bulkLoad(BinarySearchTree tree, List<Long> keysOrdered, boolean useIterator) {
+    long[] keys = keysOrdered.stream().mapToLong(Long::longValue).toArray();
+    if (tree instanceof BinarySearchTreeIterative iterativeTree) {
+      if (useIterator) {
+        iterativeTree.bulkLoad(LongStream.of(keys).iterator(), keys.length);
+      } else {
+        iterativeTree.bulkLoad(keys);
+      }
+      return true;
+    }
+    if (tree instanceof RedBlackTree redBlackTree) {
+      if (useIterator) {
+        redBlackTree.bulkLoad(LongStream.of(keys).iterator(), keys.length);
+      } else {
+        redBlackTree.bulkLoad(keys);
+      }
+      return true;
+    }
+    if (tree instanceof PersistentAvlTree persistentTree) {
+      persistentTree.bulkLoad(keys);
+      return true;
+    }
+    return false;
+  }
+
   /**
    * Override this in tests for specific trees, e.g. AVL trees or red-black trees.
    *
@@ -36,6 +36,49 @@ public class BinaryTreeAssert {
     return this;
   }
 
+  public BinaryTreeAssert hasSubtreeSizesSetCorrectly() {
+    hasSubtreeSizesSetCorrectly(tree.getRoot());
+    return this;
+  }
+
+  public BinaryTreeAssert isAvlBalanced() {
+    isAvlBalanced(tree.getRoot());
+    return this;
+  }
+
+  private void isAvlBalanced(Node node) {
+    if (node == null) return;
+
+    int leftHeight = node.left() != null ? node.left().height() : -1;
+    int rightHeight = node.right() != null ? node.right().height() : -1;
+
+    int expectedHeight = 1 + Math.max(leftHeight, rightHeight);
+    if (node.height() != expectedHeight) {
+      throw new AssertionError(
+          "Height of node %d is %d (expected: %d)".formatted(node.data(), node.height(), expectedHeight));
+    }
+
+    int bf = rightHeight - leftHeight;
+    if (bf < -1 || bf > 1) {
+      throw new AssertionError(
+          "Balance factor (bf) of node %d is %d (expected: -1 <= bf <= 1)".formatted(node.data(), bf));
+    }
+
+    isAvlBalanced(node.left());
+    isAvlBalanced(node.right());
+  }
+
+  private int hasSubtreeSizesSetCorrectly(Node node) {
+    if (node == null) return 0;
+
+    int expectedSize = hasSubtreeSizesSetCorrectly(node.left()) + hasSubtreeSizesSetCorrectly(node.right()) + 1;
+    if (node.size() != expectedSize) {
+      throw new AssertionError(
+          "Size of node %d is %d (expected: %d)".formatted(node.data(), node.size(), expectedSize));
+    }
+    return expectedSize;
+  }
+
   private void hasAllParentsSetCorrectly(Node parent, Node node) {
     if (node == null) return;
 
@@ -0,0 +1,113 @@
+package no.cantara.binarytree;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static no.cantara.binarytree.BinaryTreeAssert.assertThatTree;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConcurrentAvlTreeTest {
+
+  @RepeatedTest(10)
+  void insertSearchAndDelete_randomKeys_matchesTreeSetAndStaysBalanced() {
+    ConcurrentAvlTree tree = new ConcurrentAvlTree();
+    TreeSet<Long> expected = new TreeSet<>();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    for (int i = 0; i < 5000; i++) {
+      long key = random.nextLong(-1000, 1000);
+      if (expected.add(key)) {
+        assertThat(tree.insertNode(key).data(), is(key));
+      } else {
+        expected.remove(key);
+        assertThat(tree.deleteNode(key).data(), is(key));
+      }
+    }
+
+    for (long key = -1001; key <= 1001; key++) {
+      Node node = tree.searchNode(key);
+      assertThat(node != null && node.data() == key, is(expected.contains(key)));
+    }
+    assertThat(keys(tree, TraversalRange.OPEN), is(List.copyOf(expected)));
+    assertThat(keys(tree, new TraversalRange(-500L, false, 500L, true)),
+        is(List.copyOf(expected.subSet(-500L, false, 500L, true))));
+    assertBalanced(tree);
+  }
+
+  @Test
+  void insertNode_ascendingKeys_heightIsLogarithmic() {
+    ConcurrentAvlTree tree = new ConcurrentAvlTree();
+    for (long key = 0; key < (1 << 16); key++) {
+      tree.insertNode(key);
+    }
+
+    assertThat(tree.getRoot().height(), is(16));
+    assertBalanced(tree);
+  }
+
+  @Test
+  void deleteNode_nodeWithTwoChildren_keepsRoutingNodeUntilChildIsGone() {
+    ConcurrentAvlTree tree = new ConcurrentAvlTree();
+    tree.insertNode(2);
+    tree.insertNode(1);
+    tree.insertNode(3);
+
+    assertThat(tree.deleteNode(2).data(), is(2L));
+    assertThat(tree.getRoot().data(), is(2L));
+    assertThat(tree.searchNode(2), is(nullValue()));
+    assertThat(tree.deleteNode(2), is(nullValue()));
+    assertThat(keys(tree, TraversalRange.OPEN), is(List.of(1L, 3L)));
+
+    assertThat(tree.insertNode(2), is(tree.getRoot()));
+    assertThrows(IllegalArgumentException.class, () -> tree.insertNode(2));
+    tree.deleteNode(2);
+    tree.deleteNode(1);
+    assertThat(tree.getRoot().data(), is(3L));
+    assertThat(tree.getRoot().parent(), is(nullValue()));
+    assertBalanced(tree);
+  }
+
+  @Test
+  void insertAndDelete_concurrentWriters_leaveEveryKeyInsertedOnce() throws Exception {
+    ConcurrentTreeHarness.insertAndDeleteWithConcurrentWriters(ConcurrentAvlTree::new,
+        tree -> keys(tree, TraversalRange.OPEN), ConcurrentAvlTreeTest::assertBalanced);
+  }
+
+  @Test
+  void search_concurrentRotations_alwaysFindsStableKeys() throws Exception {
+    // the writers keep rotating the tree under the readers
+    ConcurrentTreeHarness.searchWithConcurrentWriters(ConcurrentAvlTree::new, (tree, stableKeys) -> {
+    }, ConcurrentAvlTreeTest::assertBalanced);
+  }
+
+  private static void assertBalanced(ConcurrentAvlTree tree) {
+    assertThatTree(tree).hasAllParentsSetCorrectly();
+    assertBalanced(tree.getRoot());
+  }
+
+  private static int assertBalanced(Node node) {
+    if (node == null) {
+      return -1;
+    }
+    int leftHeight = assertBalanced(node.left());
+    int rightHeight = assertBalanced(node.right());
+    assertThat(node.height(), is(1 + Math.max(leftHeight, rightHeight)));
+    assertThat(Math.abs(leftHeight - rightHeight), lessThanOrEqualTo(1));
+    return node.height();
+  }
+
+  private static List<Long> keys(ConcurrentAvlTree tree, TraversalRange range) {
+    List<Long> keys = new ArrayList<>();
+    tree.traverseInOrder(range, (ctx, node) -> keys.add(node.data()));
+    return keys;
+  }
+}
@@ -0,0 +1,121 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.array.ArrayNodeFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+class ConcurrentBinarySearchTreeTest {
+
+  @Test
+  void navigation_randomKeys_matchesTreeSet() {
+    for (BinarySearchTree tree : List.of(new AvlTree(NodeFactory.defaultFactory()), new RedBlackTree(new ArrayNodeFactory()))) {
+      ConcurrentBinarySearchTree<BinarySearchTree> concurrent = new ConcurrentBinarySearchTree<>(tree);
+      TreeSet<Long> expected = new TreeSet<>();
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      for (int i = 0; i < 500; i++) {
+        long key = random.nextLong(2000);
+        if (expected.add(key)) {
+          concurrent.insertNode(key);
+        }
+      }
+
+      for (long key = -1; key <= 2001; key++) {
+        assertThat(concurrent.containsKey(key), is(expected.contains(key)));
+        assertThat(concurrent.floorKey(key), is(expected.floor(key)));
+        assertThat(concurrent.ceilingKey(key), is(expected.ceiling(key)));
+        assertThat(concurrent.lowerKey(key), is(expected.lower(key)));
+        assertThat(concurrent.higherKey(key), is(expected.higher(key)));
+        Map.Entry<Long, Node> floor = concurrent.floorEntry(key);
+        assertThat(floor == null ? null : floor.getKey(), is(expected.floor(key)));
+      }
+      assertThat(concurrent.optimisticReadFailures(), is(0L));
+    }
+  }
+
+  @Test
+  void searchNode_degenerateTree_fallsBackToReadLock() {
+    BinarySearchTreeIterative tree = new BinarySearchTreeIterative(NodeFactory.defaultFactory());
+    int size = 2 * ConcurrentBinarySearchTree.MAX_OPTIMISTIC_DEPTH;
+    for (long key = 0; key < size; key++) {
+      tree.insertNode(key);
+    }
+    ConcurrentBinarySearchTree<BinarySearchTreeIterative> concurrent = new ConcurrentBinarySearchTree<>(tree);
+
+    assertThat(concurrent.searchNode(size - 1).data(), is(size - 1L));
+    assertThat(concurrent.searchNode(0).data(), is(0L));
+    assertThat(concurrent.optimisticReadFailures(), is(1L));
+    assertThat(concurrent.withReadLock(t -> t.getRoot().data()), is(0L));
+  }
+
+  @Test
+  void reads_concurrentWriter_alwaysSeeStableKeys() throws Exception {
+    // even keys are never modified, the writer inserts and deletes odd keys and rotates the tree all the time
+    ConcurrentBinarySearchTree<AvlTree> concurrent = new ConcurrentBinarySearchTree<>(new AvlTree(new ArrayNodeFactory()));
+    int size = 10_000;
+    for (long key = 0; key < size; key += 2) {
+      concurrent.insertNode(key);
+    }
+    AtomicBoolean running = new AtomicBoolean(true);
+    CountDownLatch writing = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+    try {
+      Future<?> writer = executor.submit(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> inserted = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+          if (inserted.isEmpty() || random.nextBoolean()) {
+            long key = random.nextLong(size / 2) * 2 + 1;
+            if (!concurrent.containsKey(key)) {
+              concurrent.insertNode(key);
+              inserted.add(key);
+            }
+          } else {
+            concurrent.deleteNode(inserted.remove(random.nextInt(inserted.size())));
+          }
+          writing.countDown();
+        }
+        running.set(false);
+      });
+      List<Future<?>> readers = new ArrayList<>();
+      for (int r = 0; r < 4; r++) {
+        readers.add(executor.submit(() -> {
+          writing.await();
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          while (running.get()) {
+            long key = random.nextLong(size / 2) * 2;
+            assertThat(concurrent.searchNode(key) != null, is(true));
+            assertThat(concurrent.floorKey(key), is(key));
+            assertThat(concurrent.ceilingEntry(key).getKey(), is(key));
+            Long lower = concurrent.lowerKey(key);
+            assertThat(key == 0 ? lower == null : lower >= key - 2 && lower < key, is(true));
+          }
+          return null;
+        }));
+      }
+      writer.get(60, TimeUnit.SECONDS);
+      for (Future<?> reader : readers) {
+        reader.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      running.set(false);
+      executor.shutdownNow();
+    }
+
+    assertThat(concurrent.lowerKey(0), is(nullValue()));
+  }
+}
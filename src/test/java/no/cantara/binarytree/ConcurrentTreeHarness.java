@@ -0,0 +1,147 @@
+package no.cantara.binarytree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Multi-threaded scenarios shared by the tests of the thread-safe trees.
+ */
+final class ConcurrentTreeHarness {
+
+  private ConcurrentTreeHarness() {
+  }
+
+  /**
+   * Eight writers insert and delete random keys at the same time. Every writer owns the keys with its index modulo the
+   * number of writers, and all writers share the key space, so the final content of the tree is known.
+   *
+   * @param treeSupplier creates the empty tree under test
+   * @param keys         returns the keys of the tree in order
+   * @param postCheck    checks the tree once all writers are done
+   */
+  static <T extends BinarySearchTree> void insertAndDeleteWithConcurrentWriters(Supplier<T> treeSupplier,
+                                                                                Function<T, List<Long>> keys,
+                                                                                Consumer<T> postCheck) throws Exception {
+    int writers = 8;
+    int range = 4096;
+    T tree = treeSupplier.get();
+    List<TreeSet<Long>> owned = new ArrayList<>();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(writers);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int w = 0; w < writers; w++) {
+        int writer = w;
+        TreeSet<Long> ownKeys = new TreeSet<>();
+        owned.add(ownKeys);
+        futures.add(executor.submit(() -> {
+          start.await();
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int i = 0; i < 50_000; i++) {
+            long key = random.nextLong(range / writers) * writers + writer;
+            if (ownKeys.add(key)) {
+              tree.insertNode(key);
+            } else {
+              ownKeys.remove(key);
+              assertThat(tree.deleteNode(key).data(), is(key));
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    TreeSet<Long> expected = new TreeSet<>();
+    owned.forEach(expected::addAll);
+    assertThat(keys.apply(tree), is(List.copyOf(expected)));
+    postCheck.accept(tree);
+  }
+
+  /**
+   * Four readers search the even keys while two writers insert and delete odd keys. Even keys are never deleted, so
+   * every search must find its key however the writers restructure the tree.
+   *
+   * @param treeSupplier creates the empty tree under test
+   * @param readCheck    additional check run by the readers after every search, given the tree and the even keys
+   * @param postCheck    checks the tree once all writers are done
+   */
+  static <T extends BinarySearchTree> void searchWithConcurrentWriters(Supplier<T> treeSupplier,
+                                                                       BiConsumer<T, List<Long>> readCheck,
+                                                                       Consumer<T> postCheck) throws Exception {
+    T tree = treeSupplier.get();
+    int size = 4096;
+    List<Long> evenKeys = new ArrayList<>();
+    for (long key = 0; key < size; key += 2) {
+      evenKeys.add(key);
+    }
+    List<Long> shuffled = new ArrayList<>(evenKeys);
+    Collections.shuffle(shuffled);
+    shuffled.forEach(tree::insertNode);
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+    try {
+      List<Future<?>> writers = new ArrayList<>();
+      for (int w = 0; w < 2; w++) {
+        int writer = w;
+        writers.add(executor.submit(() -> {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int i = 0; i < 100_000; i++) {
+            long key = random.nextLong(size / 4) * 4 + 1 + 2 * writer;
+            if (tree.searchNode(key) == null) {
+              tree.insertNode(key);
+            } else {
+              tree.deleteNode(key);
+            }
+          }
+          return null;
+        }));
+      }
+      List<Future<?>> readers = new ArrayList<>();
+      for (int r = 0; r < 4; r++) {
+        readers.add(executor.submit(() -> {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          while (running.get()) {
+            long key = random.nextLong(size / 2) * 2;
+            assertThat(tree.searchNode(key).data(), is(key));
+            readCheck.accept(tree, evenKeys);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> writer : writers) {
+        writer.get(60, TimeUnit.SECONDS);
+      }
+      running.set(false);
+      for (Future<?> reader : readers) {
+        reader.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      running.set(false);
+      executor.shutdownNow();
+    }
+    postCheck.accept(tree);
+  }
+}
@@ -6,4 +6,9 @@ class DepthFirstTraversalIterativeTest extends DepthFirstTraversalTest {
   DepthFirstTraversal getTraversal(BinaryTree tree) {
     return new DepthFirstTraversalIterative(tree);
   }
+
+  @Override
+  DepthFirstTraversal getTraversalWithStatistics(BinaryTree tree) {
+    return new DepthFirstTraversalIterative(tree, true);
+  }
 }
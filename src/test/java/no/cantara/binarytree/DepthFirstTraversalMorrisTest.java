@@ -0,0 +1,120 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.array.ArrayNodeFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DepthFirstTraversalMorrisTest extends DepthFirstTraversalTest {
+
+  @Override
+  DepthFirstTraversal getTraversal(BinaryTree tree) {
+    return new DepthFirstTraversalMorris(tree);
+  }
+
+  @Override
+  DepthFirstTraversal getTraversalWithStatistics(BinaryTree tree) {
+    return new DepthFirstTraversalMorris(tree, true);
+  }
+
+  @Test
+  void traverseInOrder_stopAtEveryKey_restoresTree() {
+    BinarySearchTreeIterative tree = createRandomTree(NodeFactory.defaultFactory(), 200);
+    List<String> structure = structure(tree);
+    List<Long> keys = keys(tree);
+    List<TraversalRange> ranges = List.of(TraversalRange.OPEN,
+        new TraversalRange(keys.get(20), true, keys.get(150), false),
+        new TraversalRange(keys.get(20), false, keys.get(150), true));
+
+    for (TraversalRange range : ranges) {
+      for (long stopKey : keys) {
+        for (boolean reverse : new boolean[]{false, true}) {
+          List<Long> visited = new ArrayList<>();
+          Visitor<Long> visitor = (ctx, node) -> {
+            visited.add(node.data());
+            if (node.data() == stopKey) {
+              ctx.result(node.data()).stopTraversal();
+            }
+          };
+          DepthFirstTraversal traversal = getTraversal(tree);
+          TraversalSummary<Long> summary = reverse
+              ? traversal.traverseReverseInOrder(range, visitor)
+              : traversal.traverseInOrder(range, visitor);
+
+          boolean inRange = range.shouldVisit(tree.searchNode(stopKey));
+          assertThat(summary.result, is(inRange ? stopKey : null));
+          if (inRange) {
+            assertThat(visited.get(visited.size() - 1), is(stopKey));
+          }
+          assertThat(structure(tree), is(structure));
+        }
+      }
+    }
+  }
+
+  @Test
+  void traverseInOrder_visitorThrows_restoresTree() {
+    BinarySearchTreeIterative tree = createRandomTree(new ArrayNodeFactory(), 200);
+    List<String> structure = structure(tree);
+    long failKey = keys(tree).get(77);
+
+    assertThrows(IllegalStateException.class, () -> getTraversal(tree).traverseReverseInOrder(TraversalRange.OPEN, (ctx, node) -> {
+      if (node.data() == failKey) {
+        throw new IllegalStateException();
+      }
+    }));
+
+    assertThat(structure(tree), is(structure));
+  }
+
+  @Test
+  void traverseInOrder_degenerateTree_visitsAllNodesWithoutStack() {
+    int size = 200_000;
+    Node root = null;
+    for (long key = 0; key < size; key++) {
+      root = NodeFactory.defaultFactory().createNode(key).left(root);
+    }
+    Node treeRoot = root;
+    List<Long> keys = new ArrayList<>();
+
+    getTraversal(() -> treeRoot).traverseInOrder(node -> keys.add(node.data()));
+
+    assertThat(keys.size(), is(size));
+    for (int i = 0; i < size; i++) {
+      assertThat(keys.get(i), is((long) i));
+    }
+    assertThat(treeRoot.right(), is((Node) null));
+  }
+
+  private static BinarySearchTreeIterative createRandomTree(NodeFactory factory, int size) {
+    BinarySearchTreeIterative tree = new BinarySearchTreeIterative(factory);
+    Random random = new Random(size);
+    for (int i = 0; i < size; ) {
+      long key = random.nextInt(10 * size);
+      if (tree.searchNode(key) == null) {
+        tree.insertNode(key);
+        i++;
+      }
+    }
+    return tree;
+  }
+
+  private static List<Long> keys(BinaryTree tree) {
+    TestNodeVisitor visitor = new TestNodeVisitor();
+    new DepthFirstTraversalIterative(tree).traverseInOrder(visitor);
+    return visitor.getDataList();
+  }
+
+  private static List<String> structure(BinaryTree tree) {
+    List<String> structure = new ArrayList<>();
+    new DepthFirstTraversalIterative(tree).traversePreOrder(node -> structure.add(
+        node.data() + ":" + (node.left() != null ? node.left().data() : "-") + ":" + (node.right() != null ? node.right().data() : "-")));
+    return structure;
+  }
+}
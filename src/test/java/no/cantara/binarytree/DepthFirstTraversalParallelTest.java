@@ -0,0 +1,188 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.pojo.PojoNodeFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+
+import static no.cantara.binarytree.TestTree.emptyTree;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DepthFirstTraversalParallelTest {
+
+  private static final int TREE_SIZE = 20_000;
+
+  private static ForkJoinPool pool;
+
+  @BeforeAll
+  static void createPool() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterAll
+  static void shutdownPool() {
+    pool.shutdown();
+  }
+
+  @Test
+  void traverseWithListReducer_randomTree_matchesSequentialTraversalInEveryOrder() {
+    AvlTree tree = createTree(NodeFactory.defaultFactory(), new Random(42));
+    DepthFirstTraversal sequential = new DepthFirstTraversalIterative(tree);
+    DepthFirstTraversalParallel parallel = new DepthFirstTraversalParallel(tree, pool, 6, 0);
+    BinaryOperator<List<Long>> concat = (first, second) -> {
+      List<Long> list = new ArrayList<>(first);
+      list.addAll(second);
+      return list;
+    };
+
+    for (TraversalRange range : List.of(TraversalRange.OPEN, new TraversalRange(-1000L, true, 1000L, false))) {
+      assertThat(parallel.traversePreOrder(range, DepthFirstTraversalParallelTest::collect, concat).result,
+          is(sequential.traversePreOrder(range, DepthFirstTraversalParallelTest::collect).result));
+      assertThat(parallel.traversePostOrder(range, DepthFirstTraversalParallelTest::collect, concat).result,
+          is(sequential.traversePostOrder(range, DepthFirstTraversalParallelTest::collect).result));
+      assertThat(parallel.traverseInOrder(range, DepthFirstTraversalParallelTest::collect, concat).result,
+          is(sequential.traverseInOrder(range, DepthFirstTraversalParallelTest::collect).result));
+      assertThat(parallel.traverseReverseInOrder(range, DepthFirstTraversalParallelTest::collect, concat).result,
+          is(sequential.traverseReverseInOrder(range, DepthFirstTraversalParallelTest::collect).result));
+    }
+  }
+
+  @Test
+  void traverseWithSumReducer_sizeThreshold_sumsKeysWithinRange() {
+    AvlTree tree = createTree(new PojoNodeFactory(true), new Random(7));
+    TreeSet<Long> expected = new TreeSet<>();
+    tree.keySet().forEach(expected::add);
+    long expectedSum = expected.subSet(-5000L, false, 5000L, true).stream().mapToLong(Long::longValue).sum();
+
+    DepthFirstTraversalParallel parallel = new DepthFirstTraversalParallel(tree, pool, Integer.MAX_VALUE, 64);
+    Visitor<Long> sum = (ctx, node) -> ctx.result(ctx.result() == null ? node.data() : ctx.result() + node.data());
+    TraversalSummary<Long> summary = parallel.traverseInOrder(new TraversalRange(-5000L, false, 5000L, true), sum, Long::sum);
+
+    assertThat(summary.result, is(expectedSum));
+  }
+
+  @Test
+  void traverseWithNodeVisitor_randomTree_visitsEveryNodeOnce() {
+    AvlTree tree = createTree(NodeFactory.defaultFactory(), new Random(3));
+    Set<Long> visited = ConcurrentHashMap.newKeySet();
+    AtomicInteger visits = new AtomicInteger();
+
+    new DepthFirstTraversalParallel(tree).traversePostOrder(node -> {
+      visited.add(node.data());
+      visits.incrementAndGet();
+    });
+
+    assertThat(visits.get(), is(tree.size()));
+    assertThat(visited.size(), is(tree.size()));
+  }
+
+  @Test
+  void traversePostOrder_randomTree_visitsChildrenBeforeParent() {
+    AvlTree tree = createTree(NodeFactory.defaultFactory(), new Random(13));
+    Set<Long> visited = ConcurrentHashMap.newKeySet();
+    AtomicInteger parentsVisitedFirst = new AtomicInteger();
+
+    new DepthFirstTraversalParallel(tree, pool, 8, 0).traversePostOrder(node -> {
+      if ((node.left() != null && !visited.contains(node.left().data()))
+          || (node.right() != null && !visited.contains(node.right().data()))) {
+        parentsVisitedFirst.incrementAndGet();
+      }
+      visited.add(node.data());
+    });
+
+    assertThat(visited.size(), is(tree.size()));
+    assertThat(parentsVisitedFirst.get(), is(0));
+  }
+
+  @Test
+  void traverseWithStop_randomTree_findsNodeAndStopsOtherTasks() {
+    AvlTree tree = createTree(NodeFactory.defaultFactory(), new Random(11));
+    long searched = tree.keySet().stream().skip(TREE_SIZE / 3).findFirst().orElseThrow();
+    AtomicInteger visits = new AtomicInteger();
+    Visitor<Long> find = (ctx, node) -> {
+      visits.incrementAndGet();
+      if (node.data() == searched) {
+        ctx.result(node.data()).stopTraversal();
+      }
+    };
+
+    TraversalSummary<Long> summary = new DepthFirstTraversalParallel(tree, pool, 2, 0).traverseInOrder(TraversalRange.OPEN, find);
+
+    assertThat(summary.result, is(searched));
+    assertThat(visits.get(), lessThan(TREE_SIZE));
+  }
+
+  @Test
+  void traverseWithStatistics_randomTree_countsLikeSequentialTraversal() {
+    AvlTree tree = createTree(NodeFactory.defaultFactory(), new Random(5));
+    TraversalRange range = new TraversalRange(-3000L, true, 7000L, false);
+    Visitor<Long> count = (ctx, node) -> ctx.result(ctx.result() == null ? 1L : ctx.result() + 1);
+
+    TraversalStatistics sequential = new DepthFirstTraversalIterative(tree, true).traverseInOrder(range, count).statistics();
+    TraversalSummary<Long> summary = new DepthFirstTraversalParallel(tree, pool, 5, 0, true).traverseInOrder(range, count, Long::sum);
+    TraversalStatistics parallel = summary.statistics();
+
+    assertThat(summary.result, is(sequential.nodesVisited()));
+    assertThat(parallel.nodesVisited(), is(sequential.nodesVisited()));
+    assertThat(parallel.nodesTouched(), is(sequential.nodesTouched()));
+    assertThat(parallel.prunedLeft(), is(sequential.prunedLeft()));
+    assertThat(parallel.prunedRight(), is(sequential.prunedRight()));
+    assertThat(parallel.maxStackDepth(), is(greaterThan(5)));
+  }
+
+  @Test
+  void traverseInOrder_emptyTree_returnsNoResult() {
+    TraversalSummary<List<Long>> summary = new DepthFirstTraversalParallel(emptyTree(), pool, 4, 0)
+        .traverseInOrder(TraversalRange.OPEN, DepthFirstTraversalParallelTest::collect);
+    assertThat(summary.result, is(nullValue()));
+  }
+
+  @Test
+  void constructor_negativeThresholds_throwsException() {
+    BinaryTree tree = emptyTree();
+    assertThrows(IllegalArgumentException.class, () -> new DepthFirstTraversalParallel(tree, pool, -1, 0));
+    assertThrows(IllegalArgumentException.class, () -> new DepthFirstTraversalParallel(tree, pool, 0, -1));
+  }
+
+  @Test
+  void constructor_minForkSizeWithoutSizeAugmentation_throwsException() {
+    assertThrows(IllegalArgumentException.class, () -> new DepthFirstTraversalParallel(new AvlTree(new PojoNodeFactory(false)), pool, 4, 64));
+    assertThrows(IllegalArgumentException.class, () -> new DepthFirstTraversalParallel(emptyTree(), pool, 4, 64));
+    new DepthFirstTraversalParallel(new AvlTree(new PojoNodeFactory(true)), pool, 4, 64);
+  }
+
+  private static void collect(TraversalContext<List<Long>> ctx, Node node) {
+    if (ctx.result() == null) {
+      ctx.result(new ArrayList<>());
+    }
+    ctx.result().add(node.data());
+  }
+
+  private static AvlTree createTree(NodeFactory factory, Random random) {
+    AvlTree tree = new AvlTree(factory);
+    int size = 0;
+    while (size < TREE_SIZE) {
+      long key = random.nextInt(4 * TREE_SIZE) - 2 * TREE_SIZE;
+      if (tree.searchNode(key) == null) {
+        tree.insertNode(key);
+        size++;
+      }
+    }
+    return tree;
+  }
+}
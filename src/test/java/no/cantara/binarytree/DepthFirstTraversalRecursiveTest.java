@@ -6,4 +6,9 @@ class DepthFirstTraversalRecursiveTest extends DepthFirstTraversalTest {
   DepthFirstTraversal getTraversal(BinaryTree tree) {
     return new DepthFirstTraversalRecursive(tree);
   }
+
+  @Override
+  DepthFirstTraversal getTraversalWithStatistics(BinaryTree tree) {
+    return new DepthFirstTraversalRecursive(tree, true);
+  }
 }
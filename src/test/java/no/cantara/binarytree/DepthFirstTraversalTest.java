@@ -9,7 +9,11 @@ import static no.cantara.binarytree.TestTree.emptyTree;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
 
 public abstract class DepthFirstTraversalTest {
 
@@ -163,5 +167,70 @@ public abstract class DepthFirstTraversalTest {
         assertThat(ctx.result, Matchers.nullValue());
     }
 
+  @Test
+  void traverseInOrder_withoutStatistics_summaryHasNoStatistics() {
+    TraversalSummary<List<Long>> summary = getTraversal(new BinarySearchTestTreeWithValues()).traverseInOrder(TraversalRange.OPEN, new TestVisitor());
+    assertThat(summary.statistics(), is(nullValue()));
+  }
+
+  @Test
+  void traverseWithStatistics_sampleBST_countsNodesAndPrunedSubtrees() {
+    BinaryTree tree = new BinarySearchTestTreeWithValues();
+    List<TraversalRange> ranges = List.of(
+        TraversalRange.OPEN,
+        new TraversalRange(BinarySearchTestTreeWithValues.startKey, true, BinarySearchTestTreeWithValues.endKey, true),
+        new TraversalRange(BinarySearchTestTreeWithValues.startKey, false, null, false),
+        new TraversalRange(null, false, BinarySearchTestTreeWithValues.endKey, false));
+    for (TraversalRange range : ranges) {
+      // touched, visited, pruned left, pruned right when every reachable node is processed
+      long[] expected = new long[4];
+      countReachable(tree.getRoot(), range, expected);
+      DepthFirstTraversal traversal = getTraversalWithStatistics(tree);
+      List<TraversalSummary<List<Long>>> summaries = List.of(
+          traversal.traversePreOrder(range, new TestVisitor()),
+          traversal.traversePostOrder(range, new TestVisitor()),
+          traversal.traverseInOrder(range, new TestVisitor()),
+          traversal.traverseReverseInOrder(range, new TestVisitor()));
+
+      for (TraversalSummary<List<Long>> summary : summaries) {
+        TraversalStatistics statistics = summary.statistics();
+        assertThat(statistics.nodesVisited(), is(expected[1]));
+        assertThat(statistics.nodesTouched(), is(greaterThanOrEqualTo(expected[1])));
+        // traversals may end as soon as the range is exhausted
+        assertThat(statistics.nodesTouched(), is(lessThanOrEqualTo(expected[0])));
+        assertThat(statistics.prunedLeft(), is(lessThanOrEqualTo(expected[2])));
+        assertThat(statistics.prunedRight(), is(lessThanOrEqualTo(expected[3])));
+        assertThat(statistics.maxStackDepth(), is(greaterThan(0)));
+        assertThat(statistics.elapsed().isNegative(), is(false));
+        if (range == TraversalRange.OPEN) {
+          assertThat(statistics.nodesTouched(), is(expected[0]));
+          assertThat(statistics.prunedLeft() + statistics.prunedRight(), is(0L));
+        }
+      }
+    }
+  }
+
+  private static void countReachable(Node node, TraversalRange range, long[] counts) {
+    if (node == null) {
+      return;
+    }
+    counts[0]++;
+    if (range.shouldVisit(node)) {
+      counts[1]++;
+    }
+    if (range.shouldTraverseLeft(node)) {
+      countReachable(node.left(), range, counts);
+    } else if (node.left() != null) {
+      counts[2]++;
+    }
+    if (range.shouldTraverseRight(node)) {
+      countReachable(node.right(), range, counts);
+    } else if (node.right() != null) {
+      counts[3]++;
+    }
+  }
+
     abstract DepthFirstTraversal getTraversal(BinaryTree tree);
+
+  abstract DepthFirstTraversal getTraversalWithStatistics(BinaryTree tree);
 }
@@ -0,0 +1,89 @@
+package no.cantara.binarytree;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+class JfrEventsTest {
+
+  @Test
+  void jfrTreeMetricsListener_recordsEveryOperationWithoutThreshold() throws IOException {
+    RedBlackTree tree = new RedBlackTree(NodeFactory.defaultFactory());
+    tree.metricsListener(new JfrTreeMetricsListener(tree));
+
+    List<RecordedEvent> events = record(TreeOperationEvent.NAME, () -> {
+      for (long key = 0; key < 100; key++) {
+        tree.insertNode(key);
+      }
+      tree.searchNode(42);
+      tree.deleteNode(42);
+      tree.deleteNode(42);
+    });
+
+    assertThat(events, hasSize(103));
+    RecordedEvent insert = find(events, e -> e.getString("operation").equals("INSERT") && e.getLong("key") == 99);
+    assertThat(insert.getClass("treeType").getName(), is(RedBlackTree.class.getName()));
+    assertThat(insert.getInt("pathLength"), greaterThan(1));
+    assertThat(insert.getInt("recoloredNodes"), greaterThan(0));
+    assertThat(events.stream().mapToInt(e -> e.getInt("rotations")).sum(), greaterThan(0));
+    assertThat(find(events, e -> e.getString("operation").equals("SEARCH")).getBoolean("successful"), is(true));
+    assertThat(events.stream().filter(e -> e.getString("operation").equals("DELETE") && !e.getBoolean("successful")).count(), is(1L));
+  }
+
+  @Test
+  void bulkOperationsAndTraversals_recordEventsWithoutListener() throws IOException {
+    AvlTree tree = new AvlTree(NodeFactory.defaultFactory());
+    long[] keys = new long[1000];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = i;
+    }
+
+    List<RecordedEvent> bulkEvents = record(TreeBulkOperationEvent.NAME, () -> {
+      tree.bulkLoad(keys);
+      tree.deleteRange(100, true, 200, false);
+    });
+    List<RecordedEvent> traversalEvents = record(TraversalEvent.NAME,
+        () -> new DepthFirstTraversalIterative(tree, true).traverseInOrder(new TraversalRange(5L, true, 13L, false), (ctx, node) -> {
+        }));
+
+    assertThat(bulkEvents, hasSize(2));
+    assertThat(bulkEvents.get(0).getString("operation"), is("bulkLoad"));
+    assertThat(bulkEvents.get(0).getLong("inputKeys"), is(1000L));
+    assertThat(bulkEvents.get(1).getString("operation"), is("deleteRange"));
+    assertThat(traversalEvents, hasSize(1));
+    assertThat(traversalEvents.get(0).getString("range"), is("[5, 13)"));
+    assertThat(traversalEvents.get(0).getLong("nodesVisited"), is(8L));
+    assertThat(traversalEvents.get(0).getClass("traversalType").getName(), is(DepthFirstTraversalIterative.class.getName()));
+  }
+
+  private static List<RecordedEvent> record(String eventName, Runnable action) throws IOException {
+    Path file = Files.createTempFile("binary-tree", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(eventName).withThreshold(Duration.ZERO);
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static RecordedEvent find(List<RecordedEvent> events, Predicate<RecordedEvent> predicate) {
+    return events.stream().filter(predicate).findFirst().orElseThrow();
+  }
+}
@@ -0,0 +1,99 @@
+package no.cantara.binarytree;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LockFreeBinarySearchTreeTest {
+
+  @RepeatedTest(10)
+  void insertSearchAndDelete_randomKeys_matchesTreeSet() {
+    LockFreeBinarySearchTree tree = new LockFreeBinarySearchTree();
+    TreeSet<Long> expected = new TreeSet<>();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    for (int i = 0; i < 5000; i++) {
+      long key = random.nextLong(-1000, 1000);
+      if (expected.add(key)) {
+        assertThat(tree.insertNode(key).data(), is(key));
+      } else {
+        expected.remove(key);
+        assertThat(tree.deleteNode(key).data(), is(key));
+      }
+    }
+
+    for (long key = -1001; key <= 1001; key++) {
+      Node node = tree.searchNode(key);
+      assertThat(node != null && node.data() == key, is(expected.contains(key)));
+    }
+    assertThat(keys(tree, TraversalRange.OPEN), is(List.copyOf(expected)));
+    assertThat(keys(tree, new TraversalRange(-500L, true, 500L, false)),
+        is(List.copyOf(expected.subSet(-500L, true, 500L, false))));
+    assertThat(keys(tree, new TraversalRange(-500L, false, 500L, true)),
+        is(List.copyOf(expected.subSet(-500L, false, 500L, true))));
+  }
+
+  @Test
+  void traverseInOrder_extremeKeysAndEmptyRanges_visitsKeysWithinRange() {
+    LockFreeBinarySearchTree tree = new LockFreeBinarySearchTree();
+    for (long key : new long[]{Long.MAX_VALUE, 0, Long.MIN_VALUE, 7, 8}) {
+      tree.insertNode(key);
+    }
+
+    assertThat(keys(tree, TraversalRange.OPEN), is(List.of(Long.MIN_VALUE, 0L, 7L, 8L, Long.MAX_VALUE)));
+    assertThat(keys(tree, new TraversalRange(7L, true, 8L, true)), is(List.of(7L, 8L)));
+    assertThat(keys(tree, new TraversalRange(7L, false, 8L, false)), is(List.of()));
+    assertThat(keys(tree, new TraversalRange(Long.MAX_VALUE, false, null, true)), is(List.of()));
+    assertThat(keys(tree, new TraversalRange(null, true, Long.MAX_VALUE, true)), is(List.of(Long.MIN_VALUE, 0L, 7L, 8L, Long.MAX_VALUE)));
+
+    List<Long> preOrder = new ArrayList<>();
+    new DepthFirstTraversalRecursive(tree).traversePreOrder(LockFreeBinarySearchTree.leaves(TraversalRange.OPEN),
+        (ctx, node) -> preOrder.add(node.data()));
+    assertThat(preOrder, is(List.of(Long.MIN_VALUE, 0L, 7L, 8L, Long.MAX_VALUE)));
+  }
+
+  @Test
+  void insertNode_existingKey_throwsException() {
+    LockFreeBinarySearchTree tree = new LockFreeBinarySearchTree();
+    tree.insertNode(1);
+    assertThrows(IllegalArgumentException.class, () -> tree.insertNode(1));
+    assertThat(tree.deleteNode(2), is(nullValue()));
+    assertThat(tree.deleteNode(1).data(), is(1L));
+    assertThat(tree.deleteNode(1), is(nullValue()));
+    assertThat(keys(tree, TraversalRange.OPEN), is(List.of()));
+  }
+
+  @Test
+  void insertAndDelete_concurrentWriters_leaveEveryKeyInsertedOnce() throws Exception {
+    ConcurrentTreeHarness.insertAndDeleteWithConcurrentWriters(LockFreeBinarySearchTree::new,
+        tree -> keys(tree, TraversalRange.OPEN), tree -> {
+        });
+  }
+
+  @Test
+  void searchAndScan_concurrentWriters_alwaysSeeStableKeys() throws Exception {
+    ConcurrentTreeHarness.searchWithConcurrentWriters(LockFreeBinarySearchTree::new, (tree, stableKeys) -> {
+      Set<Long> scanned = new HashSet<>();
+      tree.traverseInOrder(TraversalRange.OPEN, (ctx, node) -> scanned.add(node.data()));
+      assertThat(scanned.containsAll(stableKeys), is(true));
+    }, tree -> {
+    });
+  }
+
+  private static List<Long> keys(LockFreeBinarySearchTree tree, TraversalRange range) {
+    List<Long> keys = new ArrayList<>();
+    tree.traverseInOrder(range, (ctx, node) -> keys.add(node.data()));
+    return keys;
+  }
+}
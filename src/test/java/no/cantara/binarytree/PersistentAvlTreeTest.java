@@ -0,0 +1,183 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.array.ArrayNodeFactory;
+import no.cantara.binarytree.pojo.PojoNodeFactory;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static no.cantara.binarytree.BinaryTreeAssert.assertThatTree;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PersistentAvlTreeTest extends BinarySearchTreeTest {
+
+  @Override
+  protected BinarySearchTree createBST() {
+    return new PersistentAvlTree(new PojoNodeFactory(true));
+  }
+
+  @Override
+  protected void assertSpecificTreeInvariants(BinarySearchTree tree) {
+    assertThatTree(tree).hasSubtreeSizesSetCorrectly().isAvlBalanced();
+  }
+
+  @RepeatedTest(10)
+  void snapshotsShouldKeepTheirKeysWhileTheTreeIsWritten() {
+    PersistentAvlTree tree = (PersistentAvlTree) createBST();
+    TreeSet<Long> expected = new TreeSet<>();
+    List<PersistentAvlTree> snapshots = new ArrayList<>();
+    List<List<Long>> snapshotKeys = new ArrayList<>();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    for (int i = 0; i < 2000; i++) {
+      long key = random.nextLong(500);
+      if (expected.add(key)) {
+        tree.insertNode(key);
+      } else {
+        expected.remove(key);
+        assertThat(tree.deleteNode(key).data(), is(key));
+      }
+      if (i % 100 == 0) {
+        snapshots.add(tree.snapshot());
+        snapshotKeys.add(List.copyOf(expected));
+      }
+    }
+
+    assertThat(tree.keys().boxed().toList(), is(List.copyOf(expected)));
+    assertThat(tree.size(), is(expected.size()));
+    for (int i = 0; i < snapshots.size(); i++) {
+      PersistentAvlTree snapshot = snapshots.get(i);
+      assertThat(snapshot.keys().boxed().toList(), is(snapshotKeys.get(i)));
+      assertThat(snapshot.size(), is(snapshotKeys.get(i).size()));
+      assertSpecificTreeInvariants(snapshot);
+    }
+  }
+
+  @Test
+  void writesShouldCopyOnlyThePathAndLeaveTheSnapshotUnchanged() {
+    PersistentAvlTree tree = new PersistentAvlTree(NodeFactory.defaultFactory());
+    long[] keys = new long[1023];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = 2L * i;
+    }
+    tree.bulkLoad(keys);
+    PersistentAvlTree snapshot = tree.snapshot();
+    Node oldRoot = snapshot.getRoot();
+
+    tree.insertNode(1);
+    tree.deleteNode(1000);
+
+    assertThat(snapshot.getRoot(), is(sameInstance(oldRoot)));
+    assertThat(snapshot.searchNode(1), is((Node) null));
+    assertThat(snapshot.searchNode(1000).data(), is(1000L));
+    assertThat(tree.searchNode(1000), is((Node) null));
+    // both keys are below the root key 1022, so the right subtree of the root is shared
+    assertThat(tree.getRoot(), is(not(sameInstance(oldRoot))));
+    assertThat(tree.getRoot().right(), is(sameInstance(oldRoot.right())));
+    assertThat(snapshot.keys().count(), is((long) keys.length));
+    assertThatTree(tree).isAvlBalanced();
+  }
+
+  @Test
+  void insertNodeShouldReturnTheNodeInTheNewTree() {
+    // ascending keys rotate once per level, 3-1-2 and 1-3-2 make the new leaf the pivot of a double rotation
+    long[][] insertionOrders = {LongStream.range(0, 100).toArray(), {3, 1, 2}, {1, 3, 2}};
+    for (long[] keys : insertionOrders) {
+      PersistentAvlTree tree = new PersistentAvlTree(NodeFactory.defaultFactory());
+      for (long key : keys) {
+        assertThat(tree.insertNode(key), is(sameInstance(tree.searchNode(key))));
+      }
+      assertThatTree(tree).isAvlBalanced();
+    }
+  }
+
+  @Test
+  void readsShouldSeeStableSnapshotsWithoutLocksWhileAWriterContinues() throws Exception {
+    // even keys are never modified, the writer inserts and deletes odd keys and rotates the tree all the time
+    PersistentAvlTree tree = new PersistentAvlTree(new PojoNodeFactory(true));
+    int size = 10_000;
+    for (long key = 0; key < size; key += 2) {
+      tree.insertNode(key);
+    }
+    AtomicBoolean running = new AtomicBoolean(true);
+    CountDownLatch writing = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+    try {
+      Future<?> writer = executor.submit(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> inserted = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+          if (inserted.isEmpty() || random.nextBoolean()) {
+            long key = random.nextLong(size / 2) * 2 + 1;
+            if (tree.searchNode(key) == null) {
+              tree.insertNode(key);
+              inserted.add(key);
+            }
+          } else {
+            tree.deleteNode(inserted.remove(random.nextInt(inserted.size())));
+          }
+          writing.countDown();
+        }
+        running.set(false);
+      });
+      List<Future<?>> readers = new ArrayList<>();
+      for (int r = 0; r < 4; r++) {
+        readers.add(executor.submit(() -> {
+          writing.await();
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          while (running.get()) {
+            long key = random.nextLong(size / 2) * 2;
+            assertThat(tree.searchNode(key).data(), is(key));
+
+            PersistentAvlTree snapshot = tree.snapshot();
+            List<Long> keys = snapshot.keys().boxed().toList();
+            assertThat(keys.size(), is(snapshot.size()));
+            assertThat(snapshot.searchNode(key).data(), is(key));
+            assertThatTree(snapshot).isValid().isAvlBalanced().hasSubtreeSizesSetCorrectly();
+            assertThat(snapshot.keys().boxed().toList(), is(keys));
+          }
+          return null;
+        }));
+      }
+      writer.get(60, TimeUnit.SECONDS);
+      for (Future<?> reader : readers) {
+        reader.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      running.set(false);
+      executor.shutdownNow();
+    }
+
+    assertThatTree(tree).isValid().isAvlBalanced();
+  }
+
+  @Test
+  void deletingAMissingKeyShouldKeepTheRoot() {
+    PersistentAvlTree tree = new PersistentAvlTree(NodeFactory.defaultFactory());
+    tree.insertNode(1);
+    Node root = tree.getRoot();
+
+    assertThat(tree.deleteNode(2), is((Node) null));
+    assertThat(tree.getRoot(), is(sameInstance(root)));
+  }
+
+  @Test
+  void indexedNodeFactoriesAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new PersistentAvlTree(new ArrayNodeFactory()));
+  }
+}
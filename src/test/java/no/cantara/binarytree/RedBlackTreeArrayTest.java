@@ -0,0 +1,11 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.array.ArrayNodeFactory;
+
+class RedBlackTreeArrayTest extends RedBlackTreeTest {
+
+  @Override
+  protected BinarySearchTree createBST() {
+    return new RedBlackTree(new ArrayNodeFactory(false, 64));
+  }
+}
@@ -0,0 +1,11 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.offheap.OffHeapNodeFactory;
+
+class RedBlackTreeOffHeapTest extends RedBlackTreeTest {
+
+  @Override
+  protected BinarySearchTree createBST() {
+    return new RedBlackTree(new OffHeapNodeFactory(false, 64));
+  }
+}
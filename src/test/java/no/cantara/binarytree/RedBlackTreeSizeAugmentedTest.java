@@ -0,0 +1,46 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.pojo.PojoNodeFactory;
+import org.junit.jupiter.api.RepeatedTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static no.cantara.binarytree.BinaryTreeAssert.assertThatTree;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RedBlackTreeSizeAugmentedTest extends BinarySearchTreeTest {
+
+  @Override
+  protected BinarySearchTree createBST() {
+    return new RedBlackTree(new PojoNodeFactory(true));
+  }
+
+  @Override
+  protected void assertSpecificTreeInvariants(BinarySearchTree tree) {
+    assertThatTree(tree)
+        .hasAllParentsSetCorrectly()
+        .hasSubtreeSizesSetCorrectly();
+  }
+
+  @RepeatedTest(20)
+  void rankAndSelectMatchSortedKeysWhileDeleting() {
+    List<Long> keysOrdered = createOrderedSequenceOfKeys();
+    BinarySearchTree tree = createBST();
+    insertKeysInRandomOrder(tree, keysOrdered);
+
+    List<Long> keysRemaining = new ArrayList<>(keysOrdered);
+    for (Long keyToDelete : shuffle(keysOrdered)) {
+      tree.deleteNode(keyToDelete);
+      keysRemaining.remove(keyToDelete);
+
+      assertEquals(keysRemaining.size(), BinarySearchTree.subtreeSize(tree.getRoot()));
+      int index = keysRemaining.size() / 2;
+      if (index < keysRemaining.size()) {
+        long key = keysRemaining.get(index);
+        assertEquals(index, BinarySearchTree.rank(tree.getRoot(), key));
+        assertEquals(key, BinarySearchTree.select(tree.getRoot(), index).data());
+      }
+    }
+  }
+}
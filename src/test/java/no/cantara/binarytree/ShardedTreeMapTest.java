@@ -0,0 +1,222 @@
+package no.cantara.binarytree;
+
+import no.cantara.binarytree.array.ArrayNodeFactory;
+import no.cantara.binarytree.pojo.PojoNodeFactory;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardedTreeMapTest {
+
+  @RepeatedTest(5)
+  void navigation_randomKeysAcrossShards_matchesTreeSet() {
+    ShardedTreeMap map = new ShardedTreeMap(new PojoNodeFactory(true), new long[]{-500, 0, 250, 600}, 64);
+    TreeSet<Long> expected = new TreeSet<>();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < 3000; i++) {
+      long key = random.nextLong(-1000, 1000);
+      if (expected.add(key)) {
+        assertThat(map.insertNode(key).data(), is(key));
+      } else {
+        expected.remove(key);
+        assertThat(map.deleteNode(key).data(), is(key));
+      }
+    }
+
+    assertThat(map.partitions().size(), greaterThan(5));
+    assertSameNavigation(map, expected);
+    assertSameNavigation(map.descendingMap(), expected.descendingSet());
+    assertSameNavigation(map.subMap(-300L, true, 300L, false), expected.subSet(-300L, true, 300L, false));
+    assertSameNavigation(map.headMap(0L, true).descendingMap(), expected.headSet(0L, true).descendingSet());
+    assertSameNavigation(map.descendingMap().subMap(700L, false, -700L, true), expected.descendingSet().subSet(700L, false, -700L, true));
+    assertSameNavigation(map.tailMap(250L, false), expected.tailSet(250L, false));
+  }
+
+  @Test
+  void clearAndIteratorRemove_viewSpanningShards_removeOnlyKeysInRange() {
+    ShardedTreeMap map = new ShardedTreeMap(new PojoNodeFactory(false), 8, 1000);
+    TreeSet<Long> expected = new TreeSet<>();
+    long step = Long.MAX_VALUE / 200;
+    for (long key = Long.MIN_VALUE; key < Long.MAX_VALUE - step; key += step) {
+      map.put(key, null);
+      expected.add(key);
+    }
+
+    map.subMap(-5 * step, true, 50 * step, true).clear();
+    expected.subSet(-5 * step, true, 50 * step, true).clear();
+    assertSameNavigation(map, expected);
+
+    Iterator<Long> keys = map.navigableKeySet().iterator();
+    Iterator<Long> expectedKeys = expected.iterator();
+    while (keys.hasNext()) {
+      long key = keys.next();
+      assertThat(key, is(expectedKeys.next()));
+      if ((key / step) % 3 == 0) {
+        keys.remove();
+        expectedKeys.remove();
+      }
+    }
+    assertSameNavigation(map, expected);
+    assertThat(map.pollFirstEntry().getKey(), is(expected.pollFirst()));
+    assertThat(map.pollLastEntry().getKey(), is(expected.pollLast()));
+    assertSameNavigation(map, expected);
+  }
+
+  @Test
+  void insertNode_fullShard_splitsAtMedian() {
+    ShardedTreeMap map = new ShardedTreeMap(new PojoNodeFactory(true), new long[0], 100);
+    LongStream.range(0, 1000).forEach(map::insertNode);
+
+    List<TraversalRange> partitions = map.partitions();
+    assertThat(partitions.size(), greaterThan(9));
+    assertThat(partitions.get(0).startKey(), is((Long) null));
+    assertThat(partitions.get(partitions.size() - 1).endKey(), is((Long) null));
+    for (int i = 1; i < partitions.size(); i++) {
+      assertThat(partitions.get(i).startKey(), is(partitions.get(i - 1).endKey()));
+    }
+    assertThat(map.size(), is(1000));
+    assertThat(map.keySet(), is(new TreeSet<>(LongStream.range(0, 1000).boxed().toList())));
+  }
+
+  @Test
+  void rebalance_hotAndColdRanges_splitsHotAndMergesColdShards() {
+    ShardedTreeMap map = new ShardedTreeMap(new PojoNodeFactory(false), new long[]{1000, 2000, 3000, 4000, 5000, 6000, 7000}, 100);
+    for (long key = 0; key < 8000; key += 40) {
+      map.insertNode(key);
+    }
+    map.rebalance();
+    for (int i = 0; i < 10_000; i++) {
+      map.getNode(ThreadLocalRandom.current().nextLong(7000, 8000));
+    }
+
+    map.rebalance();
+
+    List<TraversalRange> partitions = map.partitions();
+    assertThat(partitions.size(), lessThan(8));
+    assertThat(partitions.get(partitions.size() - 1).startKey(), greaterThan(7000L));
+    assertThat(map.size(), is(200));
+    assertThat(map.firstKey(), is(0L));
+    assertThat(map.lastKey(), is(7960L));
+  }
+
+  @Test
+  void insertAndDelete_concurrentWriters_leaveEveryKeyInsertedOnce() throws Exception {
+    int writers = 8;
+    ShardedTreeMap map = new ShardedTreeMap(new PojoNodeFactory(true), 4, 256);
+    List<TreeSet<Long>> owned = new ArrayList<>();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int w = 0; w < writers; w++) {
+        int writer = w;
+        TreeSet<Long> keys = new TreeSet<>();
+        owned.add(keys);
+        futures.add(executor.submit(() -> {
+          start.await();
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int i = 0; i < 30_000; i++) {
+            long key = random.nextLong(-2048, 2048) * writers + writer;
+            if (keys.add(key)) {
+              map.insertNode(key);
+            } else {
+              keys.remove(key);
+              assertThat(map.deleteNode(key).data(), is(key));
+            }
+            if (i % 5000 == 0) {
+              map.rebalance();
+            }
+          }
+          return null;
+        }));
+      }
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < 200; i++) {
+          Long previous = null;
+          for (long key : map.keySet()) {
+            assertThat(previous == null || previous < key, is(true));
+            previous = key;
+          }
+        }
+        return null;
+      }));
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    TreeSet<Long> expected = new TreeSet<>();
+    owned.forEach(expected::addAll);
+    assertSameNavigation(map, expected);
+  }
+
+  @Test
+  void descendingNavigation_shardStartingAtMinValue_visitsEveryKeyOnce() {
+    ShardedTreeMap map = new ShardedTreeMap(new PojoNodeFactory(true), new long[]{Long.MIN_VALUE, 0}, 64);
+    TreeSet<Long> expected = new TreeSet<>();
+    for (long key : new long[]{Long.MIN_VALUE, Long.MIN_VALUE + 1, -700, -1, 0, 300, 900}) {
+      map.insertNode(key);
+      expected.add(key);
+    }
+
+    assertSameNavigation(map, expected);
+    assertSameNavigation(map.descendingMap(), expected.descendingSet());
+    assertThat(map.lowerKey(Long.MIN_VALUE + 1), is(Long.MIN_VALUE));
+    assertThat(map.lowerKey(Long.MIN_VALUE), is((Long) null));
+  }
+
+  @Test
+  void constructor_invalidArguments_throwsException() {
+    assertThrows(IllegalArgumentException.class, () -> new ShardedTreeMap(new ArrayNodeFactory(), 4, 100));
+    assertThrows(IllegalArgumentException.class, () -> new ShardedTreeMap(new PojoNodeFactory(false), new long[]{3, 3}, 100));
+    assertThrows(IllegalArgumentException.class, () -> new ShardedTreeMap(new PojoNodeFactory(false), 4, 1));
+    ShardedTreeMap view = new ShardedTreeMap(new PojoNodeFactory(false), 4, 100).headMap(10L, false);
+    assertThrows(IllegalArgumentException.class, () -> view.insertNode(10));
+  }
+
+  private static void assertSameNavigation(NavigableMap<Long, Node> map, NavigableSet<Long> expected) {
+    assertThat(List.copyOf(map.keySet()), is(List.copyOf(expected)));
+    assertThat(map.size(), is(expected.size()));
+    assertThat(map.isEmpty(), is(expected.isEmpty()));
+    assertThat(List.copyOf(map.descendingKeySet()), is(List.copyOf(expected.descendingSet())));
+    if (!expected.isEmpty()) {
+      assertThat(map.firstKey(), is(expected.first()));
+      assertThat(map.lastKey(), is(expected.last()));
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    List<Long> probes = new ArrayList<>(expected);
+    for (int i = 0; i < 200; i++) {
+      probes.add(random.nextLong(-1100, 1100));
+    }
+    for (long key : probes) {
+      assertThat(map.containsKey(key), is(expected.contains(key)));
+      assertThat(map.floorKey(key), is(expected.floor(key)));
+      assertThat(map.ceilingKey(key), is(expected.ceiling(key)));
+      assertThat(map.lowerKey(key), is(expected.lower(key)));
+      assertThat(map.higherKey(key), is(expected.higher(key)));
+    }
+  }
+}
@@ -6,4 +6,9 @@ class SteppingDepthFirstTraversalIterativeTest extends DepthFirstTraversalTest {
   DepthFirstTraversal getTraversal(BinaryTree tree) {
     return new SteppingDepthFirstTraversalIterative(tree);
   }
+
+  @Override
+  DepthFirstTraversal getTraversalWithStatistics(BinaryTree tree) {
+    return new SteppingDepthFirstTraversalIterative(tree, true);
+  }
 }
@@ -0,0 +1,77 @@
+package no.cantara.binarytree.array;
+
+import no.cantara.binarytree.AvlTree;
+import no.cantara.binarytree.Node;
+import no.cantara.binarytree.offheap.OffHeapNodeFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArrayNodeFactoryTest {
+
+    @Test
+    void nodeStateIsStoredInArrays() {
+        ArrayNodeFactory factory = new ArrayNodeFactory(true, 2);
+        Node parent = factory.createNode(10);
+        Node child = factory.createNode(5);
+        Node other = factory.createNode(15);
+        parent.left(child).right(other).height(1).color(Node.RED).size(3);
+        child.parent(parent);
+
+        assertEquals(10, parent.data());
+        assertEquals(child, parent.left());
+        assertEquals(other, parent.right());
+        assertEquals(parent, child.parent());
+        assertNull(parent.parent());
+        assertEquals(1, parent.height());
+        assertEquals(Node.RED, parent.color());
+        assertEquals(Node.BLACK, factory.nilNode().color());
+        assertTrue(factory.nilNode().isNil());
+        assertEquals(3, parent.size());
+        assertEquals(1, child.size());
+        assertEquals(factory.indexOf(parent), factory.indexOf(factory.node(factory.indexOf(parent))));
+    }
+
+    @Test
+    void deletedNodesAreReused() {
+        ArrayNodeFactory factory = new ArrayNodeFactory(false, 16);
+        AvlTree tree = new AvlTree(factory);
+        List<Long> keys = new ArrayList<>(LongStream.range(0, 1000).boxed().toList());
+        Collections.shuffle(keys);
+        keys.forEach(tree::insertNode);
+        int capacity = factory.capacity();
+
+        Collections.shuffle(keys);
+        keys.forEach(tree::deleteNode);
+        assertEquals(0, factory.nodeCount());
+
+        keys.forEach(tree::insertNode);
+        assertEquals(1000, factory.nodeCount());
+        assertEquals(capacity, factory.capacity());
+        for (Long key : keys) {
+            assertEquals(key, tree.searchNode(key).data());
+        }
+    }
+
+    @Test
+    void sizeRequiresSizeAugmentedFactory() {
+        ArrayNodeFactory factory = new ArrayNodeFactory();
+        Node node = factory.createNode(1);
+        assertThrows(UnsupportedOperationException.class, node::size);
+        assertThrows(IllegalArgumentException.class, () -> node.height(Short.MAX_VALUE + 1));
+    }
+
+    @Test
+    void newNodesStartWithTheSameHeightAsOffHeapNodes() {
+        assertEquals(new OffHeapNodeFactory().createNode(1).height(), new ArrayNodeFactory().createNode(1).height());
+        assertEquals(new OffHeapNodeFactory().nilNode().height(), new ArrayNodeFactory().nilNode().height());
+    }
+}
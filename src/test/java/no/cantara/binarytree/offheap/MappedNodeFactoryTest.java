@@ -0,0 +1,171 @@
+package no.cantara.binarytree.offheap;
+
+import no.cantara.binarytree.AvlTree;
+import no.cantara.binarytree.DepthFirstTraversalIterative;
+import no.cantara.binarytree.Node;
+import no.cantara.binarytree.RedBlackTree;
+import no.cantara.binarytree.TraversalRange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedNodeFactoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void avlTreeSurvivesReopen() {
+        Path file = tempDir.resolve("avl.nodes");
+        List<Long> keys = shuffledKeys(5000);
+
+        try (MappedNodeFactory factory = MappedNodeFactory.open(file, true, 256)) {
+            AvlTree tree = new AvlTree(factory, TraversalRange.OPEN, true, factory.root());
+            keys.forEach(tree::insertNode);
+            for (long key = 0; key < 1000; key++) {
+                tree.deleteNode(key);
+            }
+            factory.force(tree);
+        }
+
+        try (MappedNodeFactory factory = MappedNodeFactory.open(file)) {
+            AvlTree tree = new AvlTree(factory, TraversalRange.OPEN, true, factory.root());
+            assertEquals(4000, factory.nodeCount());
+            assertEquals(4000, tree.size());
+            assertEquals(LongStream.range(1000, 5000).boxed().toList(), inOrderKeys(tree.getRoot()));
+            assertEquals(2500, tree.rank(3500));
+
+            // deleted slots are reused after reopen
+            long reservedBytes = factory.reservedBytes();
+            for (long key = 0; key < 1000; key++) {
+                tree.insertNode(key);
+            }
+            assertEquals(reservedBytes, factory.reservedBytes());
+            factory.root(tree.getRoot());
+        }
+
+        try (MappedNodeFactory factory = MappedNodeFactory.open(file, true, 256)) {
+            AvlTree tree = new AvlTree(factory, TraversalRange.OPEN, true, factory.root());
+            assertEquals(LongStream.range(0, 5000).boxed().toList(), inOrderKeys(tree.getRoot()));
+        }
+    }
+
+    @Test
+    void redBlackTreeSurvivesReopen() {
+        Path file = tempDir.resolve("rb.nodes");
+        List<Long> keys = shuffledKeys(2000);
+
+        try (MappedNodeFactory factory = MappedNodeFactory.open(file, false, 128)) {
+            RedBlackTree tree = new RedBlackTree(factory);
+            keys.forEach(tree::insertNode);
+            factory.force(tree);
+        }
+
+        try (MappedNodeFactory factory = MappedNodeFactory.open(file)) {
+            RedBlackTree tree = new RedBlackTree(factory, factory.root());
+            assertEquals(LongStream.range(0, 2000).boxed().toList(), inOrderKeys(tree.getRoot()));
+            assertEquals(1234L, tree.searchNode(1234).data());
+            assertNull(tree.searchNode(2000));
+        }
+    }
+
+    @Test
+    void openingWithDifferentLayoutFails() {
+        Path file = tempDir.resolve("layout.nodes");
+        MappedNodeFactory.open(file, false, 128).close();
+        assertThrows(IllegalStateException.class, () -> MappedNodeFactory.open(file, false, 256));
+        assertThrows(IllegalStateException.class, () -> MappedNodeFactory.open(file, true, 128));
+    }
+
+    @Test
+    void openingForeignFileFails() throws Exception {
+        Path file = tempDir.resolve("foreign.nodes");
+        Files.write(file, new byte[128]);
+        assertThrows(IllegalStateException.class, () -> MappedNodeFactory.open(file));
+    }
+
+    @Test
+    void openingEmptyFileFailsWithoutGrowingIt() throws Exception {
+        Path file = tempDir.resolve("empty.nodes");
+        Files.createFile(file);
+        assertThrows(IllegalStateException.class, () -> MappedNodeFactory.open(file));
+        assertEquals(0, Files.size(file));
+        MappedNodeFactory.open(file, false, 128).close();
+        MappedNodeFactory.open(file).close();
+    }
+
+    @Test
+    void interruptedCreationIsRedone() throws Exception {
+        Path file = tempDir.resolve("interrupted.nodes");
+        Files.write(file, new byte[MappedNodeFactory.HEADER_SIZE]);
+        assertThrows(IllegalStateException.class, () -> MappedNodeFactory.open(file));
+        try (MappedNodeFactory factory = MappedNodeFactory.open(file, false, 128)) {
+            RedBlackTree tree = new RedBlackTree(factory);
+            tree.insertNode(7);
+            factory.force(tree);
+        }
+        try (MappedNodeFactory factory = MappedNodeFactory.open(file)) {
+            assertEquals(7L, factory.root().data());
+        }
+    }
+
+    @Test
+    void crashWhileIdleAfterForceReopensForcedState() throws Exception {
+        Path file = tempDir.resolve("forced.nodes");
+        Path crashed = tempDir.resolve("forced-crashed.nodes");
+        try (MappedNodeFactory factory = MappedNodeFactory.open(file, true, 128)) {
+            AvlTree tree = new AvlTree(factory, TraversalRange.OPEN, true, factory.root());
+            shuffledKeys(1000).forEach(tree::insertNode);
+            factory.force(tree);
+            // the file as a crash would leave it, the factory is still open
+            Files.copy(file, crashed);
+        }
+        try (MappedNodeFactory factory = MappedNodeFactory.open(crashed)) {
+            AvlTree tree = new AvlTree(factory, TraversalRange.OPEN, true, factory.root());
+            assertEquals(1000, factory.nodeCount());
+            assertEquals(LongStream.range(0, 1000).boxed().toList(), inOrderKeys(tree.getRoot()));
+        }
+    }
+
+    @Test
+    void crashAfterWriteFollowingForceFails() throws Exception {
+        Path file = tempDir.resolve("dirty.nodes");
+        Path crashed = tempDir.resolve("dirty-crashed.nodes");
+        try (MappedNodeFactory factory = MappedNodeFactory.open(file, false, 128)) {
+            RedBlackTree tree = new RedBlackTree(factory);
+            tree.insertNode(7);
+            factory.force(tree);
+            tree.insertNode(8);
+            // the file as a crash would leave it, the factory is still open
+            Files.copy(file, crashed);
+            factory.force(tree);
+        }
+        assertThrows(IllegalStateException.class, () -> MappedNodeFactory.open(crashed));
+        assertThrows(IllegalStateException.class, () -> MappedNodeFactory.open(crashed, false, 128));
+        try (MappedNodeFactory factory = MappedNodeFactory.open(file)) {
+            assertEquals(List.of(7L, 8L), inOrderKeys(factory.root()));
+        }
+    }
+
+    private static List<Long> shuffledKeys(int count) {
+        List<Long> keys = new ArrayList<>(LongStream.range(0, count).boxed().toList());
+        Collections.shuffle(keys);
+        return keys;
+    }
+
+    private static List<Long> inOrderKeys(Node root) {
+        List<Long> keys = new ArrayList<>();
+        new DepthFirstTraversalIterative(() -> root).traverseInOrder(node -> keys.add(node.data()));
+        return keys;
+    }
+}
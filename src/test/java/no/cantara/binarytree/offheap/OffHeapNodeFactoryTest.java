@@ -0,0 +1,114 @@
+package no.cantara.binarytree.offheap;
+
+import no.cantara.binarytree.AvlTree;
+import no.cantara.binarytree.BinarySearchTree;
+import no.cantara.binarytree.BinarySearchTreeRecursive;
+import no.cantara.binarytree.Node;
+import no.cantara.binarytree.RedBlackTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapNodeFactoryTest {
+
+    @Test
+    void nodeStateIsStoredInSlots() {
+        OffHeapNodeFactory factory = new OffHeapNodeFactory(true, 4);
+        Node parent = factory.createNode(10);
+        Node child = factory.createNode(5);
+        parent.left(child).height(1).color(Node.RED).size(2);
+        child.parent(parent);
+
+        assertEquals(10, parent.data());
+        assertEquals(child, parent.left());
+        assertNull(parent.right());
+        assertEquals(parent, child.parent());
+        assertEquals(1, parent.height());
+        assertEquals(Node.RED, parent.color());
+        assertEquals(2, parent.size());
+        assertEquals(1, child.size());
+        assertNotEquals(parent, child);
+        assertFalse(parent.isNil());
+
+        Node nil = factory.nilNode();
+        assertTrue(nil.isNil());
+        assertEquals(Node.BLACK, nil.color());
+        assertEquals(0, nil.size());
+    }
+
+    @Test
+    void deletedSlotsAreReused() {
+        OffHeapNodeFactory factory = new OffHeapNodeFactory(false, 16);
+        AvlTree tree = new AvlTree(factory);
+        List<Long> keys = new ArrayList<>(LongStream.range(0, 1000).boxed().toList());
+        Collections.shuffle(keys);
+        keys.forEach(tree::insertNode);
+        assertEquals(1000, factory.nodeCount());
+        long reservedBytes = factory.reservedBytes();
+
+        Collections.shuffle(keys);
+        for (Long key : keys) {
+            Node deleted = tree.deleteNode(key);
+            assertEquals(key, deleted.data());
+        }
+        assertEquals(0, factory.nodeCount());
+        assertNull(tree.getRoot());
+
+        keys.forEach(tree::insertNode);
+        assertEquals(1000, factory.nodeCount());
+        assertEquals(reservedBytes, factory.reservedBytes());
+    }
+
+    @Test
+    void redBlackTreeReleasesRemovedAndNilNodes() {
+        OffHeapNodeFactory factory = new OffHeapNodeFactory(false, 16);
+        BinarySearchTree tree = new RedBlackTree(factory);
+        List<Long> keys = new ArrayList<>(LongStream.range(0, 500).boxed().toList());
+        Collections.shuffle(keys);
+        keys.forEach(tree::insertNode);
+        Collections.shuffle(keys);
+        keys.forEach(tree::deleteNode);
+        assertEquals(0, factory.nodeCount());
+    }
+
+    @Test
+    void recursiveTreeReleasesRemovedNodes() {
+        OffHeapNodeFactory factory = new OffHeapNodeFactory(false, 16);
+        BinarySearchTree tree = new BinarySearchTreeRecursive(factory);
+        List<Long> keys = new ArrayList<>(LongStream.range(0, 500).boxed().toList());
+        Collections.shuffle(keys);
+        keys.forEach(tree::insertNode);
+        Collections.shuffle(keys);
+        for (int i = 0; i < 250; i++) {
+            tree.deleteNode(keys.get(i));
+        }
+        assertEquals(250, factory.nodeCount());
+        for (int i = 250; i < 500; i++) {
+            tree.deleteNode(keys.get(i));
+        }
+        assertEquals(0, factory.nodeCount());
+    }
+
+    @Test
+    void deletingTwiceFails() {
+        OffHeapNodeFactory factory = new OffHeapNodeFactory();
+        Node node = factory.createNode(1);
+        node.delete();
+        assertThrows(IllegalStateException.class, node::delete);
+    }
+
+    @Test
+    void slotsPerChunkMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapNodeFactory(false, 1000));
+    }
+}